@@ -8,6 +8,17 @@ group = projectGroupId
 description = projectArtifactId
 version = projectVersion
 
+// Source set of JMH benchmarks, see task "jmh"
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName]
+    .extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName]
+    .extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     // Process options
     implementation("info.picocli:picocli:4.7.3")
@@ -34,6 +45,10 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.junit.platform:junit-platform-suite")
+
+    // Use JMH for benchmarks
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -95,6 +110,19 @@ task("testTaieTestSuite", type = Test::class) {
     }
 }
 
+task("jmh", type = JavaExec::class) {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks, " +
+            "JMH options can be given by -PjmhArgs=\"...\""
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // the benchmarks read the programs in src/test/resources
+    workingDir = rootProject.projectDir
+    args = (findProperty("jmhArgs") as String?)
+        ?.split(" ")?.filter { it.isNotBlank() }
+        ?: listOf()
+}
+
 // Automatically agree the Gradle ToS when running gradle with '--scan' option
 extensions.findByName("buildScan")?.withGroovyBuilder {
     setProperty("termsOfServiceUrl", "https://gradle.com/terms-of-service")
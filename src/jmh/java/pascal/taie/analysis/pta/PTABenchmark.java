@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of pointer analysis over the test programs
+ * in {@code src/test/resources/pta}, thus it runs without network access.
+ * The world of each program is built once per trial, and each
+ * invocation runs a fresh pointer analysis on it.
+ * <p>
+ * Each {@link #program} is given as {@code <dir>/<main class>}, and
+ * {@link #cs} is the context sensitivity variant of the analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PTABenchmark {
+
+    private static final String PTA_TEST_ROOT = "src/test/resources/pta";
+
+    @Param({
+            "basic/LinkedQueue",
+            "basic/RedBlackBST",
+            "contextsensitivity/LinkedQueue",
+            "contextsensitivity/TwoObject",
+            "contextsensitivity/TypeSens",
+    })
+    private String program;
+
+    @Param({"ci", "2-obj", "2-call"})
+    private String cs;
+
+    private AnalysisConfig config;
+
+    @Setup
+    public void setup() {
+        String dir = program.substring(0, program.lastIndexOf('/'));
+        String main = program.substring(program.lastIndexOf('/') + 1);
+        Main.buildWorld("-pp",
+                "-cp", PTA_TEST_ROOT,
+                "-cp", PTA_TEST_ROOT + "/" + dir,
+                "-m", main,
+                "-a", PointerAnalysis.ID);
+        // obtain the configuration of pointer analysis with default
+        // options, which are overwritten by the options of this benchmark
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        Map<String, Object> options = Maps.newMap();
+        options.put("cs", cs);
+        options.put("implicit-entries", false);
+        options.put("only-app", true);
+        options.put("distinguish-string-constants", "all");
+        new ConfigManager(configs).overwriteOptions(List.of(
+                new PlanConfig(PointerAnalysis.ID, new AnalysisOptions(options))));
+        config = configs.stream()
+                .filter(c -> c.getId().equals(PointerAnalysis.ID))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public PointerAnalysisResult analyze() {
+        return new PointerAnalysis(config).analyze();
+    }
+}
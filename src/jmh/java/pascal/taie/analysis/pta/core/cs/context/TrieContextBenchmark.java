@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TrieContext.Factory} with the pattern of k-limiting
+ * context selectors: each step appends an element (e.g., a call site)
+ * to a recently created context, and truncates the result to
+ * the {@link #limit} most recent elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieContextBenchmark {
+
+    private static final int STEPS = 65536;
+
+    /**
+     * Number of distinct context elements.
+     */
+    private static final int ELEMS = 8192;
+
+    /**
+     * Parent of each step is chosen from the contexts created by
+     * this many previous steps, so that contexts grow deep.
+     */
+    private static final int WINDOW = 16;
+
+    @Param({"1", "2", "3"})
+    private int limit;
+
+    private int[] parents;
+
+    private Object[] elems;
+
+    /**
+     * Factory which has created all contexts of the steps,
+     * so that replaying the steps only looks up existing contexts.
+     */
+    private TrieContext.Factory<Object> warmFactory;
+
+    private Context[] contexts;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        Object[] pool = new Object[ELEMS];
+        for (int i = 0; i < ELEMS; ++i) {
+            pool[i] = new Object();
+        }
+        parents = new int[STEPS];
+        elems = new Object[STEPS];
+        for (int i = 0; i < STEPS; ++i) {
+            parents[i] = i - random.nextInt(Math.min(i + 1, WINDOW));
+            elems[i] = pool[random.nextInt(ELEMS)];
+        }
+        warmFactory = new TrieContext.Factory<>();
+        contexts = replay(warmFactory);
+    }
+
+    private Context[] replay(TrieContext.Factory<Object> factory) {
+        Context[] result = new Context[STEPS + 1];
+        result[0] = factory.getEmptyContext();
+        for (int i = 0; i < STEPS; ++i) {
+            result[i + 1] = factory.append(result[parents[i]], elems[i], limit);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public Context[] appendNew() {
+        return replay(new TrieContext.Factory<>());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public Context[] appendExisting() {
+        return replay(warmFactory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void makeLastK(Blackhole bh) {
+        int k = limit - 1;
+        for (int i = 1; i <= STEPS; ++i) {
+            bh.consume(warmFactory.makeLastK(contexts[i], k));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.heap.Descriptor;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.util.Indexer;
+
+/**
+ * Creates context-sensitive objects for benchmarks without building
+ * the world, which {@link MapBasedCSManager} requires.
+ */
+public final class MockCSObjs {
+
+    private static final Descriptor BENCHMARK_DESC = () -> "BenchmarkObj";
+
+    private MockCSObjs() {
+    }
+
+    /**
+     * @return an indexer of {@code n} fresh context-sensitive objects,
+     * whose indexes are {@code 0} to {@code n - 1}.
+     */
+    public static Indexer<CSObj> make(int n) {
+        CSObj[] objs = new CSObj[n];
+        Context context = new TrieContext.Factory<>().getEmptyContext();
+        for (int i = 0; i < n; ++i) {
+            objs[i] = new CSObj(new MockObj(
+                    BENCHMARK_DESC, i, null, null, false), context, i);
+        }
+        return new Indexer<>() {
+
+            @Override
+            public int getIndex(CSObj o) {
+                return o.getIndex();
+            }
+
+            @Override
+            public CSObj getObject(int index) {
+                return objs[index];
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MockCSObjs;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SizeDistribution;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the kernel of points-to set propagation, i.e.,
+ * {@link PointsToSet#addAllDiff(PointsToSet)} followed by iterating
+ * the difference, over the points-to sets made by
+ * {@link PointsToSetFactory} with each {@code pts-storage}.
+ * The sizes of the sets follow {@link SizeDistribution#VAR_PTS}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointsToSetBenchmark {
+
+    private static final int SETS = 4096;
+
+    @Param({"heap", "off-heap"})
+    private String storage;
+
+    private Indexer<CSObj> objIndexer;
+
+    private PointsToSetFactory factory;
+
+    private CSObj[][] objs;
+
+    private PointsToSet[] lefts;
+
+    private PointsToSet[] rights;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        objIndexer = MockCSObjs.make(SizeDistribution.OBJECTS);
+        Map<String, Object> options = Maps.newMap();
+        options.put("pts-storage", storage);
+        factory = new PointsToSetFactory(objIndexer, new AnalysisOptions(options));
+        objs = new CSObj[SETS][];
+        lefts = new PointsToSet[SETS];
+        rights = new PointsToSet[SETS];
+        for (int i = 0; i < SETS; ++i) {
+            objs[i] = sampleObjects(random);
+            lefts[i] = makeSet(objs[i]);
+            rights[i] = makeSet(sampleObjects(random));
+        }
+    }
+
+    private CSObj[] sampleObjects(Random random) {
+        int[] indexes = SizeDistribution.sampleObjects(random,
+                SizeDistribution.VAR_PTS.sample(random));
+        CSObj[] result = new CSObj[indexes.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            result[i] = objIndexer.getObject(indexes[i]);
+        }
+        return result;
+    }
+
+    private PointsToSet makeSet(CSObj[] elems) {
+        PointsToSet set = factory.make();
+        for (CSObj obj : elems) {
+            set.addObject(obj);
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void addObject(Blackhole bh) {
+        for (CSObj[] elems : objs) {
+            bh.consume(makeSet(elems));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void addAllDiff(Blackhole bh) {
+        for (int i = 0; i < SETS; ++i) {
+            PointsToSet diff = lefts[i].copy().addAllDiff(rights[i]);
+            for (CSObj obj : diff) {
+                bh.consume(obj);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void contains(Blackhole bh) {
+        for (int i = 0; i < SETS; ++i) {
+            PointsToSet set = lefts[i];
+            for (CSObj obj : objs[(i + 1) % SETS]) {
+                bh.consume(set.contains(obj));
+            }
+        }
+    }
+}
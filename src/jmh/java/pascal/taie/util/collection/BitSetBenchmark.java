@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the set operations of {@link IBitSet}, including the
+ * operations between different kinds of bit sets. Each operation is
+ * applied to {@link #PAIRS} pairs of bit sets whose sizes follow
+ * {@link SizeDistribution#VAR_PTS}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitSetBenchmark {
+
+    private static final int PAIRS = 4096;
+
+    @Param({"regular", "sparse", "off-heap"})
+    private String left;
+
+    @Param({"regular", "sparse", "off-heap"})
+    private String right;
+
+    private OffHeapArena arena;
+
+    private IBitSet[] lefts;
+
+    private IBitSet[] rights;
+
+    @Setup
+    public void setup() {
+        arena = OffHeapArena.newDirectArena();
+        Random random = new Random(0);
+        lefts = new IBitSet[PAIRS];
+        rights = new IBitSet[PAIRS];
+        for (int i = 0; i < PAIRS; ++i) {
+            lefts[i] = newBitSet(left, random);
+            rights[i] = newBitSet(right, random);
+        }
+    }
+
+    private IBitSet newBitSet(String kind, Random random) {
+        IBitSet set = switch (kind) {
+            case "regular" -> new RegularBitSet();
+            case "sparse" -> new SparseBitSet();
+            case "off-heap" -> new OffHeapBitSet(arena);
+            default -> throw new IllegalArgumentException(
+                    "Illegal bit set kind: " + kind);
+        };
+        int size = SizeDistribution.VAR_PTS.sample(random);
+        for (int bit : SizeDistribution.sampleObjects(random, size)) {
+            set.set(bit);
+        }
+        return set;
+    }
+
+    @TearDown
+    public void tearDown() {
+        lefts = rights = null;
+        arena.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void or(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            IBitSet set = lefts[i].copy();
+            bh.consume(set.or(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void orDiff(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            bh.consume(lefts[i].copy().orDiff(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void andNot(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            IBitSet set = lefts[i].copy();
+            bh.consume(set.andNot(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void intersects(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            bh.consume(lefts[i].intersects(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void contains(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            bh.consume(lefts[i].contains(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void andCardinality(Blackhole bh) {
+        for (int i = 0; i < PAIRS; ++i) {
+            bh.consume(lefts[i].andCardinality(rights[i]));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HybridHashMap} (i.e., {@link AbstractHybridMap})
+ * against {@link HashMap} on {@link #MAPS} maps whose sizes follow
+ * {@link SizeDistribution#VAR_PTS}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HybridMapBenchmark {
+
+    private static final int MAPS = 4096;
+
+    @Param({"hybrid", "hash"})
+    private String impl;
+
+    private Object[][] keys;
+
+    private Map<Object, Object>[] maps;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        Object[] objects = new Object[SizeDistribution.OBJECTS];
+        for (int i = 0; i < objects.length; ++i) {
+            objects[i] = new Object();
+        }
+        keys = new Object[MAPS][];
+        // noinspection unchecked
+        maps = new Map[MAPS];
+        for (int i = 0; i < MAPS; ++i) {
+            int[] objs = SizeDistribution.sampleObjects(random,
+                    SizeDistribution.VAR_PTS.sample(random));
+            keys[i] = new Object[objs.length];
+            maps[i] = newMap();
+            for (int j = 0; j < objs.length; ++j) {
+                keys[i][j] = objects[objs[j]];
+                maps[i].put(keys[i][j], keys[i][j]);
+            }
+        }
+    }
+
+    private Map<Object, Object> newMap() {
+        return switch (impl) {
+            case "hybrid" -> new HybridHashMap<>();
+            case "hash" -> new HashMap<>();
+            default -> throw new IllegalArgumentException(
+                    "Illegal map implementation: " + impl);
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MAPS)
+    public void put(Blackhole bh) {
+        for (Object[] ks : keys) {
+            Map<Object, Object> map = newMap();
+            for (Object k : ks) {
+                map.put(k, k);
+            }
+            bh.consume(map);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MAPS)
+    public void get(Blackhole bh) {
+        for (int i = 0; i < MAPS; ++i) {
+            Map<Object, Object> map = maps[i];
+            for (Object k : keys[i]) {
+                bh.consume(map.get(k));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MAPS)
+    public void iterate(Blackhole bh) {
+        for (Map<Object, Object> map : maps) {
+            map.forEach((k, v) -> bh.consume(v));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.util.Indexer;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HybridBitSet} against {@link HybridHashSet} on
+ * {@link #SETS} sets whose sizes follow {@link SizeDistribution#VAR_PTS},
+ * so that most operations hit the small (array) representation and
+ * a few hit the large one, as in pointer analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HybridSetBenchmark {
+
+    private static final int SETS = 4096;
+
+    /**
+     * Number of membership queries per set.
+     */
+    private static final int QUERIES = 8;
+
+    private static final Integer[] OBJECTS = new Integer[SizeDistribution.OBJECTS];
+
+    static {
+        for (int i = 0; i < OBJECTS.length; ++i) {
+            OBJECTS[i] = i;
+        }
+    }
+
+    private static final Indexer<Integer> INDEXER = new Indexer<>() {
+
+        @Override
+        public int getIndex(Integer o) {
+            return o;
+        }
+
+        @Override
+        public Integer getObject(int index) {
+            return OBJECTS[index];
+        }
+    };
+
+    @Param({"bit", "hash"})
+    private String impl;
+
+    private Integer[][] elems;
+
+    private SetEx<Integer>[] lefts;
+
+    private SetEx<Integer>[] rights;
+
+    private Integer[] queries;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        elems = new Integer[SETS][];
+        for (int i = 0; i < SETS; ++i) {
+            elems[i] = sampleElements(random);
+        }
+        // noinspection unchecked
+        lefts = new SetEx[SETS];
+        // noinspection unchecked
+        rights = new SetEx[SETS];
+        for (int i = 0; i < SETS; ++i) {
+            lefts[i] = newSet();
+            rights[i] = newSet();
+            Collections.addAll(lefts[i], elems[i]);
+            Collections.addAll(rights[i], sampleElements(random));
+        }
+        queries = new Integer[SETS * QUERIES];
+        for (int i = 0; i < queries.length; ++i) {
+            queries[i] = OBJECTS[random.nextInt(OBJECTS.length)];
+        }
+    }
+
+    private static Integer[] sampleElements(Random random) {
+        int[] objs = SizeDistribution.sampleObjects(random,
+                SizeDistribution.VAR_PTS.sample(random));
+        Integer[] result = new Integer[objs.length];
+        for (int i = 0; i < objs.length; ++i) {
+            result[i] = OBJECTS[objs[i]];
+        }
+        return result;
+    }
+
+    private SetEx<Integer> newSet() {
+        return switch (impl) {
+            case "bit" -> new HybridBitSet<>(INDEXER, true);
+            case "hash" -> new HybridHashSet<>();
+            default -> throw new IllegalArgumentException(
+                    "Illegal set implementation: " + impl);
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void add(Blackhole bh) {
+        for (Integer[] es : elems) {
+            SetEx<Integer> set = newSet();
+            for (Integer e : es) {
+                set.add(e);
+            }
+            bh.consume(set);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void addAll(Blackhole bh) {
+        for (int i = 0; i < SETS; ++i) {
+            SetEx<Integer> set = lefts[i].copy();
+            bh.consume(set.addAll(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void addAllDiff(Blackhole bh) {
+        for (int i = 0; i < SETS; ++i) {
+            bh.consume(lefts[i].copy().addAllDiff(rights[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS * QUERIES)
+    public void contains(Blackhole bh) {
+        for (int i = 0, q = 0; i < SETS; ++i) {
+            SetEx<Integer> set = lefts[i];
+            for (int j = 0; j < QUERIES; ++j) {
+                bh.consume(set.contains(queries[q++]));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SETS)
+    public void iterate(Blackhole bh) {
+        for (SetEx<Integer> set : lefts) {
+            for (Integer e : set) {
+                bh.consume(e);
+            }
+        }
+    }
+}
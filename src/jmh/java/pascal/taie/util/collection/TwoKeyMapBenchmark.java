@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TwoKeyMap} created by {@link Maps#newTwoKeyMap()},
+ * in the way pointer analysis maps (object, field) pairs to instance
+ * fields: the first keys are {@link #KEYS} objects, and the number of
+ * second keys of each object follows {@link SizeDistribution#FIELD_PTS}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwoKeyMapBenchmark {
+
+    private static final int KEYS = 4096;
+
+    private Object[] key1s;
+
+    private Object[][] key2s;
+
+    private TwoKeyMap<Object, Object, Object> map;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        Object[] objects = new Object[SizeDistribution.OBJECTS];
+        for (int i = 0; i < objects.length; ++i) {
+            objects[i] = new Object();
+        }
+        key1s = new Object[KEYS];
+        key2s = new Object[KEYS][];
+        for (int i = 0; i < KEYS; ++i) {
+            key1s[i] = new Object();
+            int[] objs = SizeDistribution.sampleObjects(random,
+                    SizeDistribution.FIELD_PTS.sample(random));
+            key2s[i] = new Object[objs.length];
+            for (int j = 0; j < objs.length; ++j) {
+                key2s[i][j] = objects[objs[j]];
+            }
+        }
+        map = build();
+    }
+
+    private TwoKeyMap<Object, Object, Object> build() {
+        TwoKeyMap<Object, Object, Object> m = Maps.newTwoKeyMap();
+        for (int i = 0; i < KEYS; ++i) {
+            for (Object k2 : key2s[i]) {
+                m.put(key1s[i], k2, k2);
+            }
+        }
+        return m;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public TwoKeyMap<Object, Object, Object> put() {
+        return build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void get(Blackhole bh) {
+        for (int i = 0; i < KEYS; ++i) {
+            Object k1 = key1s[i];
+            for (Object k2 : key2s[i]) {
+                bh.consume(map.get(k1, k2));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void computeIfAbsent(Blackhole bh) {
+        for (int i = 0; i < KEYS; ++i) {
+            Object k1 = key1s[i];
+            for (Object k2 : key2s[i]) {
+                bh.consume(map.computeIfAbsent(k1, k2, (x, y) -> y));
+            }
+        }
+    }
+}
@@ -24,11 +24,16 @@ package pascal.taie;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.plugin.reflection.LogItem;
+import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.StringReps;
 import pascal.taie.language.natives.DefaultNativeModel;
 import pascal.taie.language.natives.EmptyNativeModel;
 import pascal.taie.language.natives.NativeModel;
+import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.ClassNameExtractor;
 import pascal.taie.util.collection.Streams;
@@ -129,4 +134,43 @@ public abstract class AbstractWorldBuilder implements WorldBuilder {
         }
         return classes;
     }
+
+    /**
+     * Obtains the classes in the reflection log (if given) of pointer analysis.
+     * These classes may only be referenced reflectively, thus world builders
+     * need to load them in advance.
+     * <p>
+     * TODO: this is a tentative solution. We should remove it and use other
+     *  way to load basic classes in the reflection log, so that world builder
+     *  does not depend on analyses to be executed.
+     *
+     * @param analyses the analyses to be executed
+     */
+    protected static List<String> getReflectionLogClasses(List<AnalysisConfig> analyses) {
+        List<String> classes = new ArrayList<>();
+        analyses.forEach(config -> {
+            if (config.getId().equals(PointerAnalysis.ID)) {
+                String path = config.getOptions().getString("reflection-log");
+                if (path != null) {
+                    LogItem.load(path).forEach(item -> {
+                        // add target class
+                        String target = item.target;
+                        String targetClass;
+                        if (target.startsWith("<")) {
+                            targetClass = StringReps.getClassNameOf(target);
+                        } else {
+                            targetClass = target;
+                        }
+                        if (StringReps.isArrayType(targetClass)) {
+                            targetClass = StringReps.getBaseTypeNameOf(target);
+                        }
+                        if (!PrimitiveType.isPrimitiveType(targetClass)) {
+                            classes.add(targetClass);
+                        }
+                    });
+                }
+            }
+        });
+        return classes;
+    }
 }
@@ -25,12 +25,15 @@ package pascal.taie;
 import pascal.taie.config.Options;
 import pascal.taie.frontend.cache.CachedIRBuilder;
 import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.IRStore;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.GlobalIndexer;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.natives.NativeModel;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.AbstractResultHolder;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -79,6 +82,20 @@ public final class World extends AbstractResultHolder
      */
     private transient IRBuilder irBuilder;
 
+    /**
+     * Memory-bounded store of method IRs, which is {@code null}
+     * if the IRs are not bounded.
+     * Notes: This field is {@code transient} as the IRs of a deserialized
+     * world cannot be rebuilt, thus they are never evicted.
+     */
+    private transient IRStore irStore;
+
+    /**
+     * Notes: This field is {@code transient} as the global indexes
+     * are not serialized, and the indexer is created on demand.
+     */
+    private transient volatile GlobalIndexer globalIndexer;
+
     private NativeModel nativeModel;
 
     private JMethod mainMethod;
@@ -140,6 +157,33 @@ public final class World extends AbstractResultHolder
         checkAndSet("irBuilder", irBuilder);
     }
 
+    @Nullable
+    public IRStore getIRStore() {
+        return irStore;
+    }
+
+    public void setIRStore(IRStore irStore) {
+        checkAndSet("irStore", irStore);
+    }
+
+    /**
+     * @return the indexer which assigns dense global indexes to
+     * the methods, fields, Vars and Stmts in this world.
+     */
+    public GlobalIndexer getGlobalIndexer() {
+        GlobalIndexer indexer = globalIndexer;
+        if (indexer == null) {
+            synchronized (this) {
+                indexer = globalIndexer;
+                if (indexer == null) {
+                    indexer = new GlobalIndexer();
+                    globalIndexer = indexer;
+                }
+            }
+        }
+        return indexer;
+    }
+
     public NativeModel getNativeModel() {
         return nativeModel;
     }
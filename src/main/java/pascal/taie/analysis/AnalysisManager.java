@@ -33,6 +33,7 @@ import pascal.taie.config.ConfigException;
 import pascal.taie.config.Plan;
 import pascal.taie.config.Scope;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuildStats;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
@@ -159,6 +160,7 @@ public class AnalysisManager {
                         c.storeResult(analysis.getId(), result);
                     }
                 });
+        analysis.onFinish();
     }
 
     private List<JClass> getClassScope() {
@@ -197,6 +199,7 @@ public class AnalysisManager {
                         ir.storeResult(analysis.getId(), result);
                     }
                 });
+        logger.debug(IRBuildStats.summary());
     }
 
     private List<JMethod> getMethodScope() {
@@ -244,7 +247,17 @@ public class AnalysisManager {
                     Analysis a = executedAnalyses.get(i);
                     if (a.getId().equals(id)) {
                         if (a instanceof ProgramAnalysis) {
+                            Object result = World.get().getResult(id);
                             World.get().clearResult(id);
+                            // release the resources held by the result,
+                            // e.g., off-heap points-to sets
+                            if (result instanceof AutoCloseable closeable) {
+                                try {
+                                    closeable.close();
+                                } catch (Exception e) {
+                                    logger.warn("Failed to close result of {}: {}", id, e);
+                                }
+                            }
                         } else if (a instanceof ClassAnalysis) {
                             getClassScope().forEach(c -> c.clearResult(id));
                         } else if (a instanceof MethodAnalysis) {
@@ -45,4 +45,12 @@ public abstract class ClassAnalysis<R> extends Analysis {
      * @return the analysis result for given class.
      */
     public abstract R analyze(JClass jclass);
+
+    /**
+     * Called after all classes in the scope have been analyzed.
+     * Subclasses can override this method to, e.g., flush the
+     * outputs written during the analysis.
+     */
+    public void onFinish() {
+    }
 }
@@ -25,25 +25,32 @@ package pascal.taie.analysis.graph.callgraph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.ir.proginfo.MemberRef;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.collection.Pair;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Builds call graph via class hierarchy analysis.
+ * <p>
+ * The reachable methods are discovered level by level (in BFS order).
+ * For each level (frontier), the callees of the call sites in the methods
+ * are resolved in parallel, and then the call edges are added to the call
+ * graph sequentially in the order of the frontier, thus the resulting call
+ * graph is the same as the one built by a sequential worklist algorithm.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
@@ -52,9 +59,11 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
     private ClassHierarchy hierarchy;
 
     /**
-     * Cache resolve results for interface/virtual invocations.
+     * Cache resolve results for interface/virtual invocations,
+     * keyed by (declaring class, subsignature) of the method references.
+     * This cache is shared by the threads that resolve call sites.
      */
-    private TwoKeyMap<JClass, MemberRef, Set<JMethod>> resolveTable;
+    private ConcurrentMap<Pair<JClass, Subsignature>, Set<JMethod>> resolveTable;
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
@@ -63,26 +72,42 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         hierarchy = World.get().getClassHierarchy();
-        resolveTable = Maps.newTwoKeyMap();
+        resolveTable = Maps.newConcurrentMap();
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
-        Queue<JMethod> workList = new ArrayDeque<>();
-        workList.add(entry);
-        while (!workList.isEmpty()) {
-            JMethod method = workList.poll();
-            callGraph.addReachableMethod(method);
-            callGraph.callSitesIn(method).forEach(invoke -> {
-                Set<JMethod> callees = resolveCalleesOf(invoke);
-                callees.forEach(callee -> {
-                    if (!callGraph.contains(callee)) {
-                        workList.add(callee);
-                    }
-                    callGraph.addEdge(new Edge<>(
-                            CallGraphs.getCallKind(invoke), invoke, callee));
-                });
-            });
+        callGraph.addReachableMethod(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            List<List<Edge<Invoke, JMethod>>> edges = frontier.parallelStream()
+                    .map(this::resolveCallEdgesOf)
+                    .toList();
+            List<JMethod> next = new ArrayList<>();
+            edges.forEach(es -> es.forEach(edge -> {
+                JMethod callee = edge.getCallee();
+                if (callGraph.addReachableMethod(callee)) {
+                    next.add(callee);
+                }
+                callGraph.addEdge(edge);
+            }));
+            frontier = next;
+        }
+        return new CompactCallGraph<>(callGraph);
+    }
+
+    /**
+     * Resolves the call edges from the call sites in {@code method}.
+     */
+    private List<Edge<Invoke, JMethod>> resolveCallEdgesOf(JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
         }
-        return callGraph;
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        method.getIR().invokes(true).forEach(invoke -> {
+            CallKind kind = CallGraphs.getCallKind(invoke);
+            resolveCalleesOf(invoke).forEach(callee ->
+                    edges.add(new Edge<>(kind, invoke, callee)));
+        });
+        return edges;
     }
 
     /**
@@ -94,7 +119,8 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             case INTERFACE, VIRTUAL -> {
                 MethodRef methodRef = callSite.getMethodRef();
                 JClass cls = methodRef.getDeclaringClass();
-                Set<JMethod> callees = resolveTable.get(cls, methodRef);
+                var key = new Pair<>(cls, methodRef.getSubsignature());
+                Set<JMethod> callees = resolveTable.get(key);
                 if (callees == null) {
                     callees = hierarchy.getAllSubclassesOf(cls)
                             .stream()
@@ -102,7 +128,10 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                             .map(c -> hierarchy.dispatch(c, methodRef))
                             .filter(Objects::nonNull) // filter out null callees
                             .collect(Collectors.toUnmodifiableSet());
-                    resolveTable.put(cls, methodRef, callees);
+                    Set<JMethod> prev = resolveTable.putIfAbsent(key, callees);
+                    if (prev != null) {
+                        callees = prev;
+                    }
                 }
                 yield callees;
             }
@@ -0,0 +1,423 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable and compact representation of a finished call graph.
+ * <p>
+ * Methods, call sites and edges are numbered by dense ids, and the relations
+ * among them are stored in int arrays in compressed sparse row (CSR) format:
+ * call site id to the ids of its edges (whose callees and kinds are stored
+ * in {@link #edgeCallees} and {@link #edgeKinds}), and callee id to the ids
+ * of its incoming edges. Plain {@link Edge}s are created on demand, while
+ * the instances of subclasses of {@link Edge}, which may carry additional
+ * information, are preserved as they are.
+ * <p>
+ * This class is suitable for the call graphs that do not change after
+ * construction, and it retains much less memory than the mutable
+ * implementations, e.g., {@link DefaultCallGraph}.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public class CompactCallGraph<CallSite, Method>
+        implements CallGraph<CallSite, Method> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final List<Method> entryMethods;
+
+    private final Method[] methods;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final CallSite[] callSites;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    /**
+     * Container method id of each call site, or -1 if the container
+     * is not a reachable method.
+     */
+    private final int[] callSiteContainers;
+
+    /**
+     * The call sites in method i are the ones whose ids are in
+     * [callSitesStart[i], callSitesStart[i + 1]).
+     */
+    private final int[] callSitesStart;
+
+    /**
+     * The edges out of call site i are the ones whose ids are in
+     * [edgesStart[i], edgesStart[i + 1]).
+     */
+    private final int[] edgesStart;
+
+    private final int[] edgeCallSites;
+
+    private final int[] edgeCallees;
+
+    private final byte[] edgeKinds;
+
+    /**
+     * The edges into method i are inEdges[inEdgesStart[i] .. inEdgesStart[i + 1]).
+     */
+    private final int[] inEdgesStart;
+
+    private final int[] inEdges;
+
+    /**
+     * Edges that are instances of subclasses of {@link Edge}.
+     */
+    private final Map<Integer, Edge<CallSite, Method>> specialEdges = Maps.newMap();
+
+    /**
+     * Creates an immutable compact copy of {@code callGraph}.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactCallGraph(CallGraph<CallSite, Method> callGraph) {
+        entryMethods = callGraph.entryMethods().toList();
+        // number methods
+        methods = (Method[]) callGraph.reachableMethods().toArray();
+        methodIds = Maps.newMap(methods.length);
+        for (int i = 0; i < methods.length; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        // number call sites, grouped by their container methods.
+        // The number of call sites is unknown in advance (call sites
+        // without edges are also numbered), so the map must be growable
+        callSiteIds = Maps.newMap();
+        List<CallSite> callSiteList = new ArrayList<>();
+        callSitesStart = new int[methods.length + 1];
+        for (int i = 0; i < methods.length; ++i) {
+            callSitesStart[i] = callSiteList.size();
+            for (CallSite callSite : callGraph.getCallSitesIn(methods[i])) {
+                if (!callSiteIds.containsKey(callSite)) {
+                    callSiteIds.put(callSite, callSiteList.size());
+                    callSiteList.add(callSite);
+                }
+            }
+        }
+        callSitesStart[methods.length] = callSiteList.size();
+        // some call sites (e.g., the artificial ones added by analyses)
+        // may not be returned by getCallSitesIn(), and we collect them
+        // from the incoming edges of methods
+        for (Method method : methods) {
+            callGraph.edgesInTo(method).forEach(edge -> {
+                CallSite callSite = edge.getCallSite();
+                if (!callSiteIds.containsKey(callSite)) {
+                    callSiteIds.put(callSite, callSiteList.size());
+                    callSiteList.add(callSite);
+                }
+            });
+        }
+        callSites = (CallSite[]) callSiteList.toArray();
+        callSiteContainers = new int[callSites.length];
+        for (int i = 0; i < callSites.length; ++i) {
+            Method container = callGraph.getContainerOf(callSites[i]);
+            callSiteContainers[i] = container != null ?
+                    methodIds.getOrDefault(container, -1) : -1;
+        }
+        // build out edges
+        int nEdges = 0;
+        for (CallSite callSite : callSites) {
+            nEdges += (int) callGraph.edgesOutOf(callSite).count();
+        }
+        edgesStart = new int[callSites.length + 1];
+        edgeCallSites = new int[nEdges];
+        edgeCallees = new int[nEdges];
+        edgeKinds = new byte[nEdges];
+        int[] inDegrees = new int[methods.length];
+        int e = 0;
+        for (int i = 0; i < callSites.length; ++i) {
+            edgesStart[i] = e;
+            for (Edge<CallSite, Method> edge :
+                    (Iterable<Edge<CallSite, Method>>)
+                            callGraph.edgesOutOf(callSites[i])::iterator) {
+                int callee = methodIds.get(edge.getCallee());
+                edgeCallSites[e] = i;
+                edgeCallees[e] = callee;
+                edgeKinds[e] = (byte) edge.getKind().ordinal();
+                if (edge.getClass() != Edge.class) {
+                    specialEdges.put(e, edge);
+                }
+                ++inDegrees[callee];
+                ++e;
+            }
+        }
+        edgesStart[callSites.length] = e;
+        // build in edges
+        inEdgesStart = new int[methods.length + 1];
+        for (int i = 0; i < methods.length; ++i) {
+            inEdgesStart[i + 1] = inEdgesStart[i] + inDegrees[i];
+        }
+        inEdges = new int[nEdges];
+        int[] next = Arrays.copyOf(inEdgesStart, methods.length);
+        for (int i = 0; i < nEdges; ++i) {
+            inEdges[next[edgeCallees[i]]++] = i;
+        }
+    }
+
+    private Edge<CallSite, Method> getEdge(int id) {
+        Edge<CallSite, Method> edge = specialEdges.get(id);
+        if (edge == null) {
+            edge = new Edge<>(KINDS[edgeKinds[id]],
+                    callSites[edgeCallSites[id]], methods[edgeCallees[id]]);
+        }
+        return edge;
+    }
+
+    private int getMethodId(Method method) {
+        return methodIds.getOrDefault(method, -1);
+    }
+
+    private int getCallSiteId(CallSite callSite) {
+        return callSiteIds.getOrDefault(callSite, -1);
+    }
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        int m = getMethodId(callee);
+        return m == -1 ? Set.of() : new ArrayView<>(inEdges,
+                inEdgesStart[m], inEdgesStart[m + 1],
+                edge -> callSites[edgeCallSites[edge]]);
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 ? Set.of() : new ArrayView<>(edgeCallees,
+                edgesStart[c], edgesStart[c + 1], callee -> methods[callee]);
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return callSitesIn(caller)
+                .flatMap(cs -> getCalleesOf(cs).stream())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return the container method of {@code callSite}, or {@code null}
+     * if the call site is not in this call graph or its container
+     * is not reachable.
+     */
+    @Override
+    public Method getContainerOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 || callSiteContainers[c] == -1 ?
+                null : methods[callSiteContainers[c]];
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        int m = getMethodId(method);
+        return m == -1 ? Set.of() : new ArrayView<>(null,
+                callSitesStart[m], callSitesStart[m + 1], c -> callSites[c]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        int c = getCallSiteId(callSite);
+        return c == -1 ? Stream.of() :
+                IntStream.range(edgesStart[c], edgesStart[c + 1])
+                        .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        int m = getMethodId(method);
+        return m == -1 ? Stream.of() :
+                IntStream.range(inEdgesStart[m], inEdgesStart[m + 1])
+                        .mapToObj(i -> getEdge(inEdges[i]));
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return IntStream.range(0, edgeCallees.length).mapToObj(this::getEdge);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edgeCallees.length;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        return methodIds.containsKey(method);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIds.containsKey(stmt);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Method> getResult(Stmt stmt) {
+        return getCalleesOf((CallSite) stmt);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(Method method) {
+        return contains(method);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The edges from the call sites whose containers are not reachable
+     * (see {@link #getContainerOf(Object)}) are excluded.
+     */
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        return getCallersOf(method)
+                .stream()
+                .filter(cs -> getContainerOf(cs) != null)
+                .map(cs -> new MethodEdge<>(getContainerOf(cs), method, cs))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        return callSitesIn(method)
+                .flatMap(cs -> getCalleesOf(cs)
+                        .stream()
+                        .map(callee -> new MethodEdge<>(method, callee, cs)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The containers of call sites that are not reachable
+     * (see {@link #getContainerOf(Object)}) are excluded.
+     */
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        return getCallersOf(node)
+                .stream()
+                .map(this::getContainerOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        return getCalleesOfM(node);
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return new ArrayView<>(null, 0, methods.length, m -> methods[m]) {
+            @Override
+            public boolean contains(Object o) {
+                return methodIds.containsKey(o);
+            }
+        };
+    }
+
+    /**
+     * Unmodifiable set view of the elements whose ids are
+     * {@code ids[from..to)}, or in {@code [from, to)} if {@code ids} is null.
+     */
+    private static class ArrayView<E> extends AbstractSet<E> {
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<E> idToElem;
+
+        private ArrayView(int[] ids, int from, int to, IntFunction<E> idToElem) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.idToElem = idToElem;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = ids != null ? ids[i] : i;
+                    ++i;
+                    return idToElem.apply(id);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import pascal.taie.World;
+import pascal.taie.ir.IRStore;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
@@ -49,6 +51,12 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
     public boolean addReachableMethod(JMethod method) {
         if (reachableMethods.add(method)) {
             if (!method.isAbstract()) {
+                // the call sites are held by this call graph,
+                // thus the IR must not be evicted
+                IRStore irStore = World.get().getIRStore();
+                if (irStore != null) {
+                    irStore.own(method);
+                }
                 method.getIR().forEach(stmt -> {
                     if (stmt instanceof Invoke invoke) {
                         callSiteToContainer.put(invoke, method);
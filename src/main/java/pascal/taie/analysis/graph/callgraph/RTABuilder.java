@@ -0,0 +1,253 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builds call graph via rapid type analysis (RTA), which is more precise
+ * than {@link CHABuilder} as it only dispatches the virtual calls on
+ * the types instantiated in the reachable methods.
+ * <p>
+ * Similar to {@link CHABuilder}, the reachable methods are discovered
+ * level by level, and the facts of each level (instantiated types and
+ * call sites) are collected and resolved in parallel. When new types
+ * become instantiated, the virtual call sites discovered in the previous
+ * levels are re-dispatched on the new types.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    /**
+     * Class of array objects, on which the methods called on arrays
+     * are dispatched.
+     */
+    private JClass arrayClass;
+
+    /**
+     * Instantiated (non-abstract) classes, in the order of instantiation.
+     */
+    private Set<JClass> instantiated;
+
+    /**
+     * Map from each class to the virtual call sites on the class, i.e.,
+     * the ones whose method references are declared in the class.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        hierarchy = World.get().getClassHierarchy();
+        arrayClass = hierarchy.getJREClass(ClassNames.OBJECT);
+        instantiated = Sets.newLinkedSet();
+        virtualCallSites = Maps.newMultiMap(Sets::newLinkedSet);
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        callGraph.addReachableMethod(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            List<Facts> facts = frontier.parallelStream()
+                    .map(this::collectFacts)
+                    .toList();
+            List<JClass> newTypes = new ArrayList<>();
+            facts.forEach(f -> f.types().forEach(t -> {
+                if (instantiated.add(t)) {
+                    newTypes.add(t);
+                }
+            }));
+            // dispatch the virtual call sites found in previous levels
+            // on new instantiated types
+            List<Edge<Invoke, JMethod>> edges = new ArrayList<>(
+                    newTypes.parallelStream()
+                            .flatMap(t -> dispatchOnNewType(t).stream())
+                            .toList());
+            // resolve the call sites found in the current level
+            facts.forEach(f -> f.virtualCalls().forEach(invoke ->
+                    virtualCallSites.put(
+                            invoke.getMethodRef().getDeclaringClass(), invoke)));
+            facts.parallelStream()
+                    .flatMap(f -> f.calls().stream())
+                    .map(this::resolveCallEdgesOf)
+                    .toList()
+                    .forEach(edges::addAll);
+            List<JMethod> next = new ArrayList<>();
+            edges.forEach(edge -> {
+                JMethod callee = edge.getCallee();
+                if (callGraph.addReachableMethod(callee)) {
+                    next.add(callee);
+                }
+                callGraph.addEdge(edge);
+            });
+            frontier = next;
+        }
+        return new CompactCallGraph<>(callGraph);
+    }
+
+    /**
+     * Facts of a reachable method.
+     *
+     * @param types        types instantiated in the method.
+     * @param calls        call sites in the method.
+     * @param virtualCalls virtual call sites in the method.
+     */
+    private record Facts(Set<JClass> types,
+                         List<Invoke> calls, List<Invoke> virtualCalls) {
+    }
+
+    private Facts collectFacts(JMethod method) {
+        if (method.isAbstract()) {
+            return new Facts(Set.of(), List.of(), List.of());
+        }
+        Set<JClass> types = Sets.newLinkedSet();
+        List<Invoke> calls = new ArrayList<>();
+        List<Invoke> virtualCalls = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                addType(types, newStmt.getRValue().getType());
+            } else if (stmt instanceof AssignLiteral assign &&
+                    assign.getRValue() instanceof ReferenceLiteral literal) {
+                // objects of reference literals (e.g., strings)
+                // are also instantiated
+                addType(types, literal.getType());
+            } else if (stmt instanceof Invoke invoke && !invoke.isDynamic()) {
+                calls.add(invoke);
+                if (invoke.isInterface() || invoke.isVirtual()) {
+                    virtualCalls.add(invoke);
+                }
+            }
+        }
+        return new Facts(types, calls, virtualCalls);
+    }
+
+    private void addType(Set<JClass> types, Type type) {
+        if (type instanceof ClassType classType) {
+            JClass jclass = classType.getJClass();
+            // jclass is null if the class is absent and
+            // phantom reference is not allowed
+            if (jclass != null && !jclass.isAbstract()) {
+                types.add(jclass);
+            }
+        } else if (type instanceof ArrayType && arrayClass != null) {
+            types.add(arrayClass);
+        }
+    }
+
+    /**
+     * Resolves the call edges from {@code callSite}
+     * on current instantiated types.
+     */
+    private List<Edge<Invoke, JMethod>> resolveCallEdgesOf(Invoke callSite) {
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        MethodRef methodRef = callSite.getMethodRef();
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        if (callSite.isInterface() || callSite.isVirtual()) {
+            JClass cls = methodRef.getDeclaringClass();
+            Collection<JClass> subclasses = hierarchy.getAllSubclassesOf(cls);
+            // iterate the smaller one of the cone and instantiated types
+            if (subclasses.size() < instantiated.size()) {
+                subclasses.stream()
+                        .filter(instantiated::contains)
+                        .forEach(c -> addEdge(edges, kind, callSite, c));
+            } else {
+                instantiated.stream()
+                        .filter(c -> hierarchy.isSubclass(cls, c))
+                        .forEach(c -> addEdge(edges, kind, callSite, c));
+            }
+        } else {
+            JMethod callee = methodRef.resolveNullable();
+            if (callee != null) {
+                edges.add(new Edge<>(kind, callSite, callee));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Dispatches the known virtual call sites on new instantiated type.
+     */
+    private List<Edge<Invoke, JMethod>> dispatchOnNewType(JClass type) {
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (JClass c : getAllSuperclassesOf(type)) {
+            virtualCallSites.get(c).forEach(callSite -> addEdge(edges,
+                    CallGraphs.getCallKind(callSite), callSite, type));
+        }
+        return edges;
+    }
+
+    private void addEdge(List<Edge<Invoke, JMethod>> edges, CallKind kind,
+                         Invoke callSite, JClass receiverClass) {
+        JMethod callee = hierarchy.dispatch(receiverClass, callSite.getMethodRef());
+        if (callee != null) {
+            edges.add(new Edge<>(kind, callSite, callee));
+        }
+    }
+
+    /**
+     * @return the given class, and all its superclasses and superinterfaces.
+     */
+    private static Set<JClass> getAllSuperclassesOf(JClass jclass) {
+        Set<JClass> result = Sets.newLinkedSet();
+        List<JClass> workList = new ArrayList<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.remove(workList.size() - 1);
+            if (result.add(c)) {
+                if (c.getSuperClass() != null) {
+                    workList.add(c.getSuperClass());
+                }
+                c.getInterfaces()
+                        .stream()
+                        .filter(Objects::nonNull)
+                        .forEach(workList::add);
+            }
+        }
+        return result;
+    }
+}
@@ -22,10 +22,12 @@
 
 package pascal.taie.analysis.graph.flowgraph;
 
+import pascal.taie.World;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IndexMap;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.TwoKeyMap;
 import pascal.taie.util.collection.Views;
@@ -42,13 +44,15 @@ public abstract class NodeManager implements Indexer<Node> {
 
     private final List<Node> nodes = new ArrayList<>(4096);
 
-    private final Map<Var, VarNode> var2Node = Maps.newMap(4096);
+    private final Map<Var, VarNode> var2Node = new IndexMap<>(
+            World.get().getGlobalIndexer().getVarIndexer(), 4096);
 
     private final TwoKeyMap<Obj, JField, InstanceFieldNode> iField2Node = Maps.newTwoKeyMap();
 
     private final Map<Obj, ArrayIndexNode> array2Node = Maps.newMap(1024);
 
-    private final Map<JField, StaticFieldNode> sField2Node = Maps.newMap(1024);
+    private final Map<JField, StaticFieldNode> sField2Node = new IndexMap<>(
+            World.get().getGlobalIndexer().getFieldIndexer(), 1024);
 
     @Nullable
     public VarNode getVarNode(Var var) {
@@ -27,7 +27,9 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ClassAnalysis;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRArchiveWriter;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.annotation.Annotation;
@@ -36,11 +38,15 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Modifier;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +57,11 @@ import java.util.stream.Collectors;
 
 /**
  * Dumps Tai-e IR for classes of input program.
+ * <p>
+ * By default, the IR of each class is dumped to a {@code .tir} text file.
+ * If option {@code format} is {@code binary}, the IR is dumped to a binary
+ * IR archive (see {@link IRArchiveWriter}), which consists of a few large
+ * files and can be loaded by {@link pascal.taie.ir.IRArchiveReader}.
  */
 public class IRDumper extends ClassAnalysis<Void> {
 
@@ -60,6 +71,8 @@ public class IRDumper extends ClassAnalysis<Void> {
 
     private static final String IR_DIR = "tir";
 
+    private static final String IR_ARCHIVE_DIR = "tir-archive";
+
     private static final String SUFFIX = ".tir";
 
     private static final String INDENT = "    ";
@@ -69,21 +82,66 @@ public class IRDumper extends ClassAnalysis<Void> {
      */
     private final File dumpDir;
 
+    /**
+     * Writer of binary IR archive, which is {@code null} if
+     * the IR is dumped in text format.
+     */
+    @Nullable
+    private final IRArchiveWriter archiveWriter;
+
     public IRDumper(AnalysisConfig config) {
         super(config);
-        dumpDir = new File(World.get().getOptions().getOutputDir(), IR_DIR);
-        if (!dumpDir.exists()) {
-            dumpDir.mkdirs();
+        File outputDir = World.get().getOptions().getOutputDir();
+        String format = getOptions().getString("format");
+        switch (format) {
+            case "text" -> {
+                dumpDir = new File(outputDir, IR_DIR);
+                if (!dumpDir.exists()) {
+                    dumpDir.mkdirs();
+                }
+                archiveWriter = null;
+            }
+            case "binary" -> {
+                dumpDir = new File(outputDir, IR_ARCHIVE_DIR);
+                try {
+                    archiveWriter = new IRArchiveWriter(
+                            dumpDir, getOptions().getInt("shards"));
+                } catch (IOException e) {
+                    throw new AnalysisException(
+                            "Failed to create IR archive in " + dumpDir, e);
+                }
+            }
+            default -> throw new ConfigException(
+                    "Unknown IR dump format: " + format);
         }
         logger.info("Dumping IR in {}", dumpDir.getAbsolutePath());
     }
 
     @Override
     public Void analyze(JClass jclass) {
-        new Dumper(dumpDir, jclass).dump();
+        if (archiveWriter != null) {
+            try {
+                archiveWriter.write(jclass);
+            } catch (IOException e) {
+                logger.warn("Failed to dump class {}", jclass, e);
+            }
+        } else {
+            new Dumper(dumpDir, jclass).dump();
+        }
         return null;
     }
 
+    @Override
+    public void onFinish() {
+        if (archiveWriter != null) {
+            try {
+                archiveWriter.close();
+            } catch (IOException e) {
+                logger.error("Failed to write IR archive in {}", dumpDir, e);
+            }
+        }
+    }
+
     private static class Dumper {
 
         private final File dumpDir;
@@ -99,8 +157,8 @@ public class IRDumper extends ClassAnalysis<Void> {
 
         private void dump() {
             String fileName = jclass.getName() + SUFFIX;
-            try (PrintStream out = new PrintStream(new FileOutputStream(
-                    new File(dumpDir, fileName)))) {
+            try (PrintStream out = new PrintStream(new BufferedOutputStream(
+                    new FileOutputStream(new File(dumpDir, fileName))))) {
                 this.out = out;
                 dumpClassDeclaration();
                 out.println(" {");
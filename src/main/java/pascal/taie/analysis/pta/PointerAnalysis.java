@@ -37,6 +37,7 @@ import pascal.taie.analysis.pta.plugin.ClassInitializer;
 import pascal.taie.analysis.pta.plugin.CompositePlugin;
 import pascal.taie.analysis.pta.plugin.EntryPointHandler;
 import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.plugin.PluginProfiler;
 import pascal.taie.analysis.pta.plugin.ReferenceHandler;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
 import pascal.taie.analysis.pta.plugin.ThreadHandler;
@@ -48,6 +49,7 @@ import pascal.taie.analysis.pta.plugin.natives.NativeModeller;
 import pascal.taie.analysis.pta.plugin.reflection.ReflectionAnalysis;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
 import pascal.taie.analysis.pta.toolkit.CollectionMethods;
+import pascal.taie.analysis.pta.toolkit.PreAnalysisCache;
 import pascal.taie.analysis.pta.toolkit.mahjong.Mahjong;
 import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
 import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
@@ -57,6 +59,8 @@ import pascal.taie.config.ConfigException;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
@@ -65,6 +69,10 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
     public static final String ID = "pta";
 
+    private static final String PLUGIN_PROFILE_FILE = "pta-plugin-profile.json";
+
+    private static final String PRE_TELEMETRY_FILE = "pta-pre-telemetry.csv";
+
     public PointerAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -81,20 +89,28 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
                 selector = ContextSelectorFactory.makeSelectiveSelector(cs,
                         new CollectionMethods(World.get().getClassHierarchy()).get());
             } else {
-                // run context-insensitive analysis as pre-analysis
-                PointerAnalysisResult preResult = runAnalysis(heapModel,
-                        ContextSelectorFactory.makeCISelector());
+                // run context-insensitive analysis as pre-analysis,
+                // unless the result of advanced analysis is cached
+                HeapModel preHeapModel = heapModel;
+                PreAnalysisCache cache = new PreAnalysisCache(options,
+                        () -> runAnalysis(preHeapModel,
+                                ContextSelectorFactory.makeCISelector(),
+                                PRE_TELEMETRY_FILE));
                 if (advanced.startsWith("scaler")) {
-                    selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeGuidedSelector(Scaler.run(preResult, advanced)),
-                            "Scaler", Level.INFO);
+                    selector = ContextSelectorFactory.makeGuidedSelector(
+                            cache.getMethodVariants(preResult -> Timer.runAndCount(
+                                    () -> Scaler.run(preResult, advanced),
+                                    "Scaler", Level.INFO)));
                 } else if (advanced.startsWith("zipper")) {
-                    selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeSelectiveSelector(cs, Zipper.run(preResult, advanced)),
-                            "Zipper", Level.INFO);
+                    selector = ContextSelectorFactory.makeSelectiveSelector(cs,
+                            cache.getMethods(preResult -> Timer.runAndCount(
+                                    () -> Zipper.run(preResult, advanced),
+                                    "Zipper", Level.INFO)));
                 } else if (advanced.equals("mahjong")) {
-                    heapModel = Timer.runAndCount(() -> Mahjong.run(preResult, options),
-                            "Mahjong", Level.INFO);
+                    heapModel = Mahjong.buildHeapModel(options,
+                            cache.getAllocationGroups(preResult -> Timer.runAndCount(
+                                    () -> Mahjong.computeMergedAllocations(preResult),
+                                    "Mahjong", Level.INFO)));
                 } else {
                     throw new IllegalArgumentException(
                             "Illegal advanced analysis argument: " + advanced);
@@ -104,23 +120,48 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         if (selector == null) {
             selector = ContextSelectorFactory.makePlainSelector(cs);
         }
-        return runAnalysis(heapModel, selector);
+        int csMethodBudget = options.getInt("cs-method-budget");
+        int ptsBudget = options.getInt("pts-budget");
+        if (csMethodBudget > 0 || ptsBudget > 0) {
+            selector = ContextSelectorFactory.makeBudgetedSelector(
+                    selector, csMethodBudget, ptsBudget);
+        }
+        return runAnalysis(heapModel, selector, null);
     }
 
+    /**
+     * @param telemetryFile file of telemetry samples of the solver,
+     *                      or {@code null} to use the default one.
+     */
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
-                                              ContextSelector selector) {
+                                              ContextSelector selector,
+                                              @Nullable String telemetryFile) {
         AnalysisOptions options = getOptions();
-        Solver solver = new DefaultSolver(options,
+        DefaultSolver solver = new DefaultSolver(options,
                 heapModel, selector, new MapBasedCSManager());
+        if (telemetryFile != null) {
+            solver.setTelemetryFile(telemetryFile);
+        }
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
-        setPlugin(solver, options);
+        CompositePlugin plugin = setPlugin(solver, options);
+        PluginProfiler profiler = null;
+        boolean profilePlugins = options.getBoolean("profile-plugins");
+        int progressInterval = options.getInt("progress-interval");
+        if (profilePlugins || progressInterval > 0) {
+            profiler = new PluginProfiler(solver, progressInterval);
+            plugin.setProfiler(profiler);
+        }
         solver.solve();
+        if (profilePlugins) {
+            profiler.dump(new File(World.get().getOptions().getOutputDir(),
+                    PLUGIN_PROFILE_FILE));
+        }
         return solver.getResult();
     }
 
-    private static void setPlugin(Solver solver, AnalysisOptions options) {
+    private static CompositePlugin setPlugin(Solver solver, AnalysisOptions options) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
         // To record elapsed time precisely, AnalysisTimer should be added at first.
@@ -154,6 +195,10 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         if (options.getString("taint-config") != null) {
             plugin.addPlugin(new TaintAnalysis());
         }
+        if (solver.getContextSelector() instanceof Plugin selectorPlugin) {
+            // e.g., budgeted selector monitors the growth of points-to sets
+            plugin.addPlugin(selectorPlugin);
+        }
         plugin.addPlugin(new ResultProcessor());
         // add plugins specified in options
         // noinspection unchecked
@@ -161,6 +206,7 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         // connects plugins and solver
         plugin.setSolver(solver);
         solver.setPlugin(plugin);
+        return plugin;
     }
 
     private static void addPlugins(CompositePlugin plugin,
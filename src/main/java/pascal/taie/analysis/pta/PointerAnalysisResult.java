@@ -41,6 +41,7 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.ResultHolder;
 
 import java.util.Collection;
@@ -151,6 +152,21 @@ public interface PointerAnalysisResult extends ResultHolder {
      */
     Set<Obj> getPointsToSet(Obj array);
 
+    /**
+     * Computes the (context-insensitive) points-to sets of all variables,
+     * static fields, and instance field and array accesses on all variables
+     * in parallel, so that the corresponding queries afterwards only look up
+     * the computed sets. Clients that query the points-to sets of (almost)
+     * all variables are suggested to call this method first.
+     */
+    void computeAllPointsToSets();
+
+    /**
+     * @return indexes (given by {@link #getObjectIndexer()}) of the objects
+     * pointed to by given variable. The returned set must not be modified.
+     */
+    IBitSet getPointsToIndexes(Var var);
+
     /**
      * @return {@code true} if two variables may be aliases.
      */
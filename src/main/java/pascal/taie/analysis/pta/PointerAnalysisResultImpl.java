@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CompactCallGraph;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.graph.flowgraph.ObjectFlowGraph;
@@ -40,6 +41,7 @@ import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.PointerFlowGraph;
 import pascal.taie.analysis.pta.core.solver.PropagateTypes;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.ir.exp.ArrayAccess;
 import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.StaticFieldAccess;
@@ -52,9 +54,12 @@ import pascal.taie.util.AbstractResultHolder;
 import pascal.taie.util.Canonicalizer;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SparseBitSet;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -63,7 +68,7 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 public class PointerAnalysisResultImpl extends AbstractResultHolder
-        implements PointerAnalysisResult {
+        implements PointerAnalysisResult, AutoCloseable {
 
     private static final Logger logger = LogManager.getLogger(PointerAnalysisResultImpl.class);
 
@@ -91,6 +96,11 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
      */
     private final Map<Var, Set<Obj>> arrayPointsTo = Maps.newConcurrentMap(1024);
 
+    /**
+     * Object indexes of points-to sets of local variables.
+     */
+    private final Map<Var, IBitSet> varPointsToIndexes = Maps.newConcurrentMap(4096);
+
     /**
      * Set of all (reachable) objects in the program.
      */
@@ -101,6 +111,11 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
      */
     private final Canonicalizer<Set<Obj>> canonicalizer = new Canonicalizer<>();
 
+    /**
+     * Canonicalizes object indexes of points-to sets.
+     */
+    private final Canonicalizer<IBitSet> indexesCanonicalizer = new Canonicalizer<>();
+
     /**
      * Context-sensitive call graph.
      */
@@ -123,10 +138,25 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
      */
     private ObjectFlowGraph ofg;
 
+    /**
+     * Factory of the context-sensitive points-to sets, which owns their
+     * storage, or {@code null} if the storage is managed elsewhere.
+     */
+    @Nullable
+    private final PointsToSetFactory ptsFactory;
+
     public PointerAnalysisResultImpl(
             PropagateTypes propTypes, CSManager csManager,
             Indexer<Obj> objIndexer, CallGraph<CSCallSite, CSMethod> csCallGraph,
             PointerFlowGraph pfg) {
+        this(propTypes, csManager, objIndexer, csCallGraph, pfg, null);
+    }
+
+    public PointerAnalysisResultImpl(
+            PropagateTypes propTypes, CSManager csManager,
+            Indexer<Obj> objIndexer, CallGraph<CSCallSite, CSMethod> csCallGraph,
+            PointerFlowGraph pfg, @Nullable PointsToSetFactory ptsFactory) {
+        this.ptsFactory = ptsFactory;
         this.propTypes = propTypes;
         this.csManager = csManager;
         this.objIndexer = objIndexer;
@@ -294,6 +324,70 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
                 .flatMap(ArrayIndex::objects));
     }
 
+    @Override
+    public void computeAllPointsToSets() {
+        // index the instance fields and array indexes of each object,
+        // so that the parallel computation below looks them up instead
+        // of creating them via CSManager, which is not thread-safe
+        Map<CSObj, Map<JField, InstanceField>> instanceFields = Maps.newMap();
+        csManager.getInstanceFields().forEach(f -> instanceFields
+                .computeIfAbsent(f.getBase(), o -> Maps.newHybridMap())
+                .put(f.getField(), f));
+        Map<CSObj, ArrayIndex> arrayIndexes = Maps.newMap();
+        csManager.getArrayIndexes().forEach(a -> arrayIndexes.put(a.getArray(), a));
+        getStaticFields().parallelStream()
+                .filter(sf -> propTypes.isAllowed(sf.getType()))
+                .forEach(sf -> sfieldPointsTo.computeIfAbsent(sf.getField(),
+                        f -> removeContexts(sf.objects())));
+        getVars().parallelStream().forEach(var -> {
+            getPointsToSet(var);
+            if (!propTypes.isAllowed(var)) {
+                return;
+            }
+            var.getLoadFields().forEach(load -> computeIfieldPointsTo(
+                    var, load.getFieldRef().resolveNullable(), instanceFields));
+            var.getStoreFields().forEach(store -> computeIfieldPointsTo(
+                    var, store.getFieldRef().resolveNullable(), instanceFields));
+            if (var.getType() instanceof ArrayType baseType
+                    && propTypes.isAllowed(baseType.elementType())
+                    && (!var.getLoadArrays().isEmpty()
+                    || !var.getStoreArrays().isEmpty())) {
+                arrayPointsTo.computeIfAbsent(var, b ->
+                        removeContexts(csManager.getCSVarsOf(b)
+                                .stream()
+                                .flatMap(Pointer::objects)
+                                .map(arrayIndexes::get)
+                                .filter(Objects::nonNull)
+                                .flatMap(ArrayIndex::objects)));
+            }
+        });
+    }
+
+    private void computeIfieldPointsTo(
+            Var base, @Nullable JField field,
+            Map<CSObj, Map<JField, InstanceField>> instanceFields) {
+        if (field == null || field.isStatic()
+                || !propTypes.isAllowed(field.getType())) {
+            return;
+        }
+        ifieldPointsTo.computeIfAbsent(new Pair<>(base, field), p ->
+                removeContexts(csManager.getCSVarsOf(base)
+                        .stream()
+                        .flatMap(Pointer::objects)
+                        .map(o -> instanceFields.getOrDefault(o, Map.of()).get(field))
+                        .filter(Objects::nonNull)
+                        .flatMap(InstanceField::objects)));
+    }
+
+    @Override
+    public IBitSet getPointsToIndexes(Var var) {
+        return varPointsToIndexes.computeIfAbsent(var, v -> {
+            IBitSet indexes = new SparseBitSet();
+            getPointsToSet(v).forEach(o -> indexes.set(objIndexer.getIndex(o)));
+            return indexesCanonicalizer.get(indexes);
+        });
+    }
+
     @Override
     public boolean mayAlias(Var v1, Var v2) {
         Set<Obj> s1 = getPointsToSet(v1);
@@ -332,7 +426,7 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
     @Override
     public CallGraph<Invoke, JMethod> getCallGraph() {
         if (callGraph == null) {
-            callGraph = removeContexts(csCallGraph);
+            callGraph = new CompactCallGraph<>(removeContexts(csCallGraph));
         }
         return callGraph;
     }
@@ -359,6 +453,18 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
     /**
      * Represents context-insensitive call edges.
      */
+    /**
+     * Releases the storage of the points-to sets of this result
+     * (see {@link PointsToSetFactory#close()}). This is called when
+     * the result is dropped, and the result must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (ptsFactory != null) {
+            ptsFactory.close();
+        }
+    }
+
     private static class CIEdge extends Edge<Invoke, JMethod> {
 
         private static final Canonicalizer<String> canonicalizer = new Canonicalizer<>();
@@ -30,11 +30,29 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Cast;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.IdentityHashMap;
 
 public class MayFailCast extends Collector {
 
     public static final String ID = "may-fail-cast";
 
+    /**
+     * Results of previous queries. As points-to sets returned by
+     * {@link PointerAnalysisResult#getPointsToIndexes(Var)} are shared
+     * among the variables of the same points-to set, the casts on
+     * such variables to the same type are checked only once.
+     * The sets are canonical, thus they are keyed by identity,
+     * which avoids hashing and comparing their bits.
+     */
+    private final TwoKeyMap<Type, IBitSet, Boolean> results =
+            Maps.newTwoKeyMap(Maps.newMap(), IdentityHashMap::new);
+
     public MayFailCast(AnalysisConfig config) {
         super(config);
     }
@@ -49,9 +67,16 @@ public class MayFailCast extends Collector {
         Cast cast = (Cast) stmt;
         Type castType = cast.getRValue().getCastType();
         Var from = cast.getRValue().getValue();
-        for (Obj obj : result.getPointsToSet(from)) {
-            if (!World.get().getTypeSystem().isSubtype(
-                    castType, obj.getType())) {
+        return results.computeIfAbsent(castType,
+                result.getPointsToIndexes(from),
+                (type, objs) -> mayFail(type, objs, result.getObjectIndexer()));
+    }
+
+    private static boolean mayFail(Type castType, IBitSet objs,
+                                   Indexer<Obj> indexer) {
+        TypeSystem typeSystem = World.get().getTypeSystem();
+        for (int i = objs.nextSetBit(0); i >= 0; i = objs.nextSetBit(i + 1)) {
+            if (!typeSystem.isSubtype(castType, indexer.getObject(i).getType())) {
                 return true;
             }
         }
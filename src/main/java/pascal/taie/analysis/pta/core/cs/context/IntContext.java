@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An implementation of {@link Context}, which encodes contexts as
+ * sequences of dense int ids of context elements.
+ * <p>
+ * The contexts are hash-consed by their factory, i.e., each sequence of
+ * elements corresponds to exactly one {@link IntContext} object, thus
+ * contexts are compared by identity, and hashed by their dense ids.
+ * Contexts of length up to 2 (the common case) are packed in a long,
+ * and do not need arrays.
+ */
+public final class IntContext implements Context {
+
+    /**
+     * The factory that produces this context, which holds the elements.
+     */
+    private final Factory<?> factory;
+
+    /**
+     * Dense id of this context among the contexts produced by the factory.
+     */
+    private final int id;
+
+    private final int length;
+
+    /**
+     * Element ids of this context if its length is at most 2,
+     * encoded by {@link #pack(int, int, int)}.
+     */
+    private final long packed;
+
+    /**
+     * Element ids of this context if its length is greater than 2.
+     */
+    private final int[] elemIds;
+
+    private IntContext(Factory<?> factory, int id, int length,
+                       long packed, int[] elemIds) {
+        this.factory = factory;
+        this.id = id;
+        this.length = length;
+        this.packed = packed;
+        this.elemIds = elemIds;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        assert 0 <= i && i < length;
+        return factory.getElement(getElemIdAt(i));
+    }
+
+    private int getElemIdAt(int i) {
+        if (elemIds != null) {
+            return elemIds[i];
+        }
+        // see pack()
+        return (int) ((i == length - 1 ? packed : packed >>> 32) & 0xFFFFFFFFL) - 1;
+    }
+
+    /**
+     * Similar to {@link TrieContext#makeLastK(TrieContext, int)},
+     * this method does not require a factory.
+     *
+     * @return the context that consists of the last k elements of given context.
+     */
+    public static IntContext makeLastK(IntContext context, int k) {
+        return context.factory.makeLastK(context, k);
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // contexts are hash-consed
+        return this == o;
+    }
+
+    @Override
+    public String toString() {
+        Object[] elems = new Object[length];
+        for (int i = 0; i < length; ++i) {
+            elems[i] = getElementAt(i);
+        }
+        return Arrays.toString(elems);
+    }
+
+    /**
+     * Packs the element ids of a context of length 0, 1 or 2 into a long.
+     * Each element id is stored as id + 1 in its own 32-bit word (the last
+     * element in the low word), so that zero words mark absent elements,
+     * and the packed values of contexts with different lengths never clash.
+     */
+    private static long pack(int length, int first, int last) {
+        return switch (length) {
+            case 0 -> 0L;
+            case 1 -> last + 1L;
+            default -> ((first + 1L) << 32) | (last + 1L);
+        };
+    }
+
+    /**
+     * Key of contexts whose lengths are greater than 2.
+     */
+    private record Key(int[] elemIds) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Arrays.equals(elemIds, key.elemIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(elemIds);
+        }
+    }
+
+    /**
+     * Factory of {@link IntContext}. It is thread-safe.
+     */
+    public static class Factory<T> implements ContextFactory<T> {
+
+        private final ConcurrentMap<Object, Integer> elemIds = Maps.newConcurrentMap();
+
+        /**
+         * Elements indexed by their ids. The array is replaced (never
+         * modified in place for existing ids) when it grows, so that
+         * readers can access it without locking.
+         */
+        private volatile Object[] elements = new Object[64];
+
+        private int elemCounter = 0;
+
+        private final AtomicInteger contextCounter = new AtomicInteger();
+
+        private final ConcurrentMap<Long, IntContext> shortContexts = Maps.newConcurrentMap();
+
+        private final ConcurrentMap<Key, IntContext> longContexts = Maps.newConcurrentMap();
+
+        private final IntContext emptyContext = intern(0, 0, 0);
+
+        private Object getElement(int elemId) {
+            return elements[elemId];
+        }
+
+        private int getElemId(Object elem) {
+            Integer id = elemIds.get(elem);
+            return id != null ? id : elemIds.computeIfAbsent(elem, this::addElement);
+        }
+
+        private synchronized int addElement(Object elem) {
+            int id = elemCounter++;
+            Object[] elems = elements;
+            if (id == elems.length) {
+                elems = Arrays.copyOf(elems, elems.length * 2);
+            }
+            elems[id] = elem;
+            elements = elems; // publishes the element
+            return id;
+        }
+
+        /**
+         * @return the unique context of length 0, 1 or 2 for given element ids.
+         */
+        private IntContext intern(int length, int first, int last) {
+            Long key = pack(length, first, last);
+            IntContext context = shortContexts.get(key);
+            if (context == null) {
+                context = shortContexts.computeIfAbsent(key, k -> new IntContext(
+                        this, contextCounter.getAndIncrement(), length, k, null));
+            }
+            return context;
+        }
+
+        /**
+         * @return the unique context for given element ids.
+         */
+        private IntContext intern(int[] ids) {
+            return switch (ids.length) {
+                case 0 -> emptyContext;
+                case 1 -> intern(1, 0, ids[0]);
+                case 2 -> intern(2, ids[0], ids[1]);
+                default -> {
+                    Key key = new Key(ids);
+                    IntContext context = longContexts.get(key);
+                    if (context == null) {
+                        context = longContexts.computeIfAbsent(key, k -> new IntContext(
+                                this, contextCounter.getAndIncrement(), ids.length, 0L, ids));
+                    }
+                    yield context;
+                }
+            };
+        }
+
+        @Override
+        public IntContext getEmptyContext() {
+            return emptyContext;
+        }
+
+        @Override
+        public IntContext make(T elem) {
+            return intern(1, 0, getElemId(elem));
+        }
+
+        @Override
+        @SafeVarargs
+        public final IntContext make(T... elems) {
+            int[] ids = new int[elems.length];
+            for (int i = 0; i < elems.length; ++i) {
+                ids[i] = getElemId(elems[i]);
+            }
+            return intern(ids);
+        }
+
+        @Override
+        public IntContext makeLastK(Context context, int k) {
+            IntContext c = checkOwner(context);
+            int length = c.getLength();
+            if (length <= k) {
+                return c;
+            }
+            return switch (k) {
+                case 0 -> emptyContext;
+                case 1 -> intern(1, 0, c.getElemIdAt(length - 1));
+                case 2 -> intern(2, c.getElemIdAt(length - 2), c.getElemIdAt(length - 1));
+                default -> intern(Arrays.copyOfRange(c.elemIds, length - k, length));
+            };
+        }
+
+        @Override
+        public IntContext append(Context parent, T elem, int limit) {
+            IntContext p = checkOwner(parent);
+            int elemId = getElemId(elem);
+            int length = Math.min(p.getLength() + 1, limit);
+            return switch (length) {
+                case 0 -> emptyContext;
+                case 1 -> intern(1, 0, elemId);
+                case 2 -> intern(2, p.getElemIdAt(p.getLength() - 1), elemId);
+                default -> {
+                    int[] ids = new int[length];
+                    for (int i = 0; i < length - 1; ++i) {
+                        ids[i] = p.getElemIdAt(p.getLength() - length + 1 + i);
+                    }
+                    ids[length - 1] = elemId;
+                    yield intern(ids);
+                }
+            };
+        }
+
+        /**
+         * Checks that {@code context} is produced by this factory, as the
+         * element ids of a context are meaningless to other factories.
+         */
+        private IntContext checkOwner(Context context) {
+            if (context instanceof IntContext c && c.factory == this) {
+                return c;
+            }
+            throw new IllegalArgumentException(
+                    context + " is not produced by this factory");
+        }
+    }
+}
@@ -83,6 +83,33 @@ public class TrieContext implements Context {
         return elem;
     }
 
+    /**
+     * Unlike {@link Factory#makeLastK(Context, int)}, this method does not
+     * require a factory, and the result belongs to the same trie as
+     * given context, thus it can be used to truncate the contexts produced
+     * by other context selectors.
+     *
+     * @return the context that consists of the last k elements of given context.
+     */
+    public static TrieContext makeLastK(TrieContext context, int k) {
+        if (context.getLength() <= k) {
+            return context;
+        }
+        Object[] elems = new Object[k];
+        TrieContext c = context;
+        for (int i = k; i > 0; --i) {
+            elems[i - 1] = c.getElem();
+            c = c.getParent();
+        }
+        while (c.getParent() != null) { // find the root
+            c = c.getParent();
+        }
+        for (Object elem : elems) {
+            c = c.getChild(elem);
+        }
+        return c;
+    }
+
     @Override
     public String toString() {
         Object[] elems = new Object[length];
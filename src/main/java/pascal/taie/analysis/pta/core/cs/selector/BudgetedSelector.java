@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.IntContext;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Context selector which bounds the context sensitivity of each method
+ * by budgets during solving.
+ * <p>
+ * It monitors, for each method, the number of distinct contexts selected
+ * for the method (i.e., its context-sensitive methods), and the growth of
+ * the points-to sets of its variables. When a method exceeds either budget,
+ * the contexts of its future call edges are truncated to one element
+ * fewer than before (eventually to the empty context), and the budgets of
+ * the method are reset. The existing context-sensitive methods are kept,
+ * thus the analysis remains sound, and the degradation only affects the
+ * precision of the method in question.
+ * <p>
+ * This selector is also a {@link Plugin} which receives the new points-to
+ * sets, thus it should also be added to the solver as a plugin.
+ */
+class BudgetedSelector implements ContextSelector, Plugin {
+
+    private static final Logger logger = LogManager.getLogger(BudgetedSelector.class);
+
+    /**
+     * Delegate context selector.
+     */
+    private final ContextSelector delegate;
+
+    /**
+     * Maximum number of contexts selected for a method
+     * before it is degraded. Non-positive value means no budget.
+     */
+    private final int csMethodBudget;
+
+    /**
+     * Maximum growth of the points-to sets of the variables in a method
+     * before it is degraded. Non-positive value means no budget.
+     */
+    private final long ptsBudget;
+
+    private final Map<JMethod, Budget> budgets = Maps.newMap();
+
+    private int degradations = 0;
+
+    BudgetedSelector(ContextSelector delegate, int csMethodBudget, long ptsBudget) {
+        this.delegate = delegate;
+        this.csMethodBudget = csMethodBudget;
+        this.ptsBudget = ptsBudget;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return constrain(callee, delegate.selectContext(callSite, callee));
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return constrain(callee, delegate.selectContext(callSite, recv, callee));
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        // heap contexts are derived from the contexts of the methods
+        // that allocate the objects, which have been constrained
+        return delegate.selectHeapContext(method, obj);
+    }
+
+    /**
+     * Truncates the context selected by the delegate according to
+     * the current limit of the callee, and charges the callee for it.
+     */
+    private Context constrain(JMethod callee, Context context) {
+        Budget budget = budgets.computeIfAbsent(callee,
+                m -> new Budget(csMethodBudget > 0));
+        if (budget.isInsensitive()) {
+            return getEmptyContext();
+        }
+        Context result = truncate(context, budget.limit);
+        budget.maxLength = Math.max(budget.maxLength, result.getLength());
+        if (budget.contexts != null && budget.contexts.add(result)
+                && budget.contexts.size() > csMethodBudget) {
+            degrade(callee, budget);
+            result = truncate(result, budget.limit);
+        }
+        return result;
+    }
+
+    @Override
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        if (ptsBudget > 0) {
+            JMethod method = csVar.getVar().getMethod();
+            Budget budget = budgets.get(method);
+            if (budget != null && !budget.isInsensitive()
+                    && (budget.ptsGrowth += pts.size()) > ptsBudget) {
+                degrade(method, budget);
+            }
+        }
+    }
+
+    @Override
+    public void onFinish() {
+        if (degradations > 0) {
+            logger.info("{} methods exceed context budgets and are degraded" +
+                            " ({} times in total), {} of them are analyzed" +
+                            " context-insensitively at last",
+                    budgets.values().stream().filter(b -> b.degraded).count(),
+                    degradations,
+                    budgets.values().stream().filter(Budget::isInsensitive).count());
+        }
+    }
+
+    private void degrade(JMethod method, Budget budget) {
+        ++degradations;
+        budget.degraded = true;
+        budget.limit = Math.max(0, budget.maxLength - 1);
+        budget.maxLength = budget.limit;
+        budget.ptsGrowth = 0;
+        if (budget.isInsensitive()) {
+            budget.contexts = null;
+        } else if (budget.contexts != null) {
+            budget.contexts = Sets.newHybridSet();
+        }
+        logger.debug("Degrade {} to contexts of length {}", method, budget.limit);
+    }
+
+    private Context truncate(Context context, int limit) {
+        if (context.getLength() <= limit) {
+            return context;
+        } else if (limit > 0 && context instanceof IntContext c) {
+            return IntContext.makeLastK(c, limit);
+        } else if (limit > 0 && context instanceof TrieContext c) {
+            return TrieContext.makeLastK(c, limit);
+        } else { // cannot truncate contexts of unknown kinds, fall back to ci
+            return getEmptyContext();
+        }
+    }
+
+    /**
+     * Budget state of a method.
+     */
+    private static class Budget {
+
+        /**
+         * Limit of the length of the contexts of the method.
+         */
+        private int limit = Integer.MAX_VALUE;
+
+        /**
+         * Maximum length of the contexts selected since last degradation.
+         */
+        private int maxLength = 0;
+
+        /**
+         * Distinct contexts selected since last degradation,
+         * or {@code null} if they are not counted, i.e.,
+         * there is no budget of context-sensitive methods.
+         */
+        @Nullable
+        private Set<Context> contexts;
+
+        /**
+         * Growth of the points-to sets since last degradation.
+         */
+        private long ptsGrowth = 0;
+
+        private boolean degraded = false;
+
+        private Budget(boolean countContexts) {
+            contexts = countContexts ? Sets.newHybridSet() : null;
+        }
+
+        private boolean isInsensitive() {
+            return limit == 0;
+        }
+    }
+}
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.config.ConfigException;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
@@ -109,4 +110,16 @@ public class ContextSelectorFactory {
     public static ContextSelector makeGuidedSelector(Map<JMethod, String> csMap) {
         return new GuidedSelector(csMap);
     }
+
+    /**
+     * @return a context selector which degrades the context sensitivity of
+     * the methods that exceed given budgets during solving.
+     * The returned selector is also a {@link Plugin}, which must be
+     * added to the solver to monitor the growth of points-to sets.
+     * @see BudgetedSelector
+     */
+    public static ContextSelector makeBudgetedSelector(
+            ContextSelector delegate, int csMethodBudget, long ptsBudget) {
+        return new BudgetedSelector(delegate, csMethodBudget, ptsBudget);
+    }
 }
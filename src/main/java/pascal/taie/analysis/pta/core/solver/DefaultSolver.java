@@ -52,6 +52,7 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRStore;
 import pascal.taie.ir.exp.CastExp;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.InvokeStatic;
@@ -83,6 +84,10 @@ import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -136,6 +141,18 @@ public class DefaultSolver implements Solver {
 
     private TimeLimiter timeLimiter;
 
+    /**
+     * Interval of sampling the state of the solver (in seconds).
+     */
+    private final int telemetryInterval;
+
+    /**
+     * Name of the file (in output directory) of telemetry samples.
+     */
+    private String telemetryFile = Telemetry.TELEMETRY_FILE;
+
+    private Telemetry telemetry;
+
     /**
      * Whether the analysis has reached time limit.
      */
@@ -165,6 +182,8 @@ public class DefaultSolver implements Solver {
 
     private PointerAnalysisResult result;
 
+    private final SolverStatistics statistics = new SolverStatistics();
+
     @SuppressWarnings("unchecked")
     public DefaultSolver(AnalysisOptions options, HeapModel heapModel,
                          ContextSelector contextSelector, CSManager csManager) {
@@ -174,10 +193,11 @@ public class DefaultSolver implements Solver {
         this.csManager = csManager;
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer(), options);
         propTypes = new PropagateTypes((List<String>) options.get("propagate-types"));
         onlyApp = options.getBoolean("only-app");
         timeLimit = options.getInt("time-limit");
+        telemetryInterval = options.getInt("telemetry-interval");
     }
 
     @Override
@@ -235,6 +255,15 @@ public class DefaultSolver implements Solver {
         this.plugin = plugin;
     }
 
+    /**
+     * Sets the name of the file of telemetry samples, so that the solvers
+     * running in the same output directory (e.g., pre-analysis and
+     * main analysis) do not overwrite the samples of each other.
+     */
+    public void setTelemetryFile(String telemetryFile) {
+        this.telemetryFile = telemetryFile;
+    }
+
     // ---------- solver logic starts ----------
 
     /**
@@ -242,8 +271,23 @@ public class DefaultSolver implements Solver {
      */
     @Override
     public void solve() {
-        initialize();
-        analyze();
+        try {
+            initialize();
+            analyze();
+        } catch (RuntimeException | Error e) {
+            // the points-to sets are not reachable from any result
+            ptsFactory.close();
+            throw e;
+        } finally {
+            // stop the background threads even if the analysis fails
+            if (timeLimiter != null) {
+                timeLimiter.stop();
+            }
+            if (telemetry != null) {
+                telemetry.stop();
+            }
+        }
+        plugin.onFinish();
     }
 
     /**
@@ -262,6 +306,10 @@ public class DefaultSolver implements Solver {
             timeLimiter = new TimeLimiter(timeLimit);
             timeLimiter.countDown();
         }
+        if (telemetryInterval > 0) {
+            telemetry = new Telemetry(telemetryInterval);
+            telemetry.start();
+        }
         plugin.onStart();
     }
 
@@ -299,6 +347,100 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    /**
+     * Samples the state of the solver periodically in a background thread,
+     * and writes the samples to {@link #telemetryFile} in CSV format,
+     * so that long-running analyses can be monitored (and plotted) while
+     * they are running. The state is read without synchronization, thus
+     * the samples are approximate.
+     */
+    private class Telemetry {
+
+        private static final String TELEMETRY_FILE = "pta-telemetry.csv";
+
+        private static final String HEADER = "time(s),work-list,reachable-methods," +
+                "cs-methods,pfg-edges,pts-size,propagations,propagations/s,heap(MB)";
+
+        private static final long MILLIS_FACTOR = 1000;
+
+        private static final long MB = 1024 * 1024;
+
+        private final Thread thread;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private long lastTime = startTime;
+
+        private long lastPropagations;
+
+        /**
+         * @param seconds the sampling interval.
+         */
+        private Telemetry(long seconds) {
+            thread = new Thread(() -> {
+                File output = new File(World.get().getOptions().getOutputDir(),
+                        telemetryFile);
+                logger.info("Writing telemetry of pointer analysis to {}",
+                        output.getAbsolutePath());
+                try (PrintStream out = new PrintStream(
+                        new FileOutputStream(output))) {
+                    out.println(HEADER);
+                    boolean running = true;
+                    while (running) {
+                        try {
+                            Thread.sleep(seconds * MILLIS_FACTOR);
+                        } catch (InterruptedException e) {
+                            running = false; // take the final sample and stop
+                        }
+                        sample(out);
+                    }
+                } catch (FileNotFoundException e) {
+                    logger.error("Failed to write telemetry to {}", output, e);
+                }
+            }, "pta-telemetry");
+            thread.setDaemon(true);
+        }
+
+        private void sample(PrintStream out) {
+            long now = System.currentTimeMillis();
+            long propagations = statistics.getPointerEntries();
+            long elapsed = Math.max(now - lastTime, 1);
+            long rate = (propagations - lastPropagations) * MILLIS_FACTOR / elapsed;
+            Runtime rt = Runtime.getRuntime();
+            out.printf("%.1f,%d,%d,%d,%d,%d,%d,%d,%d%n",
+                    (now - startTime) / (double) MILLIS_FACTOR,
+                    workList.size(),
+                    reachableMethods.size(),
+                    callGraph.getNumberOfMethods(),
+                    statistics.getNewPFGEdges(),
+                    // each object in non-empty diffs is added to exactly one
+                    // points-to set, thus this is the total points-to size
+                    statistics.getDiffObjects(),
+                    propagations,
+                    rate,
+                    (rt.totalMemory() - rt.freeMemory()) / MB);
+            out.flush();
+            lastTime = now;
+            lastPropagations = propagations;
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        /**
+         * Stops sampling after taking the final sample.
+         */
+        private void stop() {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Processes work list entries until the work list is empty.
      */
@@ -308,9 +450,16 @@ public class DefaultSolver implements Solver {
             while (!workList.isEmpty() && !isTimeout) {
                 WorkList.Entry entry = workList.pollEntry();
                 if (entry instanceof WorkList.PointerEntry pEntry) {
+                    statistics.onPointerEntry();
                     Pointer p = pEntry.pointer();
                     PointsToSet pts = pEntry.pointsToSet();
                     PointsToSet diff = propagate(p, pts);
+                    // the set of entry is owned by the work list
+                    // (see WorkList.addEntry()), and is discarded here
+                    pts.release();
+                    if (!diff.isEmpty()) {
+                        statistics.onDiff(diff.size());
+                    }
                     if (!diff.isEmpty() && p instanceof CSVar v) {
                         processInstanceStore(v, diff);
                         processInstanceLoad(v, diff);
@@ -320,6 +469,7 @@ public class DefaultSolver implements Solver {
                         plugin.onNewPointsToSet(v, diff);
                     }
                 } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
+                    statistics.onCallEdgeEntry();
                     processCallEdge(eEntry.edge());
                 }
             }
@@ -328,10 +478,7 @@ public class DefaultSolver implements Solver {
         if (!workList.isEmpty() && isTimeout) {
             logger.warn("Pointer analysis stops early as it reaches time limit ({} seconds)," +
                     " and the result may be unsound!", timeLimit);
-        } else if (timeLimiter != null) { // finish normally but time limiter is still running
-            timeLimiter.stop();
         }
-        plugin.onFinish();
     }
 
     /**
@@ -341,13 +488,17 @@ public class DefaultSolver implements Solver {
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         logger.trace("Propagate {} to {}", pointsToSet, pointer);
         Set<Predicate<CSObj>> filters = pointer.getFilters();
+        PointsToSet diff;
         if (!filters.isEmpty()) {
             // apply filters (of the pointer) on pointsToSet
-            pointsToSet = pointsToSet.objects()
+            PointsToSet filtered = pointsToSet.objects()
                     .filter(o -> filters.stream().allMatch(f -> f.test(o)))
                     .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
+            diff = getPointsToSetOf(pointer).addAllDiff(filtered);
+            filtered.release();
+        } else {
+            diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
         }
-        PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
         if (!diff.isEmpty()) {
             pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
                 Pointer target = edge.target();
@@ -539,6 +690,12 @@ public class DefaultSolver implements Solver {
      */
     private void processNewMethod(JMethod method) {
         if (reachableMethods.add(method)) {
+            // the Vars and Stmts of reachable methods are held
+            // by pointer analysis, thus their IRs must not be evicted
+            IRStore irStore = World.get().getIRStore();
+            if (irStore != null) {
+                irStore.own(method);
+            }
             plugin.onNewMethod(method);
             method.getIR().forEach(stmt -> plugin.onNewStmt(stmt, method));
         }
@@ -739,6 +896,7 @@ public class DefaultSolver implements Solver {
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
         workList.addEntry(pointer, pts);
+        statistics.onWorkListSize(workList.size());
     }
 
     @Override
@@ -775,7 +933,11 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPFGEdge(PointerFlowEdge edge, Transfer transfer) {
+        PointerFlowEdge newEdge = edge;
         edge = pointerFlowGraph.addEdge(edge);
+        if (edge == newEdge) {
+            statistics.onNewPFGEdge();
+        }
         if (edge != null && edge.addTransfer(transfer)) {
             PointsToSet targetSet = transfer.apply(
                     edge, getPointsToSetOf(edge.source()));
@@ -826,6 +988,7 @@ public class DefaultSolver implements Solver {
     @Override
     public void addCallEdge(Edge<CSCallSite, CSMethod> edge) {
         workList.addEntry(edge);
+        statistics.onWorkListSize(workList.size());
     }
 
     @Override
@@ -876,12 +1039,17 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    @Override
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(
                     propTypes, csManager, heapModel,
-                    callGraph, pointerFlowGraph);
+                    callGraph, pointerFlowGraph, ptsFactory);
         }
         return result;
     }
@@ -227,6 +227,16 @@ public interface Solver {
     void initializeClass(JClass cls);
     // ---------- side-effect APIs (end) ----------
 
+    /**
+     * The default implementation returns empty statistics,
+     * for the solvers that do not count their work.
+     *
+     * @return statistics of the work done by this solver so far.
+     */
+    default SolverStatistics getStatistics() {
+        return new SolverStatistics();
+    }
+
     /**
      * @return pointer analysis result.
      */
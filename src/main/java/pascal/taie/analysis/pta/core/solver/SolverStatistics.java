@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+/**
+ * Counters of the work done by the solver.
+ * The counters are cheap to maintain, thus they are always enabled.
+ */
+public class SolverStatistics {
+
+    private long pointerEntries;
+
+    private long callEdgeEntries;
+
+    private long diffs;
+
+    private long diffObjects;
+
+    private int maxDiffSize;
+
+    private long newPFGEdges;
+
+    private int maxWorkListSize;
+
+    void onPointerEntry() {
+        ++pointerEntries;
+    }
+
+    void onCallEdgeEntry() {
+        ++callEdgeEntries;
+    }
+
+    void onDiff(int size) {
+        ++diffs;
+        diffObjects += size;
+        maxDiffSize = Math.max(maxDiffSize, size);
+    }
+
+    void onNewPFGEdge() {
+        ++newPFGEdges;
+    }
+
+    void onWorkListSize(int size) {
+        maxWorkListSize = Math.max(maxWorkListSize, size);
+    }
+
+    /**
+     * @return number of processed pointer entries, i.e., propagations.
+     */
+    public long getPointerEntries() {
+        return pointerEntries;
+    }
+
+    /**
+     * @return number of processed call edge entries.
+     */
+    public long getCallEdgeEntries() {
+        return callEdgeEntries;
+    }
+
+    /**
+     * @return number of propagations that produce non-empty difference sets.
+     */
+    public long getDiffs() {
+        return diffs;
+    }
+
+    /**
+     * @return total size of the non-empty difference sets.
+     */
+    public long getDiffObjects() {
+        return diffObjects;
+    }
+
+    /**
+     * @return size of the largest difference set.
+     */
+    public int getMaxDiffSize() {
+        return maxDiffSize;
+    }
+
+    /**
+     * @return number of new edges added to pointer flow graph.
+     */
+    public long getNewPFGEdges() {
+        return newPFGEdges;
+    }
+
+    /**
+     * @return high-water mark of the number of entries in the work list.
+     */
+    public int getMaxWorkListSize() {
+        return maxWorkListSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("propagations: %d, call edges: %d, " +
+                        "non-empty diffs: %d (%d objects, max: %d), " +
+                        "new PFG edges: %d, max work list size: %d",
+                pointerEntries, callEdgeEntries, diffs, diffObjects,
+                maxDiffSize, newPFGEdges, maxWorkListSize);
+    }
+}
@@ -77,6 +77,10 @@ final class WorkList {
         }
     }
 
+    int size() {
+        return pointerEntries.size() + callEdges.size();
+    }
+
     boolean isEmpty() {
         return pointerEntries.isEmpty() && callEdges.isEmpty();
     }
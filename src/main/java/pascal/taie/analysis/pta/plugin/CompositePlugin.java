@@ -37,6 +37,7 @@ import pascal.taie.language.classes.JMethod;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Composite plugin which allows multiple independent plugins
@@ -61,6 +62,11 @@ public class CompositePlugin implements Plugin {
 
     private final List<Plugin> onUnresolvedCallPlugins = new ArrayList<>();
 
+    /**
+     * Profiler of plugins, {@code null} if profiling is disabled.
+     */
+    private PluginProfiler profiler;
+
     public void addPlugin(Plugin... plugins) {
         for (Plugin plugin : plugins) {
             allPlugins.add(plugin);
@@ -89,6 +95,13 @@ public class CompositePlugin implements Plugin {
         }
     }
 
+    /**
+     * Enables profiling of the callbacks of the plugins in this composite.
+     */
+    public void setProfiler(PluginProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     @Override
     public void setSolver(Solver solver) {
         allPlugins.forEach(p -> p.setSolver(solver));
@@ -96,46 +109,73 @@ public class CompositePlugin implements Plugin {
 
     @Override
     public void onStart() {
-        allPlugins.forEach(Plugin::onStart);
+        forEachPlugin(allPlugins, PluginProfiler.Callback.ON_START,
+                Plugin::onStart);
     }
 
     @Override
     public void onPhaseFinish() {
-        allPlugins.forEach(Plugin::onPhaseFinish);
+        forEachPlugin(allPlugins, PluginProfiler.Callback.ON_PHASE_FINISH,
+                Plugin::onPhaseFinish);
     }
 
     @Override
     public void onFinish() {
-        allPlugins.forEach(Plugin::onFinish);
+        forEachPlugin(allPlugins, PluginProfiler.Callback.ON_FINISH,
+                Plugin::onFinish);
     }
 
     @Override
     public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
-        onNewPointsToSetPlugins.forEach(p -> p.onNewPointsToSet(csVar, pts));
+        forEachPlugin(onNewPointsToSetPlugins, PluginProfiler.Callback.ON_NEW_POINTS_TO_SET,
+                p -> p.onNewPointsToSet(csVar, pts));
     }
 
     @Override
     public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
-        onNewCallEdgePlugins.forEach(p -> p.onNewCallEdge(edge));
+        forEachPlugin(onNewCallEdgePlugins, PluginProfiler.Callback.ON_NEW_CALL_EDGE,
+                p -> p.onNewCallEdge(edge));
     }
 
     @Override
     public void onNewMethod(JMethod method) {
-        onNewMethodPlugins.forEach(p -> p.onNewMethod(method));
+        forEachPlugin(onNewMethodPlugins, PluginProfiler.Callback.ON_NEW_METHOD,
+                p -> p.onNewMethod(method));
     }
 
     @Override
     public void onNewStmt(Stmt stmt, JMethod container) {
-        onNewStmtPlugins.forEach(p -> p.onNewStmt(stmt, container));
+        forEachPlugin(onNewStmtPlugins, PluginProfiler.Callback.ON_NEW_STMT,
+                p -> p.onNewStmt(stmt, container));
     }
 
     @Override
     public void onNewCSMethod(CSMethod csMethod) {
-        onNewCSMethodPlugins.forEach(p -> p.onNewCSMethod(csMethod));
+        forEachPlugin(onNewCSMethodPlugins, PluginProfiler.Callback.ON_NEW_CS_METHOD,
+                p -> p.onNewCSMethod(csMethod));
     }
 
     @Override
     public void onUnresolvedCall(CSObj recv, Context context, Invoke invoke) {
-        onUnresolvedCallPlugins.forEach(p -> p.onUnresolvedCall(recv, context, invoke));
+        forEachPlugin(onUnresolvedCallPlugins, PluginProfiler.Callback.ON_UNRESOLVED_CALL,
+                p -> p.onUnresolvedCall(recv, context, invoke));
+    }
+
+    /**
+     * Invokes {@code action} on each plugin in {@code plugins}, and records
+     * the time spent in each invocation as {@code callback} if profiling
+     * is enabled.
+     */
+    private void forEachPlugin(List<Plugin> plugins, PluginProfiler.Callback callback,
+                              Consumer<Plugin> action) {
+        if (profiler == null) {
+            plugins.forEach(action);
+        } else {
+            for (Plugin p : plugins) {
+                long start = profiler.enter();
+                action.accept(p);
+                profiler.exit(p, callback, start);
+            }
+        }
     }
 }
@@ -0,0 +1,247 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Dumps points-to sets (with contexts) as JSON Lines, in a streaming way.
+ * <p>
+ * Different from the text and YAML dumps of {@link ResultProcessor},
+ * this dumper neither sorts pointers by their string representations
+ * nor builds the whole result in memory. Instead, it writes one record
+ * per line, and the records are ordered by the indexes of the pointers,
+ * which are deterministic for the same program and options.
+ * <p>
+ * Objects and contexts are interned: each record refers to objects
+ * (and contexts) by ids, which are defined in {@link #OBJECTS_FILE}
+ * (and {@link #CONTEXTS_FILE}). The records of pointers are sharded
+ * by their declaring classes into {@link #SHARDS} files, so that all
+ * records of a class are in the same shard.
+ */
+class JsonlResultDumper {
+
+    private static final Logger logger = LogManager.getLogger(JsonlResultDumper.class);
+
+    static final String RESULTS_DIR = "pta-results-jsonl";
+
+    private static final String OBJECTS_FILE = "objects.jsonl";
+
+    private static final String CONTEXTS_FILE = "contexts.jsonl";
+
+    private static final String SHARD_FILE = "shard-%02d.jsonl";
+
+    /**
+     * Number of shards of pointer records.
+     */
+    private static final int SHARDS = 16;
+
+    private final PointerAnalysisResult result;
+
+    private final File outDir;
+
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Maps each context to its id, in the order of first occurrence.
+     */
+    private final Map<Context, Integer> contextIds = Maps.newMap();
+
+    private final JsonGenerator[] shards = new JsonGenerator[SHARDS];
+
+    JsonlResultDumper(PointerAnalysisResult result, File outputDir) {
+        this.result = result;
+        this.outDir = new File(outputDir, RESULTS_DIR);
+    }
+
+    void dump() {
+        logger.info("Dumping points-to set (with contexts) in JSON Lines to {}",
+                outDir.getAbsolutePath());
+        try {
+            Files.createDirectories(outDir.toPath());
+            dumpPointers();
+            dumpObjects();
+            dumpContexts();
+        } catch (IOException e) {
+            logger.error("Failed to dump points-to set to {}", outDir, e);
+        }
+    }
+
+    private void dumpPointers() throws IOException {
+        Pointer[] pointers = new Pointer[maxIndex() + 1];
+        putByIndex(pointers, result.getCSVars());
+        putByIndex(pointers, result.getStaticFields());
+        putByIndex(pointers, result.getInstanceFields());
+        putByIndex(pointers, result.getArrayIndexes());
+        try {
+            for (Pointer p : pointers) {
+                if (p != null) {
+                    dumpPointer(p);
+                }
+            }
+        } finally {
+            for (JsonGenerator shard : shards) {
+                if (shard != null) {
+                    shard.close();
+                }
+            }
+        }
+    }
+
+    private int maxIndex() {
+        int max = -1;
+        for (Collection<? extends Pointer> pointers : Arrays.asList(
+                result.getCSVars(), result.getStaticFields(),
+                result.getInstanceFields(), result.getArrayIndexes())) {
+            for (Pointer p : pointers) {
+                max = Math.max(max, p.getIndex());
+            }
+        }
+        return max;
+    }
+
+    private static void putByIndex(
+            Pointer[] pointers, Collection<? extends Pointer> elems) {
+        elems.forEach(p -> pointers[p.getIndex()] = p);
+    }
+
+    private void dumpPointer(Pointer pointer) throws IOException {
+        JsonGenerator gen;
+        if (pointer instanceof CSVar csVar) {
+            gen = getShard(csVar.getVar().getMethod()
+                    .getDeclaringClass().getName());
+            gen.writeStartObject();
+            gen.writeStringField("kind", "var");
+            gen.writeStringField("method", csVar.getVar().getMethod().getSignature());
+            gen.writeStringField("var", csVar.getVar().getName());
+            gen.writeNumberField("ctx", getContextId(csVar.getContext()));
+        } else if (pointer instanceof StaticField sField) {
+            gen = getShard(sField.getField().getDeclaringClass().getName());
+            gen.writeStartObject();
+            gen.writeStringField("kind", "static-field");
+            gen.writeStringField("field", sField.getField().getSignature());
+        } else if (pointer instanceof InstanceField iField) {
+            gen = getShard(iField.getField().getDeclaringClass().getName());
+            gen.writeStartObject();
+            gen.writeStringField("kind", "instance-field");
+            gen.writeNumberField("base", iField.getBase().getIndex());
+            gen.writeStringField("field", iField.getField().getSignature());
+        } else {
+            ArrayIndex arrayIndex = (ArrayIndex) pointer;
+            Obj array = arrayIndex.getArray().getObject();
+            gen = getShard(array.getContainerMethod()
+                    .map(m -> m.getDeclaringClass().getName())
+                    .orElseGet(() -> array.getType().getName()));
+            gen.writeStartObject();
+            gen.writeStringField("kind", "array-index");
+            gen.writeNumberField("array", arrayIndex.getArray().getIndex());
+        }
+        int[] pts = pointer.objects().mapToInt(CSObj::getIndex).toArray();
+        Arrays.sort(pts);
+        gen.writeFieldName("pts");
+        gen.writeArray(pts, 0, pts.length);
+        gen.writeEndObject();
+    }
+
+    /**
+     * @return the shard for the records of the class named {@code className}.
+     * The shards are opened lazily.
+     */
+    private JsonGenerator getShard(String className) throws IOException {
+        int i = Math.floorMod(className.hashCode(), SHARDS);
+        if (shards[i] == null) {
+            shards[i] = newGenerator(new File(outDir, String.format(SHARD_FILE, i)));
+        }
+        return shards[i];
+    }
+
+    private int getContextId(Context context) {
+        return contextIds.computeIfAbsent(context, __ -> contextIds.size());
+    }
+
+    private void dumpObjects() throws IOException {
+        CSObj[] objects = new CSObj[result.getCSObjects()
+                .stream()
+                .mapToInt(CSObj::getIndex)
+                .max()
+                .orElse(-1) + 1];
+        result.getCSObjects().forEach(o -> objects[o.getIndex()] = o);
+        try (JsonGenerator gen = newGenerator(new File(outDir, OBJECTS_FILE))) {
+            for (CSObj csObj : objects) {
+                if (csObj != null) {
+                    gen.writeStartObject();
+                    gen.writeNumberField("id", csObj.getIndex());
+                    gen.writeNumberField("ctx", getContextId(csObj.getContext()));
+                    gen.writeStringField("obj", csObj.getObject().toString());
+                    gen.writeEndObject();
+                }
+            }
+        }
+    }
+
+    private void dumpContexts() throws IOException {
+        Context[] contexts = new Context[contextIds.size()];
+        contextIds.forEach((c, id) -> contexts[id] = c);
+        try (JsonGenerator gen = newGenerator(new File(outDir, CONTEXTS_FILE))) {
+            for (int i = 0; i < contexts.length; ++i) {
+                gen.writeStartObject();
+                gen.writeNumberField("id", i);
+                gen.writeStringField("ctx", contexts[i].toString());
+                gen.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * @return a generator that writes each root value in a separate line.
+     */
+    private JsonGenerator newGenerator(File file) throws IOException {
+        JsonGenerator gen = factory.createGenerator(
+                new BufferedWriter(new FileWriter(file)));
+        gen.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        return gen;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.analysis.pta.core.solver.SolverStatistics;
+import pascal.taie.util.collection.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the call counts and the elapsed time of the callbacks of
+ * each plugin added to a {@link CompositePlugin}, to help identify
+ * the plugins that slow down pointer analysis.
+ * <p>
+ * For each plugin and callback, the profiler records both total time,
+ * and self time, which excludes the time spent in the (nested) callbacks
+ * of the plugins triggered by the callback, e.g., the {@code onNewStmt()}
+ * triggered by {@link pascal.taie.analysis.pta.core.solver.Solver#addCSMethod}
+ * in {@code onStart()} of a plugin. The profiler also logs the progress
+ * of the analysis periodically if a progress interval is given.
+ */
+public class PluginProfiler {
+
+    private static final Logger logger = LogManager.getLogger(PluginProfiler.class);
+
+    /**
+     * Checks whether to log progress every this number of callbacks.
+     */
+    private static final int PROGRESS_CHECK_PERIOD = 1024;
+
+    enum Callback {
+
+        ON_START("onStart"),
+        ON_PHASE_FINISH("onPhaseFinish"),
+        ON_FINISH("onFinish"),
+        ON_NEW_POINTS_TO_SET("onNewPointsToSet"),
+        ON_NEW_CALL_EDGE("onNewCallEdge"),
+        ON_NEW_METHOD("onNewMethod"),
+        ON_NEW_STMT("onNewStmt"),
+        ON_NEW_CS_METHOD("onNewCSMethod"),
+        ON_UNRESOLVED_CALL("onUnresolvedCall");
+
+        private final String methodName;
+
+        Callback(String methodName) {
+            this.methodName = methodName;
+        }
+    }
+
+    private static class Counter {
+
+        private long calls;
+
+        private long totalNanos;
+
+        private long selfNanos;
+    }
+
+    private final Solver solver;
+
+    /**
+     * Interval of progress logging (in nanoseconds), 0 means no logging.
+     */
+    private final long progressInterval;
+
+    private final long startTime = System.nanoTime();
+
+    private long nextProgressTime;
+
+    private int callbacksToCheck = PROGRESS_CHECK_PERIOD;
+
+    private final Map<Plugin, Map<Callback, Counter>> counters = Maps.newLinkedHashMap();
+
+    /**
+     * Time spent in the nested callbacks of current callback.
+     */
+    private long nestedNanos;
+
+    /**
+     * Saved {@link #nestedNanos} of enclosing callbacks.
+     */
+    private long[] nestedStack = new long[16];
+
+    private int depth;
+
+    /**
+     * @param solver           the solver whose statistics are reported.
+     * @param progressInterval interval of progress logging (in seconds),
+     *                         0 means no logging.
+     */
+    public PluginProfiler(Solver solver, int progressInterval) {
+        this.solver = solver;
+        this.progressInterval = progressInterval * 1_000_000_000L;
+        this.nextProgressTime = startTime + this.progressInterval;
+    }
+
+    /**
+     * Starts timing a callback.
+     *
+     * @return the start time, which should be passed to
+     * {@link #exit(Plugin, Callback, long)}.
+     */
+    long enter() {
+        if (depth == nestedStack.length) {
+            nestedStack = Arrays.copyOf(nestedStack, depth * 2);
+        }
+        nestedStack[depth++] = nestedNanos;
+        nestedNanos = 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * Finishes timing a callback.
+     */
+    void exit(Plugin plugin, Callback callback, long start) {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        Counter counter = counters
+                .computeIfAbsent(plugin, __ -> new EnumMap<>(Callback.class))
+                .computeIfAbsent(callback, __ -> new Counter());
+        ++counter.calls;
+        counter.totalNanos += elapsed;
+        counter.selfNanos += elapsed - nestedNanos;
+        nestedNanos = nestedStack[--depth] + elapsed;
+        if (progressInterval > 0 && --callbacksToCheck == 0) {
+            callbacksToCheck = PROGRESS_CHECK_PERIOD;
+            if (now >= nextProgressTime) {
+                nextProgressTime = now + progressInterval;
+                logProgress(now);
+            }
+        }
+    }
+
+    private void logProgress(long now) {
+        logger.info("[{}s] {}", (now - startTime) / 1_000_000_000L,
+                solver.getStatistics());
+        counters.entrySet()
+                .stream()
+                .max(Comparator.comparingLong(e -> selfNanosOf(e.getValue())))
+                .ifPresent(e -> logger.info("Slowest plugin so far: {} ({} ms)",
+                        e.getKey().getClass().getName(),
+                        selfNanosOf(e.getValue()) / 1_000_000));
+    }
+
+    private static long selfNanosOf(Map<Callback, Counter> counters) {
+        return counters.values()
+                .stream()
+                .mapToLong(c -> c.selfNanos)
+                .sum();
+    }
+
+    /**
+     * Dumps the profile of plugins and statistics of solver
+     * in JSON format to {@code outFile}.
+     */
+    public void dump(File outFile) {
+        logger.info("Dumping plugin profile to {}", outFile.getAbsolutePath());
+        SolverStatistics stats = solver.getStatistics();
+        Map<String, Object> solverData = Maps.newLinkedHashMap();
+        solverData.put("pointerEntries", stats.getPointerEntries());
+        solverData.put("callEdgeEntries", stats.getCallEdgeEntries());
+        solverData.put("diffs", stats.getDiffs());
+        solverData.put("diffObjects", stats.getDiffObjects());
+        solverData.put("maxDiffSize", stats.getMaxDiffSize());
+        solverData.put("newPFGEdges", stats.getNewPFGEdges());
+        solverData.put("maxWorkListSize", stats.getMaxWorkListSize());
+        // plugins are sorted by self time in descending order
+        List<Map<String, Object>> pluginData = counters.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<Plugin, Map<Callback, Counter>> e) ->
+                                selfNanosOf(e.getValue())).reversed())
+                .map(e -> {
+                    Map<String, Object> callbacks = Maps.newLinkedHashMap();
+                    e.getValue().forEach((callback, c) -> {
+                        Map<String, Long> callbackData = Maps.newLinkedHashMap();
+                        callbackData.put("calls", c.calls);
+                        callbackData.put("totalNanos", c.totalNanos);
+                        callbackData.put("selfNanos", c.selfNanos);
+                        callbacks.put(callback.methodName, callbackData);
+                    });
+                    Map<String, Object> plugin = Maps.newLinkedHashMap();
+                    plugin.put("plugin", e.getKey().getClass().getName());
+                    plugin.put("selfNanos", selfNanosOf(e.getValue()));
+                    plugin.put("callbacks", callbacks);
+                    return plugin;
+                })
+                .toList();
+        Map<String, Object> data = Maps.newLinkedHashMap();
+        data.put("elapsedNanos", System.nanoTime() - startTime);
+        data.put("solver", solverData);
+        data.put("plugins", pluginData);
+        try {
+            new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(outFile, data);
+        } catch (IOException e) {
+            logger.error("Failed to dump plugin profile to {}", outFile, e);
+        }
+    }
+}
@@ -119,6 +119,11 @@ public class ResultProcessor implements Plugin {
             dumpPointsToSetInYaml(result);
         }
 
+        if (options.getBoolean("dump-jsonl")) {
+            new JsonlResultDumper(result, World.get().getOptions().getOutputDir())
+                    .dump();
+        }
+
         String expectedFile = options.getString("expected-file");
         if (expectedFile != null) {
             if (taintEnabled) {
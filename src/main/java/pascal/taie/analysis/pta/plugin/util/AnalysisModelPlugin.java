@@ -32,10 +32,13 @@ import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 
@@ -45,16 +48,38 @@ import java.util.stream.IntStream;
  * The invoke handler method (annotated by {@link InvokeHandler})
  * should follow such declaration:
  * public void name(Context,Invoke,(PointsToSet,)+)
+ * <p>
+ * The handlers are compiled to {@link MethodHandle}s when they are
+ * registered, and each call site of the modeled APIs is bound to its
+ * handler when the call site is reached, so that the handlers are invoked
+ * without reflection and method resolution when points-to sets change.
  *
  * @see InvokeHandler
  */
 public abstract class AnalysisModelPlugin extends ModelPlugin {
 
-    protected final Map<JMethod, Method> handlers = Maps.newMap();
+    /**
+     * Type of compiled handlers, i.e., (Context,Invoke,PointsToSet[]).
+     */
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(
+            void.class, Context.class, Invoke.class, PointsToSet[].class);
+
+    protected final Map<JMethod, MethodHandle> handlers = Maps.newMap();
 
     protected final Map<JMethod, int[]> relevantVarIndexes = Maps.newMap();
 
-    protected final MultiMap<Var, Invoke> relevantVars = Maps.newMultiMap();
+    /**
+     * Map from each variable to the handler calls whose arguments
+     * include the variable.
+     */
+    private final Map<Var, List<HandlerCall>> relevantVars = Maps.newMap();
+
+    /**
+     * A call site bound to the handler of its target method.
+     */
+    private record HandlerCall(Invoke invoke, MethodHandle handler,
+                               int[] argIndexes) {
+    }
 
     protected AnalysisModelPlugin(Solver solver) {
         super(solver);
@@ -70,7 +95,8 @@ public abstract class AnalysisModelPlugin extends ModelPlugin {
                     throw new RuntimeException(this + " registers multiple handlers for " +
                             api + " (in a Model, at most one handler can be registered for a method)");
                 }
-                handlers.put(api, validate(handler, invokeHandler));
+                handlers.put(api, compile(validate(handler, invokeHandler),
+                        invokeHandler.argIndexes().length));
                 relevantVarIndexes.put(api, invokeHandler.argIndexes());
             }
         }
@@ -95,15 +121,40 @@ public abstract class AnalysisModelPlugin extends ModelPlugin {
                 "\ngiven: " + handler);
     }
 
+    /**
+     * Compiles the handler to a method handle of {@link #HANDLER_TYPE},
+     * which is bound to this plugin.
+     */
+    private MethodHandle compile(Method handler, int nArgs) {
+        try {
+            // handler may be declared in a non-public class
+            handler.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflect(handler)
+                    .bindTo(this)
+                    .asSpreader(PointsToSet[].class, nArgs)
+                    .asType(HANDLER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new AnalysisException("Failed to compile handler " + handler, e);
+        }
+    }
+
     @Override
     public void onNewStmt(Stmt stmt, JMethod container) {
         if (stmt instanceof Invoke invoke && !invoke.isDynamic()) {
             JMethod target = invoke.getMethodRef().resolveNullable();
             if (target != null) {
-                int[] indexes = relevantVarIndexes.get(target);
-                if (indexes != null) {
+                MethodHandle handler = handlers.get(target);
+                if (handler != null) {
+                    int[] indexes = relevantVarIndexes.get(target);
+                    HandlerCall call = new HandlerCall(invoke, handler, indexes);
                     for (int i : indexes) {
-                        relevantVars.put(InvokeUtils.getVar(invoke, i), invoke);
+                        List<HandlerCall> calls = relevantVars.computeIfAbsent(
+                                InvokeUtils.getVar(invoke, i), __ -> new ArrayList<>());
+                        // the same variable may be passed as multiple arguments
+                        if (calls.isEmpty() || calls.get(calls.size() - 1) != call) {
+                            calls.add(call);
+                        }
                     }
                 }
             }
@@ -112,26 +163,22 @@ public abstract class AnalysisModelPlugin extends ModelPlugin {
 
     @Override
     public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
-        relevantVars.get(csVar.getVar()).forEach(invoke -> {
-            JMethod target = invoke.getMethodRef().resolve();
-            Method handler = handlers.get(target);
-            if (handler != null) {
-                int[] indexes = relevantVarIndexes.get(target);
-                invokeHandler(handler, invoke, csVar, pts, indexes);
+        List<HandlerCall> calls = relevantVars.get(csVar.getVar());
+        if (calls != null) {
+            for (HandlerCall call : calls) {
+                invokeHandler(call, csVar, pts);
             }
-        });
+        }
     }
 
-    private void invokeHandler(Method handler, Invoke invoke,
-                               CSVar csVar, PointsToSet pts, int[] indexes) {
-        PointsToSet[] args = getArgs(csVar, pts, invoke, indexes);
-        Object[] invokeArgs = new Object[2 + args.length];
-        invokeArgs[0] = csVar.getContext();
-        invokeArgs[1] = invoke;
-        System.arraycopy(args, 0, invokeArgs, 2, args.length);
+    private void invokeHandler(HandlerCall call, CSVar csVar, PointsToSet pts) {
+        Invoke invoke = call.invoke();
+        PointsToSet[] args = getArgs(csVar, pts, invoke, call.argIndexes());
         try {
-            handler.invoke(this, invokeArgs);
-        } catch (IllegalAccessException | InvocationTargetException e) {
+            call.handler().invokeExact(csVar.getContext(), invoke, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new AnalysisException(e);
         }
     }
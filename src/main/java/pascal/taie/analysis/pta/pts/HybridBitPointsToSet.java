@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.pts;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.OffHeapArena;
 import pascal.taie.util.collection.SetEx;
 
 class HybridBitPointsToSet extends DelegatePointsToSet {
@@ -33,10 +34,19 @@ class HybridBitPointsToSet extends DelegatePointsToSet {
         this(new HybridBitSet<>(indexer, isSparse));
     }
 
+    public HybridBitPointsToSet(Indexer<CSObj> indexer, OffHeapArena arena) {
+        this(new HybridBitSet<>(indexer, arena));
+    }
+
     private HybridBitPointsToSet(SetEx<CSObj> set) {
         super(set);
     }
 
+    @Override
+    public void release() {
+        ((HybridBitSet<CSObj>) set).release();
+    }
+
     @Override
     protected PointsToSet newSet(SetEx<CSObj> set) {
         return new HybridBitPointsToSet(set);
@@ -82,6 +82,16 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     Stream<CSObj> objects();
 
+    /**
+     * Releases the storage of this set at once, instead of waiting for
+     * garbage collection. This is meant for the sets that are known to be
+     * discarded, and matters only for the storages that are not managed
+     * by garbage collector, e.g., off-heap bit sets.
+     * This set must not be used afterwards.
+     */
+    default void release() {
+    }
+
     @Override
     default Iterator<CSObj> iterator() {
         return getObjects().iterator();
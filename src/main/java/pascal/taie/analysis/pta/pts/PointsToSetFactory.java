@@ -22,20 +22,72 @@
 
 package pascal.taie.analysis.pta.pts;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.OffHeapArena;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.function.Supplier;
 
 /**
  * Provides static factory methods for {@link PointsToSet}.
+ * <p>
+ * The storage of the points-to sets is selected by option {@code pts-storage}:
+ * <ul>
+ *     <li>{@code heap}: the bit sets are stored on the Java heap.</li>
+ *     <li>{@code off-heap}: the words of large bit sets are stored in
+ *     direct buffers, out of the reach of garbage collector.</li>
+ *     <li>{@code mapped}: same as {@code off-heap}, but the buffers are
+ *     mapped to a scratch file in {@code pts-scratch-dir} (or the output
+ *     directory if it is not given), so that the points-to sets can
+ *     exceed physical memory.</li>
+ * </ul>
+ * The off-heap storages live as long as the points-to sets made by
+ * the factory, i.e., until the pointer analysis result is dropped,
+ * and the owner of the factory releases them by {@link #close()}.
  */
-public class PointsToSetFactory {
+public class PointsToSetFactory implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(PointsToSetFactory.class);
 
     private final Supplier<PointsToSet> factory;
 
+    /**
+     * Arena of the points-to sets, or {@code null} if they are on heap.
+     */
+    @Nullable
+    private final OffHeapArena arena;
+
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
         factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        arena = null;
+    }
+
+    public PointsToSetFactory(Indexer<CSObj> objIndexer, AnalysisOptions options) {
+        String storage = options.getString("pts-storage");
+        arena = switch (storage) {
+            case "heap" -> null;
+            case "off-heap" -> OffHeapArena.newDirectArena();
+            case "mapped" -> {
+                String dir = options.getString("pts-scratch-dir");
+                yield OffHeapArena.newMappedArena(dir != null ? Path.of(dir)
+                        : World.get().getOptions().getOutputDir().toPath());
+            }
+            default -> throw new ConfigException(
+                    "Illegal pts-storage argument: " + storage);
+        };
+        if (arena == null) {
+            factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        } else {
+            logger.info("Points-to sets are stored in {}", arena);
+            factory = () -> new HybridBitPointsToSet(objIndexer, arena);
+        }
     }
 
     public PointsToSet make() {
@@ -50,4 +102,17 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * Releases the off-heap storage (if any) of the points-to sets made
+     * by this factory, e.g., removes the scratch file of {@code mapped}
+     * storage. The points-to sets must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (arena != null) {
+            logger.info("Closing {}", arena);
+            arena.close();
+        }
+    }
 }
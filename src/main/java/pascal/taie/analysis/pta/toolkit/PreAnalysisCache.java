@@ -0,0 +1,330 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.frontend.cache.CachedWorldBuilder;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of advanced analyses (i.e., Zipper, Scaler, and Mahjong)
+ * which are derived from the context-insensitive pre-analysis.
+ * When a result is found in the cache, neither the pre-analysis nor
+ * the advanced analysis is run.
+ * <p>
+ * Each cache file is keyed by the identity of the program (see
+ * {@link CachedWorldBuilder#getWorldIdentity}) and the options of pointer
+ * analysis that may affect the result. The file is named after the hash of
+ * the key, and the full key is stored in the file header and compared on
+ * loading, so that a hash collision never loads the result of another
+ * program or configuration.
+ * The results are stored as records of strings (i.e., signatures
+ * of methods and locations of allocation sites), so that they can be
+ * loaded in a different run.
+ */
+public class PreAnalysisCache {
+
+    private static final Logger logger = LogManager.getLogger(PreAnalysisCache.class);
+
+    private static final String CACHE_DIR = "cache";
+
+    /**
+     * Version of cache file format. Cache files of other versions are ignored.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * Options that do not affect the results of advanced analyses,
+     * and are excluded from the cache key. These are the options of the
+     * main analysis only (e.g., {@code cs}), and the options that only
+     * affect outputs, diagnostics, or the storage of points-to sets.
+     * All other options (including the ones added in the future)
+     * are part of the key, so forgetting to list an option here
+     * only costs cache misses, never wrong results.
+     */
+    private static final Set<String> IRRELEVANT_OPTIONS = Set.of(
+            "cs", "cs-method-budget", "pts-budget", "cache-pre-analysis",
+            "dump", "dump-ci", "dump-yaml", "dump-jsonl", "expected-file",
+            "profile-plugins", "progress-interval", "telemetry-interval",
+            "pts-storage", "pts-scratch-dir");
+
+    private final Supplier<PointerAnalysisResult> preAnalysis;
+
+    /**
+     * The canonical key of the cached result, or {@code null}
+     * if the cache is disabled.
+     */
+    @Nullable
+    private final String cacheKey;
+
+    /**
+     * The cache file, or {@code null} if the cache is disabled.
+     */
+    @Nullable
+    private final File cacheFile;
+
+    /**
+     * @param options     options of pointer analysis
+     * @param preAnalysis runs the pre-analysis when the result is not cached
+     */
+    public PreAnalysisCache(AnalysisOptions options,
+                            Supplier<PointerAnalysisResult> preAnalysis) {
+        this.preAnalysis = preAnalysis;
+        if (options.getBoolean("cache-pre-analysis")) {
+            this.cacheKey = getCacheKey(options);
+            this.cacheFile = getCacheFile(cacheKey);
+        } else {
+            this.cacheKey = null;
+            this.cacheFile = null;
+        }
+    }
+
+    /**
+     * @return the cache file, or {@code null} if the cache is disabled.
+     */
+    @Nullable
+    File getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @param analysis the analysis that selects methods based on
+     *                 the result of pre-analysis, e.g., Zipper.
+     * @return the methods selected by the analysis.
+     */
+    public Set<JMethod> getMethods(
+            Function<PointerAnalysisResult, Set<JMethod>> analysis) {
+        return get(analysis,
+                methods -> List.of(methods.stream()
+                        .map(JMethod::getSignature)
+                        .toList()),
+                records -> {
+                    Set<JMethod> methods = Sets.newSet();
+                    records.get(0).forEach(sig -> methods.add(toMethod(sig)));
+                    return methods;
+                });
+    }
+
+    /**
+     * @param analysis the analysis that selects context sensitivity variants
+     *                 for methods based on the result of pre-analysis,
+     *                 e.g., Scaler.
+     * @return the map from methods to their selected variants.
+     */
+    public Map<JMethod, String> getMethodVariants(
+            Function<PointerAnalysisResult, Map<JMethod, String>> analysis) {
+        return get(analysis,
+                variants -> variants.entrySet()
+                        .stream()
+                        .map(e -> List.of(e.getKey().getSignature(), e.getValue()))
+                        .toList(),
+                records -> {
+                    Map<JMethod, String> variants = Maps.newMap(records.size());
+                    records.forEach(r -> variants.put(toMethod(r.get(0)), r.get(1)));
+                    return variants;
+                });
+    }
+
+    /**
+     * @param analysis the analysis that groups allocation sites based on
+     *                 the result of pre-analysis, e.g., Mahjong.
+     * @return the groups of allocation sites.
+     */
+    public Collection<Set<New>> getAllocationGroups(
+            Function<PointerAnalysisResult, Collection<Set<New>>> analysis) {
+        return get(analysis,
+                groups -> groups.stream()
+                        .map(allocs -> {
+                            // each allocation site is represented by
+                            // two strings: signature of its container
+                            // method, and its index in the IR
+                            List<String> record = new ArrayList<>(2 * allocs.size());
+                            allocs.forEach(alloc -> {
+                                record.add(alloc.getContainer().getSignature());
+                                record.add(Integer.toString(alloc.getIndex()));
+                            });
+                            return record;
+                        })
+                        .toList(),
+                records -> records.stream()
+                        .map(record -> {
+                            Set<New> allocs = Sets.newSet(record.size() / 2);
+                            for (int i = 0; i < record.size(); i += 2) {
+                                allocs.add(toNew(record.get(i), record.get(i + 1)));
+                            }
+                            return allocs;
+                        })
+                        .toList());
+    }
+
+    private <T> T get(Function<PointerAnalysisResult, T> analysis,
+                      Function<T, List<List<String>>> encoder,
+                      Function<List<List<String>>, T> decoder) {
+        if (cacheFile != null && cacheFile.exists()) {
+            try {
+                T result = decoder.apply(load(cacheFile, cacheKey));
+                logger.info("Loaded pre-analysis cache from {}", cacheFile);
+                return result;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to load pre-analysis cache from {} due to {}",
+                        cacheFile, e);
+            }
+        }
+        PointerAnalysisResult preResult = preAnalysis.get();
+        T result = analysis.apply(preResult);
+        // the pre-analysis result is dropped here
+        if (preResult instanceof PointerAnalysisResultImpl impl) {
+            impl.close();
+        }
+        if (cacheFile != null) {
+            try {
+                save(cacheFile, cacheKey, encoder.apply(result));
+                logger.info("Saved pre-analysis cache to {}", cacheFile);
+            } catch (IOException e) {
+                logger.warn("Failed to save pre-analysis cache to {} due to {}",
+                        cacheFile, e);
+            }
+        }
+        return result;
+    }
+
+    private static List<List<String>> load(File file, String key)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache version: " + version);
+            }
+            byte[] keyBytes = new byte[in.readInt()];
+            in.readFully(keyBytes);
+            String fileKey = new String(keyBytes, StandardCharsets.UTF_8);
+            if (!fileKey.equals(key)) {
+                throw new IOException("Mismatched cache key: " + fileKey);
+            }
+            int nRecords = in.readInt();
+            List<List<String>> records = new ArrayList<>(nRecords);
+            for (int i = 0; i < nRecords; ++i) {
+                int size = in.readInt();
+                List<String> record = new ArrayList<>(size);
+                for (int j = 0; j < size; ++j) {
+                    record.add(in.readUTF());
+                }
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    private static void save(File file, String key, List<List<String>> records)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(VERSION);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+            out.writeInt(records.size());
+            for (List<String> record : records) {
+                out.writeInt(record.size());
+                for (String s : record) {
+                    out.writeUTF(s);
+                }
+            }
+        }
+    }
+
+    private static JMethod toMethod(String signature) {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JMethod method = hierarchy.getMethod(signature);
+        if (method == null) {
+            throw new IllegalStateException(
+                    "Stale cache, method not found: " + signature);
+        }
+        return method;
+    }
+
+    private static New toNew(String methodSig, String index) {
+        Stmt stmt = toMethod(methodSig).getIR()
+                .getStmt(Integer.parseInt(index));
+        if (stmt instanceof New newStmt) {
+            return newStmt;
+        }
+        throw new IllegalStateException("Stale cache, allocation site not found: "
+                + methodSig + "/" + index);
+    }
+
+    /**
+     * @return the canonical key of the result, which consists of the identity
+     * of the program and the relevant options (sorted by their names).
+     */
+    private static String getCacheKey(AnalysisOptions options) {
+        StringBuilder key = new StringBuilder("world=")
+                .append(CachedWorldBuilder.getWorldIdentity(World.get().getOptions()));
+        options.keySet()
+                .stream()
+                .filter(k -> !IRRELEVANT_OPTIONS.contains(k))
+                .sorted()
+                .forEach(k -> key.append(';').append(k)
+                        .append('=').append(options.get(k)));
+        return key.toString();
+    }
+
+    private static File getCacheFile(String key) {
+        File cacheDir = new File(CACHE_DIR);
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+        String hash = Integer.toHexString(key.hashCode());
+        return new File(cacheDir,
+                "pre-analysis-cache-" + hash + ".bin").getAbsoluteFile();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Partitions DFA states into equivalence classes, so that two states are
+ * in the same class iff the DFAs starting from them are equivalent.
+ * <p>
+ * As the DFAs built by {@link DFAFactory} share their states, instead of
+ * checking equivalence of DFAs pair by pair, this class performs
+ * Moore-style partition refinement once over all states reachable from
+ * the given start states. Initially, the states are partitioned by their
+ * outputs. Then, in each round, the states in the same class are split
+ * if their transitions lead to different classes, until no class is split.
+ * Each round takes time linear in the number of transitions, but as each
+ * round may split only one class, the refinement may take up to as many
+ * rounds as there are states, i.e., O(states * transitions) time in the
+ * worst case. In practice, the rounds are bounded by the depth of the
+ * field points-to graph, which is usually small.
+ */
+class DFAPartitioner {
+
+    /**
+     * Index of the dead state, to which all missing transitions lead.
+     */
+    private static final int DEAD = 0;
+
+    /**
+     * Map from each reachable state to its index.
+     */
+    private final Map<DFAState, Integer> stateIds = Maps.newMap();
+
+    /**
+     * {@code classes[i]} is the equivalence class of the i-th state.
+     */
+    private int[] classes;
+
+    DFAPartitioner(Collection<DFAState> startStates) {
+        List<DFAState> states = collectStates(startStates);
+        int n = states.size() + 1;
+        // fields[i] and targets[i] are the labels (sorted by field indexes)
+        // and the target states of the transitions from the i-th state
+        int[][] fields = new int[n][];
+        int[][] targets = new int[n][];
+        fields[DEAD] = targets[DEAD] = new int[0];
+        // initially, partition the states by their outputs
+        classes = new int[n];
+        Map<Set<Type>, Integer> outputClasses = Maps.newMap();
+        outputClasses.put(Set.of(), 0); // output of dead state
+        classes[DEAD] = 0;
+        for (int i = 1; i < n; ++i) {
+            DFAState s = states.get(i - 1);
+            List<Map.Entry<Field, DFAState>> transitions = s.getNextMap()
+                    .entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingInt(e -> e.getKey().getIndex()))
+                    .toList();
+            fields[i] = new int[transitions.size()];
+            targets[i] = new int[transitions.size()];
+            for (int k = 0; k < transitions.size(); ++k) {
+                fields[i][k] = transitions.get(k).getKey().getIndex();
+                targets[i][k] = stateIds.get(transitions.get(k).getValue());
+            }
+            classes[i] = outputClasses.computeIfAbsent(
+                    s.getOutput(), __ -> outputClasses.size());
+        }
+        refine(fields, targets, outputClasses.size());
+    }
+
+    /**
+     * Collects the states reachable from given start states, and
+     * assigns each of them an index (starting from 1).
+     */
+    private List<DFAState> collectStates(Collection<DFAState> startStates) {
+        List<DFAState> states = new ArrayList<>();
+        Queue<DFAState> workList = new ArrayDeque<>(startStates);
+        while (!workList.isEmpty()) {
+            DFAState s = workList.poll();
+            if (!stateIds.containsKey(s)) {
+                states.add(s);
+                stateIds.put(s, states.size());
+                workList.addAll(s.getNextMap().values());
+            }
+        }
+        return states;
+    }
+
+    private void refine(int[][] fields, int[][] targets, int nClasses) {
+        int n = classes.length;
+        while (true) {
+            // A transition to the class of dead state is equivalent to
+            // a missing transition, thus we exclude such transitions
+            // from the signatures to make them canonical.
+            int deadClass = classes[DEAD];
+            // there are at most n classes after this round
+            Map<Signature, Integer> sigClasses = Maps.newMap(n);
+            int[] newClasses = new int[n];
+            for (int i = 0; i < n; ++i) {
+                int[] sig = new int[1 + 2 * fields[i].length];
+                int length = 0;
+                sig[length++] = classes[i];
+                for (int k = 0; k < fields[i].length; ++k) {
+                    int targetClass = classes[targets[i][k]];
+                    if (targetClass != deadClass) {
+                        sig[length++] = fields[i][k];
+                        sig[length++] = targetClass;
+                    }
+                }
+                newClasses[i] = sigClasses.computeIfAbsent(
+                        new Signature(Arrays.copyOf(sig, length)),
+                        __ -> sigClasses.size());
+            }
+            classes = newClasses;
+            if (sigClasses.size() == nClasses) {
+                // no class is split
+                break;
+            }
+            nClasses = sigClasses.size();
+        }
+    }
+
+    /**
+     * @return the equivalence class of given state.
+     */
+    int classOf(DFAState s) {
+        return classes[stateIds.get(s)];
+    }
+
+    /**
+     * Signature of a state in a round of refinement, i.e., the class of
+     * the state and the (field, class of target state) of its transitions.
+     */
+    private static final class Signature {
+
+        private final int[] elems;
+
+        private final int hashCode;
+
+        private Signature(int[] elems) {
+            this.elems = elems;
+            this.hashCode = Arrays.hashCode(elems);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature other
+                    && Arrays.equals(elems, other.elems);
+        }
+    }
+}
@@ -23,17 +23,19 @@
 package pascal.taie.analysis.pta.toolkit.mahjong;
 
 import pascal.taie.language.classes.JField;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.collection.Maps;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents edge labels of a field points-to graph, i.e., a JField or
  * a mock field that represents all array indexes.
  */
-class Field {
+class Field implements Indexable {
 
     /**
      * When this is {@code null}, this Field represents array index.
@@ -41,8 +43,19 @@ class Field {
     @Nullable
     private final JField field;
 
-    private Field(@Nullable JField field) {
+    /**
+     * Unique index of this Field among the Fields created by the same factory.
+     */
+    private final int index;
+
+    private Field(@Nullable JField field, int index) {
         this.field = field;
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
     }
 
     @Override public String toString() {
@@ -51,13 +64,19 @@ class Field {
 
     static class Factory {
 
-        private static final Field ARRAY_INDEX = new Field(null);
+        private static final Field ARRAY_INDEX = new Field(null, 0);
 
         private final ConcurrentMap<JField, Field> fields = Maps.newConcurrentMap();
 
+        /**
+         * Counter for indexes of Fields; index 0 is reserved for {@link #ARRAY_INDEX}.
+         */
+        private final AtomicInteger counter = new AtomicInteger(1);
+
         Field get(JField field) {
             Objects.requireNonNull(field);
-            return fields.computeIfAbsent(field, Field::new);
+            return fields.computeIfAbsent(field,
+                    f -> new Field(f, counter.getAndIncrement()));
         }
 
         Field getArrayIndex() {
@@ -25,119 +25,109 @@ package pascal.taie.analysis.pta.toolkit.mahjong;
 import org.apache.logging.log4j.Level;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.NewObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisOptions;
-import pascal.taie.language.type.Type;
+import pascal.taie.ir.stmt.New;
 import pascal.taie.util.Timer;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.UnionFindSet;
 
-import java.util.Map;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 public class Mahjong {
 
-    private static final DFAEquivChecker dfaEqChecker = new DFAEquivChecker();
-
     private DFAFactory dfaFactory;
 
+    public static HeapModel run(PointerAnalysisResult pta,
+                                AnalysisOptions options) {
+        return buildHeapModel(options, computeMergedAllocations(pta));
+    }
+
     /**
-     * This map may be manipulated by multiple threads simultaneously.
+     * Computes the allocation sites whose objects can be merged.
+     *
+     * @return groups of allocation sites, where the objects allocated
+     * at the sites in the same group are merged.
      */
-    private ConcurrentMap<Obj, Boolean> canMerged;
+    public static Collection<Set<New>> computeMergedAllocations(
+            PointerAnalysisResult pta) {
+        Collection<Set<Obj>> objGroups = new Mahjong().computeObjGroups(pta);
+        // currently, perform merging for only NewObj
+        return objGroups.stream()
+                .map(objs -> objs.stream()
+                        .filter(o -> o instanceof NewObj)
+                        .map(o -> ((NewObj) o).getAllocation())
+                        .collect(Collectors.toUnmodifiableSet()))
+                .filter(allocs -> allocs.size() > 1)
+                .toList();
+    }
 
-    public static HeapModel run(PointerAnalysisResult pta,
-                                AnalysisOptions options) {
-        return new Mahjong().buildHeapModel(pta, options);
+    /**
+     * Builds heap model which merges the objects allocated at
+     * the sites in the same group.
+     */
+    public static HeapModel buildHeapModel(AnalysisOptions options,
+                                           Collection<Set<New>> allocGroups) {
+        return new MahjongHeapModel(options, allocGroups);
     }
 
-    HeapModel buildHeapModel(PointerAnalysisResult pta,
-                             AnalysisOptions options) {
+    private Collection<Set<Obj>> computeObjGroups(PointerAnalysisResult pta) {
         FieldPointsToGraph fpg = Timer.runAndCount(
                 () -> new FieldPointsToGraph(pta),
                 "Building field points-to graph", Level.INFO);
         dfaFactory = Timer.runAndCount(() -> new DFAFactory(fpg),
                 "Building DFA", Level.INFO);
-        UnionFindSet<Obj> uf = Timer.runAndCount(
+        return Timer.runAndCount(
                 () -> mergeTypeConsistentObjects(fpg),
                 "Merging type-consistent objects", Level.INFO);
-        // build resulting heap model based on merge map
-        return new MahjongHeapModel(options, uf.getDisjointSets());
     }
 
-    private UnionFindSet<Obj> mergeTypeConsistentObjects(FieldPointsToGraph fpg) {
-        Set<Obj> allObjs = fpg.getObjects();
-        canMerged = Maps.newConcurrentMap(allObjs.size());
-        UnionFindSet<Obj> uf = new UnionFindSet<>(allObjs);
-        // group the objects by their types
-        Map<Type, Set<Obj>> groupedObjs = allObjs.stream()
-                .collect(Collectors.groupingBy(
-                        Obj::getType, Collectors.toSet()));
-        // compute object merging, and store results in a union-find set
-        groupedObjs.entrySet()
+    /**
+     * Two objects can be merged iff their DFAs are equivalent. Instead of
+     * checking DFA equivalence for every pair of objects of the same type,
+     * we partition the (shared) states of all DFAs into equivalence classes
+     * at once, and merge the objects whose start states are equivalent.
+     * Note that the output of the start state of an object is the type
+     * of the object, thus the objects merged together must have
+     * the same type.
+     *
+     * @return groups of objects, where the objects in the same group
+     * can be merged.
+     */
+    private Collection<Set<Obj>> mergeTypeConsistentObjects(FieldPointsToGraph fpg) {
+        List<Obj> objs = fpg.getObjects()
                 .parallelStream()
-                .forEach(entry -> {
-                    Set<Obj> objs = entry.getValue();
-                    DFAMap dfaMap = new DFAMap();
-                    for (Obj o1 : objs) {
-                        if (canBeMerged(o1, dfaMap)) {
-                            for (Obj o2 : objs) {
-                                if (canBeMerged(o2, dfaMap)) {
-                                    if (o1.getIndex() < o2.getIndex()
-                                            && !uf.isConnected(o1, o2)
-                                            && canBeMerged(o1, o2, dfaMap)) {
-                                        uf.union(o1, o2);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                });
-        return uf;
+                .filter(this::canBeMerged)
+                .toList();
+        DFAPartitioner partitioner = new DFAPartitioner(objs.stream()
+                .map(this::getStartState)
+                .toList());
+        return objs.stream()
+                .collect(Collectors.groupingBy(
+                        o -> partitioner.classOf(getStartState(o)),
+                        Collectors.toSet()))
+                .values();
     }
 
-    /**
-     * @return {@code true} if o1 and o2 can be merged.
-     */
-    private boolean canBeMerged(Obj o1, Obj o2, DFAMap dfaMap) {
-        DFA dfa1 = dfaMap.getDFA(o1);
-        DFA dfa2 = dfaMap.getDFA(o2);
-        return dfaEqChecker.isEquivalent(dfa1, dfa2);
+    private DFAState getStartState(Obj o) {
+        return dfaFactory.getDFA(o).getStartState();
     }
 
     /**
      * @return {@code true} if o can be merged with other objects.
      */
-    private boolean canBeMerged(Obj o, DFAMap dfaMap) {
-        if (!canMerged.containsKey(o)) {
-            boolean result = true;
-            // Check whether the types of objects pointed (directly/indirectly)
-            // by o are single.
-            DFA dfa = dfaMap.getDFA(o);
-            for (DFAState s : dfa.getStates()) {
-                if (dfa.outputOf(s).size() > 1) {
-                    // o (directly/indirectly) points to objects of multiple types
-                    result = false;
-                    break;
-                }
+    private boolean canBeMerged(Obj o) {
+        // Check whether the types of objects pointed (directly/indirectly)
+        // by o are single.
+        DFA dfa = dfaFactory.getDFA(o);
+        for (DFAState s : dfa.getStates()) {
+            if (dfa.outputOf(s).size() > 1) {
+                // o (directly/indirectly) points to objects of multiple types
+                return false;
             }
-            canMerged.put(o, result);
-        }
-        return canMerged.get(o);
-    }
-
-    /**
-     * During equivalence check, each thread holds a DFAMap which contains
-     * the DFA of the objects of the type.
-     */
-    private class DFAMap {
-
-        private final Map<Obj, DFA> map = Maps.newMap();
-
-        private DFA getDFA(Obj o) {
-            return map.computeIfAbsent(o, dfaFactory::getDFA);
         }
+        return true;
     }
 }
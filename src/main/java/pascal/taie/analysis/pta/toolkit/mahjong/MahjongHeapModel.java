@@ -24,7 +24,6 @@ package pascal.taie.analysis.pta.toolkit.mahjong;
 
 import pascal.taie.analysis.pta.core.heap.AbstractHeapModel;
 import pascal.taie.analysis.pta.core.heap.MergedObj;
-import pascal.taie.analysis.pta.core.heap.NewObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.stmt.New;
@@ -39,28 +38,24 @@ import java.util.Set;
 
 class MahjongHeapModel extends AbstractHeapModel {
 
-    // currently, perform merging for only NewObj
     private final Map<New, MergedObj> mergeMap;
 
-    MahjongHeapModel(AnalysisOptions options, Collection<Set<Obj>> objGroups) {
+    MahjongHeapModel(AnalysisOptions options, Collection<Set<New>> allocGroups) {
         super(options);
-        mergeMap = buildMergeMap(objGroups);
+        mergeMap = buildMergeMap(allocGroups);
     }
 
-    private Map<New, MergedObj> buildMergeMap(Collection<Set<Obj>> objGroups) {
+    private Map<New, MergedObj> buildMergeMap(Collection<Set<New>> allocGroups) {
         Map<New, MergedObj> mergeMap = Maps.newMap();
-        objGroups.stream()
-                .filter(objs -> objs.size() > 1)
-                .forEach(objs -> {
-                    Type type = CollectionUtils.getOne(objs).getType();
+        allocGroups.stream()
+                .filter(allocs -> allocs.size() > 1)
+                .forEach(allocs -> {
+                    Type type = CollectionUtils.getOne(allocs).getRValue().getType();
                     MergedObj mergedObj = add(new MergedObj(type,
                             "<Mahjong-merged " + type + ">"));
-                    objs.forEach(obj -> {
-                        if (obj instanceof NewObj newObj) {
-                            New allocSite = newObj.getAllocation();
-                            mergeMap.put(allocSite, mergedObj);
-                            mergedObj.addRepresentedObj(getNewObj(allocSite));
-                        }
+                    allocs.forEach(allocSite -> {
+                        mergeMap.put(allocSite, mergedObj);
+                        mergedObj.addRepresentedObj(getNewObj(allocSite));
                     });
                 });
         return mergeMap;
@@ -37,10 +37,10 @@ import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.graph.Graph;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Given a TST (Total Scalability Threshold), select the ST (Scalability Threshold),
@@ -68,10 +68,29 @@ public class Scaler {
     private final List<ContextComputer> ctxComputers;
 
     /**
-     * Map from a method to total size of points-to sets of all (concerned)
-     * variables in the method.
+     * Instance methods for which context sensitivity variants are selected.
+     * The index of a method in this list is used to index its weights.
      */
-    private final Map<JMethod, Integer> ptsSize = Maps.newMap();
+    private List<JMethod> methods;
+
+    /**
+     * {@code weights[c][i]} is the weight of the i-th method in {@link #methods}
+     * when analyzed using the c-th context computer in {@link #ctxComputers}.
+     * The last row holds the weights for {@link #bottomLine}.
+     */
+    private long[][] weights;
+
+    /**
+     * Sorted distinct values of st at which the total weight of
+     * (non-special) methods changes.
+     */
+    private long[] thresholds;
+
+    /**
+     * {@code accWeights[k]} is the total weight of (non-special) methods
+     * when exactly k values in {@link #thresholds} are less than or equal to st.
+     */
+    private long[] accWeights;
 
     /**
      * Parses Scaler argument and runs Scaler.
@@ -110,36 +129,109 @@ public class Scaler {
      */
     public Map<JMethod, String> selectContext() {
         logger.info("Scaler TST: {}", tst);
-        Set<JMethod> instanceMethods = pta.getBase()
+        methods = pta.getBase()
                 .getCallGraph()
                 .reachableMethods()
                 .filter(m -> !m.isStatic())
-                .collect(Collectors.toUnmodifiableSet());
-        long st = binarySearch(instanceMethods, tst);
-        Map<JMethod, String> csMap = instanceMethods.stream()
-                .collect(Collectors.toMap(m -> m, m -> selectVariantFor(m, st)));
+                .toList();
+        computeWeights();
+        computeAccumulativeWeights();
+        long st = binarySearch(tst);
+        Map<JMethod, String> csMap = Maps.newMap(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            csMap.put(methods.get(i), selectVariantFor(i, st));
+        }
         logCSMap(csMap);
         return csMap;
     }
 
+    /**
+     * Computes the weights of all methods for all context computers.
+     * The methods are processed in parallel, and each of them
+     * only writes to its own slots in {@link #weights}.
+     */
+    private void computeWeights() {
+        int nComputers = ctxComputers.size();
+        weights = new long[nComputers + 1][methods.size()];
+        IntStream.range(0, methods.size()).parallel().forEach(i -> {
+            JMethod method = methods.get(i);
+            long ptsSize = getCIPTSSizeOf(method);
+            for (int c = 0; c < nComputers; ++c) {
+                weights[c][i] = ctxComputers.get(c).contextNumberOf(method) * ptsSize;
+            }
+            weights[nComputers][i] = bottomLine.contextNumberOf(method) * ptsSize;
+        });
+    }
+
+    /**
+     * Computes {@link #thresholds} and {@link #accWeights}.
+     * <p>
+     * For a (non-special) method, the i-th context computer is selected
+     * iff its weight {@code w[i] <= st} and {@code w[j] > st} for every
+     * {@code j < i}, i.e., iff st falls in {@code [w[i], min(w[0..i-1]))}.
+     * Otherwise, the bottom line is selected. Thus, the weight of the method
+     * changes by {@code w[i] - w[bottom]} when st enters such interval, and
+     * changes back when st leaves it. We collect all such changes, and
+     * accumulate them over the sorted thresholds, so that the total weight
+     * for any st can be obtained by a binary search over the thresholds.
+     */
+    private void computeAccumulativeWeights() {
+        int nComputers = ctxComputers.size();
+        int maxChanges = 2 * nComputers * methods.size();
+        long[] changePoints = new long[maxChanges];
+        long[] changes = new long[maxChanges];
+        int nChanges = 0;
+        long baseWeight = 0;
+        for (int i = 0; i < methods.size(); ++i) {
+            if (isSpecialMethod(methods.get(i))) {
+                // special methods are excluded from this computation
+                continue;
+            }
+            long bottomWeight = weights[nComputers][i];
+            baseWeight += bottomWeight;
+            long minWeight = Long.MAX_VALUE;
+            for (int c = 0; c < nComputers; ++c) {
+                long weight = weights[c][i];
+                if (weight < minWeight) {
+                    changePoints[nChanges] = weight;
+                    changes[nChanges++] = weight - bottomWeight;
+                    if (minWeight != Long.MAX_VALUE) {
+                        changePoints[nChanges] = minWeight;
+                        changes[nChanges++] = bottomWeight - weight;
+                    }
+                    minWeight = weight;
+                }
+            }
+        }
+        thresholds = Arrays.stream(changePoints, 0, nChanges)
+                .sorted()
+                .distinct()
+                .toArray();
+        accWeights = new long[thresholds.length + 1];
+        accWeights[0] = baseWeight;
+        for (int i = 0; i < nChanges; ++i) {
+            int index = Arrays.binarySearch(thresholds, changePoints[i]);
+            accWeights[index + 1] += changes[i];
+        }
+        for (int i = 1; i < accWeights.length; ++i) {
+            accWeights[i] += accWeights[i - 1];
+        }
+    }
+
     /**
      * Search the suitable st such that the accumulative size of
      * context-sensitive points to sets of given methods is less than given tst.
      *
      * @return the st for every method
      */
-    private long binarySearch(Set<JMethod> methods, long tst) {
+    private long binarySearch(long tst) {
         // Select the max value and make it as end
-        @SuppressWarnings("OptionalGetWithoutIsPresent")
-        long end = methods.stream()
-                .mapToLong(m -> getWeight(m, ctxComputers.get(0)))
-                .max()
-                .getAsLong();
+        long end = Arrays.stream(weights[0]).max().orElse(0);
         long start = 0;
         long mid, ret = 0;
         while (start <= end) {
             mid = (start + end) / 2;
-            long totalSize = getTotalAccumulativePTS(methods, mid);
+            long totalSize = getTotalAccumulativePTS(mid);
             if (totalSize < tst) {
                 ret = mid;
                 start = mid + 1;
@@ -154,23 +246,18 @@ public class Scaler {
     }
 
     /**
-     * Given a set of methods and a st (scalability threshold),
-     * computes the total size of all (concerned) variables in the program.
+     * Given a st (scalability threshold), computes the total size of
+     * all (concerned) variables in the program.
      */
-    private long getTotalAccumulativePTS(Set<JMethod> methods, long st) {
-        long total = 0;
-        for (JMethod method : methods) {
-            if (!isSpecialMethod(method)) {
-                // special methods are excluded from this computation
-                ContextComputer cc = selectContextComputer(method, st);
-                total += getWeight(method, cc);
-            }
-        }
-        return total;
+    long getTotalAccumulativePTS(long st) {
+        int index = Arrays.binarySearch(thresholds, st);
+        // number of thresholds that are less than or equal to st
+        int count = index >= 0 ? index + 1 : -(index + 1);
+        return accWeights[count];
     }
 
     /**
-     * Selects a suitable context computer for given method and st.
+     * Selects a suitable context computer for the i-th method and st.
      * If there are any ContextComputers which can satisfy that the weight
      * of given method can be less than or equal to given st, then the
      * most expensive (and precise) ContextComputer is returned;
@@ -178,16 +265,16 @@ public class Scaler {
      *
      * @return the selected context computer for method according to tst
      */
-    private ContextComputer selectContextComputer(JMethod method, long st) {
+    private ContextComputer selectContextComputer(int i, long st) {
         ContextComputer ctxComp;
-        if (isSpecialMethod(method)) {
+        if (isSpecialMethod(methods.get(i))) {
             // special methods will be analyzed with the most precise variant
             ctxComp = ctxComputers.get(0);
         } else {
             ctxComp = bottomLine;
-            for (ContextComputer cc : ctxComputers) {
-                if (getWeight(method, cc) <= st) {
-                    ctxComp = cc;
+            for (int c = 0; c < ctxComputers.size(); ++c) {
+                if (weights[c][i] <= st) {
+                    ctxComp = ctxComputers.get(c);
                     break;
                 }
             }
@@ -205,30 +292,17 @@ public class Scaler {
                 .startsWith("java.util.");
     }
 
-    /**
-     * @return the weight of given method when analyzed using the
-     * context sensitivity variant that corresponds to given ContextComputer.
-     */
-    private long getWeight(JMethod method, ContextComputer cc) {
-        return ((long) cc.contextNumberOf(method))
-                * ((long) getCIPTSSizeOf(method));
-    }
-
     /**
      * @return total size of points-to sets of all (concerned) variables
      * in given method when analyzed using context insensitivity.
      */
     private int getCIPTSSizeOf(JMethod method) {
-        if (!ptsSize.containsKey(method)) {
-            int size = method.getIR()
-                    .getVars()
-                    .stream()
-                    .filter(Scaler::isConcerned)
-                    .mapToInt(v -> pta.getBase().getPointsToSet(v).size())
-                    .sum();
-            ptsSize.put(method, size);
-        }
-        return ptsSize.get(method);
+        return method.getIR()
+                .getVars()
+                .stream()
+                .filter(Scaler::isConcerned)
+                .mapToInt(v -> pta.getBase().getPointsToSet(v).size())
+                .sum();
     }
 
     /**
@@ -240,12 +314,14 @@ public class Scaler {
     }
 
     /**
-     * Given st, selects suitable context sensitivity variant for given method.
+     * Given st, selects suitable context sensitivity variant for the i-th method.
      */
-    private String selectVariantFor(JMethod method, long st) {
-        ContextComputer ctxComp = selectContextComputer(method, st);
-        logger.debug("{}, {}, {}", method,
-                ctxComp.getVariantName(), ctxComp.contextNumberOf(method));
+    private String selectVariantFor(int i, long st) {
+        ContextComputer ctxComp = selectContextComputer(i, st);
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}, {}, {}", methods.get(i),
+                    ctxComp.getVariantName(), ctxComp.contextNumberOf(methods.get(i)));
+        }
         return ctxComp.getVariantName();
     }
 
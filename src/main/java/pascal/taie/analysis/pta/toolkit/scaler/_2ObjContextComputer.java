@@ -46,7 +46,7 @@ class _2ObjContextComputer extends ContextComputer {
     }
 
     @Override
-    int computeContextNumberOf(JMethod method) {
+    int contextNumberOf(JMethod method) {
         if (pta.getReceiverObjectsOf(method).isEmpty()) {
             logger.debug("Empty receiver: {}", method);
             return 1;
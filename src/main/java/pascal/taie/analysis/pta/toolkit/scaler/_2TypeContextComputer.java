@@ -51,7 +51,7 @@ class _2TypeContextComputer extends ContextComputer {
     }
 
     @Override
-    int computeContextNumberOf(JMethod method) {
+    int contextNumberOf(JMethod method) {
         if (pta.getReceiverObjectsOf(method).isEmpty()) {
             logger.debug("Empty receiver: {}", method);
             return 1;
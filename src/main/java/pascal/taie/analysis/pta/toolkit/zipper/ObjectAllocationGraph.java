@@ -25,10 +25,12 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Canonicalizer;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IndexMap;
 import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.graph.MergedNode;
@@ -41,17 +43,33 @@ import java.util.Set;
 
 /**
  * Object allocation graph tailored for Zipper.
+ * <p>
+ * Only the allocatees of each type are retained after construction;
+ * the per-object allocatees, which are needed merely to compute
+ * the per-type ones, are stored in an index-based map and discarded
+ * once the construction finishes.
  */
 class ObjectAllocationGraph extends SimpleGraph<Obj> {
 
-    private final Map<Obj, Set<Obj>> obj2Allocatees = Maps.newMap();
-
     private final Map<Type, Set<Obj>> type2Allocatees = Maps.newConcurrentMap();
 
+    private Map<Obj, Set<Obj>> obj2Allocatees;
+
     private Indexer<Obj> objIndexer;
 
     ObjectAllocationGraph(PointerAnalysisResultEx pta) {
-        OAGs.computeInvokedMethods(pta).forEach((obj, methods) -> {
+        this(pta, OAGs.computeInvokedMethods(pta));
+    }
+
+    /**
+     * @param invokedMethods the result of
+     *                       {@link OAGs#computeInvokedMethods(PointerAnalysisResultEx)},
+     *                       which is passed in so that it can be shared with
+     *                       {@link PotentialContextElement}.
+     */
+    ObjectAllocationGraph(PointerAnalysisResultEx pta,
+                          Map<Obj, Set<JMethod>> invokedMethods) {
+        invokedMethods.forEach((obj, methods) -> {
             addNode(obj);
             methods.stream()
                     .map(pta::getObjectsAllocatedIn)
@@ -63,7 +81,9 @@ class ObjectAllocationGraph extends SimpleGraph<Obj> {
                     });
         });
         objIndexer = pta.getBase().getObjectIndexer();
+        obj2Allocatees = new IndexMap<>(objIndexer, getNumberOfNodes());
         computeAllocatees(pta);
+        obj2Allocatees = null;
         objIndexer = null;
         assert getNumberOfNodes() == pta.getBase().getObjects().size();
     }
@@ -62,10 +62,6 @@ class PFGBuilder {
 
     private final ObjectFlowGraph ofg;
 
-    private final ObjectAllocationGraph oag;
-
-    private final PotentialContextElement pce;
-
     /**
      * The input type.
      */
@@ -76,6 +72,27 @@ class PFGBuilder {
      */
     private final Set<JMethod> invokeMethods;
 
+    /**
+     * PCE methods of the input type.
+     */
+    private final Set<JMethod> pceMethods;
+
+    /**
+     * Allocatees of the input type.
+     */
+    private final Set<Obj> allocatees;
+
+    /**
+     * Nodes of this variables of {@link #invokeMethods}, i.e.,
+     * the targets of wrapped flow edges to objects of the input type.
+     */
+    private List<VarNode> thisNodes;
+
+    /**
+     * Union of the points-to sets of {@link #inNodes}.
+     */
+    private Set<Obj> inPts;
+
     /**
      * Stores wrapped and unwrapped flow edges.
      */
@@ -92,19 +109,28 @@ class PFGBuilder {
                Type type) {
         this.pta = pta;
         this.ofg = ofg;
-        this.oag = oag;
-        this.pce = pce;
         this.type = type;
         this.invokeMethods = pta.getObjectsOf(type)
                 .stream()
                 .map(pta::getMethodsInvokedOn)
                 .flatMap(Set::stream)
                 .collect(Collectors.toUnmodifiableSet());
+        this.pceMethods = pce.pceMethodsOf(type);
+        this.allocatees = oag.getAllocateesOf(type);
     }
 
     PrecisionFlowGraph build() {
         inNodes = obtainInNodes();
         outNodes = obtainOutNodes();
+        thisNodes = invokeMethods.stream()
+                .map(m -> m.getIR().getThis())
+                .map(ofg::getVarNode)
+                .filter(Objects::nonNull) // filter this variable of native methods
+                .toList();
+        inPts = new IndexerBitSet<>(pta.getBase().getObjectIndexer(), true);
+        for (VarNode inNode : inNodes) {
+            inPts.addAll(pta.getBase().getPointsToSet(inNode.getVar()));
+        }
         visitedNodes = new IndexerBitSet<>(ofg, true);
         wuEdges = Maps.newMultiMap();
         for (VarNode inNode : inNodes) {
@@ -136,13 +162,11 @@ class PFGBuilder {
         Set<JMethod> outMethods = Sets.newSet(obtainMethods());
         // OUT methods of inner classes and special access$ methods
         // are also considered as the OUT methods of current type
-        pce.pceMethodsOf(type)
-                .stream()
+        pceMethods.stream()
                 .filter(m -> !m.isPrivate() && !m.isStatic())
                 .filter(m -> isInnerClass(m.getDeclaringClass()))
                 .forEach(outMethods::add);
-        pce.pceMethodsOf(type)
-                .stream()
+        pceMethods.stream()
                 .filter(m -> !m.isPrivate() && m.isStatic())
                 .filter(m -> m.getDeclaringClass().getType().equals(type)
                         && m.getName().startsWith("access$"))
@@ -185,22 +209,20 @@ class PFGBuilder {
             // add unwrapped flow edges
             if (node instanceof VarNode varNode) {
                 Var var = varNode.getVar();
-                Set<Obj> varPts = pta.getBase().getPointsToSet(var);
+                List<Var> toVars = getReturnToVariablesOf(var);
                 // Optimization: approximate unwrapped flows to make
-                // Zipper and pointer analysis run faster
-                getReturnToVariablesOf(var).forEach(toVar -> {
-                    VarNode toNode = ofg.getVarNode(toVar);
-                    if (toNode != null && outNodes.contains(toNode)) {
-                        for (VarNode inNode : inNodes) {
-                            Var inVar = inNode.getVar();
-                            if (!Collections.disjoint(
-                                    pta.getBase().getPointsToSet(inVar), varPts)) {
-                                wuEdges.put(node, new UnwrappedFlowEdge(node, toNode));
-                                break;
-                            }
+                // Zipper and pointer analysis run faster.
+                // The points-to set of var overlaps the one of some IN node
+                // iff it overlaps the union of the points-to sets of IN nodes.
+                if (!toVars.isEmpty() && !Collections.disjoint(
+                        inPts, pta.getBase().getPointsToSet(var))) {
+                    toVars.forEach(toVar -> {
+                        VarNode toNode = ofg.getVarNode(toVar);
+                        if (toNode != null && outNodes.contains(toNode)) {
+                            wuEdges.put(node, new UnwrappedFlowEdge(node, toNode));
                         }
-                    }
-                });
+                    });
+                }
             }
             List<FlowEdge> nextEdges = new ArrayList<>();
             for (FlowEdge edge : getOutEdgesOf(node)) {
@@ -216,7 +238,7 @@ class PFGBuilder {
                         // Optimization: filter out some potential spurious flows due to
                         // the imprecision of context-insensitive pre-analysis, which
                         // helps improve the performance of Zipper and pointer analysis.
-                        if (pce.pceMethodsOf(type).contains(toVar.getMethod())) {
+                        if (pceMethods.contains(toVar.getMethod())) {
                             nextEdges.add(edge);
                         }
                     }
@@ -225,14 +247,10 @@ class PFGBuilder {
                         Obj base = toNode.getBase();
                         if (base.getType().equals(type)) {
                             // add wrapped flow edges to this variable
-                            invokeMethods.stream()
-                                    .map(m -> m.getIR().getThis())
-                                    .map(ofg::getVarNode)
-                                    .filter(Objects::nonNull) // filter this variable of native methods
-                                    .forEach(nextNode -> wuEdges.put(toNode,
-                                            new WrappedFlowEdge(toNode, nextNode)));
+                            thisNodes.forEach(nextNode -> wuEdges.put(toNode,
+                                    new WrappedFlowEdge(toNode, nextNode)));
                             nextEdges.add(edge);
-                        } else if (oag.getAllocateesOf(type).contains(base)) {
+                        } else if (allocatees.contains(base)) {
                             // Optimization, similar as above.
                             VarNode assignedNode = getAssignedNode(base);
                             if (assignedNode != null) {
@@ -251,7 +269,7 @@ class PFGBuilder {
                             // Optimization: filter out some potential spurious flows due to
                             // the imprecision of context-insensitive pre-analysis, which
                             // helps improve the performance of Zipper and pointer analysis.
-                            if (pce.pceMethodsOf(type).contains(toVar.getMethod())) {
+                            if (pceMethods.contains(toVar.getMethod())) {
                                 nextEdges.add(edge);
                             }
                         } else if (edge instanceof UnwrappedFlowEdge) {
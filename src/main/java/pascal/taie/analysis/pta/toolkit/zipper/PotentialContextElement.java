@@ -24,7 +24,6 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
-import pascal.taie.analysis.pta.toolkit.util.OAGs;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Canonicalizer;
@@ -48,8 +47,8 @@ class PotentialContextElement {
     private final Map<Type, Set<JMethod>> type2PCEMethods;
 
     PotentialContextElement(PointerAnalysisResultEx pta,
-                            ObjectAllocationGraph oag) {
-        Map<Obj, Set<JMethod>> invokedMethods = OAGs.computeInvokedMethods(pta);
+                            ObjectAllocationGraph oag,
+                            Map<Obj, Set<JMethod>> invokedMethods) {
         Canonicalizer<Set<JMethod>> canonicalizer = new Canonicalizer<>();
         Indexer<JMethod> methodIndexer = new SimpleIndexer<>(
                 pta.getBase().getCallGraph().getNodes());
@@ -33,6 +33,7 @@ import pascal.taie.util.collection.Views;
 import pascal.taie.util.graph.Graph;
 
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 class PrecisionFlowGraph implements Graph<Node> {
@@ -73,6 +74,37 @@ class PrecisionFlowGraph implements Graph<Node> {
         return outNodes;
     }
 
+    /**
+     * Performs the given action for each predecessor of {@code node}.
+     * Unlike {@link #getPredsOf(Node)}, this method does not create
+     * any intermediate sets, and is preferred for graph traversal.
+     */
+    void forEachPredOf(Node node, Consumer<Node> action) {
+        for (FlowEdge edge : ofg.getInEdgesOf(node)) {
+            if (nodes.contains(edge.source())) {
+                action.accept(edge.source());
+            }
+        }
+        for (FlowEdge edge : inWUEdges.get(node)) {
+            action.accept(edge.source());
+        }
+    }
+
+    /**
+     * @return the number of edges in this graph.
+     */
+    int getNumberOfEdges() {
+        int count = outWUEdges.size();
+        for (Node node : nodes) {
+            for (FlowEdge edge : ofg.getOutEdgesOf(node)) {
+                if (nodes.contains(edge.target())) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
     @Override
     public boolean hasEdge(Node source, Node target) {
         throw new UnsupportedOperationException();
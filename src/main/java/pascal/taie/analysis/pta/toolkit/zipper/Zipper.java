@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.graph.flowgraph.InstanceNode;
 import pascal.taie.analysis.graph.flowgraph.Node;
 import pascal.taie.analysis.graph.flowgraph.ObjectFlowGraph;
@@ -33,24 +34,33 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.New;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.MutableInt;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class Zipper {
@@ -59,6 +69,11 @@ public class Zipper {
 
     private static final float DEFAULT_PV = 0.05f;
 
+    /**
+     * File of the per-type report of building and analyzing PFGs.
+     */
+    private static final String REPORT_FILE = "zipper-pfg-report.txt";
+
     private final PointerAnalysisResultEx pta;
 
     private final boolean isExpress;
@@ -84,6 +99,19 @@ public class Zipper {
 
     private Map<JMethod, MutableInt> methodPts;
 
+    /**
+     * Statistics of building and analyzing the PFG of each type.
+     */
+    private Queue<PFGStat> pfgStats;
+
+    /**
+     * Used to measure the memory allocated by the thread which
+     * builds and analyzes a PFG. If the JVM does not support
+     * such measurement, this field is {@code null}.
+     */
+    @Nullable
+    private final com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+
     /**
      * Parses Zipper argument and runs Zipper.
      */
@@ -110,9 +138,16 @@ public class Zipper {
         this.pta = new PointerAnalysisResultExImpl(ptaBase, true);
         this.isExpress = isExpress;
         this.pv = pv;
-        this.oag = Timer.runAndCount(() -> new ObjectAllocationGraph(pta),
+        // invoked methods are used by both OAG and PCE, thus we compute
+        // them once, and release them after OAG and PCE are built
+        Map<Obj, Set<JMethod>> invokedMethods = Timer.runAndCount(
+                () -> OAGs.computeInvokedMethods(pta),
+                "Computing invoked methods", Level.INFO);
+        this.oag = Timer.runAndCount(
+                () -> new ObjectAllocationGraph(pta, invokedMethods),
                 "Building OAG", Level.INFO);
-        this.pce = Timer.runAndCount(() -> new PotentialContextElement(pta, oag),
+        this.pce = Timer.runAndCount(
+                () -> new PotentialContextElement(pta, oag, invokedMethods),
                 "Building PCE", Level.INFO);
         this.ofg = ptaBase.getObjectFlowGraph();
         logger.info("{} nodes in OFG", ofg.getNodes().size());
@@ -128,6 +163,9 @@ public class Zipper {
         totalPFGNodes = new AtomicInteger(0);
         totalPFGEdges = new AtomicInteger(0);
         pcmMap = Maps.newConcurrentMap(1024);
+        pfgStats = new ConcurrentLinkedQueue<>();
+        // the PFGs of all types query the points-to sets of most variables
+        pta.getBase().computeAllPointsToSets();
 
         // prepare information for Zipper-e
         if (isExpress) {
@@ -153,6 +191,7 @@ public class Zipper {
         logger.info("#types: {}", types.size());
         logger.info("#avg. nodes in PFG: {}", totalPFGNodes.get() / types.size());
         logger.info("#avg. edges in PFG: {}", totalPFGEdges.get() / types.size());
+        reportPFGStats();
 
         // collect all precision-critical methods
         Set<JMethod> pcms = pcmMap.values()
@@ -163,21 +202,30 @@ public class Zipper {
         return pcms;
     }
 
+    /**
+     * Builds and analyzes the PFG of given type. The PFG is discarded
+     * after the analysis, so that at any time, at most one PFG per
+     * thread is alive.
+     */
     private void analyze(Type type) {
+        long startTime = System.nanoTime();
+        long startAllocated = getAllocatedBytes();
         PrecisionFlowGraph pfg = new PFGBuilder(pta, ofg, oag, pce, type).build();
-        totalPFGNodes.addAndGet(pfg.getNumberOfNodes());
-        totalPFGEdges.addAndGet(pfg.getNodes()
-                .stream()
-                .mapToInt(pfg::getOutDegreeOf)
-                .sum());
+        int nodes = pfg.getNumberOfNodes();
+        int edges = pfg.getNumberOfEdges();
+        totalPFGNodes.addAndGet(nodes);
+        totalPFGEdges.addAndGet(edges);
         Set<JMethod> pcms = getPrecisionCriticalMethods(pfg);
         if (!pcms.isEmpty()) {
             pcmMap.put(type, pcms);
         }
+        pfgStats.add(new PFGStat(type, nodes, edges, pcms.size(),
+                System.nanoTime() - startTime,
+                getAllocatedBytes() - startAllocated));
     }
 
     private Set<JMethod> getPrecisionCriticalMethods(PrecisionFlowGraph pfg) {
-        Set<JMethod> pcms = getFlowNodes(pfg)
+        Set<JMethod> pcms = getFlowNodes(pfg, ofg)
                 .stream()
                 .map(Zipper::node2Method)
                 .filter(Objects::nonNull)
@@ -197,19 +245,18 @@ public class Zipper {
         return pcms;
     }
 
-    private static Set<Node> getFlowNodes(PrecisionFlowGraph pfg) {
-        Set<Node> visited = Sets.newSet();
-        for (VarNode outNode : pfg.getOutNodes()) {
-            Deque<Node> workList = new ArrayDeque<>();
-            workList.add(outNode);
-            while (!workList.isEmpty()) {
-                Node node = workList.poll();
-                if (visited.add(node)) {
-                    pfg.getPredsOf(node)
-                            .stream()
-                            .filter(Predicate.not(visited::contains))
-                            .forEach(workList::add);
-                }
+    private static Set<Node> getFlowNodes(
+            PrecisionFlowGraph pfg, ObjectFlowGraph ofg) {
+        Set<Node> visited = new IndexerBitSet<>(ofg, true);
+        Deque<Node> workList = new ArrayDeque<>(pfg.getOutNodes());
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            if (visited.add(node)) {
+                pfg.forEachPredOf(node, pred -> {
+                    if (!visited.contains(pred)) {
+                        workList.add(pred);
+                    }
+                });
             }
         }
         return visited;
@@ -230,4 +277,66 @@ public class Zipper {
         }
         return null;
     }
+
+    /**
+     * Statistics of building and analyzing the PFG of a type.
+     *
+     * @param time      elapsed time in nanoseconds.
+     * @param allocated allocated memory in bytes, or negative value
+     *                  if the measurement is not supported.
+     */
+    private record PFGStat(Type type, int nodes, int edges, int pcms,
+                           long time, long allocated) {
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported()
+                && sunBean.isThreadAllocatedMemoryEnabled()) {
+            return sunBean;
+        }
+        return null;
+    }
+
+    /**
+     * @return the memory (in bytes) allocated by current thread so far,
+     * or {@code -1} if the measurement is not supported.
+     */
+    private long getAllocatedBytes() {
+        return threadMXBean != null
+                ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Reports the statistics of PFGs, from the most time-consuming type
+     * to the least one, so that users can identify the types that
+     * dominate the cost of Zipper.
+     */
+    private void reportPFGStats() {
+        PFGStat slowest = pfgStats.stream()
+                .max(Comparator.comparingLong(PFGStat::time))
+                .orElse(null);
+        if (slowest != null) {
+            logger.info("Most time-consuming type: {} ({} nodes, {} edges, {}ms)",
+                    slowest.type(), slowest.nodes(), slowest.edges(),
+                    slowest.time() / 1_000_000);
+        }
+        File outFile = new File(World.get().getOptions().getOutputDir(), REPORT_FILE);
+        try (PrintStream out = new PrintStream(new FileOutputStream(outFile))) {
+            logger.info("Dumping Zipper PFG report to {}", outFile.getAbsolutePath());
+            out.println("Time(ms)\tAllocated(KB)\t#Nodes\t#Edges\t#PCMs\tType");
+            pfgStats.stream()
+                    .sorted(Comparator.comparingLong(PFGStat::time).reversed())
+                    .forEach(s -> out.printf("%.3f\t%d\t%d\t%d\t%d\t%s%n",
+                            s.time() / 1_000_000.0,
+                            s.allocated() >= 0 ? s.allocated() / 1024 : -1,
+                            s.nodes(), s.edges(), s.pcms(), s.type()));
+        } catch (FileNotFoundException e) {
+            logger.warn("Failed to write Zipper PFG report to {}, caused by {}",
+                    outFile.getAbsolutePath(), e);
+        }
+        pfgStats = null;
+    }
 }
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.sideeffect;
 
+import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -32,11 +33,12 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.GlobalIndexer;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.CollectionUtils;
+import pascal.taie.util.collection.IndexMap;
 import pascal.taie.util.collection.IndexerBitSet;
-import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.graph.MergedNode;
 import pascal.taie.util.graph.MergedSCCGraph;
@@ -60,9 +62,12 @@ class TopologicalSolver {
 
     SideEffect solve(PointerAnalysisResult pta) {
         CallGraph<Invoke, JMethod> callGraph = pta.getCallGraph();
+        pta.computeAllPointsToSets();
         // 1. compute the objects directly modified by each method and stmt
-        Map<JMethod, Set<Obj>> methodDirectMods = Maps.newMap();
-        Map<Stmt, Set<Obj>> stmtDirectMods = Maps.newMap();
+        GlobalIndexer globalIndexer = World.get().getGlobalIndexer();
+        Map<JMethod, Set<Obj>> methodDirectMods = newMethodMap();
+        Map<Stmt, Set<Obj>> stmtDirectMods = new IndexMap<>(
+                globalIndexer.getStmtIndexer(), globalIndexer.getStmtCount());
         computeDirectMods(pta, callGraph, stmtDirectMods, methodDirectMods);
         // 2. compute the objects directly modified by
         //    the methods of each SCC in the call graph
@@ -76,6 +81,15 @@ class TopologicalSolver {
         return new SideEffect(methodMods, stmtDirectMods, callGraph);
     }
 
+    /**
+     * @return a map whose keys are indexed by {@link GlobalIndexer}.
+     */
+    private static <V> Map<JMethod, V> newMethodMap() {
+        GlobalIndexer globalIndexer = World.get().getGlobalIndexer();
+        return new IndexMap<>(globalIndexer.getMethodIndexer(),
+                globalIndexer.getMethodCount());
+    }
+
     private void computeDirectMods(
             PointerAnalysisResult pta,
             CallGraph<?, JMethod> callGraph,
@@ -121,7 +135,7 @@ class TopologicalSolver {
     private static Map<JMethod, Set<Obj>> computeSCCDirectMods(
             Set<MergedNode<JMethod>> sccs,
             Map<JMethod, Set<Obj>> methodDirectMods) {
-        Map<JMethod, Set<Obj>> sccDirectMods = Maps.newMap();
+        Map<JMethod, Set<Obj>> sccDirectMods = newMethodMap();
         sccs.forEach(scc -> {
             Set<Obj> mods = Sets.newHybridSet();
             scc.getNodes().forEach(m ->
@@ -136,7 +150,7 @@ class TopologicalSolver {
             CallGraph<?, JMethod> callGraph,
             Map<JMethod, Set<Obj>> sccDirectMods,
             Indexer<Obj> indexer) {
-        Map<JMethod, Set<Obj>> methodMods = Maps.newMap();
+        Map<JMethod, Set<Obj>> methodMods = newMethodMap();
         // to accelerate side-effect analysis, we propagate modified objects
         // of methods (methodMods) based on topological sorting of call graph,
         // so that each method only needs to be processed once
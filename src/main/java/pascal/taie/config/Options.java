@@ -211,6 +211,30 @@ public class Options implements Serializable {
         return preBuildIR;
     }
 
+    @JsonProperty
+    @Option(names = "--lazy-class-loading",
+            description = "Load classes on their first requests instead of" +
+                    " loading all classes referenced by the program in advance," +
+                    " only supported by ASM world builder (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean lazyClassLoading;
+
+    public boolean isLazyClassLoading() {
+        return lazyClassLoading;
+    }
+
+    @JsonProperty
+    @Option(names = "--ir-budget",
+            description = "Maximum number of statements of the IRs kept in memory," +
+                    " the IRs of cold methods are evicted when exceeding it," +
+                    " and rebuilt on demand, 0 means unlimited (default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private long irBudget;
+
+    public long getIRBudget() {
+        return irBudget;
+    }
+
     @JsonProperty
     @Option(names = {"-wc", "--world-cache-mode"},
             description = "Enable world cache mode to save build time"
@@ -315,6 +339,12 @@ public class Options implements Serializable {
             throw new ConfigException("Conflict options: " +
                     "--analysis and --plan-file should not be used simultaneously");
         }
+        if (options.worldCacheMode && options.lazyClassLoading) {
+            // classes not loaded yet are read from the class path on demand,
+            // which cannot be restored from the world cache
+            throw new ConfigException("Conflict options: " +
+                    "--world-cache-mode and --lazy-class-loading should not be used simultaneously");
+        }
         if (options.getClassPath() != null
                 && options.mainClass == null
                 && options.inputClasses.isEmpty()
@@ -511,6 +541,8 @@ public class Options implements Serializable {
                 ", worldBuilderClass=" + worldBuilderClass +
                 ", outputDir='" + outputDir + '\'' +
                 ", preBuildIR=" + preBuildIR +
+                ", lazyClassLoading=" + lazyClassLoading +
+                ", irBudget=" + irBudget +
                 ", worldCacheMode=" + worldCacheMode +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
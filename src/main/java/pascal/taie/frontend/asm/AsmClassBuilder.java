@@ -0,0 +1,218 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.frontend.asm.ClassData.FieldData;
+import pascal.taie.frontend.asm.ClassData.MethodData;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.ClassGSignature;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Lists;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.language.classes.ClassNames.OBJECT;
+
+/**
+ * Builds {@link JClass} from {@link ClassData}, or builds a phantom class
+ * if the class file is absent.
+ */
+class AsmClassBuilder implements JClassBuilder {
+
+    /**
+     * Packages of Java library. Classes in these packages are not
+     * application classes even if they are not loaded from JRE,
+     * which is consistent with Soot frontend.
+     */
+    private static final List<String> LIBRARY_PACKAGES = List.of(
+            "java.", "sun.", "javax.", "com.sun.", "com.ibm.",
+            "org.xml.", "org.w3c.", "apple.awt.", "com.apple.",
+            "jdk.", "apple.laf.");
+
+    private final Converter converter;
+
+    private final String name;
+
+    /**
+     * Information of the class, or {@code null} for phantom class.
+     */
+    @Nullable
+    private final ClassData data;
+
+    private JClass jclass;
+
+    AsmClassBuilder(Converter converter, String name, @Nullable ClassData data) {
+        this.converter = converter;
+        this.name = name;
+        this.data = data;
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        this.jclass = jclass;
+        jclass.build(this);
+    }
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        return data != null ?
+                Modifiers.convertClass(data.access) :
+                Set.of(Modifier.PUBLIC);
+    }
+
+    @Override
+    public String getSimpleName() {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return converter.convertClassType(name);
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        if (name.equals(OBJECT)) {
+            return null;
+        } else if (data == null || data.superName == null) {
+            return loadClass(OBJECT);
+        } else {
+            return loadClass(data.superName);
+        }
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        return data == null ? List.of() : Lists.map(data.interfaces, this::loadClass);
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        return data != null && data.outerName != null ?
+                converter.convertClass(data.outerName) :
+                null;
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        return data == null ? List.of() : Lists.map(data.fields, this::buildField);
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        return data == null ? List.of() : Lists.map(data.methods, this::buildMethod);
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return data == null ?
+                AnnotationHolder.emptyHolder() :
+                makeAnnotationHolder(data.annotations);
+    }
+
+    @Override
+    public boolean isApplication() {
+        return data != null && !data.source.isJRE() &&
+                LIBRARY_PACKAGES.stream().noneMatch(name::startsWith);
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return data == null;
+    }
+
+    @Nullable
+    @Override
+    public ClassGSignature getGSignature() {
+        return data != null && data.signature != null ?
+                GSignatures.toClassSig(data.isInterface(), data.signature) :
+                null;
+    }
+
+    private JClass loadClass(String className) {
+        JClass c = converter.convertClass(className);
+        if (c == null) {
+            throw new AsmFrontendException("Failed to load class " + className +
+                    " (required by " + name + ")");
+        }
+        return c;
+    }
+
+    private JField buildField(FieldData field) {
+        return new JField(jclass, field.name(),
+                Modifiers.convertField(field.access()),
+                converter.convertType(field.descriptor()),
+                field.signature() == null ? null :
+                        GSignatures.toTypeSig(field.signature()),
+                makeAnnotationHolder(field.annotations()));
+    }
+
+    private JMethod buildMethod(MethodData method) {
+        List<Type> paramTypes = converter.convertParamTypes(method.descriptor);
+        Type returnType = converter.convertReturnType(method.descriptor);
+        List<ClassType> exceptions = Lists.map(
+                method.exceptions, converter::convertClassType);
+        List<AnnotationHolder> paramAnnotations = method.paramAnnotations == null ?
+                null :
+                Arrays.stream(method.paramAnnotations)
+                        .map(annotations -> annotations == null ?
+                                AnnotationHolder.emptyHolder() :
+                                makeAnnotationHolder(annotations))
+                        .toList();
+        List<String> paramNames = method.paramNames;
+        if (paramNames != null && (paramNames.size() != paramTypes.size() ||
+                paramNames.stream().anyMatch(Objects::isNull))) {
+            // MethodParameters attribute may omit the names of
+            // some parameters, for such case, we ignore the names
+            // to avoid mismatch between names and actual parameters.
+            paramNames = null;
+        }
+        return new JMethod(jclass, method.name,
+                Modifiers.convertMethod(method.access),
+                paramTypes, returnType, exceptions,
+                method.signature == null ? null :
+                        GSignatures.toMethodSig(method.signature),
+                makeAnnotationHolder(method.annotations),
+                paramAnnotations, paramNames,
+                new MethodSource(data.source, method.descriptor));
+    }
+
+    private static AnnotationHolder makeAnnotationHolder(List<Annotation> annotations) {
+        return annotations.isEmpty() ?
+                AnnotationHolder.emptyHolder() :
+                AnnotationHolder.make(annotations);
+    }
+}
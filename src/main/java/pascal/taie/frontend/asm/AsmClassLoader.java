@@ -0,0 +1,248 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.frontend.asm.ClassPath.ClassSource;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class AsmClassLoader implements JClassLoader {
+
+    private static final Logger logger = LogManager.getLogger(AsmClassLoader.class);
+
+    private final transient ClassPath classPath;
+
+    private final ClassHierarchy hierarchy;
+
+    private final boolean allowPhantom;
+
+    /**
+     * If this field is true, classes are loaded on their first requests.
+     */
+    private final boolean lazy;
+
+    private transient Converter converter;
+
+    /**
+     * This map may be concurrently read during class building and
+     * IR construction, thus we use concurrent map to ensure its thread-safety.
+     */
+    private final Map<String, JClass> classes = Maps.newConcurrentMap(4096);
+
+    /**
+     * Classes being built in lazy mode, which are not visible via
+     * {@link #classes} until they are completely built.
+     * Guarded by the lock of this loader.
+     */
+    private final Map<String, JClass> buildingClasses = Maps.newMap();
+
+    /**
+     * Names of the classes which are absent in class path.
+     * Guarded by the lock of this loader.
+     */
+    private final Set<String> absentClasses = Sets.newSet();
+
+    AsmClassLoader(ClassPath classPath, ClassHierarchy hierarchy,
+                   boolean allowPhantom, boolean lazy) {
+        this.classPath = classPath;
+        this.hierarchy = hierarchy;
+        this.allowPhantom = allowPhantom;
+        this.lazy = lazy;
+    }
+
+    @Override
+    public JClass loadClass(String name) {
+        JClass jclass = classes.get(name);
+        if (jclass == null && lazy) {
+            jclass = loadLazily(name, false);
+        }
+        return jclass;
+    }
+
+    /**
+     * Loads a class referenced by class files, i.e., a supertype, an outer
+     * class or an owner of member references. Different from
+     * {@link #loadClass(String)}, in lazy mode, this method loads an absent
+     * class as phantom class if phantom references are allowed.
+     */
+    @Nullable
+    JClass loadReferencedClass(String name) {
+        JClass jclass = loadClass(name);
+        if (jclass == null && lazy && allowPhantom) {
+            jclass = loadLazily(name, true);
+        }
+        return jclass;
+    }
+
+    @Override
+    public Collection<JClass> getLoadedClasses() {
+        return classes.values();
+    }
+
+    void setConverter(Converter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Loads given classes and all classes transitively referenced by them.
+     * Class files are read, and classes are built in parallel, then all new
+     * classes are added to class hierarchy in the order of their names,
+     * so that the indexes of classes are deterministic.
+     * <p>
+     * Referenced classes that are absent in class path are loaded as
+     * phantom classes if phantom references are allowed. Absent classes
+     * in {@code roots} are ignored, and callers should check the classes
+     * that must exist.
+     * <p>
+     * This method is used in eager mode, and in lazy mode, classes are
+     * loaded by {@link #loadClass(String)} on demand.
+     */
+    synchronized void loadClasses(Collection<String> roots) {
+        // read class files level by level
+        Map<String, ClassData> found = Maps.newConcurrentMap(4096);
+        Set<String> missing = Sets.newConcurrentSet();
+        List<String> worklist = roots.stream()
+                .distinct()
+                .filter(name -> !classes.containsKey(name))
+                .toList();
+        while (!worklist.isEmpty()) {
+            Set<String> references = worklist.parallelStream()
+                    .flatMap(name -> {
+                        ClassData data = readClass(name);
+                        if (data == null) {
+                            missing.add(name);
+                            return Stream.empty();
+                        } else {
+                            found.put(name, data);
+                            return data.references.stream();
+                        }
+                    })
+                    .collect(Collectors.toSet());
+            worklist = references.stream()
+                    .filter(name -> !classes.containsKey(name) &&
+                            !found.containsKey(name) && !missing.contains(name))
+                    .toList();
+        }
+        // create classes, and put them into classes map at first,
+        // as building a class may need to load its referenced classes
+        Set<String> missingRefs = found.values()
+                .stream()
+                .flatMap(data -> data.references.stream())
+                .filter(missing::contains)
+                .collect(Collectors.toSet());
+        List<JClass> newClasses = new ArrayList<>(found.size());
+        List<AsmClassBuilder> builders = new ArrayList<>(found.size());
+        found.keySet().stream().sorted().forEach(name -> {
+            ClassData data = found.get(name);
+            newClasses.add(new JClass(this, name, data.source.getModuleName()));
+            builders.add(new AsmClassBuilder(converter, name, data));
+        });
+        if (allowPhantom) {
+            missingRefs.stream().sorted().forEach(name -> {
+                newClasses.add(new JClass(this, name));
+                builders.add(new AsmClassBuilder(converter, name, null));
+            });
+        } else if (!missingRefs.isEmpty()) {
+            logger.warn("{} referenced classes are absent in class path," +
+                    " e.g., {}", missingRefs.size(), missingRefs.iterator().next());
+        }
+        newClasses.forEach(c -> classes.put(c.getName(), c));
+        // build classes in parallel
+        int n = newClasses.size();
+        IntStream.range(0, n)
+                .parallel()
+                .forEach(i -> builders.get(i).build(newClasses.get(i)));
+        newClasses.forEach(hierarchy::addClass);
+        logger.info("Loaded {} classes ({} phantom classes) from {} class files",
+                n, n - found.size(), classPath.size());
+    }
+
+    /**
+     * Loads a class in lazy mode. Classes are loaded one by one under the
+     * lock of this loader, and each class is published via {@link #classes}
+     * after it has been built and added to class hierarchy, so that other
+     * threads never observe partially built classes.
+     * Building a class may recursively load its supertypes.
+     */
+    @Nullable
+    private synchronized JClass loadLazily(String name, boolean allowAbsent) {
+        JClass jclass = classes.get(name);
+        if (jclass == null) {
+            jclass = buildingClasses.get(name);
+        }
+        if (jclass != null || (absentClasses.contains(name) && !allowAbsent)) {
+            return jclass;
+        }
+        ClassData data = absentClasses.contains(name) ? null : readClass(name);
+        if (data == null) {
+            absentClasses.add(name);
+            if (!allowAbsent) {
+                return null;
+            }
+            jclass = new JClass(this, name);
+        } else {
+            jclass = new JClass(this, name, data.source.getModuleName());
+        }
+        buildingClasses.put(name, jclass);
+        try {
+            new AsmClassBuilder(converter, name, data).build(jclass);
+            hierarchy.addClass(jclass);
+            classes.put(name, jclass);
+        } finally {
+            buildingClasses.remove(name);
+        }
+        return jclass;
+    }
+
+    @Nullable
+    private ClassData readClass(String name) {
+        ClassSource source = classPath.getSource(name);
+        if (source != null) {
+            try {
+                ClassData data = ClassData.read(source);
+                if (data.name.equals(name)) {
+                    return data;
+                }
+                logger.warn("Ignored {}, which declares class {}", source, data.name);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to read {}: {}", source, e.toString());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IRStore;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.util.Timer;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * World builder which reads class files directly by ASM, without Soot.
+ * Class files are read and classes are built in parallel, and method
+ * bodies are translated to Tai-e IR on demand (or in advance if
+ * {@link Options#isPreBuildIR()} is set).
+ * <p>
+ * By default, the world consists of the main class, input classes,
+ * the classes used by Tai-e analyses, and all classes transitively
+ * referenced by them. If {@link Options#isLazyClassLoading()} is set,
+ * only the main class and input classes are loaded in advance, and
+ * other classes are loaded on their first requests.
+ */
+public class AsmWorldBuilder extends AbstractWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(AsmWorldBuilder.class);
+
+    private static final Subsignature MAIN = Subsignature.get(
+            "void main(java.lang.String[])");
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> analyses) {
+        World.reset();
+        World world = new World();
+        World.set(world);
+
+        // options will be used during World building, thus it should be
+        // set at first.
+        world.setOptions(options);
+        // initialize class hierarchy
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        AsmClassLoader loader = new AsmClassLoader(buildClassPath(options),
+                hierarchy, options.isAllowPhantom(), options.isLazyClassLoading());
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        world.setClassHierarchy(hierarchy);
+        // initialize type manager
+        TypeSystem typeSystem = new TypeSystemImpl(hierarchy);
+        world.setTypeSystem(typeSystem);
+        // initialize converter
+        Converter converter = new Converter(loader, typeSystem);
+        loader.setConverter(converter);
+        // build classes in hierarchy
+        List<String> inputClasses = getInputClasses(options);
+        if (!options.isLazyClassLoading()) {
+            Timer.runAndCount(() -> loader.loadClasses(
+                            getRootClasses(options, analyses, inputClasses)),
+                    "Build classes by ASM");
+        }
+        inputClasses.forEach(name -> checkExistence(hierarchy, name));
+        // set main method
+        String mainClass = options.getMainClass();
+        if (mainClass != null) {
+            JMethod mainMethod = checkExistence(hierarchy, mainClass)
+                    .getDeclaredMethod(MAIN);
+            if (mainMethod != null && mainMethod.isStatic()) {
+                world.setMainMethod(mainMethod);
+            } else {
+                logger.warn("Warning: main class '{}'" +
+                        " does not have main(String[]) method!", mainClass);
+            }
+        } else {
+            logger.warn("Warning: main class was not given!");
+        }
+        // set implicit entries
+        world.setImplicitEntries(implicitEntries.stream()
+                .map(hierarchy::getJREMethod)
+                // some implicit entries may not exist in certain JDK version,
+                // thus we filter out null
+                .filter(Objects::nonNull)
+                .toList());
+        // initialize IR builder
+        world.setNativeModel(getNativeModel(typeSystem, hierarchy, options));
+        IRBuilder irBuilder = new IRBuilder(converter);
+        world.setIRBuilder(irBuilder);
+        if (options.getIRBudget() > 0) {
+            world.setIRStore(new IRStore(options.getIRBudget()));
+        }
+        if (options.isPreBuildIR()) {
+            irBuilder.buildAll(hierarchy);
+        }
+    }
+
+    private static ClassPath buildClassPath(Options options) {
+        List<String> jrePaths = new ArrayList<>();
+        Set<String> paths = new LinkedHashSet<>();
+        for (String path : getClassPath(options).split(File.pathSeparator)) {
+            if (path.startsWith(JREs)) {
+                jrePaths.add(path);
+            } else if (!path.isBlank()) {
+                paths.add(path);
+            }
+        }
+        paths.addAll(options.getAppClassPath());
+        return new ClassPath(options.isPrependJVM(),
+                jrePaths, new ArrayList<>(paths));
+    }
+
+    /**
+     * @return the classes from which the world is loaded.
+     */
+    private static Set<String> getRootClasses(
+            Options options, List<AnalysisConfig> analyses, List<String> inputClasses) {
+        Set<String> roots = new LinkedHashSet<>();
+        if (options.getMainClass() != null) {
+            roots.add(options.getMainClass());
+        }
+        roots.addAll(inputClasses);
+        roots.addAll(getReflectionLogClasses(analyses));
+        implicitEntries.forEach(sig -> roots.add(StringReps.getClassNameOf(sig)));
+        // the classes used by Tai-e analyses, which may be absent
+        // in the references of the program
+        Arrays.stream(ClassNames.class.getFields())
+                .filter(f -> Modifier.isStatic(f.getModifiers()) &&
+                        f.getType() == String.class)
+                .map(AsmWorldBuilder::getConstant)
+                .forEach(roots::add);
+        return roots;
+    }
+
+    private static String getConstant(Field field) {
+        try {
+            return (String) field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new AsmFrontendException("Failed to read " + field, e);
+        }
+    }
+
+    private static JClass checkExistence(ClassHierarchy hierarchy, String name) {
+        JClass c = hierarchy.getClass(name);
+        if (c == null) {
+            throw new RuntimeException("Class " + name + " is not found," +
+                    " are your class path and class name given properly?");
+        }
+        return c;
+    }
+}
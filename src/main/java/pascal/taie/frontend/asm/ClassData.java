@@ -0,0 +1,445 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import pascal.taie.frontend.asm.ClassPath.ClassSource;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Class-level information read from a class file, i.e., everything
+ * needed to build a {@link pascal.taie.language.classes.JClass}.
+ * Method bodies are skipped here, and they are read on demand
+ * when building IR.
+ */
+final class ClassData {
+
+    // tags of constant pool entries, see JVM Spec. 4.4
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    final ClassSource source;
+
+    int access;
+
+    String name;
+
+    @Nullable
+    String superName;
+
+    List<String> interfaces;
+
+    @Nullable
+    String outerName;
+
+    @Nullable
+    String signature;
+
+    final List<Annotation> annotations = new ArrayList<>(0);
+
+    final List<FieldData> fields = new ArrayList<>();
+
+    final List<MethodData> methods = new ArrayList<>();
+
+    /**
+     * Names of the classes referenced by this class.
+     */
+    final Set<String> references = Sets.newHybridSet();
+
+    private ClassData(ClassSource source) {
+        this.source = source;
+    }
+
+    boolean isInterface() {
+        return (access & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    /**
+     * Reads the class from given class file.
+     */
+    static ClassData read(ClassSource source) {
+        ClassData data = new ClassData(source);
+        ClassReader reader = new ClassReader(source.read());
+        reader.accept(data.new Reader(),
+                ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        data.collectReferences(reader);
+        return data;
+    }
+
+    /**
+     * Collects the classes referenced in constant pool and
+     * in the descriptors of the members of this class.
+     */
+    private void collectReferences(ClassReader reader) {
+        char[] buffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); ++i) {
+            int offset = reader.getItem(i);
+            if (offset == 0) { // the second slot of long and double
+                continue;
+            }
+            switch (reader.readByte(offset - 1)) {
+                case CONSTANT_CLASS -> {
+                    String internalName = reader.readUTF8(offset, buffer);
+                    if (internalName.charAt(0) == '[') {
+                        addReferences(internalName);
+                    } else {
+                        references.add(toClassName(internalName));
+                    }
+                }
+                case CONSTANT_NAME_AND_TYPE ->
+                        addReferences(reader.readUTF8(offset + 2, buffer));
+                case CONSTANT_METHOD_TYPE ->
+                        addReferences(reader.readUTF8(offset, buffer));
+                default -> {
+                }
+            }
+        }
+        fields.forEach(f -> addReferences(f.descriptor()));
+        methods.forEach(m -> addReferences(m.descriptor));
+        references.remove(name);
+    }
+
+    /**
+     * Adds the classes in a field or method descriptor.
+     */
+    private void addReferences(String descriptor) {
+        int i = descriptor.indexOf('L');
+        while (i >= 0) {
+            int end = descriptor.indexOf(';', i);
+            references.add(toClassName(descriptor.substring(i + 1, end)));
+            i = descriptor.indexOf('L', end);
+        }
+    }
+
+    static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    record FieldData(int access, String name, String descriptor,
+                     @Nullable String signature,
+                     List<Annotation> annotations) {
+    }
+
+    static final class MethodData {
+
+        final int access;
+
+        final String name;
+
+        final String descriptor;
+
+        @Nullable
+        final String signature;
+
+        final List<String> exceptions;
+
+        final List<Annotation> annotations = new ArrayList<>(0);
+
+        /**
+         * Annotations of each parameter, or {@code null} if
+         * no parameters are annotated.
+         */
+        @Nullable
+        List<Annotation>[] paramAnnotations;
+
+        /**
+         * Number of parameters that may be annotated, which may be less
+         * than the number of parameters in descriptor, e.g., javac does not
+         * count the synthetic outer-instance parameter of inner class
+         * constructors. Parameter annotations are indexed after it.
+         */
+        int annotableParamCount = -1;
+
+        @Nullable
+        List<String> paramNames;
+
+        private MethodData(int access, String name, String descriptor,
+                           @Nullable String signature, @Nullable String[] exceptions) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+            this.exceptions = exceptions == null ? List.of() :
+                    Arrays.stream(exceptions).map(ClassData::toClassName).toList();
+        }
+
+        int getParamCount() {
+            return Type.getArgumentCount(descriptor);
+        }
+    }
+
+    private class Reader extends ClassVisitor {
+
+        private String internalName;
+
+        private Reader() {
+            super(GSignatures.API);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature,
+                          String superName, String[] interfaces) {
+            internalName = name;
+            ClassData.this.access = access;
+            ClassData.this.name = toClassName(name);
+            ClassData.this.signature = signature;
+            ClassData.this.superName = superName == null ? null : toClassName(superName);
+            ClassData.this.interfaces = interfaces == null ? List.of() :
+                    Arrays.stream(interfaces).map(ClassData::toClassName).toList();
+        }
+
+        @Override
+        public void visitOuterClass(String owner, String name, String descriptor) {
+            // local and anonymous classes have no outer class in
+            // InnerClasses attribute, and we use their enclosing classes
+            if (outerName == null) {
+                outerName = toClassName(owner);
+            }
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName,
+                                    String innerName, int access) {
+            if (name.equals(internalName) && outerName != null) {
+                ClassData.this.outerName = toClassName(outerName);
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return new AnnotationReader(descriptor, annotations::add);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor,
+                                       String signature, Object value) {
+            FieldData field = new FieldData(access, name, descriptor,
+                    signature, new ArrayList<>(0));
+            fields.add(field);
+            return new FieldVisitor(api) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return new AnnotationReader(descriptor, field.annotations()::add);
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                         String signature, String[] exceptions) {
+            MethodData method = new MethodData(
+                    access, name, descriptor, signature, exceptions);
+            methods.add(method);
+            return new MethodVisitor(api) {
+
+                @Override
+                public void visitParameter(String name, int access) {
+                    if (method.paramNames == null) {
+                        method.paramNames = new ArrayList<>();
+                    }
+                    method.paramNames.add(name);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    return new AnnotationReader(descriptor, method.annotations::add);
+                }
+
+                @Override
+                public void visitAnnotableParameterCount(int parameterCount, boolean visible) {
+                    method.annotableParamCount = parameterCount;
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(
+                        int parameter, String descriptor, boolean visible) {
+                    int paramCount = method.getParamCount();
+                    if (method.paramAnnotations == null) {
+                        // noinspection unchecked
+                        method.paramAnnotations = new List[paramCount];
+                    }
+                    int index = method.annotableParamCount >= 0 ?
+                            parameter + paramCount - method.annotableParamCount :
+                            parameter;
+                    if (index < 0 || index >= paramCount) { // malformed attribute
+                        return null;
+                    }
+                    List<Annotation>[] paramAnnotations = method.paramAnnotations;
+                    if (paramAnnotations[index] == null) {
+                        paramAnnotations[index] = new ArrayList<>(1);
+                    }
+                    return new AnnotationReader(descriptor, paramAnnotations[index]::add);
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts an annotation in class file to {@link Annotation}.
+     */
+    private static class AnnotationReader extends AnnotationVisitor {
+
+        private final String type;
+
+        private final Consumer<Annotation> consumer;
+
+        private final Map<String, Element> elements = Maps.newHybridMap();
+
+        private AnnotationReader(String descriptor, Consumer<Annotation> consumer) {
+            super(GSignatures.API);
+            this.type = StringReps.toTaieTypeDesc(descriptor);
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            elements.put(name, convertValue(value));
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            elements.put(name, new EnumElement(
+                    StringReps.toTaieTypeDesc(descriptor), value));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            return new AnnotationReader(descriptor, a ->
+                    elements.put(name, new AnnotationElement(a)));
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return new ArrayReader(e -> elements.put(name, e));
+        }
+
+        @Override
+        public void visitEnd() {
+            consumer.accept(new Annotation(type, elements));
+        }
+    }
+
+    private static class ArrayReader extends AnnotationVisitor {
+
+        private final Consumer<Element> consumer;
+
+        private final List<Element> elements = new ArrayList<>();
+
+        private ArrayReader(Consumer<Element> consumer) {
+            super(GSignatures.API);
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            elements.add(convertValue(value));
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            elements.add(new EnumElement(
+                    StringReps.toTaieTypeDesc(descriptor), value));
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            return new AnnotationReader(descriptor, a ->
+                    elements.add(new AnnotationElement(a)));
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return new ArrayReader(elements::add);
+        }
+
+        @Override
+        public void visitEnd() {
+            consumer.accept(new ArrayElement(elements));
+        }
+    }
+
+    private static Element convertValue(Object value) {
+        if (value instanceof Integer i) {
+            return new IntElement(i);
+        } else if (value instanceof Byte b) {
+            return new IntElement(b);
+        } else if (value instanceof Short s) {
+            return new IntElement(s);
+        } else if (value instanceof Character c) {
+            return new IntElement(c);
+        } else if (value instanceof Boolean b) {
+            return new BooleanElement(b);
+        } else if (value instanceof Long l) {
+            return new LongElement(l);
+        } else if (value instanceof Float f) {
+            return new FloatElement(f);
+        } else if (value instanceof Double d) {
+            return new DoubleElement(d);
+        } else if (value instanceof String s) {
+            return new StringElement(s);
+        } else if (value instanceof Type t) {
+            return new ClassElement(StringReps.toTaieTypeDesc(t.getDescriptor()));
+        } else if (value.getClass().isArray()) {
+            // primitive arrays, e.g., int[]
+            int length = java.lang.reflect.Array.getLength(value);
+            List<Element> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                elements.add(convertValue(java.lang.reflect.Array.get(value, i)));
+            }
+            return new ArrayElement(elements);
+        }
+        throw new AsmFrontendException("Unable to handle annotation value: " + value);
+    }
+}
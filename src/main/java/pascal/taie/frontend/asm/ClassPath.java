@@ -0,0 +1,209 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Index from class names to the locations of their class files.
+ * The index is built once by scanning each entry of the class path
+ * (directories, jars and, optionally, the modules of the running JVM),
+ * and if several entries contain the same class, the first one wins.
+ */
+class ClassPath {
+
+    private static final Logger logger = LogManager.getLogger(ClassPath.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Map<String, ClassSource> sources = Maps.newMap(4096);
+
+    /**
+     * File systems of the jar entries. They are kept open as class files
+     * are read on demand during (and, with lazy class loading, after)
+     * world building, and are closed when the world is reset.
+     */
+    private static final Set<FileSystem> jarFileSystems = Sets.newConcurrentSet();
+
+    static {
+        World.registerResetCallback(ClassPath::closeJarFileSystems);
+    }
+
+    /**
+     * @param includeJVM whether to include the classes of the running JVM
+     * @param jrePaths   the entries that provide Java library
+     * @param paths      other entries
+     */
+    ClassPath(boolean includeJVM, List<String> jrePaths, List<String> paths) {
+        if (includeJVM) {
+            addJVMModules();
+        }
+        jrePaths.forEach(path -> addEntry(path, true));
+        paths.forEach(path -> addEntry(path, false));
+    }
+
+    /**
+     * @return the class file of given class, or {@code null} if
+     * the class is absent in the class path.
+     */
+    @Nullable
+    ClassSource getSource(String className) {
+        return sources.get(className);
+    }
+
+    int size() {
+        return sources.size();
+    }
+
+    private void addJVMModules() {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        try (Stream<Path> modules = Files.list(jrt.getPath("/modules"))) {
+            modules.forEach(module -> addClasses(module,
+                    module.getFileName().toString(), true));
+        } catch (IOException e) {
+            throw new AsmFrontendException("Failed to read modules of JVM", e);
+        }
+    }
+
+    private void addEntry(String entry, boolean isJRE) {
+        Path path = Path.of(entry);
+        if (Files.isDirectory(path)) {
+            addClasses(path, null, isJRE);
+        } else if (Files.isRegularFile(path) &&
+                (entry.endsWith(".jar") || entry.endsWith(".zip"))) {
+            try {
+                FileSystem jar = FileSystems.newFileSystem(path);
+                jarFileSystems.add(jar);
+                addClasses(jar.getPath("/"), null, isJRE);
+            } catch (IOException e) {
+                logger.warn("Failed to open class path entry {}: {}",
+                        entry, e.getMessage());
+            }
+        } else {
+            logger.warn("Ignored non-existent class path entry {}", entry);
+        }
+    }
+
+    private static void closeJarFileSystems() {
+        jarFileSystems.forEach(jar -> {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close {}: {}", jar, e.getMessage());
+            }
+        });
+        jarFileSystems.clear();
+    }
+
+    private void addClasses(Path root, @Nullable String moduleName, boolean isJRE) {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(file -> file.toString().endsWith(CLASS_SUFFIX))
+                    .forEach(file -> {
+                        String relative = root.relativize(file).toString();
+                        if (relative.startsWith("META-INF") ||
+                                relative.endsWith("module-info.class")) {
+                            return;
+                        }
+                        String className = relative
+                                .substring(0, relative.length() - CLASS_SUFFIX.length())
+                                .replace(file.getFileSystem().getSeparator(), ".");
+                        sources.putIfAbsent(className,
+                                new ClassSource(file, moduleName, isJRE));
+                    });
+        } catch (IOException e) {
+            throw new AsmFrontendException("Failed to scan " + root, e);
+        }
+    }
+
+    /**
+     * Location of a class file. The content is cached softly, so that
+     * building IR for the methods of a class does not read the same
+     * file repeatedly, and the cache can still be reclaimed when
+     * memory is tight.
+     */
+    static class ClassSource {
+
+        private final Path path;
+
+        @Nullable
+        private final String moduleName;
+
+        private final boolean isJRE;
+
+        private volatile SoftReference<byte[]> content;
+
+        private ClassSource(Path path, @Nullable String moduleName, boolean isJRE) {
+            this.path = path;
+            this.moduleName = moduleName;
+            this.isJRE = isJRE;
+        }
+
+        @Nullable
+        String getModuleName() {
+            return moduleName;
+        }
+
+        /**
+         * @return {@code true} if this class file is provided by Java library.
+         */
+        boolean isJRE() {
+            return isJRE;
+        }
+
+        byte[] read() {
+            SoftReference<byte[]> ref = content;
+            byte[] bytes = ref != null ? ref.get() : null;
+            if (bytes == null) {
+                try {
+                    bytes = Files.readAllBytes(path);
+                } catch (IOException e) {
+                    throw new AsmFrontendException("Failed to read " + this, e);
+                }
+                content = new SoftReference<>(bytes);
+            }
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return path.toUri().toString();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Lists;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import static pascal.taie.language.type.VoidType.VOID;
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+
+/**
+ * Converts descriptors and names in class files to Tai-e's representation.
+ */
+class Converter {
+
+    private final AsmClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of converted descriptors. This map may be concurrently written
+     * during class building and IR construction, thus we use concurrent map
+     * to ensure its thread-safety.
+     */
+    private final ConcurrentMap<String, Type> types = newConcurrentMap(4096);
+
+    Converter(AsmClassLoader loader, TypeSystem typeSystem) {
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    TypeSystem getTypeSystem() {
+        return typeSystem;
+    }
+
+    /**
+     * Converts a field descriptor, e.g., "[Ljava/lang/String;", to Type.
+     */
+    Type convertType(String descriptor) {
+        Type type = types.get(descriptor);
+        if (type == null) {
+            type = types.computeIfAbsent(descriptor, this::parseType);
+        }
+        return type;
+    }
+
+    private Type parseType(String descriptor) {
+        return switch (descriptor.charAt(0)) {
+            case 'Z' -> PrimitiveType.BOOLEAN;
+            case 'B' -> PrimitiveType.BYTE;
+            case 'C' -> PrimitiveType.CHAR;
+            case 'S' -> PrimitiveType.SHORT;
+            case 'I' -> PrimitiveType.INT;
+            case 'J' -> PrimitiveType.LONG;
+            case 'F' -> PrimitiveType.FLOAT;
+            case 'D' -> PrimitiveType.DOUBLE;
+            case 'V' -> VOID;
+            case 'L' -> convertClassType(ClassData.toClassName(
+                    descriptor.substring(1, descriptor.length() - 1)));
+            case '[' -> {
+                int dims = descriptor.lastIndexOf('[') + 1;
+                yield typeSystem.getArrayType(
+                        convertType(descriptor.substring(dims)), dims);
+            }
+            default -> throw new AsmFrontendException(
+                    "Invalid type descriptor: " + descriptor);
+        };
+    }
+
+    /**
+     * Converts the internal name of a class or an array type, which is
+     * the operand of instructions like NEW, ANEWARRAY and CHECKCAST.
+     */
+    Type convertInternalName(String internalName) {
+        return internalName.charAt(0) == '[' ?
+                convertType(internalName) :
+                convertClassType(ClassData.toClassName(internalName));
+    }
+
+    ClassType convertClassType(String className) {
+        return typeSystem.getClassType(loader, className);
+    }
+
+    List<Type> convertParamTypes(String methodDescriptor) {
+        return Lists.map(Arrays.asList(
+                        org.objectweb.asm.Type.getArgumentTypes(methodDescriptor)),
+                t -> convertType(t.getDescriptor()));
+    }
+
+    Type convertReturnType(String methodDescriptor) {
+        return convertType(methodDescriptor.substring(
+                methodDescriptor.indexOf(')') + 1));
+    }
+
+    @Nullable
+    JClass convertClass(String className) {
+        return loader.loadReferencedClass(className);
+    }
+
+    /**
+     * Converts the owner of a member reference to JClass.
+     * The owner may be an array type (e.g., for invocation of
+     * {@code clone()} on arrays), which is converted to
+     * {@code java.lang.Object}, the same as Soot frontend.
+     */
+    JClass convertOwner(String ownerInternalName) {
+        String className = ownerInternalName.charAt(0) == '[' ?
+                ClassNames.OBJECT : ClassData.toClassName(ownerInternalName);
+        JClass jclass = loader.loadReferencedClass(className);
+        if (jclass == null) {
+            throw new AsmFrontendException("Failed to load class " + className);
+        }
+        return jclass;
+    }
+}
@@ -0,0 +1,924 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import pascal.taie.frontend.asm.MethodCode.FieldInsn;
+import pascal.taie.frontend.asm.MethodCode.IincInsn;
+import pascal.taie.frontend.asm.MethodCode.InvokeDynamicInsn;
+import pascal.taie.frontend.asm.MethodCode.MethodInsn;
+import pascal.taie.frontend.asm.MethodCode.MultiANewArrayInsn;
+import pascal.taie.frontend.asm.MethodCode.SwitchInsn;
+import pascal.taie.frontend.asm.MethodCode.TryCatch;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Infers the types of local variables and operand stack values of
+ * a method body by abstract interpretation of its bytecode.
+ * <p>
+ * A local variable slot may be reused for unrelated variables in source
+ * code, thus this analyzer also splits each slot into webs, i.e.,
+ * the definitions of the slot (stores and parameters) connected by
+ * the uses that they reach, so that each web can be translated to a
+ * separate variable with a precise type.
+ * When definitions from different paths reach a merge point, they are
+ * recorded as a phi web, which connects its members only if the slot
+ * is used after the merge point.
+ */
+final class FrameAnalyzer {
+
+    /**
+     * Marks the absence of web.
+     */
+    static final int NO_WEB = -1;
+
+    private final JMethod method;
+
+    private final MethodCode code;
+
+    private final Converter converter;
+
+    private final TypeSystem typeSystem;
+
+    private final ClassType objectType;
+
+    private final boolean[] isLeader;
+
+    /**
+     * Map from index of instruction to index of its block.
+     */
+    private final int[] blockOf;
+
+    /**
+     * Index of the first instruction of each block.
+     */
+    private final int[] blockStarts;
+
+    /**
+     * Entry frames of blocks, null for unreachable blocks.
+     */
+    private final Frame[] entries;
+
+    /**
+     * Whether each block is an exception handler.
+     */
+    private final boolean[] isHandler;
+
+    /**
+     * Indexes of the handler blocks for each instruction,
+     * null if the instruction is not protected by any handler.
+     */
+    private final int[][] handlersOf;
+
+    /**
+     * Type of the value pushed by each instruction.
+     */
+    private final Type[] resultTypes;
+
+    /**
+     * Web of the local variable read by each instruction.
+     */
+    private final int[] useWebs;
+
+    /**
+     * Web of the local variable written by each instruction.
+     */
+    private final int[] defWebs;
+
+    // information of webs
+    private int webCount = 0;
+
+    private int[] webSlots = new int[16];
+
+    /**
+     * Index of the defining instruction of each web, -1 for parameters
+     * and phi webs.
+     */
+    private int[] webInsns = new int[16];
+
+    private Type[] webTypes = new Type[16];
+
+    private final Map<Integer, Set<Integer>> phiMembers = Maps.newHybridMap();
+
+    private int[][] phiWebs;
+
+    private int[] parents;
+
+    FrameAnalyzer(JMethod method, MethodCode code, Converter converter) {
+        this.method = method;
+        this.code = code;
+        this.converter = converter;
+        this.typeSystem = converter.getTypeSystem();
+        this.objectType = converter.convertClassType(ClassNames.OBJECT);
+        int size = code.size;
+        isLeader = new boolean[size + 1];
+        resultTypes = new Type[size];
+        useWebs = new int[size];
+        defWebs = new int[size];
+        Arrays.fill(useWebs, NO_WEB);
+        Arrays.fill(defWebs, NO_WEB);
+        findLeaders();
+        int nBlocks = 0;
+        for (int i = 0; i < size; ++i) {
+            if (isLeader[i]) {
+                ++nBlocks;
+            }
+        }
+        blockOf = new int[size];
+        blockStarts = new int[nBlocks];
+        for (int i = 0, b = -1; i < size; ++i) {
+            if (isLeader[i]) {
+                blockStarts[++b] = i;
+            }
+            blockOf[i] = b;
+        }
+        entries = new Frame[nBlocks];
+        isHandler = new boolean[nBlocks];
+        handlersOf = new int[size][];
+        for (TryCatch tc : code.tryCatches) {
+            int handler = blockOf[code.getIndex(tc.handler())];
+            isHandler[handler] = true;
+            for (int i = code.getIndex(tc.start()); i < code.getIndex(tc.end()); ++i) {
+                int[] handlers = handlersOf[i];
+                if (handlers == null) {
+                    handlersOf[i] = new int[]{ handler };
+                } else if (Arrays.stream(handlers).noneMatch(h -> h == handler)) {
+                    handlers = Arrays.copyOf(handlers, handlers.length + 1);
+                    handlers[handlers.length - 1] = handler;
+                    handlersOf[i] = handlers;
+                }
+            }
+        }
+        phiWebs = new int[nBlocks][];
+    }
+
+    private void findLeaders() {
+        isLeader[0] = true;
+        for (int i = 0; i < code.size; ++i) {
+            int opcode = code.opcodes[i];
+            Object operand = code.operands[i];
+            if (operand instanceof Label target) {
+                // jumps
+                isLeader[code.getIndex(target)] = true;
+                isLeader[i + 1] = true;
+            } else if (operand instanceof SwitchInsn s) {
+                isLeader[code.getIndex(s.defaultLabel())] = true;
+                for (Label target : s.labels()) {
+                    isLeader[code.getIndex(target)] = true;
+                }
+                isLeader[i + 1] = true;
+            } else if (isExit(opcode)) {
+                isLeader[i + 1] = true;
+            }
+        }
+        code.tryCatches.forEach(tc -> isLeader[code.getIndex(tc.handler())] = true);
+        // the end of code is not a block
+        isLeader[code.size] = false;
+    }
+
+    static boolean isExit(int opcode) {
+        return (IRETURN <= opcode && opcode <= RETURN) || opcode == ATHROW;
+    }
+
+    /**
+     * Runs the analysis until all frames reach fixed point.
+     */
+    void analyze() {
+        entries[0] = newEntryFrame();
+        BitSet inWorklist = new BitSet(entries.length);
+        Queue<Integer> worklist = new ArrayDeque<>();
+        worklist.add(0);
+        inWorklist.set(0);
+        while (!worklist.isEmpty()) {
+            int block = worklist.poll();
+            inWorklist.clear(block);
+            Frame frame = entries[block].copy();
+            int i = blockStarts[block];
+            int end = block + 1 < blockStarts.length ? blockStarts[block + 1] : code.size;
+            for (; i < end; ++i) {
+                mergeIntoHandlers(i, frame, worklist, inWorklist);
+                execute(i, frame);
+                int opcode = code.opcodes[i];
+                if ((ISTORE <= opcode && opcode <= ASTORE) || opcode == IINC) {
+                    // the stored value may also reach the handlers
+                    mergeIntoHandlers(i, frame, worklist, inWorklist);
+                }
+            }
+            // propagate to successors
+            int last = end - 1;
+            int opcode = code.opcodes[last];
+            Object operand = code.operands[last];
+            List<Integer> succs = new ArrayList<>(2);
+            if (operand instanceof Label target) {
+                succs.add(blockOf[code.getIndex(target)]);
+                if (opcode != GOTO) {
+                    succs.add(blockOf[end]);
+                }
+            } else if (operand instanceof SwitchInsn s) {
+                succs.add(blockOf[code.getIndex(s.defaultLabel())]);
+                for (Label target : s.labels()) {
+                    succs.add(blockOf[code.getIndex(target)]);
+                }
+            } else if (!isExit(opcode)) {
+                if (end == code.size) {
+                    throw new AsmFrontendException("Control flow falls off the end of code");
+                }
+                succs.add(blockOf[end]);
+            }
+            for (int succ : succs) {
+                if (merge(succ, frame, false) && !inWorklist.get(succ)) {
+                    worklist.add(succ);
+                    inWorklist.set(succ);
+                }
+            }
+        }
+        computeWebGroups();
+    }
+
+    private Frame newEntryFrame() {
+        Frame frame = new Frame(code.maxLocals, code.maxStack);
+        int slot = 0;
+        if (!method.isStatic()) {
+            frame.setLocal(slot, method.getDeclaringClass().getType(),
+                    newWeb(slot, -1, method.getDeclaringClass().getType()));
+            ++slot;
+        }
+        for (Type paramType : method.getParamTypes()) {
+            frame.setLocal(slot, paramType, newWeb(slot, -1, paramType));
+            slot += isWide(paramType) ? 2 : 1;
+        }
+        return frame;
+    }
+
+    private void mergeIntoHandlers(int insn, Frame frame,
+                                   Queue<Integer> worklist, BitSet inWorklist) {
+        int[] handlers = handlersOf[insn];
+        if (handlers != null) {
+            for (int handler : handlers) {
+                if (merge(handler, frame, true) && !inWorklist.get(handler)) {
+                    worklist.add(handler);
+                    inWorklist.set(handler);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges {@code frame} into the entry frame of {@code block}.
+     *
+     * @return {@code true} if the entry frame changed.
+     */
+    private boolean merge(int block, Frame frame, boolean toHandler) {
+        Frame entry = entries[block];
+        if (entry == null) {
+            entry = new Frame(code.maxLocals, code.maxStack);
+            System.arraycopy(frame.locals, 0, entry.locals, 0, frame.locals.length);
+            System.arraycopy(frame.webs, 0, entry.webs, 0, frame.webs.length);
+            if (toHandler) {
+                entry.push(getCatchType(block));
+            } else {
+                System.arraycopy(frame.stack, 0, entry.stack, 0, frame.top);
+                entry.top = frame.top;
+            }
+            entries[block] = entry;
+            return true;
+        }
+        boolean changed = false;
+        for (int slot = 0; slot < entry.locals.length; ++slot) {
+            Type t = join(entry.locals[slot], frame.locals[slot]);
+            if (t != entry.locals[slot]) {
+                entry.locals[slot] = t;
+                changed = true;
+            }
+            int w1 = entry.webs[slot], w2 = frame.webs[slot];
+            if (w1 != w2 && w2 != NO_WEB) {
+                if (w1 == NO_WEB) {
+                    entry.webs[slot] = w2;
+                    changed = true;
+                } else {
+                    int phi = getPhiWeb(block, slot);
+                    Set<Integer> members = phiMembers.get(phi);
+                    if (w1 != phi) {
+                        members.add(w1);
+                        entry.webs[slot] = phi;
+                        changed = true;
+                    }
+                    if (w2 != phi) {
+                        members.add(w2);
+                    }
+                }
+            }
+        }
+        if (!toHandler) {
+            if (entry.top != frame.top) {
+                throw new AsmFrontendException("Inconsistent stack heights at " +
+                        blockStarts[block]);
+            }
+            for (int i = 0; i < entry.top; ++i) {
+                Type t = join(entry.stack[i], frame.stack[i]);
+                if (t != entry.stack[i]) {
+                    entry.stack[i] = t;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private int getPhiWeb(int block, int slot) {
+        int[] phis = phiWebs[block];
+        if (phis == null) {
+            phis = new int[code.maxLocals];
+            Arrays.fill(phis, NO_WEB);
+            phiWebs[block] = phis;
+        }
+        if (phis[slot] == NO_WEB) {
+            phis[slot] = newWeb(slot, -1, null);
+            phiMembers.put(phis[slot], Sets.newHybridSet());
+        }
+        return phis[slot];
+    }
+
+    private ReferenceType getCatchType(int handler) {
+        ReferenceType result = null;
+        for (TryCatch tc : code.tryCatches) {
+            if (blockOf[code.getIndex(tc.handler())] == handler) {
+                ClassType type = converter.convertClassType(tc.type() == null ?
+                        ClassNames.THROWABLE : ClassData.toClassName(tc.type()));
+                result = result == null ? type : (ReferenceType) join(result, type);
+            }
+        }
+        return result;
+    }
+
+    private int newWeb(int slot, int insn, @Nullable Type type) {
+        if (webCount == webSlots.length) {
+            int length = webCount * 2;
+            webSlots = Arrays.copyOf(webSlots, length);
+            webInsns = Arrays.copyOf(webInsns, length);
+            webTypes = Arrays.copyOf(webTypes, length);
+        }
+        webSlots[webCount] = slot;
+        webInsns[webCount] = insn;
+        webTypes[webCount] = type;
+        return webCount++;
+    }
+
+    /**
+     * Simulates the effect of the i-th instruction on {@code frame}.
+     */
+    private void execute(int i, Frame frame) {
+        int opcode = code.opcodes[i];
+        Object operand = code.operands[i];
+        switch (opcode) {
+            case ACONST_NULL -> push(i, frame, NullType.NULL);
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4,
+                    ICONST_5, BIPUSH, SIPUSH -> push(i, frame, PrimitiveType.INT);
+            case LCONST_0, LCONST_1 -> push(i, frame, PrimitiveType.LONG);
+            case FCONST_0, FCONST_1, FCONST_2 -> push(i, frame, PrimitiveType.FLOAT);
+            case DCONST_0, DCONST_1 -> push(i, frame, PrimitiveType.DOUBLE);
+            case LDC -> push(i, frame, getConstantType(operand));
+            case ILOAD, LLOAD, FLOAD, DLOAD, ALOAD -> {
+                int slot = (Integer) operand;
+                Type type = frame.locals[slot];
+                if (type == null) {
+                    throw new AsmFrontendException("Read undefined local " +
+                            slot + " at " + i);
+                }
+                useWebs[i] = frame.webs[slot];
+                push(i, frame, type);
+            }
+            case IALOAD -> arrayLoad(i, frame, PrimitiveType.INT);
+            case LALOAD -> arrayLoad(i, frame, PrimitiveType.LONG);
+            case FALOAD -> arrayLoad(i, frame, PrimitiveType.FLOAT);
+            case DALOAD -> arrayLoad(i, frame, PrimitiveType.DOUBLE);
+            case BALOAD -> arrayLoad(i, frame, PrimitiveType.BYTE);
+            case CALOAD -> arrayLoad(i, frame, PrimitiveType.CHAR);
+            case SALOAD -> arrayLoad(i, frame, PrimitiveType.SHORT);
+            case AALOAD -> arrayLoad(i, frame, null);
+            case ISTORE, LSTORE, FSTORE, DSTORE, ASTORE -> {
+                int slot = (Integer) operand;
+                Type type = frame.pop();
+                if (defWebs[i] == NO_WEB) {
+                    defWebs[i] = newWeb(slot, i, type);
+                } else {
+                    int web = defWebs[i];
+                    webTypes[web] = join(webTypes[web], type);
+                }
+                frame.setLocal(slot, type, defWebs[i]);
+            }
+            case IASTORE, LASTORE, FASTORE, DASTORE, AASTORE, BASTORE, CASTORE,
+                    SASTORE -> frame.pop(3);
+            case POP -> frame.pop();
+            case POP2 -> frame.pop(isWide(frame.peek()) ? 1 : 2);
+            case DUP -> frame.push(frame.peek());
+            case DUP_X1 -> {
+                Type v1 = frame.pop(), v2 = frame.pop();
+                frame.push(v1, v2, v1);
+            }
+            case DUP_X2 -> {
+                Type v1 = frame.pop(), v2 = frame.pop();
+                if (isWide(v2)) {
+                    frame.push(v1, v2, v1);
+                } else {
+                    Type v3 = frame.pop();
+                    frame.push(v1, v3, v2, v1);
+                }
+            }
+            case DUP2 -> {
+                if (isWide(frame.peek())) {
+                    frame.push(frame.peek());
+                } else {
+                    Type v1 = frame.pop(), v2 = frame.pop();
+                    frame.push(v2, v1, v2, v1);
+                }
+            }
+            case DUP2_X1 -> {
+                Type v1 = frame.pop();
+                if (isWide(v1)) {
+                    Type v2 = frame.pop();
+                    frame.push(v1, v2, v1);
+                } else {
+                    Type v2 = frame.pop(), v3 = frame.pop();
+                    frame.push(v2, v1, v3, v2, v1);
+                }
+            }
+            case DUP2_X2 -> {
+                Type v1 = frame.pop();
+                if (isWide(v1)) {
+                    Type v2 = frame.pop();
+                    if (isWide(v2)) {
+                        frame.push(v1, v2, v1);
+                    } else {
+                        Type v3 = frame.pop();
+                        frame.push(v1, v3, v2, v1);
+                    }
+                } else {
+                    Type v2 = frame.pop(), v3 = frame.pop();
+                    if (isWide(v3)) {
+                        frame.push(v2, v1, v3, v2, v1);
+                    } else {
+                        Type v4 = frame.pop();
+                        frame.push(v2, v1, v4, v3, v2, v1);
+                    }
+                }
+            }
+            case SWAP -> {
+                Type v1 = frame.pop(), v2 = frame.pop();
+                frame.push(v1, v2);
+            }
+            case IADD, ISUB, IMUL, IDIV, IREM, ISHL, ISHR, IUSHR, IAND, IOR,
+                    IXOR -> binary(i, frame, PrimitiveType.INT);
+            case LADD, LSUB, LMUL, LDIV, LREM, LSHL, LSHR, LUSHR, LAND, LOR,
+                    LXOR -> binary(i, frame, PrimitiveType.LONG);
+            case FADD, FSUB, FMUL, FDIV, FREM -> binary(i, frame, PrimitiveType.FLOAT);
+            case DADD, DSUB, DMUL, DDIV, DREM -> binary(i, frame, PrimitiveType.DOUBLE);
+            case LCMP, FCMPL, FCMPG, DCMPL, DCMPG -> binary(i, frame, PrimitiveType.INT);
+            case INEG, LNEG, FNEG, DNEG -> push(i, frame, frame.pop());
+            case IINC -> {
+                int slot = ((IincInsn) operand).var();
+                useWebs[i] = frame.webs[slot];
+            }
+            case I2L, F2L, D2L -> unary(i, frame, PrimitiveType.LONG);
+            case I2F, L2F, D2F -> unary(i, frame, PrimitiveType.FLOAT);
+            case I2D, L2D, F2D -> unary(i, frame, PrimitiveType.DOUBLE);
+            case L2I, F2I, D2I -> unary(i, frame, PrimitiveType.INT);
+            case I2B -> unary(i, frame, PrimitiveType.BYTE);
+            case I2C -> unary(i, frame, PrimitiveType.CHAR);
+            case I2S -> unary(i, frame, PrimitiveType.SHORT);
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE, IFNULL, IFNONNULL,
+                    TABLESWITCH, LOOKUPSWITCH, IRETURN, LRETURN, FRETURN, DRETURN,
+                    ARETURN, ATHROW, MONITORENTER, MONITOREXIT, PUTSTATIC -> frame.pop();
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE,
+                    IF_ACMPEQ, IF_ACMPNE, PUTFIELD -> frame.pop(2);
+            case GOTO, RETURN -> {
+            }
+            case JSR, RET -> throw new AsmFrontendException(
+                    "Subroutine (JSR/RET) is not supported");
+            case GETSTATIC -> push(i, frame,
+                    converter.convertType(((FieldInsn) operand).descriptor()));
+            case GETFIELD -> {
+                frame.pop();
+                push(i, frame, converter.convertType(((FieldInsn) operand).descriptor()));
+            }
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC, INVOKEINTERFACE -> {
+                MethodInsn insn = (MethodInsn) operand;
+                invoke(i, frame, insn.descriptor(), opcode != INVOKESTATIC);
+            }
+            case INVOKEDYNAMIC -> invoke(i, frame,
+                    ((InvokeDynamicInsn) operand).descriptor(), false);
+            case NEW -> push(i, frame, converter.convertInternalName((String) operand));
+            case NEWARRAY -> {
+                frame.pop();
+                push(i, frame, typeSystem.getArrayType(
+                        getPrimitiveArrayElement((Integer) operand), 1));
+            }
+            case ANEWARRAY -> {
+                frame.pop();
+                push(i, frame, getArrayTypeOf(
+                        converter.convertInternalName((String) operand)));
+            }
+            case ARRAYLENGTH -> unary(i, frame, PrimitiveType.INT);
+            case CHECKCAST -> unary(i, frame,
+                    converter.convertInternalName((String) operand));
+            case INSTANCEOF -> unary(i, frame, PrimitiveType.BOOLEAN);
+            case MULTIANEWARRAY -> {
+                MultiANewArrayInsn insn = (MultiANewArrayInsn) operand;
+                frame.pop(insn.dimensions());
+                push(i, frame, converter.convertType(insn.descriptor()));
+            }
+            default -> throw new AsmFrontendException(
+                    "Unsupported opcode " + opcode + " at " + i);
+        }
+    }
+
+    private void push(int i, Frame frame, Type type) {
+        resultTypes[i] = type;
+        frame.push(type);
+    }
+
+    private void unary(int i, Frame frame, Type result) {
+        frame.pop();
+        push(i, frame, result);
+    }
+
+    private void binary(int i, Frame frame, Type result) {
+        frame.pop(2);
+        push(i, frame, result);
+    }
+
+    private void invoke(int i, Frame frame, String descriptor, boolean hasReceiver) {
+        frame.pop(org.objectweb.asm.Type.getArgumentCount(descriptor) +
+                (hasReceiver ? 1 : 0));
+        Type returnType = converter.convertReturnType(descriptor);
+        if (returnType instanceof PrimitiveType || returnType instanceof ReferenceType) {
+            push(i, frame, returnType);
+        }
+    }
+
+    private void arrayLoad(int i, Frame frame, @Nullable PrimitiveType defaultType) {
+        frame.pop();
+        Type array = frame.pop();
+        Type elem = array instanceof ArrayType arrayType ?
+                arrayType.elementType() : null;
+        Type result;
+        if (defaultType == null) { // AALOAD
+            result = elem instanceof ReferenceType ? elem : NullType.NULL;
+        } else if (defaultType == PrimitiveType.BYTE) {
+            // BALOAD loads both byte and boolean arrays
+            result = elem == PrimitiveType.BOOLEAN ? elem : defaultType;
+        } else {
+            result = defaultType;
+        }
+        push(i, frame, result);
+    }
+
+    private Type getConstantType(Object constant) {
+        if (constant instanceof Integer) {
+            return PrimitiveType.INT;
+        } else if (constant instanceof Float) {
+            return PrimitiveType.FLOAT;
+        } else if (constant instanceof Long) {
+            return PrimitiveType.LONG;
+        } else if (constant instanceof Double) {
+            return PrimitiveType.DOUBLE;
+        } else if (constant instanceof String) {
+            return converter.convertClassType(ClassNames.STRING);
+        } else if (constant instanceof org.objectweb.asm.Type t) {
+            return converter.convertClassType(
+                    t.getSort() == org.objectweb.asm.Type.METHOD ?
+                            ClassNames.METHOD_TYPE : ClassNames.CLASS);
+        } else if (constant instanceof Handle) {
+            return converter.convertClassType(ClassNames.METHOD_HANDLE);
+        } else if (constant instanceof ConstantDynamic c) {
+            return converter.convertType(c.getDescriptor());
+        }
+        throw new AsmFrontendException("Unknown constant: " + constant);
+    }
+
+    private static PrimitiveType getPrimitiveArrayElement(int typeCode) {
+        return switch (typeCode) {
+            case T_BOOLEAN -> PrimitiveType.BOOLEAN;
+            case T_CHAR -> PrimitiveType.CHAR;
+            case T_FLOAT -> PrimitiveType.FLOAT;
+            case T_DOUBLE -> PrimitiveType.DOUBLE;
+            case T_BYTE -> PrimitiveType.BYTE;
+            case T_SHORT -> PrimitiveType.SHORT;
+            case T_INT -> PrimitiveType.INT;
+            case T_LONG -> PrimitiveType.LONG;
+            default -> throw new AsmFrontendException(
+                    "Invalid array type code: " + typeCode);
+        };
+    }
+
+    /**
+     * @return the array type whose element type is {@code elemType}.
+     */
+    ArrayType getArrayTypeOf(Type elemType) {
+        return elemType instanceof ArrayType arrayType ?
+                typeSystem.getArrayType(arrayType.baseType(),
+                        arrayType.dimensions() + 1) :
+                typeSystem.getArrayType(elemType, 1);
+    }
+
+    static boolean isWide(Type type) {
+        return type == PrimitiveType.LONG || type == PrimitiveType.DOUBLE;
+    }
+
+    private static boolean isIntLike(Type type) {
+        return type instanceof PrimitiveType p && p.asInt();
+    }
+
+    /**
+     * @return the least upper bound of two types, or {@code null}
+     * if they are incompatible.
+     */
+    @Nullable
+    Type join(@Nullable Type t1, @Nullable Type t2) {
+        if (t1 == t2) {
+            return t1;
+        } else if (t1 == null || t2 == null) {
+            return null;
+        } else if (isIntLike(t1) && isIntLike(t2)) {
+            return PrimitiveType.INT;
+        } else if (t1 instanceof ReferenceType r1 && t2 instanceof ReferenceType r2) {
+            return joinReference(r1, r2);
+        } else {
+            return null;
+        }
+    }
+
+    private ReferenceType joinReference(ReferenceType t1, ReferenceType t2) {
+        if (t1 instanceof NullType) {
+            return t2;
+        } else if (t2 instanceof NullType) {
+            return t1;
+        } else if (t1 instanceof ArrayType a1 && t2 instanceof ArrayType a2) {
+            if (a1.elementType() instanceof ReferenceType e1 &&
+                    a2.elementType() instanceof ReferenceType e2) {
+                return getArrayTypeOf(joinReference(e1, e2));
+            }
+            return objectType;
+        } else if (t1 instanceof ClassType c1 && t2 instanceof ClassType c2) {
+            return joinClass(c1, c2);
+        } else {
+            // array and class, the result is Object, Cloneable or Serializable
+            ClassType c = (ClassType) (t1 instanceof ClassType ? t1 : t2);
+            return typeSystem.isSubtype(c, t1 instanceof ClassType ? t2 : t1) ?
+                    c : objectType;
+        }
+    }
+
+    private ClassType joinClass(ClassType c1, ClassType c2) {
+        JClass j1 = c1.getJClass(), j2 = c2.getJClass();
+        if (j1 == null || j2 == null) {
+            return objectType;
+        }
+        if (j1.isInterface() || j2.isInterface()) {
+            if (typeSystem.isSubtype(c1, c2)) {
+                return c1;
+            } else if (typeSystem.isSubtype(c2, c1)) {
+                return c2;
+            }
+            return objectType;
+        }
+        Set<JClass> superclasses = Sets.newHybridSet();
+        for (JClass c = j1; c != null; c = c.getSuperClass()) {
+            superclasses.add(c);
+        }
+        for (JClass c = j2; c != null; c = c.getSuperClass()) {
+            if (superclasses.contains(c)) {
+                return c.getType();
+            }
+        }
+        return objectType;
+    }
+
+    /**
+     * Connects the webs used by the same instructions.
+     */
+    private void computeWebGroups() {
+        parents = new int[webCount];
+        for (int w = 0; w < webCount; ++w) {
+            parents[w] = w;
+        }
+        BitSet activated = new BitSet(webCount);
+        for (int web : useWebs) {
+            if (web != NO_WEB) {
+                activate(web, activated);
+            }
+        }
+    }
+
+    private void activate(int web, BitSet activated) {
+        List<Integer> worklist = new ArrayList<>();
+        worklist.add(web);
+        while (!worklist.isEmpty()) {
+            int w = worklist.remove(worklist.size() - 1);
+            if (activated.get(w)) {
+                continue;
+            }
+            activated.set(w);
+            Set<Integer> members = phiMembers.get(w);
+            if (members != null) {
+                for (int m : members) {
+                    union(w, m);
+                    worklist.add(m);
+                }
+            }
+        }
+    }
+
+    private void union(int w1, int w2) {
+        int r1 = findGroup(w1), r2 = findGroup(w2);
+        if (r1 != r2) {
+            // keep the smaller one as root, so that the parameter webs,
+            // which are created at first, always represent their groups
+            if (r1 < r2) {
+                parents[r2] = r1;
+            } else {
+                parents[r1] = r2;
+            }
+        }
+    }
+
+    /**
+     * @return the representative web of the group containing given web.
+     */
+    int findGroup(int web) {
+        while (parents[web] != web) {
+            parents[web] = parents[parents[web]];
+            web = parents[web];
+        }
+        return web;
+    }
+
+    // ---------- queries on the results ----------
+
+    boolean isLeader(int insn) {
+        return isLeader[insn];
+    }
+
+    int getBlock(int insn) {
+        return blockOf[insn];
+    }
+
+    boolean isHandler(int block) {
+        return isHandler[block];
+    }
+
+    @Nullable
+    Frame getEntry(int block) {
+        return entries[block];
+    }
+
+    Type getResultType(int insn) {
+        return resultTypes[insn];
+    }
+
+    int getUseWeb(int insn) {
+        return useWebs[insn];
+    }
+
+    int getDefWeb(int insn) {
+        return defWebs[insn];
+    }
+
+    /**
+     * @return the web of the i-th parameter, or "this" if i is -1.
+     */
+    int getParamWeb(int i) {
+        // parameter webs are created at first in order
+        return method.isStatic() ? i : i + 1;
+    }
+
+    int getWebCount() {
+        return webCount;
+    }
+
+    boolean isPhi(int web) {
+        return phiMembers.containsKey(web);
+    }
+
+    int getWebSlot(int web) {
+        return webSlots[web];
+    }
+
+    int getWebInsn(int web) {
+        return webInsns[web];
+    }
+
+    @Nullable
+    Type getWebType(int web) {
+        return webTypes[web];
+    }
+
+    /**
+     * Abstract state of the local variables and the operand stack.
+     * Values of long and double occupy two local slots (the second one
+     * is {@code null}) but only one stack entry.
+     */
+    static final class Frame {
+
+        final Type[] locals;
+
+        final int[] webs;
+
+        final Type[] stack;
+
+        int top;
+
+        private Frame(int maxLocals, int maxStack) {
+            locals = new Type[maxLocals];
+            webs = new int[maxLocals];
+            Arrays.fill(webs, NO_WEB);
+            stack = new Type[maxStack];
+        }
+
+        private Frame copy() {
+            Frame frame = new Frame(locals.length, stack.length);
+            System.arraycopy(locals, 0, frame.locals, 0, locals.length);
+            System.arraycopy(webs, 0, frame.webs, 0, webs.length);
+            System.arraycopy(stack, 0, frame.stack, 0, top);
+            frame.top = top;
+            return frame;
+        }
+
+        private void setLocal(int slot, Type type, int web) {
+            if (slot > 0 && isWide(locals[slot - 1])) {
+                // overwrite the second half of a long or double
+                locals[slot - 1] = null;
+                webs[slot - 1] = NO_WEB;
+            }
+            locals[slot] = type;
+            webs[slot] = web;
+            if (isWide(type)) {
+                locals[slot + 1] = null;
+                webs[slot + 1] = NO_WEB;
+            }
+        }
+
+        private void push(Type... types) {
+            for (Type type : types) {
+                stack[top++] = type;
+            }
+        }
+
+        private Type pop() {
+            return stack[--top];
+        }
+
+        private void pop(int n) {
+            top -= n;
+        }
+
+        private Type peek() {
+            return stack[top - 1];
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytecode of a method body, recorded from ASM's visiting events.
+ * Each instruction is an opcode together with its operand, e.g., the index
+ * of local variable for xLOAD, and the target {@link Label} for jumps.
+ */
+final class MethodCode {
+
+    int[] opcodes = new int[64];
+
+    Object[] operands = new Object[64];
+
+    int size = 0;
+
+    /**
+     * Map from labels to the index of the instruction following them.
+     */
+    final Map<Label, Integer> labels = Maps.newMap();
+
+    /**
+     * Map from labels to source line numbers.
+     */
+    final Map<Label, Integer> lineLabels = Maps.newHybridMap();
+
+    final List<TryCatch> tryCatches = new ArrayList<>(0);
+
+    final List<LocalVariable> localVariables = new ArrayList<>();
+
+    int maxLocals;
+
+    int maxStack;
+
+    private MethodCode() {
+    }
+
+    /**
+     * Reads the body of the method with given name and descriptor.
+     *
+     * @return the body, or {@code null} if the method is absent or
+     * does not have body.
+     */
+    @Nullable
+    static MethodCode read(MethodSource source, String name) {
+        ClassReader reader = new ClassReader(source.classSource().read());
+        MethodCode[] result = new MethodCode[1];
+        reader.accept(new ClassVisitor(GSignatures.API) {
+            @Override
+            public MethodVisitor visitMethod(int access, String mName, String descriptor,
+                                             String signature, String[] exceptions) {
+                if (result[0] == null && mName.equals(name) &&
+                        descriptor.equals(source.descriptor())) {
+                    MethodCode code = new MethodCode();
+                    result[0] = code;
+                    return code.new Recorder();
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_FRAMES);
+        MethodCode code = result[0];
+        return code != null && code.size > 0 ? code : null;
+    }
+
+    int getIndex(Label label) {
+        return labels.get(label);
+    }
+
+    record FieldInsn(String owner, String name, String descriptor) {
+    }
+
+    record MethodInsn(String owner, String name, String descriptor, boolean isInterface) {
+    }
+
+    record InvokeDynamicInsn(String name, String descriptor,
+                             Handle bootstrapMethod, Object[] bootstrapArgs) {
+    }
+
+    record IincInsn(int var, int increment) {
+    }
+
+    /**
+     * Operand of TABLESWITCH and LOOKUPSWITCH.
+     */
+    record SwitchInsn(int[] keys, Label defaultLabel, Label[] labels) {
+    }
+
+    record MultiANewArrayInsn(String descriptor, int dimensions) {
+    }
+
+    /**
+     * @param type internal name of the caught exception type,
+     *             or {@code null} for finally blocks.
+     */
+    record TryCatch(Label start, Label end, Label handler, @Nullable String type) {
+    }
+
+    record LocalVariable(String name, String descriptor,
+                         Label start, Label end, int index) {
+    }
+
+    private class Recorder extends MethodVisitor {
+
+        private Recorder() {
+            super(GSignatures.API);
+        }
+
+        private void add(int opcode, @Nullable Object operand) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size] = operand;
+            ++size;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (opcode != Opcodes.NOP) {
+                add(opcode, null);
+            }
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            add(opcode, operand);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            add(opcode, var);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            add(opcode, type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            add(opcode, new FieldInsn(owner, name, descriptor));
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name,
+                                    String descriptor, boolean isInterface) {
+            add(opcode, new MethodInsn(owner, name, descriptor, isInterface));
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor,
+                                           Handle bootstrapMethodHandle,
+                                           Object... bootstrapMethodArguments) {
+            add(Opcodes.INVOKEDYNAMIC, new InvokeDynamicInsn(name, descriptor,
+                    bootstrapMethodHandle, bootstrapMethodArguments));
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            add(opcode, label);
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            labels.put(label, size);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            add(Opcodes.LDC, value);
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            add(Opcodes.IINC, new IincInsn(var, increment));
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            int[] keys = new int[max - min + 1];
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = min + i;
+            }
+            add(Opcodes.TABLESWITCH, new SwitchInsn(keys, dflt, labels));
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            add(Opcodes.LOOKUPSWITCH, new SwitchInsn(keys, dflt, labels));
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            add(Opcodes.MULTIANEWARRAY,
+                    new MultiANewArrayInsn(descriptor, numDimensions));
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+            tryCatches.add(new TryCatch(start, end, handler, type));
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature,
+                                       Label start, Label end, int index) {
+            localVariables.add(new LocalVariable(name, descriptor, start, end, index));
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            lineLabels.put(start, line);
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            MethodCode.this.maxStack = maxStack;
+            MethodCode.this.maxLocals = maxLocals;
+        }
+    }
+}
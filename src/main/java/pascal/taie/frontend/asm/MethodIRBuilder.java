@@ -0,0 +1,1031 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import pascal.taie.frontend.asm.FrameAnalyzer.Frame;
+import pascal.taie.frontend.asm.MethodCode.FieldInsn;
+import pascal.taie.frontend.asm.MethodCode.IincInsn;
+import pascal.taie.frontend.asm.MethodCode.InvokeDynamicInsn;
+import pascal.taie.frontend.asm.MethodCode.LocalVariable;
+import pascal.taie.frontend.asm.MethodCode.MethodInsn;
+import pascal.taie.frontend.asm.MethodCode.MultiANewArrayInsn;
+import pascal.taie.frontend.asm.MethodCode.SwitchInsn;
+import pascal.taie.frontend.asm.MethodCode.TryCatch;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuildHelper;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.objectweb.asm.Opcodes.*;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Translates the bytecode of a method to Tai-e IR.
+ * <p>
+ * The operand stack is simulated symbolically: each stack entry is either
+ * a variable or a pending literal, and each instruction that computes
+ * a value defines a new temporary variable, which is directly assigned
+ * to the local variable if the value is immediately stored by the
+ * next instruction. Values on the stack at the boundaries of basic blocks
+ * are passed via one variable per stack slot of each target block.
+ * Local variables are given by the webs computed by {@link FrameAnalyzer}.
+ */
+class MethodIRBuilder {
+
+    private static final String THIS = "%this";
+
+    private static final String STRING_CONSTANT = "%stringconst";
+
+    private static final String CLASS_CONSTANT = "%classconst";
+
+    private static final String NULL_CONSTANT = "%nullconst";
+
+    private static final String STACK = "$stack";
+
+    private final JMethod method;
+
+    private final Converter converter;
+
+    private MethodCode code;
+
+    private FrameAnalyzer analyzer;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    private Set<Var> returnVars;
+
+    /**
+     * Map from representative webs to the corresponding variables.
+     */
+    private Var[] groupVars;
+
+    private Type[] groupTypes;
+
+    private String[] groupNames;
+
+    private final Set<String> usedNames = Sets.newHybridSet();
+
+    /**
+     * Variables passing stack values to each block.
+     */
+    private Var[][] blockStackVars;
+
+    /**
+     * Caches variables that hold constant values, so that we don't need to
+     * create multiple temp variables and assignments for the same constants
+     * in the same method.
+     */
+    private final Map<Literal, Var> constantVars = Maps.newHybridMap();
+
+    /**
+     * Constant variables that have been assigned in current block.
+     * A constant variable is assigned in every block that uses it, so that
+     * each use of it is dominated by an assignment.
+     */
+    private final Set<Var> assignedConstants = Sets.newHybridSet();
+
+    /**
+     * Counter for naming temporary constant variables.
+     */
+    private int tempConstCounter = 0;
+
+    /**
+     * Counter for naming temporary stack variables.
+     */
+    private int stackCounter = 0;
+
+    /**
+     * Index of the first statement translated from each instruction.
+     */
+    private int[] stmtStarts;
+
+    /**
+     * Map from jump statements to their targets (Label or SwitchInsn).
+     */
+    private final Map<Stmt, Object> jumps = Maps.newLinkedHashMap();
+
+    private int[] lines;
+
+    private int currentLine = -1;
+
+    // symbolic operand stack
+    private Object[] stack;
+
+    private int top;
+
+    /**
+     * Index of the instruction to be skipped, as it has been merged
+     * into the previous one, e.g., a store of the computed value.
+     */
+    private int skip = -1;
+
+    MethodIRBuilder(JMethod method, Converter converter) {
+        this.method = method;
+        this.converter = converter;
+    }
+
+    IR build() {
+        code = MethodCode.read((MethodSource) method.getMethodSource(),
+                method.getName());
+        if (code == null) {
+            return new IRBuildHelper(method).buildEmpty();
+        }
+        analyzer = new FrameAnalyzer(method, code, converter);
+        analyzer.analyze();
+        computeGroups();
+        returnVars = method.getReturnType().equals(VOID) ?
+                Set.of() : Sets.newLinkedSet();
+        Var thisVar = null;
+        if (!method.isStatic()) {
+            thisVar = getLocalVar(analyzer.getParamWeb(-1));
+        }
+        List<Var> params = new ArrayList<>(method.getParamCount());
+        for (int i = 0; i < method.getParamCount(); ++i) {
+            params.add(getLocalVar(analyzer.getParamWeb(i)));
+        }
+        stack = new Object[code.maxStack + 1];
+        lines = new int[code.size];
+        Arrays.fill(lines, -1);
+        code.lineLabels.forEach((label, line) -> {
+            Integer index = code.labels.get(label);
+            if (index != null && index < code.size) {
+                lines[index] = line;
+            }
+        });
+        buildStmts();
+        List<ExceptionEntry> exceptionEntries = buildExceptionEntries();
+        linkJumpTargets();
+        return new DefaultIR(method, thisVar, params, returnVars,
+                vars, stmts, exceptionEntries);
+    }
+
+    // ---------- variables ----------
+
+    /**
+     * Computes the type and name of the variable for each group of webs.
+     */
+    private void computeGroups() {
+        int nWebs = analyzer.getWebCount();
+        groupVars = new Var[nWebs];
+        groupTypes = new Type[nWebs];
+        groupNames = new String[nWebs];
+        boolean[] typed = new boolean[nWebs];
+        for (int web = 0; web < nWebs; ++web) {
+            if (analyzer.isPhi(web)) {
+                continue;
+            }
+            int root = analyzer.findGroup(web);
+            Type type = analyzer.getWebType(web);
+            groupTypes[root] = typed[root] ?
+                    analyzer.join(groupTypes[root], type) : type;
+            typed[root] = true;
+            if (groupNames[root] == null) {
+                groupNames[root] = findLocalName(web);
+            }
+        }
+    }
+
+    /**
+     * @return name of the web in local variable table, or {@code null}
+     * if the name is absent.
+     */
+    @Nullable
+    private String findLocalName(int web) {
+        int slot = analyzer.getWebSlot(web);
+        int insn = analyzer.getWebInsn(web);
+        // the scope of a variable starts after its first store
+        int pos = insn == -1 ? 0 : insn + 1;
+        for (LocalVariable lv : code.localVariables) {
+            if (lv.index() == slot) {
+                Integer start = code.labels.get(lv.start());
+                Integer end = code.labels.get(lv.end());
+                if (start != null && end != null && start <= pos && pos < end) {
+                    return lv.name();
+                }
+            }
+        }
+        return null;
+    }
+
+    private Var getLocalVar(int web) {
+        int root = analyzer.findGroup(web);
+        Var var = groupVars[root];
+        if (var == null) {
+            Type type = groupTypes[root];
+            if (type == null) {
+                throw new AsmFrontendException("Failed to infer type of local " +
+                        analyzer.getWebSlot(root));
+            }
+            String name;
+            if (!method.isStatic() && root == analyzer.getParamWeb(-1)) {
+                name = THIS;
+            } else {
+                name = groupNames[root];
+                if (root < method.getParamCount() + (method.isStatic() ? 0 : 1)) {
+                    String paramName = method.getParamName(
+                            method.isStatic() ? root : root - 1);
+                    if (paramName != null) {
+                        name = paramName;
+                    }
+                }
+                if (name == null) {
+                    name = getTypePrefix(type) + analyzer.getWebSlot(root);
+                }
+                name = getUniqueName(name);
+            }
+            var = newVar(name, toVarType(type), null);
+            groupVars[root] = var;
+        }
+        return var;
+    }
+
+    private static String getTypePrefix(Type type) {
+        return switch (type.getName()) {
+            case "long" -> "l";
+            case "float" -> "f";
+            case "double" -> "d";
+            case "int", "boolean", "byte", "char", "short" -> "i";
+            default -> "r";
+        };
+    }
+
+    private String getUniqueName(String name) {
+        String result = name;
+        for (int i = 1; !usedNames.add(result); ++i) {
+            result = name + "#" + i;
+        }
+        return result;
+    }
+
+    private Var newTempVar(Type type) {
+        return newVar(STACK + stackCounter++, toVarType(type), null);
+    }
+
+    /**
+     * @return the temporary variable that holds given literal value.
+     */
+    private Var getConstantVar(Literal literal) {
+        Var var = constantVars.computeIfAbsent(literal, lit -> {
+            String varName;
+            if (lit instanceof StringLiteral) {
+                varName = STRING_CONSTANT + tempConstCounter++;
+            } else if (lit instanceof ClassLiteral) {
+                varName = CLASS_CONSTANT + tempConstCounter++;
+            } else if (lit instanceof NullLiteral) {
+                // each method has at most one variable for null constant
+                varName = NULL_CONSTANT;
+            } else {
+                varName = "%" + lit.getType().getName() +
+                        "const" + tempConstCounter++;
+            }
+            return newVar(varName, lit.getType(), lit);
+        });
+        if (!(literal instanceof NullLiteral) && assignedConstants.add(var)) {
+            addStmt(new AssignLiteral(var, literal));
+        }
+        return var;
+    }
+
+    private Var newVar(String name, Type type, @Nullable Literal literal) {
+        Var var = new Var(method, name, type, vars.size(), literal);
+        vars.add(var);
+        return var;
+    }
+
+    /**
+     * Null type and unknown type are not proper types for variables
+     * which are not constants, and we use Object instead.
+     */
+    private Type toVarType(@Nullable Type type) {
+        return type == null || type instanceof NullType ?
+                converter.convertClassType(ClassNames.OBJECT) : type;
+    }
+
+    // ---------- operand stack ----------
+
+    private void push(Object value) {
+        stack[top++] = value;
+    }
+
+    private Object pop() {
+        return stack[--top];
+    }
+
+    private Var popVar() {
+        return toVar(pop());
+    }
+
+    private List<Var> popVars(int n) {
+        Var[] values = new Var[n];
+        for (int i = n - 1; i >= 0; --i) {
+            values[i] = popVar();
+        }
+        return Arrays.asList(values);
+    }
+
+    private Object peek() {
+        return stack[top - 1];
+    }
+
+    private Var toVar(Object value) {
+        return value instanceof Literal literal ?
+                getConstantVar(literal) : (Var) value;
+    }
+
+    private static boolean isWide(Object value) {
+        return value instanceof Var var ?
+                FrameAnalyzer.isWide(var.getType()) :
+                value instanceof LongLiteral || value instanceof DoubleLiteral;
+    }
+
+    /**
+     * Before assigning to local variable {@code var}, saves the old value
+     * of {@code var} which is still on the stack, e.g., for {@code a = i++}.
+     */
+    private void spill(Var var) {
+        Var temp = null;
+        for (int i = 0; i < top; ++i) {
+            if (stack[i] == var) {
+                if (temp == null) {
+                    temp = newTempVar(var.getType());
+                    addStmt(new Copy(temp, var));
+                }
+                stack[i] = temp;
+            }
+        }
+    }
+
+    // ---------- statements ----------
+
+    private void addStmt(Stmt stmt) {
+        stmt.setLineNumber(currentLine);
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+    }
+
+    private void buildStmts() {
+        int size = code.size;
+        stmtStarts = new int[size + 1];
+        blockStackVars = new Var[analyzer.getBlock(size - 1) + 1][];
+        boolean reachable = false;
+        for (int i = 0; i < size; ++i) {
+            stmtStarts[i] = stmts.size();
+            if (lines[i] != -1) {
+                currentLine = lines[i];
+            }
+            if (analyzer.isLeader(i)) {
+                int block = analyzer.getBlock(i);
+                reachable = analyzer.getEntry(block) != null;
+                assignedConstants.clear();
+                if (reachable) {
+                    enterBlock(block);
+                }
+            }
+            if (!reachable) {
+                continue;
+            }
+            if (i != skip) {
+                buildStmt(i);
+            }
+            if (i + 1 < size && analyzer.isLeader(i + 1) && fallsThrough(i)) {
+                passStack(analyzer.getBlock(i + 1));
+            }
+        }
+        stmtStarts[size] = stmts.size();
+    }
+
+    private boolean fallsThrough(int insn) {
+        Object operand = code.operands[insn];
+        return !(operand instanceof Label || operand instanceof SwitchInsn ||
+                FrameAnalyzer.isExit(code.opcodes[insn]));
+    }
+
+    private Var[] getStackVars(int block) {
+        Var[] stackVars = blockStackVars[block];
+        if (stackVars == null) {
+            Frame entry = analyzer.getEntry(block);
+            stackVars = new Var[entry.top];
+            for (int i = 0; i < entry.top; ++i) {
+                stackVars[i] = newTempVar(entry.stack[i]);
+            }
+            blockStackVars[block] = stackVars;
+        }
+        return stackVars;
+    }
+
+    private void enterBlock(int block) {
+        Var[] stackVars = getStackVars(block);
+        top = 0;
+        for (Var var : stackVars) {
+            push(var);
+        }
+        if (analyzer.isHandler(block)) {
+            addStmt(new Catch(stackVars[0]));
+        }
+    }
+
+    /**
+     * Passes the values on the stack to the variables of {@code block}.
+     */
+    private void passStack(int block) {
+        if (top == 0 || analyzer.isHandler(block)) {
+            return;
+        }
+        Var[] targets = getStackVars(block);
+        List<Var> targetList = Arrays.asList(targets);
+        // values that will be overwritten by the passing are saved at first
+        for (int i = 0; i < top; ++i) {
+            if (stack[i] != targets[i] && stack[i] instanceof Var v &&
+                    targetList.contains(v)) {
+                Var temp = newTempVar(v.getType());
+                addStmt(new Copy(temp, v));
+                for (int j = i; j < top; ++j) {
+                    if (stack[j] == v) {
+                        stack[j] = temp;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < top; ++i) {
+            if (stack[i] instanceof Literal literal) {
+                addStmt(new AssignLiteral(targets[i], literal));
+            } else if (stack[i] != targets[i]) {
+                addStmt(new Copy(targets[i], (Var) stack[i]));
+            }
+        }
+    }
+
+    /**
+     * Saves the operands of a jump if they would be overwritten
+     * when passing the stack to the targets.
+     */
+    private Var protect(Var operand, int... blocks) {
+        for (int block : blocks) {
+            Var[] targets = blockStackVars[block];
+            if (top > 0 && targets != null &&
+                    Arrays.asList(targets).contains(operand)) {
+                Var temp = newTempVar(operand.getType());
+                addStmt(new Copy(temp, operand));
+                return temp;
+            }
+        }
+        return operand;
+    }
+
+    /**
+     * Defines the value computed by the i-th instruction. If the value is
+     * immediately stored to a local variable, the local variable is
+     * directly defined, otherwise, a temporary variable is defined and
+     * pushed to the stack.
+     */
+    private void define(int i, Function<Var, Stmt> stmtMaker) {
+        int next = i + 1;
+        if (next < code.size && !analyzer.isLeader(next) &&
+                ISTORE <= code.opcodes[next] && code.opcodes[next] <= ASTORE) {
+            Var local = getLocalVar(analyzer.getDefWeb(next));
+            spill(local);
+            addStmt(stmtMaker.apply(local));
+            skip = next;
+        } else {
+            Var temp = newTempVar(analyzer.getResultType(i));
+            addStmt(stmtMaker.apply(temp));
+            push(temp);
+        }
+    }
+
+    private void buildStmt(int i) {
+        int opcode = code.opcodes[i];
+        Object operand = code.operands[i];
+        switch (opcode) {
+            case ACONST_NULL -> push(NullLiteral.get());
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4,
+                    ICONST_5 -> push(IntLiteral.get(opcode - ICONST_0));
+            case LCONST_0, LCONST_1 -> push(LongLiteral.get(opcode - LCONST_0));
+            case FCONST_0, FCONST_1, FCONST_2 -> push(FloatLiteral.get(opcode - FCONST_0));
+            case DCONST_0, DCONST_1 -> push(DoubleLiteral.get(opcode - DCONST_0));
+            case BIPUSH, SIPUSH -> push(IntLiteral.get((Integer) operand));
+            case LDC -> push(toLiteral(operand));
+            case ILOAD, LLOAD, FLOAD, DLOAD, ALOAD -> push(getLocalVar(analyzer.getUseWeb(i)));
+            case IALOAD, LALOAD, FALOAD, DALOAD, AALOAD, BALOAD, CALOAD, SALOAD -> {
+                Var index = popVar();
+                Var base = popVar();
+                define(i, lhs -> new LoadArray(lhs, new ArrayAccess(base, index)));
+            }
+            case ISTORE, LSTORE, FSTORE, DSTORE, ASTORE -> {
+                Object value = pop();
+                Var local = getLocalVar(analyzer.getDefWeb(i));
+                spill(local);
+                if (value instanceof Literal literal) {
+                    addStmt(new AssignLiteral(local, literal));
+                } else if (value != local) {
+                    addStmt(new Copy(local, (Var) value));
+                }
+            }
+            case IASTORE, LASTORE, FASTORE, DASTORE, AASTORE, BASTORE, CASTORE, SASTORE -> {
+                Var value = popVar();
+                Var index = popVar();
+                Var base = popVar();
+                addStmt(new StoreArray(new ArrayAccess(base, index), value));
+            }
+            case POP -> pop();
+            case POP2 -> {
+                if (!isWide(pop())) {
+                    pop();
+                }
+            }
+            case DUP -> push(peek());
+            case DUP_X1 -> {
+                Object v1 = pop(), v2 = pop();
+                push(v1);
+                push(v2);
+                push(v1);
+            }
+            case DUP_X2 -> {
+                Object v1 = pop(), v2 = pop();
+                if (isWide(v2)) {
+                    pushAll(v1, v2, v1);
+                } else {
+                    Object v3 = pop();
+                    pushAll(v1, v3, v2, v1);
+                }
+            }
+            case DUP2 -> {
+                if (isWide(peek())) {
+                    push(peek());
+                } else {
+                    Object v1 = pop(), v2 = pop();
+                    pushAll(v2, v1, v2, v1);
+                }
+            }
+            case DUP2_X1 -> {
+                Object v1 = pop();
+                if (isWide(v1)) {
+                    Object v2 = pop();
+                    pushAll(v1, v2, v1);
+                } else {
+                    Object v2 = pop(), v3 = pop();
+                    pushAll(v2, v1, v3, v2, v1);
+                }
+            }
+            case DUP2_X2 -> {
+                Object v1 = pop();
+                if (isWide(v1)) {
+                    Object v2 = pop();
+                    if (isWide(v2)) {
+                        pushAll(v1, v2, v1);
+                    } else {
+                        Object v3 = pop();
+                        pushAll(v1, v3, v2, v1);
+                    }
+                } else {
+                    Object v2 = pop(), v3 = pop();
+                    if (isWide(v3)) {
+                        pushAll(v2, v1, v3, v2, v1);
+                    } else {
+                        Object v4 = pop();
+                        pushAll(v2, v1, v4, v3, v2, v1);
+                    }
+                }
+            }
+            case SWAP -> {
+                Object v1 = pop(), v2 = pop();
+                pushAll(v1, v2);
+            }
+            case IADD, LADD, FADD, DADD -> arithmetic(i, ArithmeticExp.Op.ADD);
+            case ISUB, LSUB, FSUB, DSUB -> arithmetic(i, ArithmeticExp.Op.SUB);
+            case IMUL, LMUL, FMUL, DMUL -> arithmetic(i, ArithmeticExp.Op.MUL);
+            case IDIV, LDIV, FDIV, DDIV -> arithmetic(i, ArithmeticExp.Op.DIV);
+            case IREM, LREM, FREM, DREM -> arithmetic(i, ArithmeticExp.Op.REM);
+            case INEG, LNEG, FNEG, DNEG -> {
+                Var v = popVar();
+                define(i, lhs -> new Unary(lhs, new NegExp(v)));
+            }
+            case ISHL, LSHL -> shift(i, ShiftExp.Op.SHL);
+            case ISHR, LSHR -> shift(i, ShiftExp.Op.SHR);
+            case IUSHR, LUSHR -> shift(i, ShiftExp.Op.USHR);
+            case IAND, LAND -> bitwise(i, BitwiseExp.Op.AND);
+            case IOR, LOR -> bitwise(i, BitwiseExp.Op.OR);
+            case IXOR, LXOR -> bitwise(i, BitwiseExp.Op.XOR);
+            case IINC -> {
+                Var local = getLocalVar(analyzer.getUseWeb(i));
+                Var increment = getConstantVar(IntLiteral.get(((IincInsn) operand).increment()));
+                spill(local);
+                addStmt(new Binary(local, new ArithmeticExp(
+                        ArithmeticExp.Op.ADD, local, increment)));
+            }
+            case I2L, I2F, I2D, L2I, L2F, L2D, F2I, F2L, F2D, D2I, D2L, D2F,
+                    I2B, I2C, I2S, CHECKCAST -> {
+                Var v = popVar();
+                Type type = analyzer.getResultType(i);
+                define(i, lhs -> new Cast(lhs, new CastExp(v, type)));
+            }
+            case LCMP -> comparison(i, ComparisonExp.Op.CMP);
+            case FCMPL, DCMPL -> comparison(i, ComparisonExp.Op.CMPL);
+            case FCMPG, DCMPG -> comparison(i, ComparisonExp.Op.CMPG);
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE -> {
+                Var v = popVar();
+                branch(i, getConditionOp(opcode - IFEQ), v,
+                        getConstantVar(IntLiteral.get(0)));
+            }
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE,
+                    IF_ACMPEQ, IF_ACMPNE -> {
+                Var v2 = popVar();
+                Var v1 = popVar();
+                int op = opcode <= IF_ICMPLE ? opcode - IF_ICMPEQ : opcode - IF_ACMPEQ;
+                branch(i, getConditionOp(op), v1, v2);
+            }
+            case IFNULL, IFNONNULL -> {
+                Var v = popVar();
+                branch(i, opcode == IFNULL ? ConditionExp.Op.EQ : ConditionExp.Op.NE,
+                        v, getConstantVar(NullLiteral.get()));
+            }
+            case GOTO -> {
+                passStack(analyzer.getBlock(code.getIndex((Label) operand)));
+                Goto gotoStmt = new Goto();
+                addStmt(gotoStmt);
+                jumps.put(gotoStmt, operand);
+            }
+            case TABLESWITCH, LOOKUPSWITCH -> {
+                SwitchInsn insn = (SwitchInsn) operand;
+                int[] targets = new int[insn.labels().length + 1];
+                for (int j = 0; j < insn.labels().length; ++j) {
+                    targets[j] = analyzer.getBlock(code.getIndex(insn.labels()[j]));
+                }
+                targets[insn.labels().length] =
+                        analyzer.getBlock(code.getIndex(insn.defaultLabel()));
+                Var key = protect(popVar(), targets);
+                Arrays.stream(targets).distinct().forEach(this::passStack);
+                SwitchStmt switchStmt;
+                if (opcode == TABLESWITCH) {
+                    int[] keys = insn.keys();
+                    switchStmt = new TableSwitch(key, keys[0], keys[keys.length - 1]);
+                } else {
+                    switchStmt = new LookupSwitch(key,
+                            Arrays.stream(insn.keys()).boxed().toList());
+                }
+                addStmt(switchStmt);
+                jumps.put(switchStmt, insn);
+            }
+            case IRETURN, LRETURN, FRETURN, DRETURN, ARETURN -> {
+                Var v = popVar();
+                returnVars.add(v);
+                addStmt(new Return(v));
+            }
+            case RETURN -> addStmt(new Return());
+            case GETSTATIC -> {
+                FieldAccess access = new StaticFieldAccess(getFieldRef(operand, true));
+                define(i, lhs -> new LoadField(lhs, access));
+            }
+            case PUTSTATIC -> {
+                Var v = popVar();
+                addStmt(new StoreField(new StaticFieldAccess(
+                        getFieldRef(operand, true)), v));
+            }
+            case GETFIELD -> {
+                Var base = popVar();
+                FieldAccess access = new InstanceFieldAccess(
+                        getFieldRef(operand, false), base);
+                define(i, lhs -> new LoadField(lhs, access));
+            }
+            case PUTFIELD -> {
+                Var v = popVar();
+                Var base = popVar();
+                addStmt(new StoreField(new InstanceFieldAccess(
+                        getFieldRef(operand, false), base), v));
+            }
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC, INVOKEINTERFACE -> {
+                MethodInsn insn = (MethodInsn) operand;
+                MethodRef ref = getMethodRef(insn.owner(), insn.name(),
+                        insn.descriptor(), opcode == INVOKESTATIC);
+                List<Var> args = popVars(ref.getParameterTypes().size());
+                InvokeExp invokeExp = switch (opcode) {
+                    case INVOKEVIRTUAL -> new InvokeVirtual(ref, popVar(), args);
+                    case INVOKESPECIAL -> new InvokeSpecial(ref, popVar(), args);
+                    case INVOKEINTERFACE -> new InvokeInterface(ref, popVar(), args);
+                    default -> new InvokeStatic(ref, args);
+                };
+                invoke(i, invokeExp);
+            }
+            case INVOKEDYNAMIC -> {
+                InvokeDynamicInsn insn = (InvokeDynamicInsn) operand;
+                Handle bsm = insn.bootstrapMethod();
+                MethodRef bsmRef = getMethodRef(bsm.getOwner(), bsm.getName(),
+                        bsm.getDesc(), bsm.getTag() == H_INVOKESTATIC);
+                MethodType methodType = MethodType.get(
+                        converter.convertParamTypes(insn.descriptor()),
+                        converter.convertReturnType(insn.descriptor()));
+                List<Literal> bsmArgs = Arrays.stream(insn.bootstrapArgs())
+                        .map(this::toLiteral)
+                        .toList();
+                List<Var> args = popVars(methodType.getParamTypes().size());
+                invoke(i, new InvokeDynamic(bsmRef, insn.name(), methodType,
+                        bsmArgs, args));
+            }
+            case NEW -> {
+                ClassType type = (ClassType) analyzer.getResultType(i);
+                define(i, lhs -> new New(method, lhs, new NewInstance(type)));
+            }
+            case NEWARRAY, ANEWARRAY -> {
+                Var length = popVar();
+                ArrayType type = (ArrayType) analyzer.getResultType(i);
+                define(i, lhs -> new New(method, lhs, new NewArray(type, length)));
+            }
+            case MULTIANEWARRAY -> {
+                List<Var> lengths = popVars(((MultiANewArrayInsn) operand).dimensions());
+                ArrayType type = (ArrayType) analyzer.getResultType(i);
+                define(i, lhs -> new New(method, lhs, new NewMultiArray(type, lengths)));
+            }
+            case ARRAYLENGTH -> {
+                Var base = popVar();
+                define(i, lhs -> new Unary(lhs, new ArrayLengthExp(base)));
+            }
+            case ATHROW -> addStmt(new Throw(popVar()));
+            case INSTANCEOF -> {
+                Var v = popVar();
+                ReferenceType type = (ReferenceType)
+                        converter.convertInternalName((String) operand);
+                define(i, lhs -> new InstanceOf(lhs, new InstanceOfExp(v, type)));
+            }
+            case MONITORENTER -> addStmt(new Monitor(Monitor.Op.ENTER, popVar()));
+            case MONITOREXIT -> addStmt(new Monitor(Monitor.Op.EXIT, popVar()));
+            default -> throw new AsmFrontendException(
+                    "Unsupported opcode " + opcode + " at " + i);
+        }
+    }
+
+    private void pushAll(Object... values) {
+        for (Object value : values) {
+            push(value);
+        }
+    }
+
+    private void arithmetic(int i, ArithmeticExp.Op op) {
+        Var v2 = popVar();
+        Var v1 = popVar();
+        define(i, lhs -> new Binary(lhs, new ArithmeticExp(op, v1, v2)));
+    }
+
+    private void shift(int i, ShiftExp.Op op) {
+        Var v2 = popVar();
+        Var v1 = popVar();
+        define(i, lhs -> new Binary(lhs, new ShiftExp(op, v1, v2)));
+    }
+
+    private void bitwise(int i, BitwiseExp.Op op) {
+        Var v2 = popVar();
+        Var v1 = popVar();
+        define(i, lhs -> new Binary(lhs, new BitwiseExp(op, v1, v2)));
+    }
+
+    private void comparison(int i, ComparisonExp.Op op) {
+        Var v2 = popVar();
+        Var v1 = popVar();
+        define(i, lhs -> new Binary(lhs, new ComparisonExp(op, v1, v2)));
+    }
+
+    /**
+     * @param offset offset of the opcode from IFEQ (or IF_ICMPEQ)
+     */
+    private static ConditionExp.Op getConditionOp(int offset) {
+        return switch (offset) {
+            case 0 -> ConditionExp.Op.EQ;
+            case 1 -> ConditionExp.Op.NE;
+            case 2 -> ConditionExp.Op.LT;
+            case 3 -> ConditionExp.Op.GE;
+            case 4 -> ConditionExp.Op.GT;
+            default -> ConditionExp.Op.LE;
+        };
+    }
+
+    private void branch(int i, ConditionExp.Op op, Var v1, Var v2) {
+        Label label = (Label) code.operands[i];
+        int target = analyzer.getBlock(code.getIndex(label));
+        int next = analyzer.getBlock(i + 1);
+        Var o1 = protect(v1, target, next);
+        Var o2 = protect(v2, target, next);
+        passStack(target);
+        if (next != target) {
+            passStack(next);
+        }
+        If ifStmt = new If(new ConditionExp(op, o1, o2));
+        addStmt(ifStmt);
+        jumps.put(ifStmt, label);
+    }
+
+    private void invoke(int i, InvokeExp invokeExp) {
+        Type type = invokeExp.getType();
+        if (type.equals(VOID)) {
+            addStmt(new Invoke(method, invokeExp));
+        } else if (i + 1 < code.size && !analyzer.isLeader(i + 1) &&
+                code.opcodes[i + 1] == (FrameAnalyzer.isWide(type) ? POP2 : POP)) {
+            // the result is discarded. Note that POP2 after a category-1
+            // result also pops the value below it, thus it is not folded
+            addStmt(new Invoke(method, invokeExp));
+            skip = i + 1;
+        } else {
+            define(i, lhs -> new Invoke(method, invokeExp, lhs));
+        }
+    }
+
+    private FieldRef getFieldRef(Object operand, boolean isStatic) {
+        FieldInsn insn = (FieldInsn) operand;
+        return FieldRef.get(converter.convertOwner(insn.owner()), insn.name(),
+                converter.convertType(insn.descriptor()), isStatic);
+    }
+
+    private MethodRef getMethodRef(String owner, String name,
+                                   String descriptor, boolean isStatic) {
+        return MethodRef.get(converter.convertOwner(owner), name,
+                converter.convertParamTypes(descriptor),
+                converter.convertReturnType(descriptor), isStatic);
+    }
+
+    private Literal toLiteral(Object constant) {
+        if (constant instanceof Integer i) {
+            return IntLiteral.get(i);
+        } else if (constant instanceof Float f) {
+            return FloatLiteral.get(f);
+        } else if (constant instanceof Long l) {
+            return LongLiteral.get(l);
+        } else if (constant instanceof Double d) {
+            return DoubleLiteral.get(d);
+        } else if (constant instanceof String s) {
+            return StringLiteral.get(s);
+        } else if (constant instanceof org.objectweb.asm.Type t) {
+            String descriptor = t.getDescriptor();
+            return t.getSort() == org.objectweb.asm.Type.METHOD ?
+                    MethodType.get(converter.convertParamTypes(descriptor),
+                            converter.convertReturnType(descriptor)) :
+                    ClassLiteral.get(converter.convertType(descriptor));
+        } else if (constant instanceof Handle handle) {
+            return toMethodHandle(handle);
+        } else if (constant instanceof ConstantDynamic) {
+            throw new AsmFrontendException("Dynamic constant is not supported");
+        }
+        throw new AsmFrontendException("Cannot convert constant: " + constant);
+    }
+
+    private MethodHandle toMethodHandle(Handle handle) {
+        int tag = handle.getTag();
+        MemberRef ref = switch (tag) {
+            case H_GETFIELD, H_PUTFIELD, H_GETSTATIC, H_PUTSTATIC -> FieldRef.get(
+                    converter.convertOwner(handle.getOwner()), handle.getName(),
+                    converter.convertType(handle.getDesc()),
+                    tag == H_GETSTATIC || tag == H_PUTSTATIC);
+            default -> getMethodRef(handle.getOwner(), handle.getName(),
+                    handle.getDesc(), tag == H_INVOKESTATIC);
+        };
+        return MethodHandle.get(MethodHandle.Kind.get(tag), ref);
+    }
+
+    // ---------- control flow ----------
+
+    private Stmt getTarget(Label label) {
+        return stmts.get(stmtStarts[code.getIndex(label)]);
+    }
+
+    private void linkJumpTargets() {
+        jumps.forEach((stmt, target) -> {
+            if (stmt instanceof Goto gotoStmt) {
+                gotoStmt.setTarget(getTarget((Label) target));
+            } else if (stmt instanceof If ifStmt) {
+                ifStmt.setTarget(getTarget((Label) target));
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                SwitchInsn insn = (SwitchInsn) target;
+                switchStmt.setTargets(Arrays.stream(insn.labels())
+                        .map(this::getTarget)
+                        .toList());
+                switchStmt.setDefaultTarget(getTarget(insn.defaultLabel()));
+            }
+        });
+    }
+
+    private List<ExceptionEntry> buildExceptionEntries() {
+        if (code.tryCatches.isEmpty()) {
+            return List.of();
+        }
+        List<ExceptionEntry> entries = new ArrayList<>(code.tryCatches.size());
+        for (TryCatch tc : code.tryCatches) {
+            int handler = code.getIndex(tc.handler());
+            if (analyzer.getEntry(analyzer.getBlock(handler)) == null) {
+                continue;
+            }
+            int start = stmtStarts[code.getIndex(tc.start())];
+            int end = stmtStarts[code.getIndex(tc.end())];
+            if (start >= end) { // the protected code is empty
+                continue;
+            }
+            if (end == stmts.size()) {
+                // end of exception entry is exclusive, thus we add
+                // a Nop to represent the end of code
+                addStmt(new Nop());
+            }
+            ClassType catchType = converter.convertClassType(tc.type() == null ?
+                    ClassNames.THROWABLE : ClassData.toClassName(tc.type()));
+            entries.add(new ExceptionEntry(stmts.get(start), stmts.get(end),
+                    (Catch) stmts.get(stmtStarts[handler]), catchType));
+        }
+        return entries;
+    }
+}
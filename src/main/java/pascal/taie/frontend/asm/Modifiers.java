@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.Opcodes;
+import pascal.taie.language.classes.Modifier;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+
+/**
+ * Converts access flags in class files to Tai-e's modifiers.
+ * Some flags share the same bit for different kinds of members,
+ * e.g., ACC_SUPER (class) and ACC_SYNCHRONIZED (method),
+ * thus callers should use the conversion method for the right kind.
+ */
+class Modifiers {
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> modMap
+            = newConcurrentMap();
+
+    /**
+     * Flags that are meaningless (ACC_SUPER) or not modeled (ACC_MODULE)
+     * for classes.
+     */
+    private static final int CLASS_IGNORED =
+            Opcodes.ACC_SUPER | Opcodes.ACC_MODULE;
+
+    /**
+     * Flags that are not modeled (ACC_BRIDGE, ACC_VARARGS) for methods.
+     */
+    private static final int METHOD_IGNORED =
+            Opcodes.ACC_BRIDGE | Opcodes.ACC_VARARGS;
+
+    /**
+     * ASM stores pseudo flags (e.g., ACC_DEPRECATED) beyond the low 16 bits,
+     * which are not access flags in class files.
+     */
+    private static final int ACCESS_MASK = 0xffff;
+
+    private Modifiers() {
+    }
+
+    static Set<Modifier> convertClass(int access) {
+        return convert(access & ~CLASS_IGNORED & ACCESS_MASK);
+    }
+
+    static Set<Modifier> convertField(int access) {
+        return convert(access & ACCESS_MASK);
+    }
+
+    static Set<Modifier> convertMethod(int access) {
+        return convert(access & ~METHOD_IGNORED & ACCESS_MASK);
+    }
+
+    private static Set<Modifier> convert(int modifiers) {
+        return modMap.computeIfAbsent(modifiers, m -> {
+            Set<Modifier> result = EnumSet.noneOf(Modifier.class);
+            if ((m & Opcodes.ACC_ABSTRACT) != 0) {
+                result.add(Modifier.ABSTRACT);
+            }
+            if ((m & Opcodes.ACC_FINAL) != 0) {
+                result.add(Modifier.FINAL);
+            }
+            if ((m & Opcodes.ACC_INTERFACE) != 0) {
+                result.add(Modifier.INTERFACE);
+            }
+            if ((m & Opcodes.ACC_NATIVE) != 0) {
+                result.add(Modifier.NATIVE);
+            }
+            if ((m & Opcodes.ACC_PRIVATE) != 0) {
+                result.add(Modifier.PRIVATE);
+            }
+            if ((m & Opcodes.ACC_PROTECTED) != 0) {
+                result.add(Modifier.PROTECTED);
+            }
+            if ((m & Opcodes.ACC_PUBLIC) != 0) {
+                result.add(Modifier.PUBLIC);
+            }
+            if ((m & Opcodes.ACC_STATIC) != 0) {
+                result.add(Modifier.STATIC);
+            }
+            if ((m & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                result.add(Modifier.SYNCHRONIZED);
+            }
+            if ((m & Opcodes.ACC_TRANSIENT) != 0) {
+                result.add(Modifier.TRANSIENT);
+            }
+            if ((m & Opcodes.ACC_VOLATILE) != 0) {
+                result.add(Modifier.VOLATILE);
+            }
+            if ((m & Opcodes.ACC_STRICT) != 0) {
+                result.add(Modifier.STRICTFP);
+            }
+            if ((m & Opcodes.ACC_ANNOTATION) != 0) {
+                result.add(Modifier.ANNOTATION);
+            }
+            if ((m & Opcodes.ACC_ENUM) != 0) {
+                result.add(Modifier.ENUM);
+            }
+            if ((m & Opcodes.ACC_SYNTHETIC) != 0) {
+                result.add(Modifier.SYNTHETIC);
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+}
@@ -21,6 +21,8 @@
  */
 
 /**
- * TODO: We'll add another frontend implemented based on ASM
+ * Frontend which builds Tai-e's world from class files by ASM.
+ * Use {@link pascal.taie.frontend.asm.AsmWorldBuilder} via option
+ * {@code --world-builder} to enable it.
  */
 package pascal.taie.frontend.asm;
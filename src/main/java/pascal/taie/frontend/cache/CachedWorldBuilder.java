@@ -35,10 +35,15 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * A {@link WorldBuilder} that loads the cached world if it exists, or delegates to the
@@ -149,7 +154,11 @@ public class CachedWorldBuilder implements WorldBuilder {
                 "world-cache-" + getWorldCacheHash(options) + ".bin").getAbsoluteFile();
     }
 
-    private static int getWorldCacheHash(Options options) {
+    /**
+     * @return the hash of the program specified by given options.
+     * The hash changes when any input class path is modified.
+     */
+    public static int getWorldCacheHash(Options options) {
         int result = options.getMainClass() != null
                 ? options.getMainClass().hashCode() : 0;
         result = 31 * result + (options.getInputClasses() != null
@@ -172,4 +181,57 @@ public class CachedWorldBuilder implements WorldBuilder {
         result = Math.abs(result);
         return result;
     }
+
+    /**
+     * Unlike {@link #getWorldCacheHash(Options)}, the identity is not
+     * hashed, thus different programs never share the same identity.
+     *
+     * @return the identity of the program specified by given options,
+     * which consists of the options that affect the world, and the path,
+     * size and last modified time of each class path entry (for a directory,
+     * the number and total size of the files in it and their latest
+     * modified time).
+     */
+    public static String getWorldIdentity(Options options) {
+        StringBuilder identity = new StringBuilder()
+                .append("main=").append(options.getMainClass())
+                .append(";input=").append(options.getInputClasses())
+                .append(";java=").append(options.getJavaVersion())
+                .append(";pp=").append(options.isPrependJVM())
+                .append(";phantom=").append(options.isAllowPhantom())
+                .append(";builder=").append(options.getWorldBuilderClass() != null
+                        ? options.getWorldBuilderClass().getName() : null);
+        appendPaths(identity.append(";cp="), options.getClassPath());
+        appendPaths(identity.append(";acp="), options.getAppClassPath());
+        return identity.toString();
+    }
+
+    private static void appendPaths(StringBuilder identity, List<String> paths) {
+        identity.append('[');
+        for (String path : paths) {
+            File file = new File(path).getAbsoluteFile();
+            identity.append(file.getPath());
+            if (file.isDirectory()) {
+                long count = 0, size = 0, lastModified = file.lastModified();
+                try (Stream<Path> files = Files.walk(file.toPath())) {
+                    for (Path f : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        ++count;
+                        size += Files.size(f);
+                        lastModified = Math.max(lastModified,
+                                Files.getLastModifiedTime(f).toMillis());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                identity.append(":files=").append(count);
+                identity.append(":size=").append(size);
+                identity.append(":mtime=").append(lastModified);
+            } else if (file.exists()) {
+                identity.append(":size=").append(file.length());
+                identity.append(":mtime=").append(file.lastModified());
+            }
+            identity.append(',');
+        }
+        identity.append(']');
+    }
 }
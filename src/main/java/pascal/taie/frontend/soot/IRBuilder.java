@@ -26,6 +26,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRBuildHelper;
+import pascal.taie.ir.IRBuildStats;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
@@ -97,5 +98,6 @@ class IRBuilder implements pascal.taie.ir.IRBuilder {
         }
         timer.stop();
         logger.info(timer);
+        logger.info(IRBuildStats.summary());
     }
 }
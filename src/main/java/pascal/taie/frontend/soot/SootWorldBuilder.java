@@ -29,14 +29,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.AbstractWorldBuilder;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysis;
-import pascal.taie.analysis.pta.plugin.reflection.LogItem;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
+import pascal.taie.ir.IRStore;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
-import pascal.taie.language.classes.StringReps;
-import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.language.type.TypeSystemImpl;
 import soot.G;
@@ -69,6 +66,10 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
 
     @Override
     public void build(Options options, List<AnalysisConfig> analyses) {
+        if (options.isLazyClassLoading()) {
+            logger.warn("Soot frontend does not support lazy class loading," +
+                    " option '--lazy-class-loading' is ignored");
+        }
         initSoot(options, analyses, this);
         // set arguments and run soot
         List<String> args = new ArrayList<>();
@@ -168,29 +169,7 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
      * @param scene    the Soot's scene
      */
     private static void addReflectionLogClasses(List<AnalysisConfig> analyses, Scene scene) {
-        analyses.forEach(config -> {
-            if (config.getId().equals(PointerAnalysis.ID)) {
-                String path = config.getOptions().getString("reflection-log");
-                if (path != null) {
-                    LogItem.load(path).forEach(item -> {
-                        // add target class
-                        String target = item.target;
-                        String targetClass;
-                        if (target.startsWith("<")) {
-                            targetClass = StringReps.getClassNameOf(target);
-                        } else {
-                            targetClass = target;
-                        }
-                        if (StringReps.isArrayType(targetClass)) {
-                            targetClass = StringReps.getBaseTypeNameOf(target);
-                        }
-                        if (!PrimitiveType.isPrimitiveType(targetClass)) {
-                            scene.addBasicClass(targetClass);
-                        }
-                    });
-                }
-            }
-        });
+        getReflectionLogClasses(analyses).forEach(scene::addBasicClass);
     }
 
     private void build(Options options, Scene scene) {
@@ -240,6 +219,9 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         world.setNativeModel(getNativeModel(typeSystem, hierarchy, options));
         IRBuilder irBuilder = new IRBuilder(converter);
         world.setIRBuilder(irBuilder);
+        if (options.getIRBudget() > 0) {
+            world.setIRStore(new IRStore(options.getIRBudget()));
+        }
         if (options.isPreBuildIR()) {
             irBuilder.buildAll(hierarchy);
         }
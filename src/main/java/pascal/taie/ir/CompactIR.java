@@ -0,0 +1,754 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact encoding of {@link IR}.
+ * <p>
+ * The Vars, Stmts and exception entries of an IR are packed into a single
+ * int array, where Vars and Stmts are referred to by their indexes, and
+ * the other elements (e.g., types, field/method references and literals)
+ * are referred to by their indexes in a constant pool. Such an encoding
+ * is much smaller than the object graph of IR, and it is used by
+ * {@link IRStore} to keep the IRs evicted from memory, so that they can
+ * be restored by {@link #decode()} without building from the frontend.
+ * It is also the record format of {@link IRArchiveWriter}.
+ * <p>
+ * The encoding is immutable and does not reference the decoded IR, and
+ * each decoding creates a new IR, thus the Vars and Stmts in IRs
+ * decoded from the same encoding are different objects.
+ */
+public final class CompactIR {
+
+    /**
+     * Opcodes of the encoded statements.
+     */
+    private static final int NOP = 0, ASSIGN_LITERAL = 1, COPY = 2,
+            LOAD_ARRAY = 3, STORE_ARRAY = 4, LOAD_FIELD = 5, STORE_FIELD = 6,
+            NEW_INSTANCE = 7, NEW_ARRAY = 8, NEW_MULTI_ARRAY = 9,
+            ARITHMETIC = 10, BITWISE = 11, COMPARISON = 12, CONDITION = 13,
+            SHIFT = 14, NEG = 15, ARRAY_LENGTH = 16, CAST = 17,
+            INSTANCE_OF = 18, GOTO = 19, IF = 20, TABLE_SWITCH = 21,
+            LOOKUP_SWITCH = 22, INVOKE_VIRTUAL = 23, INVOKE_INTERFACE = 24,
+            INVOKE_SPECIAL = 25, INVOKE_STATIC = 26, INVOKE_DYNAMIC = 27,
+            RETURN = 28, THROW = 29, CATCH = 30, MONITOR_ENTER = 31,
+            MONITOR_EXIT = 32;
+
+    private static final ArithmeticExp.Op[] ARITHMETIC_OPS = ArithmeticExp.Op.values();
+
+    private static final BitwiseExp.Op[] BITWISE_OPS = BitwiseExp.Op.values();
+
+    private static final ComparisonExp.Op[] COMPARISON_OPS = ComparisonExp.Op.values();
+
+    private static final ConditionExp.Op[] CONDITION_OPS = ConditionExp.Op.values();
+
+    private static final ShiftExp.Op[] SHIFT_OPS = ShiftExp.Op.values();
+
+    /**
+     * Index representing the absence of a Var or a constant.
+     */
+    private static final int NONE = -1;
+
+    private final JMethod method;
+
+    /**
+     * Layout: this variable, parameters, return variables, Vars,
+     * Stmts and exception entries. Each variable-length section
+     * is prefixed by its length.
+     */
+    private final int[] code;
+
+    private final Object[] pool;
+
+    private final int stmtCount;
+
+    CompactIR(JMethod method, int[] code, Object[] pool, int stmtCount) {
+        this.method = method;
+        this.code = code;
+        this.pool = pool;
+        this.stmtCount = stmtCount;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return number of statements in the encoded IR.
+     */
+    public int getStmtCount() {
+        return stmtCount;
+    }
+
+    /**
+     * @return the encoded Vars, Stmts and exception entries.
+     * The returned array should not be modified.
+     */
+    int[] getCode() {
+        return code;
+    }
+
+    /**
+     * @return the constant pool. The returned array should not be modified.
+     */
+    Object[] getPool() {
+        return pool;
+    }
+
+    /**
+     * @return estimated size (in bytes) of this encoding,
+     * excluding the objects shared with other IRs.
+     */
+    public long getEncodedSize() {
+        return 4L * code.length + 4L * pool.length;
+    }
+
+    /**
+     * Encodes the given IR.
+     *
+     * @throws IllegalArgumentException if the IR contains statements
+     *                                  that cannot be encoded.
+     */
+    public static CompactIR encode(IR ir) {
+        Encoder encoder = new Encoder();
+        return encoder.encode(ir);
+    }
+
+    /**
+     * Decodes this encoding to a new IR.
+     */
+    public IR decode() {
+        return new Decoder().decode();
+    }
+
+    private static class Encoder implements StmtVisitor<Void> {
+
+        private int[] code = new int[64];
+
+        private int size = 0;
+
+        private final Map<Object, Integer> poolIndexes = new IdentityHashMap<>();
+
+        private final List<Object> pool = new ArrayList<>();
+
+        private CompactIR encode(IR ir) {
+            add(var(ir.getThis()));
+            addVars(ir.getParams());
+            addVars(ir.getReturnVars());
+            add(ir.getVars().size());
+            for (Var v : ir.getVars()) {
+                add(ref(v.getName()));
+                add(ref(v.getType()));
+                add(v.isConst() ? ref(v.getConstValue()) : NONE);
+            }
+            add(ir.getStmts().size());
+            for (Stmt s : ir.getStmts()) {
+                int start = size;
+                s.accept(this);
+                code[start + 1] = s.getLineNumber();
+            }
+            add(ir.getExceptionEntries().size());
+            for (ExceptionEntry entry : ir.getExceptionEntries()) {
+                add(entry.start().getIndex());
+                add(entry.end().getIndex());
+                add(entry.handler().getIndex());
+                add(ref(entry.catchType()));
+            }
+            return new CompactIR(ir.getMethod(), Arrays.copyOf(code, size),
+                    pool.toArray(), ir.getStmts().size());
+        }
+
+        private void add(int value) {
+            if (size == code.length) {
+                code = Arrays.copyOf(code, size * 2);
+            }
+            code[size++] = value;
+        }
+
+        private static int var(Var var) {
+            return var != null ? var.getIndex() : NONE;
+        }
+
+        private void addVars(List<Var> vars) {
+            add(vars.size());
+            vars.forEach(v -> add(v.getIndex()));
+        }
+
+        private int ref(Object o) {
+            return poolIndexes.computeIfAbsent(o, __ -> {
+                pool.add(o);
+                return pool.size() - 1;
+            });
+        }
+
+        /**
+         * Adds opcode and a placeholder of line number.
+         */
+        private void addOp(int opcode) {
+            add(opcode);
+            add(NONE);
+        }
+
+        @Override
+        public Void visit(New stmt) {
+            NewExp exp = stmt.getRValue();
+            if (exp instanceof NewInstance newInstance) {
+                addOp(NEW_INSTANCE);
+                add(var(stmt.getLValue()));
+                add(ref(newInstance.getType()));
+            } else if (exp instanceof NewArray newArray) {
+                addOp(NEW_ARRAY);
+                add(var(stmt.getLValue()));
+                add(ref(newArray.getType()));
+                add(var(newArray.getLength()));
+            } else {
+                NewMultiArray newMultiArray = (NewMultiArray) exp;
+                addOp(NEW_MULTI_ARRAY);
+                add(var(stmt.getLValue()));
+                add(ref(newMultiArray.getType()));
+                addVars(newMultiArray.getLengths());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignLiteral stmt) {
+            addOp(ASSIGN_LITERAL);
+            add(var(stmt.getLValue()));
+            add(ref(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addOp(COPY);
+            add(var(stmt.getLValue()));
+            add(var(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) {
+            addOp(LOAD_ARRAY);
+            add(var(stmt.getLValue()));
+            add(var(stmt.getArrayAccess().getBase()));
+            add(var(stmt.getArrayAccess().getIndex()));
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreArray stmt) {
+            addOp(STORE_ARRAY);
+            add(var(stmt.getArrayAccess().getBase()));
+            add(var(stmt.getArrayAccess().getIndex()));
+            add(var(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            addOp(LOAD_FIELD);
+            add(var(stmt.getLValue()));
+            addFieldAccess(stmt.getFieldAccess());
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            addOp(STORE_FIELD);
+            addFieldAccess(stmt.getFieldAccess());
+            add(var(stmt.getRValue()));
+            return null;
+        }
+
+        private void addFieldAccess(FieldAccess access) {
+            add(access instanceof InstanceFieldAccess instanceAccess ?
+                    var(instanceAccess.getBase()) : NONE);
+            add(ref(access.getFieldRef()));
+        }
+
+        @Override
+        public Void visit(Binary stmt) {
+            BinaryExp exp = stmt.getRValue();
+            int opcode;
+            if (exp instanceof ArithmeticExp) {
+                opcode = ARITHMETIC;
+            } else if (exp instanceof BitwiseExp) {
+                opcode = BITWISE;
+            } else if (exp instanceof ComparisonExp) {
+                opcode = COMPARISON;
+            } else if (exp instanceof ConditionExp) {
+                opcode = CONDITION;
+            } else if (exp instanceof ShiftExp) {
+                opcode = SHIFT;
+            } else {
+                return visitDefault(stmt);
+            }
+            addOp(opcode);
+            add(var(stmt.getLValue()));
+            addBinaryExp(exp);
+            return null;
+        }
+
+        private void addBinaryExp(BinaryExp exp) {
+            add(((Enum<?>) exp.getOperator()).ordinal());
+            add(var(exp.getOperand1()));
+            add(var(exp.getOperand2()));
+        }
+
+        @Override
+        public Void visit(Unary stmt) {
+            UnaryExp exp = stmt.getRValue();
+            if (exp instanceof NegExp) {
+                addOp(NEG);
+            } else if (exp instanceof ArrayLengthExp) {
+                addOp(ARRAY_LENGTH);
+            } else {
+                return visitDefault(stmt);
+            }
+            add(var(stmt.getLValue()));
+            add(var(exp.getOperand()));
+            return null;
+        }
+
+        @Override
+        public Void visit(InstanceOf stmt) {
+            addOp(INSTANCE_OF);
+            add(var(stmt.getLValue()));
+            add(var(stmt.getRValue().getValue()));
+            add(ref(stmt.getRValue().getCheckedType()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Cast stmt) {
+            addOp(CAST);
+            add(var(stmt.getLValue()));
+            add(var(stmt.getRValue().getValue()));
+            add(ref(stmt.getRValue().getCastType()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Goto stmt) {
+            addOp(GOTO);
+            add(stmt.getTarget().getIndex());
+            return null;
+        }
+
+        @Override
+        public Void visit(If stmt) {
+            addOp(IF);
+            addBinaryExp(stmt.getCondition());
+            add(stmt.getTarget().getIndex());
+            return null;
+        }
+
+        @Override
+        public Void visit(TableSwitch stmt) {
+            addOp(TABLE_SWITCH);
+            add(var(stmt.getVar()));
+            add(stmt.getLowIndex());
+            add(stmt.getHighIndex());
+            addSwitchTargets(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visit(LookupSwitch stmt) {
+            addOp(LOOKUP_SWITCH);
+            add(var(stmt.getVar()));
+            add(stmt.getCaseValues().size());
+            stmt.getCaseValues().forEach(this::add);
+            addSwitchTargets(stmt);
+            return null;
+        }
+
+        private void addSwitchTargets(SwitchStmt stmt) {
+            add(stmt.getDefaultTarget().getIndex());
+            stmt.getTargets().forEach(t -> add(t.getIndex()));
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            InvokeExp exp = stmt.getInvokeExp();
+            if (exp instanceof InvokeVirtual) {
+                addOp(INVOKE_VIRTUAL);
+            } else if (exp instanceof InvokeInterface) {
+                addOp(INVOKE_INTERFACE);
+            } else if (exp instanceof InvokeSpecial) {
+                addOp(INVOKE_SPECIAL);
+            } else if (exp instanceof InvokeStatic) {
+                addOp(INVOKE_STATIC);
+            } else if (exp instanceof InvokeDynamic) {
+                addOp(INVOKE_DYNAMIC);
+            } else {
+                return visitDefault(stmt);
+            }
+            add(var(stmt.getResult()));
+            if (exp instanceof InvokeDynamic indy) {
+                add(ref(indy.getBootstrapMethodRef()));
+                add(ref(indy.getMethodName()));
+                add(ref(indy.getMethodType()));
+                add(ref(indy.getBootstrapArgs()));
+            } else {
+                add(ref(exp.getMethodRef()));
+                if (exp instanceof InvokeInstanceExp instanceExp) {
+                    add(var(instanceExp.getBase()));
+                }
+            }
+            addVars(exp.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(Return stmt) {
+            addOp(RETURN);
+            add(var(stmt.getValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Throw stmt) {
+            addOp(THROW);
+            add(var(stmt.getExceptionRef()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Catch stmt) {
+            addOp(CATCH);
+            add(var(stmt.getExceptionRef()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Monitor stmt) {
+            addOp(stmt.isEnter() ? MONITOR_ENTER : MONITOR_EXIT);
+            add(var(stmt.getObjectRef()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Nop stmt) {
+            addOp(NOP);
+            return null;
+        }
+
+        @Override
+        public Void visitDefault(Stmt stmt) {
+            throw new IllegalArgumentException(
+                    "Cannot encode " + stmt.getClass().getName() + ": " + stmt);
+        }
+    }
+
+    private class Decoder {
+
+        private int pc = 0;
+
+        private Var[] vars;
+
+        private Stmt[] stmts;
+
+        private IR decode() {
+            int thisIndex = next();
+            List<Var> params = new ArrayList<>();
+            int[] paramIndexes = nextIndexes();
+            int[] returnIndexes = nextIndexes();
+            vars = new Var[next()];
+            for (int i = 0; i < vars.length; ++i) {
+                String name = nextRef();
+                Type type = nextRef();
+                int constIndex = next();
+                vars[i] = new Var(method, name, type, i,
+                        constIndex != NONE ? (Literal) pool[constIndex] : null);
+            }
+            for (int i : paramIndexes) {
+                params.add(vars[i]);
+            }
+            Set<Var> returnVars = new LinkedHashSet<>();
+            for (int i : returnIndexes) {
+                returnVars.add(vars[i]);
+            }
+            stmts = new Stmt[next()];
+            // jump targets may be subsequent statements, thus they are
+            // resolved after all statements have been created
+            int[] targetsStart = new int[stmts.length];
+            for (int i = 0; i < stmts.length; ++i) {
+                int opcode = next();
+                int lineNumber = next();
+                targetsStart[i] = pc;
+                Stmt stmt = decodeStmt(opcode);
+                stmt.setIndex(i);
+                stmt.setLineNumber(lineNumber);
+                stmts[i] = stmt;
+            }
+            int entriesStart = pc;
+            for (int i = 0; i < stmts.length; ++i) {
+                pc = targetsStart[i];
+                resolveTargets(stmts[i]);
+            }
+            pc = entriesStart;
+            int entryCount = next();
+            List<ExceptionEntry> entries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; ++i) {
+                entries.add(new ExceptionEntry(stmts[next()], stmts[next()],
+                        (Catch) stmts[next()], nextRef()));
+            }
+            return new DefaultIR(method, thisIndex != NONE ? vars[thisIndex] : null,
+                    params, returnVars, Arrays.asList(vars),
+                    Arrays.asList(stmts), entries);
+        }
+
+        private int next() {
+            return code[pc++];
+        }
+
+        private int[] nextIndexes() {
+            int n = next();
+            int[] indexes = Arrays.copyOfRange(code, pc, pc + n);
+            pc += n;
+            return indexes;
+        }
+
+        private Var nextVar() {
+            int i = next();
+            return i != NONE ? vars[i] : null;
+        }
+
+        private List<Var> nextVars() {
+            int n = next();
+            List<Var> result = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                result.add(vars[next()]);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T nextRef() {
+            return (T) pool[next()];
+        }
+
+        private Stmt decodeStmt(int opcode) {
+            return switch (opcode) {
+                case NOP -> new Nop();
+                case ASSIGN_LITERAL -> new AssignLiteral(nextVar(), nextRef());
+                case COPY -> new Copy(nextVar(), nextVar());
+                case LOAD_ARRAY -> new LoadArray(nextVar(),
+                        new ArrayAccess(nextVar(), nextVar()));
+                case STORE_ARRAY -> new StoreArray(
+                        new ArrayAccess(nextVar(), nextVar()), nextVar());
+                case LOAD_FIELD -> new LoadField(nextVar(), nextFieldAccess());
+                case STORE_FIELD -> new StoreField(nextFieldAccess(), nextVar());
+                case NEW_INSTANCE -> new New(method, nextVar(),
+                        new NewInstance(this.<ClassType>nextRef()));
+                case NEW_ARRAY -> new New(method, nextVar(),
+                        new NewArray(this.<ArrayType>nextRef(), nextVar()));
+                case NEW_MULTI_ARRAY -> new New(method, nextVar(),
+                        new NewMultiArray(this.<ArrayType>nextRef(), nextVars()));
+                case ARITHMETIC -> new Binary(nextVar(), new ArithmeticExp(
+                        ARITHMETIC_OPS[next()], nextVar(), nextVar()));
+                case BITWISE -> new Binary(nextVar(), new BitwiseExp(
+                        BITWISE_OPS[next()], nextVar(), nextVar()));
+                case COMPARISON -> new Binary(nextVar(), new ComparisonExp(
+                        COMPARISON_OPS[next()], nextVar(), nextVar()));
+                case CONDITION -> new Binary(nextVar(), nextCondition());
+                case SHIFT -> new Binary(nextVar(), new ShiftExp(
+                        SHIFT_OPS[next()], nextVar(), nextVar()));
+                case NEG -> new Unary(nextVar(), new NegExp(nextVar()));
+                case ARRAY_LENGTH -> new Unary(nextVar(), new ArrayLengthExp(nextVar()));
+                case CAST -> new Cast(nextVar(),
+                        new CastExp(nextVar(), nextRef()));
+                case INSTANCE_OF -> new InstanceOf(nextVar(),
+                        new InstanceOfExp(nextVar(), this.<ReferenceType>nextRef()));
+                case GOTO -> {
+                    next();
+                    yield new Goto();
+                }
+                case IF -> {
+                    If stmt = new If(nextCondition());
+                    next();
+                    yield stmt;
+                }
+                case TABLE_SWITCH -> {
+                    TableSwitch stmt = new TableSwitch(nextVar(), next(), next());
+                    pc += 1 + stmt.getCaseValues().size();
+                    yield stmt;
+                }
+                case LOOKUP_SWITCH -> {
+                    Var var = nextVar();
+                    int n = next();
+                    List<Integer> caseValues = new ArrayList<>(n);
+                    for (int i = 0; i < n; ++i) {
+                        caseValues.add(next());
+                    }
+                    pc += 1 + n;
+                    yield new LookupSwitch(var, caseValues);
+                }
+                case INVOKE_VIRTUAL, INVOKE_INTERFACE, INVOKE_SPECIAL,
+                        INVOKE_STATIC, INVOKE_DYNAMIC -> {
+                    Var result = nextVar();
+                    yield new Invoke(method, nextInvokeExp(opcode), result);
+                }
+                case RETURN -> new Return(nextVar());
+                case THROW -> new Throw(nextVar());
+                case CATCH -> new Catch(nextVar());
+                case MONITOR_ENTER -> new Monitor(Monitor.Op.ENTER, nextVar());
+                case MONITOR_EXIT -> new Monitor(Monitor.Op.EXIT, nextVar());
+                default -> throw new IllegalStateException(
+                        "Unknown opcode " + opcode + " in compact IR of " + method);
+            };
+        }
+
+        private FieldAccess nextFieldAccess() {
+            Var base = nextVar();
+            FieldRef fieldRef = nextRef();
+            return base != null ? new InstanceFieldAccess(fieldRef, base)
+                    : new StaticFieldAccess(fieldRef);
+        }
+
+        private ConditionExp nextCondition() {
+            return new ConditionExp(CONDITION_OPS[next()],
+                    nextVar(), nextVar());
+        }
+
+        private InvokeExp nextInvokeExp(int opcode) {
+            if (opcode == INVOKE_DYNAMIC) {
+                MethodRef bootstrapMethodRef = nextRef();
+                String methodName = nextRef();
+                MethodType methodType = nextRef();
+                List<Literal> bootstrapArgs = nextRef();
+                return new InvokeDynamic(bootstrapMethodRef, methodName,
+                        methodType, bootstrapArgs, nextVars());
+            }
+            MethodRef methodRef = nextRef();
+            return switch (opcode) {
+                case INVOKE_VIRTUAL -> new InvokeVirtual(methodRef, nextVar(), nextVars());
+                case INVOKE_INTERFACE -> new InvokeInterface(methodRef, nextVar(), nextVars());
+                case INVOKE_SPECIAL -> new InvokeSpecial(methodRef, nextVar(), nextVars());
+                default -> new InvokeStatic(methodRef, nextVars());
+            };
+        }
+
+        /**
+         * Sets the jump targets of given statement, where {@link #pc}
+         * points to the operands of the statement.
+         */
+        private void resolveTargets(Stmt stmt) {
+            if (stmt instanceof Goto gotoStmt) {
+                gotoStmt.setTarget(stmts[code[pc]]);
+            } else if (stmt instanceof If ifStmt) {
+                // skip operator and two operands
+                ifStmt.setTarget(stmts[code[pc + 3]]);
+            } else if (stmt instanceof TableSwitch tableSwitch) {
+                // skip var, low index and high index
+                setSwitchTargets(tableSwitch, pc + 3,
+                        tableSwitch.getCaseValues().size());
+            } else if (stmt instanceof LookupSwitch lookupSwitch) {
+                // skip var, number of cases and case values
+                int n = code[pc + 1];
+                setSwitchTargets(lookupSwitch, pc + 2 + n, n);
+            }
+        }
+
+        private void setSwitchTargets(SwitchStmt stmt, int offset, int n) {
+            stmt.setDefaultTarget(stmts[code[offset]]);
+            List<Stmt> targets = new ArrayList<>(n);
+            for (int i = 1; i <= n; ++i) {
+                targets.add(stmts[code[offset + i]]);
+            }
+            stmt.setTargets(targets);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.ir.IRArchiveWriter.CLASS_LITERAL;
+import static pascal.taie.ir.IRArchiveWriter.DOUBLE;
+import static pascal.taie.ir.IRArchiveWriter.FIELD_REF;
+import static pascal.taie.ir.IRArchiveWriter.FLOAT;
+import static pascal.taie.ir.IRArchiveWriter.INDEX_FILE;
+import static pascal.taie.ir.IRArchiveWriter.INT;
+import static pascal.taie.ir.IRArchiveWriter.LIST;
+import static pascal.taie.ir.IRArchiveWriter.LONG;
+import static pascal.taie.ir.IRArchiveWriter.MAGIC;
+import static pascal.taie.ir.IRArchiveWriter.METHOD_HANDLE;
+import static pascal.taie.ir.IRArchiveWriter.METHOD_REF;
+import static pascal.taie.ir.IRArchiveWriter.METHOD_TYPE;
+import static pascal.taie.ir.IRArchiveWriter.NULL_LITERAL;
+import static pascal.taie.ir.IRArchiveWriter.NULL_TYPE;
+import static pascal.taie.ir.IRArchiveWriter.SHARD_FILE;
+import static pascal.taie.ir.IRArchiveWriter.STRING;
+import static pascal.taie.ir.IRArchiveWriter.STRING_LITERAL;
+import static pascal.taie.ir.IRArchiveWriter.TYPE;
+import static pascal.taie.ir.IRArchiveWriter.VERSION;
+import static pascal.taie.ir.IRArchiveWriter.VOID;
+
+/**
+ * Reads the IRs of methods from a binary IR archive written by
+ * {@link IRArchiveWriter}. The index of the archive is loaded at
+ * construction, and the IR of each method is read on demand by
+ * positional reads of the shard files, thus this class is thread-safe.
+ * <p>
+ * The types, classes and member references in the IRs are resolved
+ * in the current {@link World}, which should be built from the same
+ * class path as the archive (e.g., by {@code --lazy-class-loading}
+ * to skip building the classes which are not used).
+ * <p>
+ * This class is also an {@link IRBuilder}, so that it can replace the
+ * IR builder of the frontend. The IRs of the methods which are absent
+ * in the archive are built by the fallback builder (if given).
+ */
+public class IRArchiveReader implements IRBuilder, Closeable {
+
+    private static final Logger logger = LogManager.getLogger(IRArchiveReader.class);
+
+    private final Map<String, Record> records;
+
+    private final Map<String, List<String>> classMethods;
+
+    @Nullable
+    private final IRBuilder fallback;
+
+    private final transient FileChannel[] shards;
+
+    public IRArchiveReader(File dir) throws IOException {
+        this(dir, null);
+    }
+
+    /**
+     * Opens the archive in {@code dir}.
+     *
+     * @param fallback the builder for the IRs absent in the archive.
+     */
+    public IRArchiveReader(File dir, @Nullable IRBuilder fallback)
+            throws IOException {
+        this.fallback = fallback;
+        File indexFile = new File(dir, INDEX_FILE);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(indexFile.toPath())))) {
+            checkHeader(in.readInt(), in.readInt(), indexFile);
+            int shardCount = in.readInt();
+            int classCount = in.readInt();
+            records = Maps.newMap();
+            classMethods = Maps.newLinkedHashMap();
+            for (int i = 0; i < classCount; ++i) {
+                String className = readString(in);
+                int methodCount = in.readInt();
+                List<String> signatures = new ArrayList<>(methodCount);
+                for (int j = 0; j < methodCount; ++j) {
+                    String signature = readString(in);
+                    records.put(signature, new Record(
+                            in.readInt(), in.readLong(), in.readInt()));
+                    signatures.add(signature);
+                }
+                classMethods.put(className, List.copyOf(signatures));
+            }
+            shards = new FileChannel[shardCount];
+            for (int i = 0; i < shardCount; ++i) {
+                File shard = new File(dir, String.format(SHARD_FILE, i));
+                if (shard.exists()) {
+                    shards[i] = FileChannel.open(shard.toPath(),
+                            StandardOpenOption.READ);
+                }
+            }
+        }
+    }
+
+    private static void checkHeader(int magic, int version, File file)
+            throws IOException {
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException(file + " is not an IR archive of version "
+                    + VERSION);
+        }
+    }
+
+    /**
+     * @return names of the classes in the archive.
+     */
+    public Set<String> getClassNames() {
+        return classMethods.keySet();
+    }
+
+    /**
+     * @return signatures of the methods (of class {@code className})
+     * whose IRs are in the archive.
+     */
+    public List<String> getMethodSignatures(String className) {
+        return classMethods.getOrDefault(className, List.of());
+    }
+
+    public boolean contains(JMethod method) {
+        return records.containsKey(method.getSignature());
+    }
+
+    /**
+     * Reads the IR of {@code method} from the archive.
+     *
+     * @return the IR, or {@code null} if the IR is absent in the archive.
+     * @throws UncheckedIOException if failed to read the archive.
+     */
+    @Nullable
+    public IR readIR(JMethod method) {
+        Record record = records.get(method.getSignature());
+        if (record == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(record.length());
+        try {
+            FileChannel channel = shards[record.shard()];
+            long position = record.offset();
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of IR archive");
+                }
+                position += n;
+            }
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(buffer.array()));
+            String signature = readString(in);
+            if (!signature.equals(method.getSignature())) {
+                throw new IOException("Mismatched record of " + method
+                        + " in IR archive: " + signature);
+            }
+            int stmtCount = in.readInt();
+            int[] code = new int[in.readInt()];
+            for (int i = 0; i < code.length; ++i) {
+                code[i] = in.readInt();
+            }
+            Object[] pool = new Object[in.readInt()];
+            ConstantReader reader = new ConstantReader();
+            for (int i = 0; i < pool.length; ++i) {
+                pool[i] = reader.read(in);
+            }
+            return new CompactIR(method, code, pool, stmtCount).decode();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read IR of " + method, e);
+        }
+    }
+
+    @Override
+    public IR buildIR(JMethod method) {
+        IR ir = readIR(method);
+        if (ir == null) {
+            if (fallback == null) {
+                throw new AnalysisException(
+                        "IR of " + method + " is absent in IR archive");
+            }
+            ir = fallback.buildIR(method);
+        }
+        return ir;
+    }
+
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+        Timer.runAndCount(() -> hierarchy.allClasses()
+                        .parallel()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract())
+                        .forEach(JMethod::getIR),
+                "Load IR for all methods from IR archive");
+        logger.info(IRBuildStats.summary());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel shard : shards) {
+            if (shard != null) {
+                shard.close();
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Position of the record of a method in the archive.
+     */
+    private record Record(int shard, long offset, int length) {
+    }
+
+    /**
+     * Reads constants and resolves them in the current world.
+     */
+    private static class ConstantReader {
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+        private Object read(DataInputStream in) throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case STRING -> readString(in);
+                case VOID -> VoidType.VOID;
+                case NULL_TYPE -> NullType.NULL;
+                case TYPE -> typeSystem.getType(readString(in));
+                case INT -> IntLiteral.get(in.readInt());
+                case LONG -> LongLiteral.get(in.readLong());
+                case FLOAT -> FloatLiteral.get(in.readFloat());
+                case DOUBLE -> DoubleLiteral.get(in.readDouble());
+                case STRING_LITERAL -> StringLiteral.get(readString(in));
+                case CLASS_LITERAL -> ClassLiteral.get((Type) read(in));
+                case NULL_LITERAL -> NullLiteral.get();
+                case METHOD_HANDLE -> MethodHandle.get(
+                        MethodHandle.Kind.get(in.readInt()), (MemberRef) read(in));
+                case METHOD_TYPE -> MethodType.get(readTypes(in), (Type) read(in));
+                case FIELD_REF -> FieldRef.get(readClass(in), readString(in),
+                        (Type) read(in), in.readBoolean());
+                case METHOD_REF -> MethodRef.get(readClass(in), readString(in),
+                        readTypes(in), (Type) read(in), in.readBoolean());
+                case LIST -> {
+                    int n = in.readInt();
+                    List<Object> list = new ArrayList<>(n);
+                    for (int i = 0; i < n; ++i) {
+                        list.add(read(in));
+                    }
+                    yield List.copyOf(list);
+                }
+                default -> throw new IOException(
+                        "Unknown constant tag " + tag + " in IR archive");
+            };
+        }
+
+        private List<Type> readTypes(DataInputStream in) throws IOException {
+            int n = in.readInt();
+            List<Type> types = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                types.add((Type) read(in));
+            }
+            return types;
+        }
+
+        private JClass readClass(DataInputStream in) throws IOException {
+            String name = readString(in);
+            JClass jclass = hierarchy.getClass(name);
+            if (jclass == null) {
+                throw new AnalysisException("Class " + name +
+                        " referenced by IR archive is absent in the world");
+            }
+            return jclass;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the IRs of methods into a binary IR archive, which can be
+ * loaded by {@link IRArchiveReader} without running the frontend.
+ * <p>
+ * An archive is a directory which consists of a few append-only shard
+ * files ({@link #SHARD_FILE}) and an index file ({@link #INDEX_FILE}).
+ * The IRs of a class are written to the same shard, which is selected
+ * by the class name, and the shards are written via buffered channels.
+ * Each IR is written as a record of its {@link CompactIR}, where the
+ * elements of the constant pool are written symbolically (e.g., types
+ * are written as their names), so that they can be resolved in another
+ * {@link pascal.taie.World}. The index, which is written at closing,
+ * maps each method to the position of its record for random access.
+ * <p>
+ * {@link #write(JClass)} can be called by multiple threads concurrently.
+ */
+public class IRArchiveWriter implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(IRArchiveWriter.class);
+
+    static final int MAGIC = 0x54495230; // "TIR0"
+
+    static final int VERSION = 1;
+
+    static final String INDEX_FILE = "tir.index";
+
+    static final String SHARD_FILE = "tir-%02d.bin";
+
+    /**
+     * Tags of the constants in the pool.
+     */
+    static final byte STRING = 0, VOID = 1, NULL_TYPE = 2, TYPE = 3,
+            INT = 4, LONG = 5, FLOAT = 6, DOUBLE = 7, STRING_LITERAL = 8,
+            CLASS_LITERAL = 9, NULL_LITERAL = 10, METHOD_HANDLE = 11,
+            METHOD_TYPE = 12, FIELD_REF = 13, METHOD_REF = 14, LIST = 15;
+
+    /**
+     * Size of the buffer of each shard.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final File dir;
+
+    private final Shard[] shards;
+
+    /**
+     * Maps each class name to the index entries of its methods.
+     */
+    private final Map<String, List<IndexEntry>> index = Maps.newConcurrentMap();
+
+    /**
+     * Creates a writer which writes the archive to {@code dir}
+     * with {@code shardCount} shards.
+     */
+    public IRArchiveWriter(File dir, int shardCount) throws IOException {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException(
+                    "shardCount should be positive, given: " + shardCount);
+        }
+        Files.createDirectories(dir.toPath());
+        this.dir = dir;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; ++i) {
+            shards[i] = new Shard(new File(dir, String.format(SHARD_FILE, i)));
+        }
+    }
+
+    /**
+     * Writes the IRs of the concrete (i.e., non-abstract and non-native)
+     * methods declared in {@code jclass}. The methods whose IRs cannot be
+     * written (e.g., containing statements unknown to {@link CompactIR})
+     * are skipped, and they are left to the fallback builder of
+     * {@link IRArchiveReader} when the archive is loaded.
+     */
+    public void write(JClass jclass) throws IOException {
+        // records of the class are encoded into a local buffer at first,
+        // and then appended to the shard at once
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        List<JMethod> methods = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            if (method.isAbstract() || method.isNative()) {
+                continue;
+            }
+            byte[] record;
+            try {
+                record = encodeRecord(method);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipped IR of {}: {}", method, e.getMessage());
+                continue;
+            }
+            methods.add(method);
+            starts.add(bytes.size());
+            bytes.write(record);
+        }
+        if (methods.isEmpty()) {
+            return;
+        }
+        starts.add(bytes.size());
+        int shard = Math.floorMod(jclass.getName().hashCode(), shards.length);
+        long base = shards[shard].append(bytes.toByteArray());
+        List<IndexEntry> entries = new ArrayList<>(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            entries.add(new IndexEntry(methods.get(i).getSignature(), shard,
+                    base + starts.get(i), starts.get(i + 1) - starts.get(i)));
+        }
+        index.put(jclass.getName(), entries);
+    }
+
+    /**
+     * @return the record of the IR of {@code method}.
+     * @throws IllegalArgumentException if the IR cannot be written
+     */
+    private static byte[] encodeRecord(JMethod method) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        CompactIR ir = CompactIR.encode(method.getIR());
+        writeString(out, method.getSignature());
+        out.writeInt(ir.getStmtCount());
+        int[] code = ir.getCode();
+        out.writeInt(code.length);
+        for (int i : code) {
+            out.writeInt(i);
+        }
+        Object[] pool = ir.getPool();
+        out.writeInt(pool.length);
+        for (Object o : pool) {
+            writeConstant(out, o);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeConstant(DataOutputStream out, Object o)
+            throws IOException {
+        if (o instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (o instanceof VoidType) {
+            out.writeByte(VOID);
+        } else if (o instanceof NullType) {
+            out.writeByte(NULL_TYPE);
+        } else if (o instanceof Type t) {
+            out.writeByte(TYPE);
+            writeString(out, t.getName());
+        } else if (o instanceof IntLiteral i) {
+            out.writeByte(INT);
+            out.writeInt(i.getValue());
+        } else if (o instanceof LongLiteral l) {
+            out.writeByte(LONG);
+            out.writeLong(l.getValue());
+        } else if (o instanceof FloatLiteral f) {
+            out.writeByte(FLOAT);
+            out.writeFloat(f.getValue());
+        } else if (o instanceof DoubleLiteral d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d.getValue());
+        } else if (o instanceof StringLiteral s) {
+            out.writeByte(STRING_LITERAL);
+            writeString(out, s.getString());
+        } else if (o instanceof ClassLiteral c) {
+            out.writeByte(CLASS_LITERAL);
+            writeConstant(out, c.getTypeValue());
+        } else if (o instanceof NullLiteral) {
+            out.writeByte(NULL_LITERAL);
+        } else if (o instanceof MethodHandle h) {
+            out.writeByte(METHOD_HANDLE);
+            out.writeInt(h.getKind().getValue());
+            writeConstant(out, h.isMethodRef() ? h.getMethodRef() : h.getFieldRef());
+        } else if (o instanceof MethodType t) {
+            out.writeByte(METHOD_TYPE);
+            writeTypes(out, t.getParamTypes());
+            writeConstant(out, t.getReturnType());
+        } else if (o instanceof FieldRef f) {
+            out.writeByte(FIELD_REF);
+            writeString(out, f.getDeclaringClass().getName());
+            writeString(out, f.getName());
+            writeConstant(out, f.getType());
+            out.writeBoolean(f.isStatic());
+        } else if (o instanceof MethodRef m) {
+            out.writeByte(METHOD_REF);
+            writeString(out, m.getDeclaringClass().getName());
+            writeString(out, m.getName());
+            writeTypes(out, m.getParameterTypes());
+            writeConstant(out, m.getReturnType());
+            out.writeBoolean(m.isStatic());
+        } else if (o instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object e : list) {
+                writeConstant(out, e);
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot write constant "
+                    + o + " (" + o.getClass().getName() + ")");
+        }
+    }
+
+    private static void writeTypes(DataOutputStream out, List<Type> types)
+            throws IOException {
+        out.writeInt(types.size());
+        for (Type t : types) {
+            writeConstant(out, t);
+        }
+    }
+
+    /**
+     * Writes a string in UTF-8, which is unlimited in length
+     * unlike {@link DataOutputStream#writeUTF(String)}.
+     */
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Flushes the shards and writes the index.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+        File indexFile = new File(dir, INDEX_FILE);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexFile.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(shards.length);
+            List<Map.Entry<String, List<IndexEntry>>> classes =
+                    new ArrayList<>(index.entrySet());
+            classes.sort(Map.Entry.comparingByKey());
+            out.writeInt(classes.size());
+            for (Map.Entry<String, List<IndexEntry>> e : classes) {
+                writeString(out, e.getKey());
+                List<IndexEntry> entries = new ArrayList<>(e.getValue());
+                entries.sort(Comparator.comparing(IndexEntry::signature));
+                out.writeInt(entries.size());
+                for (IndexEntry entry : entries) {
+                    writeString(out, entry.signature());
+                    out.writeInt(entry.shard());
+                    out.writeLong(entry.offset());
+                    out.writeInt(entry.length());
+                }
+            }
+        }
+    }
+
+    /**
+     * Position of the record of a method in the archive.
+     */
+    private record IndexEntry(String signature, int shard,
+                              long offset, int length) {
+    }
+
+    /**
+     * An append-only shard file, which buffers the appended bytes
+     * and writes them to the file channel when the buffer is full.
+     */
+    private static class Shard {
+
+        private final File file;
+
+        private FileChannel channel;
+
+        private ByteBuffer buffer;
+
+        /**
+         * Number of bytes appended to this shard, including the header.
+         */
+        private long size;
+
+        private Shard(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Appends {@code bytes} to this shard.
+         *
+         * @return the position of the appended bytes in the shard file.
+         */
+        private synchronized long append(byte[] bytes) throws IOException {
+            if (channel == null) {
+                open();
+            }
+            long position = size;
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+            size += bytes.length;
+            return position;
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            size = buffer.position();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+
+        private synchronized void close() throws IOException {
+            if (channel != null) {
+                flush();
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.World;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of lazy IR construction in {@link pascal.taie.language.classes.JMethod#getIR()}.
+ * <p>
+ * The IR of each method is built exactly once. If a thread requests the IR
+ * of a method which is being built by another thread, it waits for the IR
+ * instead of building it again, and this is counted as a contention.
+ * The counters are cheap to update concurrently, and are reset
+ * when {@link World} is reset.
+ */
+public final class IRBuildStats {
+
+    /**
+     * Number of IRs that have been built.
+     */
+    private static final LongAdder builds = new LongAdder();
+
+    /**
+     * Number of IRs that have been rebuilt after being evicted
+     * and garbage-collected.
+     */
+    private static final LongAdder rebuilds = new LongAdder();
+
+    /**
+     * Number of IRs that have been decoded from {@link CompactIR}
+     * after being evicted and garbage-collected.
+     */
+    private static final LongAdder decodes = new LongAdder();
+
+    /**
+     * Number of IRs that have been evicted from {@link IRStore}.
+     */
+    private static final LongAdder evictions = new LongAdder();
+
+    /**
+     * Number of requests that waited for the IR built by other threads.
+     */
+    private static final LongAdder contentions = new LongAdder();
+
+    /**
+     * Total time (in nanoseconds) spent on waiting for the IR built
+     * by other threads.
+     */
+    private static final LongAdder waitNanos = new LongAdder();
+
+    static {
+        World.registerResetCallback(IRBuildStats::reset);
+    }
+
+    private IRBuildStats() {
+    }
+
+    public static void recordBuild() {
+        builds.increment();
+    }
+
+    public static void recordRebuild() {
+        builds.increment();
+        rebuilds.increment();
+    }
+
+    public static void recordDecode() {
+        decodes.increment();
+    }
+
+    public static void recordEviction() {
+        evictions.increment();
+    }
+
+    public static void recordContention(long waitTime) {
+        contentions.increment();
+        waitNanos.add(waitTime);
+    }
+
+    public static long getBuilds() {
+        return builds.sum();
+    }
+
+    public static long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    public static long getDecodes() {
+        return decodes.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    public static long getContentions() {
+        return contentions.sum();
+    }
+
+    public static long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    public static void reset() {
+        builds.reset();
+        rebuilds.reset();
+        decodes.reset();
+        evictions.reset();
+        contentions.reset();
+        waitNanos.reset();
+    }
+
+    public static String summary() {
+        return String.format("IR builds: %d (%d rebuilt after eviction)," +
+                        " decodes: %d, evictions: %d," +
+                        " contended requests: %d (waited %d ms)",
+                getBuilds(), getRebuilds(), getDecodes(), getEvictions(),
+                getContentions(), getWaitMillis());
+    }
+}
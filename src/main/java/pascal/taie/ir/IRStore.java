@@ -0,0 +1,213 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the IRs of methods in memory within a budget, which is given
+ * as the total number of statements of the IRs.
+ * <p>
+ * When the budget is exceeded, the IRs of cold methods are evicted by
+ * clock algorithm: the clock hand sweeps the resident IRs, gives a second
+ * chance to the IRs accessed since the last sweep, and evicts the others.
+ * An evicted IR is decoded from its {@link CompactIR}, which is created
+ * at eviction, on the next request (or rebuilt by {@link IRBuilder} if
+ * the IR cannot be encoded), unless the evicted IR itself is still
+ * reachable, in which case it is reused.
+ * <p>
+ * As the Stmts and Vars of a decoded IR are new objects, the analyses
+ * which hold Stmts or Vars of an IR across requests (e.g., pointer
+ * analysis and call graph builders, which hold the Stmts and Vars of
+ * the reachable methods) should claim the ownership of the method by
+ * {@link #own(JMethod)} before requesting its IR. The IRs of owned
+ * methods are never evicted, thus the identities of their Stmts and
+ * Vars are stable, and they are not counted in the budget. Similarly,
+ * the IRs that hold analysis results (see {@link IR#storeResult(String, Object)})
+ * are never evicted, as the results would be lost at rebuilding.
+ * <p>
+ * This class is thread-safe. The IRs are encoded and evicted out of
+ * the lock of this store, under the lock of their methods.
+ *
+ * @see JMethod#getIR()
+ */
+public class IRStore {
+
+    private static final Logger logger = LogManager.getLogger(IRStore.class);
+
+    /**
+     * Maximum number of statements of resident IRs.
+     */
+    private final long budget;
+
+    /**
+     * Resident methods (whose IRs are in memory and are not owned),
+     * swept by the clock hand.
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Methods whose IRs are owned by analyses, see {@link #own(JMethod)}.
+     */
+    private final Set<JMethod> owned = Sets.newConcurrentSet();
+
+    private int hand = 0;
+
+    /**
+     * Total number of statements of resident IRs which are not owned.
+     */
+    private long size = 0;
+
+    private boolean warned = false;
+
+    public IRStore(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException(
+                    "IR budget should be positive, given: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Claims the ownership of the IR of {@code method}, so that the IR
+     * is never evicted. This method should be called before the IR
+     * is requested by the owner.
+     */
+    public void own(JMethod method) {
+        // the ownership is claimed under the lock of the method,
+        // so that the IR is not being evicted in the meantime
+        synchronized (method) {
+            owned.add(method);
+        }
+    }
+
+    /**
+     * @return whether the IR of {@code method} is owned by any analysis.
+     */
+    public boolean isOwned(JMethod method) {
+        return owned.contains(method);
+    }
+
+    /**
+     * Adds the IR of {@code method}, which has just been built (or reused)
+     * on request, and evicts the IRs of cold methods if the budget is exceeded.
+     */
+    public void add(JMethod method, IR ir) {
+        if (isOwned(method)) {
+            return;
+        }
+        List<Entry> victims;
+        synchronized (this) {
+            addEntry(new Entry(method, ir.getStmts().size()));
+            if (size <= budget) {
+                return;
+            }
+            victims = selectVictims();
+        }
+        // encode and evict the IRs out of the lock of this store,
+        // as encoding may take long
+        for (Entry victim : victims) {
+            JMethod victimMethod = victim.method;
+            boolean evicted;
+            synchronized (victimMethod) {
+                evicted = !isOwned(victimMethod) && victimMethod.evictIR();
+            }
+            if (evicted) {
+                IRBuildStats.recordEviction();
+            } else if (!isOwned(victimMethod)) {
+                // the IR has been accessed since the selection
+                synchronized (this) {
+                    addEntry(victim);
+                }
+            }
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        entries.add(entry);
+        size += entry.size;
+    }
+
+    /**
+     * Sweeps the resident IRs, and removes the IRs to be evicted
+     * (and the owned IRs) from this store.
+     *
+     * @return the entries of the IRs to be evicted.
+     */
+    private List<Entry> selectVictims() {
+        List<Entry> victims = new ArrayList<>();
+        // each entry is visited at most twice, i.e., its accessed
+        // flag is cleared at the first visit
+        int maxSteps = entries.size() * 2;
+        for (int i = 0; i < maxSteps && size > budget && !entries.isEmpty(); ++i) {
+            if (hand >= entries.size()) {
+                hand = 0;
+            }
+            Entry entry = entries.get(hand);
+            JMethod method = entry.method;
+            boolean isOwned = isOwned(method);
+            if (!isOwned && (method.clearIRAccessed() || method.hasIRResults())) {
+                ++hand;
+            } else {
+                if (!isOwned) {
+                    victims.add(entry);
+                }
+                size -= entry.size;
+                // remove the entry by moving the last entry to the hand
+                Entry last = entries.remove(entries.size() - 1);
+                if (hand < entries.size()) {
+                    entries.set(hand, last);
+                }
+            }
+        }
+        if (size > budget && !warned) {
+            warned = true;
+            logger.warn("The resident IRs ({} statements) exceed IR budget" +
+                    " ({} statements), as they are recently accessed" +
+                    " or hold analysis results", size, budget);
+        }
+        return victims;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return total number of statements of the resident IRs
+     * which are not owned.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private record Entry(JMethod method, int size) {
+    }
+}
@@ -33,12 +33,14 @@ import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.HybridBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -57,34 +59,67 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     private JClass JavaLangObject;
 
-    private final List<JClass> classes = new ArrayList<>(1024);
+    // Classes may be added (by lazy class loading) while other threads are
+    // querying this hierarchy, thus the classes are added under the lock
+    // of this object, and the structures below can be read without lock.
 
-    private int classCounter = 0;
+    /**
+     * Classes in this hierarchy, indexed by {@link JClass#getIndex()}.
+     * The array is replaced (but never modified) when it grows, and the
+     * first {@link #classCounter} elements are published by the volatile
+     * write of {@link #classCounter}.
+     */
+    private volatile JClass[] classes = new JClass[1024];
+
+    private volatile int classCounter = 0;
 
     /**
      * Map from each interface to its direct subinterfaces.
      */
-    private final MultiMap<JClass, JClass> directSubinterfaces = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directSubinterfaces = newConcurrentMultiMap();
 
     /**
      * Map from each interface to its direct implementors.
      */
-    private final MultiMap<JClass, JClass> directImplementors = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directImplementors = newConcurrentMultiMap();
 
     /**
      * Map from each class to its direct subclasses.
      */
-    private final MultiMap<JClass, JClass> directSubclasses = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directSubclasses = newConcurrentMultiMap();
 
     /**
      * Map from a class to its direct inner classes.
      */
-    private final MultiMap<JClass, JClass> directInnerClasses = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directInnerClasses = newConcurrentMultiMap();
+
+    /**
+     * Dispatch tables of classes, indexed by {@link JClass#getIndex()}.
+     * The tables are built lazily, and read without synchronization.
+     * <p>
+     * Notes: This field is {@code transient} because the tables are keyed
+     * by {@link Subsignature#getIndex()}, which changes when the
+     * subsignatures are deserialized in another run.
+     *
+     * @see #readObject(ObjectInputStream)
+     */
+    private transient DispatchTable[] dispatchTables = new DispatchTable[1024];
 
     /**
-     * Cache results of method dispatch.
+     * Dispatch tables of the classes without index (e.g., the classes
+     * that are not added to this hierarchy), which cannot be
+     * stored in {@link #dispatchTables}.
+     * <p>
+     * Notes: This field is {@code transient} for the same reason
+     * as {@link #dispatchTables}.
      */
-    private final TwoKeyMap<JClass, Subsignature, JMethod> dispatchTable = Maps.newTwoKeyMap();
+    private transient Map<JClass, DispatchTable> unindexedDispatchTables =
+            Maps.newConcurrentMap();
+
+    /**
+     * Encoding of subclass relation, for answering {@link #isSubclass}.
+     */
+    private final SubclassEncoding subclassEncoding = new SubclassEncoding();
 
     /**
      * Cache results of {@link #getAllSubclassesOf(JClass)}.
@@ -121,8 +156,12 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                 .toList();
     }
 
+    private static MultiMap<JClass, JClass> newConcurrentMultiMap() {
+        return Maps.newMultiMap(Maps.newConcurrentMap(), Sets::newConcurrentSet);
+    }
+
     @Override
-    public void addClass(JClass jclass) {
+    public synchronized void addClass(JClass jclass) {
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -145,11 +184,17 @@ public class ClassHierarchyImpl implements ClassHierarchy {
             directInnerClasses.put(outer, jclass);
         }
         // set index
-        jclass.setIndex(classCounter++);
-        classes.add(jclass);
+        int index = classCounter;
+        jclass.setIndex(index);
+        if (index == classes.length) {
+            classes = Arrays.copyOf(classes, index * 2);
+        }
+        classes[index] = jclass;
         // invalidate global hierarchy information
         // TODO - make this elegant
         allSubclasses.clear();
+        // publish the class after all structures are updated
+        classCounter = index + 1;
     }
 
     @Override
@@ -159,12 +204,18 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public JClass getObject(int index) {
-        return classes.get(index);
+        if (index >= classCounter) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return classes[index];
     }
 
     @Override
     public Stream<JClass> allClasses() {
-        return classes.stream();
+        // read the counter before the array, so that the first n
+        // elements of the array are all published
+        int n = classCounter;
+        return Arrays.stream(classes, 0, n);
     }
 
     @Override
@@ -331,17 +382,85 @@ public class ClassHierarchyImpl implements ClassHierarchy {
             return null;
         }
         Subsignature subsignature = methodRef.getSubsignature();
-        JMethod target = dispatchTable.get(receiverClass, subsignature);
+        JMethod target = getDispatchTable(receiverClass).get(subsignature);
         if (target == null) {
-            target = lookupMethod(receiverClass, subsignature, false);
-            if (target != null) {
-                dispatchTable.put(receiverClass, subsignature, target);
+            logger.debug("Failed to dispatch {} on {}",
+                    subsignature, receiverClass);
+        }
+        return target;
+    }
+
+    /**
+     * Dispatch tables are not serialized, and they are rebuilt on demand
+     * after deserialization.
+     */
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException,
+            ClassNotFoundException {
+        s.defaultReadObject();
+        dispatchTables = new DispatchTable[1024];
+        unindexedDispatchTables = Maps.newConcurrentMap();
+    }
+
+    private DispatchTable getDispatchTable(JClass jclass) {
+        // fast path: lock-free read of the published table,
+        // which is safe as DispatchTable only has final fields
+        int index = jclass.getIndex();
+        DispatchTable[] tables = dispatchTables;
+        if (index >= 0 && index < tables.length && tables[index] != null) {
+            return tables[index];
+        }
+        if (index < 0) {
+            return unindexedDispatchTables.computeIfAbsent(
+                    jclass, this::buildDispatchTable);
+        }
+        DispatchTable table = buildDispatchTable(jclass);
+        synchronized (this) {
+            if (index >= dispatchTables.length) {
+                dispatchTables = Arrays.copyOf(dispatchTables,
+                        Math.max(index + 1, dispatchTables.length * 2));
+            }
+            if (dispatchTables[index] == null) {
+                dispatchTables[index] = table;
             } else {
-                logger.debug("Failed to dispatch {} on {}",
-                        subsignature, receiverClass);
+                table = dispatchTables[index];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds the dispatch table of given class, which contains
+     * the dispatch targets of the subsignatures of all methods
+     * declared in the class and its superclasses and superinterfaces.
+     */
+    private DispatchTable buildDispatchTable(JClass jclass) {
+        Set<Subsignature> subsignatures = Sets.newHybridSet();
+        Set<JClass> visited = Sets.newHybridSet();
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            collectSubsignatures(c, subsignatures, visited);
+        }
+        Map<Subsignature, JMethod> entries = Maps.newHybridMap();
+        for (Subsignature subsignature : subsignatures) {
+            JMethod target = lookupMethod(jclass, subsignature, false);
+            if (target != null) {
+                entries.put(subsignature, target);
+            }
+        }
+        return new DispatchTable(entries);
+    }
+
+    private static void collectSubsignatures(
+            JClass jclass, Set<Subsignature> subsignatures, Set<JClass> visited) {
+        if (visited.add(jclass)) {
+            jclass.getDeclaredMethods().forEach(m ->
+                    subsignatures.add(m.getSubsignature()));
+            for (JClass iface : jclass.getInterfaces()) {
+                if (iface != null) {
+                    collectSubsignatures(iface, subsignatures, visited);
+                }
             }
         }
-        return target;
     }
 
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
@@ -399,7 +518,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         } else if (superclass == getObjectClass()) {
             return true;
         } else {
-            return getAllSubclassesOf(superclass).contains(subclass);
+            return subclassEncoding.isSubclass(superclass, subclass);
         }
     }
 
@@ -420,54 +539,20 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return JavaLangObject;
     }
 
-    /**
-     * Traverses class hierarchy to check if subiface is
-     * a subinterface of superiface.
-     */
-    private boolean isSubinterface(JClass superiface, JClass subiface) {
-        if (subiface.equals(superiface)) {
-            return true;
-        }
-        for (JClass iface : subiface.getInterfaces()) {
-            if (isSubinterface(superiface, iface)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Traverses class hierarchy to check if subclass is a subclass of superclass.
-     * TODO: optimize performance
-     */
-    private boolean isSubclass0(JClass superclass, JClass subclass) {
-        boolean isToInterface = superclass.isInterface();
-        for (JClass jclass = subclass; jclass != null;
-             jclass = jclass.getSuperClass()) {
-            if (jclass.equals(superclass)) {
-                return true;
-            }
-            if (isToInterface) {
-                // Interfaces can only extend other interfaces, thus we only
-                // have to consider the interfaces of the subclass
-                // if superclass is an interface.
-                for (JClass iface : jclass.getInterfaces()) {
-                    if (isSubclass0(superclass, iface)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
     @Override
     public Collection<JClass> getAllSubclassesOf(JClass jclass) {
-        return allSubclasses.computeIfAbsent(jclass, c -> {
+        int n = classCounter;
+        Set<JClass> result = allSubclasses.computeIfAbsent(jclass, c -> {
             Set<JClass> subclasses = new HybridBitSet<>(this, true);
             getAllSubclassesOf0(c, subclasses);
             return subclasses;
         });
+        if (classCounter != n) {
+            // classes were added during the computation, and the result
+            // may be cached after the cache was invalidated by addClass()
+            allSubclasses.remove(jclass, result);
+        }
+        return result;
     }
 
     private void getAllSubclassesOf0(JClass jclass, Set<JClass> result) {
@@ -43,6 +43,12 @@ public abstract class ClassMember implements Annotated, Serializable {
 
     protected String signature;
 
+    /**
+     * The index given by {@link GlobalIndexer} plus one, or 0 if this member
+     * has not been indexed (e.g., after deserialization).
+     */
+    transient volatile int globalIndex;
+
     // TODO: source location
 
     protected ClassMember(JClass declaringClass, String name,
@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable virtual dispatch table of a class, which maps subsignatures
+ * to the methods they dispatch to on the class.
+ * <p>
+ * The table is a flat open-addressing hash table keyed by
+ * {@link Subsignature#getIndex()}, thus a lookup only needs a few array loads.
+ * As all fields are final, the tables can be safely read by concurrent
+ * threads without synchronization once they are published.
+ * <p>
+ * As the subsignature indexes are only valid in the current run,
+ * the tables are not serializable, and they are rebuilt when
+ * the class hierarchy is deserialized.
+ */
+final class DispatchTable {
+
+    private static final int EMPTY = -1;
+
+    /**
+     * Indexes of subsignatures, {@link #EMPTY} for empty slots.
+     */
+    private final int[] keys;
+
+    private final JMethod[] targets;
+
+    private final int mask;
+
+    /**
+     * @param entries dispatch targets of the class.
+     */
+    DispatchTable(Map<Subsignature, JMethod> entries) {
+        // keep load factor <= 0.5
+        int capacity = Integer.highestOneBit(Math.max(entries.size(), 1) * 2) * 2;
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        targets = new JMethod[capacity];
+        mask = capacity - 1;
+        entries.forEach((subsig, target) -> {
+            int i = slotOf(subsig.getIndex());
+            keys[i] = subsig.getIndex();
+            targets[i] = target;
+        });
+    }
+
+    /**
+     * @return the method that {@code subsignature} dispatches to,
+     * or {@code null} if such method does not exist.
+     */
+    JMethod get(Subsignature subsignature) {
+        int key = subsignature.getIndex();
+        return targets[slotOf(key)];
+    }
+
+    /**
+     * @return the slot which holds {@code key}, or the empty slot
+     * where {@code key} should be inserted.
+     */
+    private int slotOf(int key) {
+        int i = mix(key) & mask;
+        while (keys[i] != key && keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Assigns dense indexes, which are unique in the whole program, to
+ * {@link JMethod}s, {@link JField}s, {@link Var}s and {@link Stmt}s,
+ * so that whole-program facts about these elements can be stored
+ * in {@link pascal.taie.util.collection.IndexMap}s and bit sets.
+ * <p>
+ * The indexes are assigned lazily on the first requests. For Vars and
+ * Stmts, a range of indexes is reserved for the IR of a method on the
+ * first request of any Var (or Stmt) in the IR, and the global index
+ * of a Var (or Stmt) is the start of the range plus its index in the IR.
+ * Thus, the global indexes are stable even if the IR is evicted and
+ * rebuilt (see {@link pascal.taie.ir.IRStore}), and looking up an index
+ * is as cheap as reading a field, without hashing, except for the few
+ * Stmts which reference neither their method nor any Var (e.g., {@link Nop}),
+ * whose methods are recorded in a map. The Vars and Stmts
+ * created outside any IR are given individual indexes on request.
+ * <p>
+ * The indexes are valid in the current {@link World}, and the indexer
+ * should be obtained by {@link World#getGlobalIndexer()}.
+ * This class is thread-safe.
+ */
+public class GlobalIndexer {
+
+    private final MemberIndexer<JMethod> methodIndexer = new MemberIndexer<>();
+
+    private final MemberIndexer<JField> fieldIndexer = new MemberIndexer<>();
+
+    private final VarIndexer varIndexer = new VarIndexer();
+
+    private final StmtIndexer stmtIndexer = new StmtIndexer();
+
+    /**
+     * Methods whose IRs have been assigned index ranges,
+     * in the order of assignment.
+     */
+    private final List<JMethod> rangeMethods = new ArrayList<>();
+
+    /**
+     * Starts of Var index ranges, parallel to {@link #rangeMethods}.
+     */
+    private int[] varBases = new int[1024];
+
+    /**
+     * Starts of Stmt index ranges, parallel to {@link #rangeMethods}.
+     */
+    private int[] stmtBases = new int[1024];
+
+    private int varCounter = 0;
+
+    private int stmtCounter = 0;
+
+    /**
+     * Methods of the Stmts in the IRs with reserved index ranges, whose
+     * methods cannot be obtained from the Stmts themselves.
+     * The keys are weakly referenced, as the IRs may be evicted.
+     */
+    private final Map<Stmt, JMethod> stmtMethods = new WeakHashMap<>();
+
+    public Indexer<JMethod> getMethodIndexer() {
+        return methodIndexer;
+    }
+
+    public Indexer<JField> getFieldIndexer() {
+        return fieldIndexer;
+    }
+
+    public Indexer<Var> getVarIndexer() {
+        return varIndexer;
+    }
+
+    public Indexer<Stmt> getStmtIndexer() {
+        return stmtIndexer;
+    }
+
+    /**
+     * @return number of methods that have been indexed.
+     */
+    public int getMethodCount() {
+        return methodIndexer.size();
+    }
+
+    /**
+     * @return number of fields that have been indexed.
+     */
+    public int getFieldCount() {
+        return fieldIndexer.size();
+    }
+
+    /**
+     * @return number of Var indexes that have been reserved.
+     */
+    public synchronized int getVarCount() {
+        return varCounter;
+    }
+
+    /**
+     * @return number of Stmt indexes that have been reserved.
+     */
+    public synchronized int getStmtCount() {
+        return stmtCounter;
+    }
+
+    /**
+     * @return the index range reserved for the IR of {@code method}.
+     */
+    private IRRange getRange(JMethod method) {
+        IRRange range = method.irRange;
+        return range != null ? range : reserveRange(method);
+    }
+
+    private IRRange reserveRange(JMethod method) {
+        // obtain the IR out of the lock, as building IR may take long,
+        // and should not block the index requests of other threads
+        IR ir = method.getIR();
+        synchronized (this) {
+            IRRange range = method.irRange;
+            if (range == null) {
+                int n = rangeMethods.size();
+                if (n == varBases.length) {
+                    varBases = Arrays.copyOf(varBases, n * 2);
+                    stmtBases = Arrays.copyOf(stmtBases, n * 2);
+                }
+                rangeMethods.add(method);
+                varBases[n] = varCounter;
+                stmtBases[n] = stmtCounter;
+                range = new IRRange(varCounter, ir.getVars().size(),
+                        stmtCounter, ir.getStmts().size());
+                varCounter += range.varCount();
+                stmtCounter += range.stmtCount();
+                method.irRange = range;
+                addStmtMethods(method, ir);
+            }
+            return range;
+        }
+    }
+
+    /**
+     * Records the method of the Stmts in {@code ir} whose methods cannot
+     * be obtained from themselves. This method is called when the IR of
+     * {@code method} has been reserved an index range, or a new IR of
+     * {@code method} (with reserved index range) is built after eviction.
+     */
+    synchronized void addStmtMethods(JMethod method, IR ir) {
+        ir.forEach(stmt -> {
+            if (getStmtMethod(stmt) == null) {
+                stmtMethods.put(stmt, method);
+            }
+        });
+    }
+
+    /**
+     * @return the method obtained from {@code stmt} itself, i.e., the
+     * container of an Invoke or New, or the method of any Var in
+     * {@code stmt}, or {@code null} if the method is unavailable.
+     */
+    @Nullable
+    private static JMethod getStmtMethod(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            return invoke.getContainer();
+        }
+        if (stmt instanceof New newStmt) {
+            return newStmt.getContainer();
+        }
+        if (stmt.getDef().orElse(null) instanceof Var var
+                && var.getMethod() != null) {
+            return var.getMethod();
+        }
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var && var.getMethod() != null) {
+                return var.getMethod();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the method whose index range (given by {@code bases})
+     * contains {@code index}.
+     */
+    private synchronized JMethod findRangeMethod(int[] bases, int counter, int index) {
+        if (index < 0 || index >= counter) {
+            throw new IllegalArgumentException(
+                    "index " + index + " was not mapped to any object");
+        }
+        int i = Arrays.binarySearch(bases, 0, rangeMethods.size(), index);
+        if (i < 0) {
+            // the range starting before the index
+            i = -i - 2;
+        } else {
+            // skip empty ranges which start at the same index
+            while (i + 1 < rangeMethods.size() && bases[i + 1] == index) {
+                ++i;
+            }
+        }
+        return rangeMethods.get(i);
+    }
+
+    record IRRange(int varBase, int varCount, int stmtBase, int stmtCount) {
+    }
+
+    private static class MemberIndexer<M extends ClassMember> implements Indexer<M> {
+
+        private final List<M> members = new ArrayList<>();
+
+        @Override
+        public int getIndex(M member) {
+            int index = member.globalIndex;
+            return index != 0 ? index - 1 : assignIndex(member);
+        }
+
+        private synchronized int assignIndex(M member) {
+            if (member.globalIndex == 0) {
+                members.add(member);
+                member.globalIndex = members.size();
+            }
+            return member.globalIndex - 1;
+        }
+
+        @Override
+        public synchronized M getObject(int index) {
+            try {
+                return members.get(index);
+            } catch (IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException(
+                        "index " + index + " was not mapped to any object", e);
+            }
+        }
+
+        private synchronized int size() {
+            return members.size();
+        }
+    }
+
+    /**
+     * Indexer of the elements (Vars or Stmts) of IRs. The elements
+     * created outside any IR (e.g., the temporary Vars created by
+     * pointer analysis plugins) are indexed individually.
+     */
+    private abstract class IRElementIndexer<E> implements Indexer<E> {
+
+        private final Map<E, Integer> detachedIndexes = Maps.newMap();
+
+        private final Map<Integer, E> detachedElements = Maps.newMap();
+
+        @Override
+        public int getIndex(E e) {
+            JMethod method = getMethod(e);
+            int index = getLocalIndex(e);
+            if (method == null || index < 0) {
+                return getDetachedIndex(e);
+            }
+            IRRange range = getRange(method);
+            if (index >= getCount(range)) {
+                throw new IllegalStateException(e + " in " + method
+                        + " is out of the reserved index range");
+            }
+            return getBase(range) + index;
+        }
+
+        private int getDetachedIndex(E e) {
+            synchronized (GlobalIndexer.this) {
+                Integer index = detachedIndexes.get(e);
+                if (index == null) {
+                    index = newDetachedIndex();
+                    detachedIndexes.put(e, index);
+                    detachedElements.put(index, e);
+                }
+                return index;
+            }
+        }
+
+        @Override
+        public E getObject(int index) {
+            JMethod method;
+            synchronized (GlobalIndexer.this) {
+                E e = detachedElements.get(index);
+                if (e != null) {
+                    return e;
+                }
+                method = findRangeMethod(getBases(), getCounter(), index);
+            }
+            return getElement(method.getIR(), index - getBase(method.irRange));
+        }
+
+        /**
+         * @return the method whose IR contains {@code e},
+         * or {@code null} if {@code e} is not in any IR.
+         */
+        @Nullable
+        abstract JMethod getMethod(E e);
+
+        abstract int getLocalIndex(E e);
+
+        abstract int getBase(IRRange range);
+
+        abstract int getCount(IRRange range);
+
+        abstract int[] getBases();
+
+        abstract int getCounter();
+
+        abstract int newDetachedIndex();
+
+        abstract E getElement(IR ir, int localIndex);
+    }
+
+    private class VarIndexer extends IRElementIndexer<Var> {
+
+        @Override
+        JMethod getMethod(Var var) {
+            return var.getMethod();
+        }
+
+        @Override
+        int getLocalIndex(Var var) {
+            return var.getIndex();
+        }
+
+        @Override
+        int getBase(IRRange range) {
+            return range.varBase();
+        }
+
+        @Override
+        int getCount(IRRange range) {
+            return range.varCount();
+        }
+
+        @Override
+        int[] getBases() {
+            return varBases;
+        }
+
+        @Override
+        int getCounter() {
+            return varCounter;
+        }
+
+        @Override
+        int newDetachedIndex() {
+            return varCounter++;
+        }
+
+        @Override
+        Var getElement(IR ir, int localIndex) {
+            return ir.getVar(localIndex);
+        }
+    }
+
+    private class StmtIndexer extends IRElementIndexer<Stmt> {
+
+        @Override
+        JMethod getMethod(Stmt stmt) {
+            JMethod method = getStmtMethod(stmt);
+            if (method == null) {
+                synchronized (GlobalIndexer.this) {
+                    method = stmtMethods.get(stmt);
+                }
+            }
+            return method;
+        }
+
+        @Override
+        int getLocalIndex(Stmt stmt) {
+            return stmt.getIndex();
+        }
+
+        @Override
+        int getBase(IRRange range) {
+            return range.stmtBase();
+        }
+
+        @Override
+        int getCount(IRRange range) {
+            return range.stmtCount();
+        }
+
+        @Override
+        int[] getBases() {
+            return stmtBases;
+        }
+
+        @Override
+        int getCounter() {
+            return stmtCounter;
+        }
+
+        @Override
+        int newDetachedIndex() {
+            return stmtCounter++;
+        }
+
+        @Override
+        Stmt getElement(IR ir, int localIndex) {
+            return ir.getStmt(localIndex);
+        }
+    }
+}
@@ -23,7 +23,10 @@
 package pascal.taie.language.classes;
 
 import pascal.taie.World;
+import pascal.taie.ir.CompactIR;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuildStats;
+import pascal.taie.ir.IRStore;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.language.annotation.Annotation;
 import pascal.taie.language.annotation.AnnotationHolder;
@@ -34,6 +37,7 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Experimental;
 
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -73,10 +77,37 @@ public class JMethod extends ClassMember {
 
     /**
      * Notes: This field is {@code transient} because it is serialized separately.
+     * It is {@code volatile} as IR may be requested by multiple threads,
+     * see {@link #getIR()}.
      *
      * @see pascal.taie.frontend.cache.CachedIRBuilder
      */
-    private transient IR ir;
+    private transient volatile IR ir;
+
+    /**
+     * The IR evicted from {@link IRStore}, which is reused if it is
+     * still reachable at the next request.
+     */
+    private transient volatile WeakReference<IR> evictedIR;
+
+    /**
+     * The compact encoding of the IR, which is created at the first
+     * eviction, and is decoded if the evicted IR has been garbage-collected.
+     */
+    private transient volatile CompactIR compactIR;
+
+    /**
+     * Whether the IR has been accessed since the last sweep of
+     * {@link IRStore}. This flag is only a hint for eviction,
+     * thus it is read and written without synchronization.
+     */
+    private transient boolean irAccessed;
+
+    /**
+     * The index range reserved for the Vars and Stmts of this method
+     * by {@link GlobalIndexer}.
+     */
+    transient volatile GlobalIndexer.IRRange irRange;
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
@@ -180,19 +211,120 @@ public class JMethod extends ClassMember {
         return methodSource;
     }
 
+    /**
+     * Returns the IR of this method, which is built on the first request.
+     * This method is thread-safe: the IR is built exactly once, and
+     * concurrent requests for the IR of the same method wait for the
+     * IR built by the first request, thus all callers observe the same
+     * IR instance. Contentions are recorded in {@link IRBuildStats}.
+     * <p>
+     * If {@link IRStore} is enabled, the IR may be evicted from memory
+     * (unless this method is owned, see {@link IRStore#own(JMethod)}),
+     * and then it is reused (if still reachable), decoded from its
+     * {@link CompactIR} or rebuilt on the next request.
+     */
     public IR getIR() {
-        if (ir == null) {
+        IR result = ir;
+        if (result == null) {
+            result = buildIR();
+        } else if (!irAccessed) {
+            irAccessed = true;
+        }
+        return result;
+    }
+
+    private IR buildIR() {
+        long start = System.nanoTime();
+        IR result;
+        synchronized (this) {
+            result = ir;
+            if (result != null) {
+                // the IR has been built by another thread while
+                // this thread was waiting for the lock
+                IRBuildStats.recordContention(System.nanoTime() - start);
+                return result;
+            }
             if (isAbstract()) {
                 throw new AnalysisException("Abstract method " + this +
                         " has no method body");
             }
-            if (isNative()) {
-                ir = World.get().getNativeModel().buildNativeIR(this);
-            } else {
-                ir = World.get().getIRBuilder().buildIR(this);
+            WeakReference<IR> evicted = evictedIR;
+            result = evicted != null ? evicted.get() : null;
+            boolean reused = result != null;
+            if (result == null && compactIR != null) {
+                result = compactIR.decode();
+                IRBuildStats.recordDecode();
+            } else if (result == null) {
+                if (isNative()) {
+                    result = World.get().getNativeModel().buildNativeIR(this);
+                } else {
+                    result = World.get().getIRBuilder().buildIR(this);
+                }
+                if (evicted == null) {
+                    IRBuildStats.recordBuild();
+                } else {
+                    IRBuildStats.recordRebuild();
+                }
+            }
+            evictedIR = null;
+            irAccessed = true;
+            ir = result;
+            if (!reused && irRange != null) {
+                // the Stmts of the new IR have not been indexed
+                World.get().getGlobalIndexer().addStmtMethods(this, result);
             }
         }
-        return ir;
+        IRStore store = World.get().getIRStore();
+        if (store != null) {
+            store.add(this, result);
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the IR of this method from memory, unless the IR has been
+     * accessed since the last sweep of {@link IRStore} or holds analysis
+     * results. This method is supposed to be called by {@link IRStore} only,
+     * and it holds the lock of this method, i.e., the lock taken by
+     * {@link #getIR()} to build the IR.
+     *
+     * @return whether the IR has been evicted.
+     */
+    public synchronized boolean evictIR() {
+        IR current = ir;
+        if (current == null || irAccessed || !current.getKeys().isEmpty()) {
+            return false;
+        }
+        if (compactIR == null) {
+            try {
+                compactIR = CompactIR.encode(current);
+            } catch (IllegalArgumentException e) {
+                // the IR contains statements unknown to CompactIR,
+                // and it will be rebuilt after garbage collection
+            }
+        }
+        evictedIR = new WeakReference<>(current);
+        ir = null;
+        return true;
+    }
+
+    /**
+     * Clears the accessed flag of the IR, which is used by {@link IRStore}.
+     *
+     * @return whether the IR has been accessed since last clearing.
+     */
+    public boolean clearIRAccessed() {
+        boolean accessed = irAccessed;
+        irAccessed = false;
+        return accessed;
+    }
+
+    /**
+     * @return whether the resident IR holds any analysis results.
+     */
+    public boolean hasIRResults() {
+        IR current = ir;
+        return current != null && !current.getKeys().isEmpty();
     }
 
     /**
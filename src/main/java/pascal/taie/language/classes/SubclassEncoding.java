@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes the subclass relation of a class hierarchy, so that
+ * {@link #isSubclass(JClass, JClass)} can be answered in constant time.
+ * <p>
+ * The encoding of each class only records its ancestors (which never change
+ * after the class is built), thus it is computed lazily when the class is
+ * first queried, and the encodings of the existing classes remain valid when
+ * new classes are added to the hierarchy.
+ * <ul>
+ *     <li>For the (single-inheritance) tree of non-interface classes,
+ *     each class keeps a display, i.e., the chain of its superclasses
+ *     from the root to itself, so that C is a subclass of S if and only if
+ *     S is at position depth(S) of the display of C.</li>
+ *     <li>For interfaces, each interface is given a dense id, and each
+ *     class (or interface) keeps a bit set of the ids of all its
+ *     superinterfaces.</li>
+ * </ul>
+ * Queries are lock-free and can be issued concurrently. The encodings are
+ * immutable, and computed under the lock of this object on cache misses.
+ */
+final class SubclassEncoding implements Serializable {
+
+    private static final IBitSet EMPTY_INTERFACES = new SparseBitSet();
+
+    /**
+     * Encodings of classes, indexed by {@link JClass#getIndex()}.
+     */
+    private Display[] displays = new Display[1024];
+
+    /**
+     * Encodings of the classes that have not been added to the hierarchy
+     * (thus have no index), e.g., some phantom superclasses.
+     */
+    private final Map<JClass, Display> unindexedDisplays = Maps.newMap();
+
+    /**
+     * Counter for assigning dense ids to interfaces.
+     */
+    private int interfaceCounter = 0;
+
+    /**
+     * @return {@code true} if {@code subclass} is {@code superclass}, or
+     * a (direct or indirect) subclass/subinterface/implementor of
+     * {@code superclass}.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        Display sup = getDisplay(superclass);
+        Display sub = getDisplay(subclass);
+        if (sup.interfaceId() >= 0) {
+            return sub.interfaces().get(sup.interfaceId());
+        } else {
+            // interfaces are never subclasses of a non-interface class
+            return sub.interfaceId() < 0 &&
+                    sub.depth() >= sup.depth() &&
+                    sub.superclasses()[sup.depth()] == superclass;
+        }
+    }
+
+    private Display getDisplay(JClass jclass) {
+        // fast path: lock-free read of the published encoding,
+        // which is safe as Display only has final fields
+        int index = jclass.getIndex();
+        Display[] displays = this.displays;
+        if (index >= 0 && index < displays.length) {
+            Display display = displays[index];
+            if (display != null) {
+                return display;
+            }
+        }
+        return computeDisplay(jclass);
+    }
+
+    private synchronized Display computeDisplay(JClass jclass) {
+        int index = jclass.getIndex();
+        if (index < 0) {
+            Display display = unindexedDisplays.get(jclass);
+            if (display == null) {
+                display = encode(jclass);
+                unindexedDisplays.put(jclass, display);
+            }
+            return display;
+        }
+        if (index < displays.length && displays[index] != null) {
+            return displays[index];
+        }
+        // encode() may grow the array, thus we store its result afterwards
+        Display display = encode(jclass);
+        if (index >= displays.length) {
+            displays = Arrays.copyOf(displays,
+                    Math.max(index + 1, displays.length * 2));
+        }
+        displays[index] = display;
+        return display;
+    }
+
+    private Display encode(JClass jclass) {
+        Display display;
+        if (jclass.isInterface()) {
+            // interfaces only inherit from their superinterfaces
+            IBitSet interfaces = new SparseBitSet();
+            int id = interfaceCounter++;
+            interfaces.set(id);
+            addSuperinterfaces(jclass, interfaces);
+            display = new Display(-1, null, id, interfaces);
+        } else {
+            JClass superClass = jclass.getSuperClass();
+            JClass[] superclasses;
+            IBitSet interfaces;
+            if (superClass == null) {
+                superclasses = new JClass[]{ jclass };
+                interfaces = EMPTY_INTERFACES;
+            } else {
+                Display superDisplay = getDisplay(superClass);
+                superclasses = Arrays.copyOf(superDisplay.superclasses(),
+                        superDisplay.superclasses().length + 1);
+                superclasses[superclasses.length - 1] = jclass;
+                interfaces = superDisplay.interfaces();
+            }
+            // share the superinterfaces of superclass when the class
+            // does not introduce new ones, which is the common case
+            if (hasNewSuperinterfaces(jclass, interfaces)) {
+                IBitSet copy = new SparseBitSet();
+                copy.or(interfaces);
+                addSuperinterfaces(jclass, copy);
+                interfaces = copy;
+            }
+            display = new Display(superclasses.length - 1,
+                    superclasses, -1, interfaces);
+        }
+        return display;
+    }
+
+    private boolean hasNewSuperinterfaces(JClass jclass, IBitSet inherited) {
+        for (JClass iface : jclass.getInterfaces()) {
+            if (iface != null && !inherited.get(getDisplay(iface).interfaceId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addSuperinterfaces(JClass jclass, IBitSet result) {
+        for (JClass iface : jclass.getInterfaces()) {
+            if (iface != null) {
+                result.or(getDisplay(iface).interfaces());
+            }
+        }
+    }
+
+    /**
+     * Encoding of a class or an interface.
+     *
+     * @param depth        depth of a non-interface class in the class tree,
+     *                     or -1 for interfaces.
+     * @param superclasses superclasses of a non-interface class
+     *                     (including itself) from the root, or {@code null}
+     *                     for interfaces.
+     * @param interfaceId  id of an interface, or -1 for non-interface classes.
+     * @param interfaces   ids of all superinterfaces of the class
+     *                     (including itself if it is an interface).
+     */
+    private record Display(int depth, JClass[] superclasses,
+                           int interfaceId, IBitSet interfaces)
+            implements Serializable {
+    }
+}
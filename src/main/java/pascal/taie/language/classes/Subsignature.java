@@ -24,18 +24,21 @@ package pascal.taie.language.classes;
 
 import pascal.taie.World;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.InternalCanonicalized;
 import pascal.taie.util.collection.Maps;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Method name and descriptor.
  */
 @InternalCanonicalized
-public class Subsignature implements Serializable {
+public class Subsignature implements Indexable, Serializable {
 
     // Subsignatures of special methods
     public static final String CLINIT = "void <clinit>()";
@@ -45,12 +48,21 @@ public class Subsignature implements Serializable {
     private static final ConcurrentMap<String, Subsignature> map
             = Maps.newConcurrentMap();
 
+    /**
+     * Counter for assigning dense indexes to subsignatures.
+     * It is not reset together with {@link #map}, so that the indexes
+     * are unique in the whole run.
+     */
+    private static final AtomicInteger counter = new AtomicInteger(0);
+
     static {
         World.registerResetCallback(map::clear);
     }
 
     private final String subsig;
 
+    private final int index;
+
     public static Subsignature get(
             String name, List<Type> parameterTypes, Type returnType) {
         return get(StringReps.toSubsignature(name, parameterTypes, returnType));
@@ -76,6 +88,24 @@ public class Subsignature implements Serializable {
 
     private Subsignature(String subsig) {
         this.subsig = subsig;
+        this.index = counter.getAndIncrement();
+    }
+
+    /**
+     * @return the dense index of this subsignature.
+     */
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Canonicalizes deserialized subsignatures, so that each subsignature
+     * has a unique index.
+     */
+    @Serial
+    private Object readResolve() {
+        return get(subsig);
     }
 
     @Override
@@ -25,9 +25,10 @@ package pascal.taie.util.collection;
 /**
  * Provides common functionality for {@link IBitSet} implementations.
  * <p>
- * Especially, based on {@link IBitSet.Action}, it implements some operations
- * on {@link IBitSet} without the need to knowing its concrete type, so that
- * it support operations between bit sets of different types.
+ * Especially, based on a few word-level primitives (e.g., {@link #getWord(int)}
+ * and {@link #orWord(int, long)}), it implements the bulk operations on
+ * {@link IBitSet} without the need to knowing its concrete type, so that
+ * it supports word-parallel operations between bit sets of different types.
  */
 public abstract class AbstractBitSet implements IBitSet {
 
@@ -52,143 +53,196 @@ public abstract class AbstractBitSet implements IBitSet {
         return value ? set(bitIndex) : clear(bitIndex);
     }
 
-    @Override
-    public boolean intersects(IBitSet set) {
-        return set.iterateBits(new IntersectsAction());
-    }
+    // ------------------------------------------------------------------------
+    // word-level primitives
+    // ------------------------------------------------------------------------
+    // The bulk operations between bit sets of different types are
+    // implemented on these primitives, so that they process 64 bits
+    // at a time instead of iterating over every set bit. The default
+    // implementations are based on bit-level operations, and subclasses
+    // should override them with direct access to their words.
 
-    private class IntersectsAction implements Action<Boolean> {
+    /**
+     * @return the word at given word index, i.e., the bits in range
+     * [{@code wordIndex * 64}, {@code (wordIndex + 1) * 64}).
+     */
+    protected long getWord(int wordIndex) {
+        long word = 0;
+        int from = wordIndex << ADDRESS_BITS_PER_WORD;
+        for (int i = nextSetBit(from);
+             i >= 0 && wordIndex(i) == wordIndex; i = nextSetBit(i + 1)) {
+            word |= 1L << i;
+        }
+        return word;
+    }
 
-        private boolean intersects = false;
+    /**
+     * @return the index of the first non-zero word that occurs on or after
+     * {@code fromWordIndex}, or {@code -1} if there is no such word.
+     */
+    protected int nextWordIndex(int fromWordIndex) {
+        int i = nextSetBit(fromWordIndex << ADDRESS_BITS_PER_WORD);
+        return i < 0 ? -1 : wordIndex(i);
+    }
 
-        @Override
-        public boolean accept(int bitIndex) {
-            if (get(bitIndex)) {
-                intersects = true;
-                return false;
+    /**
+     * Sets the bits of {@code word} in the word at given word index.
+     *
+     * @return the bits that were clear and are set by this call.
+     */
+    protected long orWord(int wordIndex, long word) {
+        long newBits = 0;
+        int base = wordIndex << ADDRESS_BITS_PER_WORD;
+        for (long w = word; w != 0; w &= w - 1) {
+            int bit = Long.numberOfTrailingZeros(w);
+            if (set(base + bit)) {
+                newBits |= 1L << bit;
             }
-            return true;
-        }
-
-        @Override
-        public Boolean getResult() {
-            return intersects;
         }
+        return newBits;
     }
 
-    @Override
-    public boolean disjoints(IBitSet set) {
-        return !intersects(set);
+    /**
+     * Clears the bits of {@code word} in the word at given word index.
+     *
+     * @return the bits that were set and are cleared by this call.
+     */
+    protected long andNotWord(int wordIndex, long word) {
+        long clearedBits = 0;
+        int base = wordIndex << ADDRESS_BITS_PER_WORD;
+        for (long w = word; w != 0; w &= w - 1) {
+            int bit = Long.numberOfTrailingZeros(w);
+            if (clear(base + bit)) {
+                clearedBits |= 1L << bit;
+            }
+        }
+        return clearedBits;
     }
 
-    @Override
-    public boolean contains(IBitSet set) {
-        return set.iterateBits(new ContainsAction());
+    /**
+     * @return a new empty bit set of the same type as this bit set,
+     * which is used to hold the results of {@link #orDiff(IBitSet)}.
+     */
+    protected AbstractBitSet newEmpty() {
+        return new RegularBitSet();
     }
 
-    private class ContainsAction implements Action<Boolean> {
-
-        private boolean contains = true;
-
-        @Override
-        public boolean accept(int bitIndex) {
-            if (!get(bitIndex)) {
-                contains = false;
-                return false;
-            }
-            return true;
+    private static long getWord(IBitSet set, int wordIndex) {
+        if (set instanceof AbstractBitSet s) {
+            return s.getWord(wordIndex);
         }
-
-        @Override
-        public Boolean getResult() {
-            return contains;
+        long word = 0;
+        int from = wordIndex << ADDRESS_BITS_PER_WORD;
+        for (int i = set.nextSetBit(from);
+             i >= 0 && wordIndex(i) == wordIndex; i = set.nextSetBit(i + 1)) {
+            word |= 1L << i;
         }
+        return word;
     }
 
-    @Override
-    public boolean andNot(IBitSet set) {
-        return set.iterateBits(new AndNotAction());
+    private static int nextWordIndex(IBitSet set, int fromWordIndex) {
+        if (set instanceof AbstractBitSet s) {
+            return s.nextWordIndex(fromWordIndex);
+        }
+        int i = set.nextSetBit(fromWordIndex << ADDRESS_BITS_PER_WORD);
+        return i < 0 ? -1 : wordIndex(i);
     }
 
-    private class AndNotAction extends ChangeAction {
+    // ------------------------------------------------------------------------
+    // bulk operations on words
+    // ------------------------------------------------------------------------
 
-        @Override
-        public boolean accept(int bitIndex) {
-            if (clear(bitIndex)) {
-                changed = true;
+    @Override
+    public boolean intersects(IBitSet set) {
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            if ((getWord(i) & getWord(set, i)) != 0) {
+                return true;
             }
-            return true;
         }
+        return false;
     }
 
     @Override
-    public boolean or(IBitSet set) {
-        return set.iterateBits(new OrAction());
+    public boolean disjoints(IBitSet set) {
+        return !intersects(set);
     }
 
-    private class OrAction extends ChangeAction {
-
-        @Override
-        public boolean accept(int bitIndex) {
-            if (set(bitIndex)) {
-                changed = true;
+    @Override
+    public boolean contains(IBitSet set) {
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            if ((getWord(set, i) & ~getWord(i)) != 0) {
+                return false;
             }
-            return true;
         }
+        return true;
     }
 
     @Override
-    public IBitSet orDiff(IBitSet set) {
-        return set.iterateBits(new OrDiffAction());
+    public int andCardinality(IBitSet set) {
+        int count = 0;
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            count += Long.bitCount(getWord(i) & getWord(set, i));
+        }
+        return count;
     }
 
-    private class OrDiffAction implements Action<IBitSet> {
-
-        private final IBitSet diff = IBitSet.of();
-
-        @Override
-        public boolean accept(int bitIndex) {
-            if (set(bitIndex)) {
-                diff.set(bitIndex);
+    @Override
+    public boolean and(IBitSet set) {
+        if (this == set) {
+            return false;
+        }
+        boolean changed = false;
+        for (int i = nextWordIndex(0); i >= 0; i = nextWordIndex(i + 1)) {
+            long cleared = getWord(i) & ~getWord(set, i);
+            if (cleared != 0) {
+                andNotWord(i, cleared);
+                changed = true;
             }
-            return true;
         }
+        return changed;
+    }
 
-        @Override
-        public IBitSet getResult() {
-            return diff;
+    @Override
+    public boolean andNot(IBitSet set) {
+        boolean changed = false;
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            changed |= andNotWord(i, getWord(set, i)) != 0;
         }
+        return changed;
     }
 
     @Override
-    public boolean xor(IBitSet set) {
-        return set.iterateBits(new XorAction());
+    public boolean or(IBitSet set) {
+        boolean changed = false;
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            changed |= orWord(i, getWord(set, i)) != 0;
+        }
+        return changed;
     }
 
-    private class XorAction extends ChangeAction {
-
-        @Override
-        public boolean accept(int bitIndex) {
-            flip(bitIndex);
-            changed = true;
-            return true;
+    @Override
+    public IBitSet orDiff(IBitSet set) {
+        AbstractBitSet diff = newEmpty();
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            long newBits = orWord(i, getWord(set, i));
+            if (newBits != 0) {
+                diff.orWord(i, newBits);
+            }
         }
+        return diff;
     }
 
-    /**
-     * Abstract class for the actions that may change this set.
-     */
-    private abstract static class ChangeAction implements Action<Boolean> {
-
-        /**
-         * Boolean value indicating whether this set changed by the action.
-         */
+    @Override
+    public boolean xor(IBitSet set) {
         boolean changed = false;
-
-        @Override
-        public Boolean getResult() {
-            return changed;
+        for (int i = nextWordIndex(set, 0); i >= 0; i = nextWordIndex(set, i + 1)) {
+            long word = getWord(set, i);
+            long common = getWord(i) & word;
+            orWord(i, word & ~common);
+            andNotWord(i, common);
+            changed = true;
         }
+        return changed;
     }
 
     @Override
@@ -61,6 +61,13 @@ public abstract class GenericBitSet<E> extends AbstractSetEx<E>
         bitSet = IBitSet.newBitSet(isSparse);
     }
 
+    /**
+     * Creates a set backed by given bit set.
+     */
+    protected GenericBitSet(IBitSet bitSet) {
+        this.bitSet = bitSet;
+    }
+
     @Override
     public boolean contains(Object o) {
         checkInvariant(o);
@@ -217,18 +224,14 @@ public abstract class GenericBitSet<E> extends AbstractSetEx<E>
 
     @Override
     public SetEx<E> copy() {
-        GenericBitSet<E> copy = newSet();
-        copy.bitSet = bitSet.copy();
-        return copy;
+        return newSet(bitSet.copy());
     }
 
     @Override
     public SetEx<E> addAllDiff(Collection<? extends E> c) {
         if (c instanceof GenericBitSet s) {
             checkContext(s);
-            GenericBitSet<E> diff = newSet();
-            diff.bitSet = bitSet.orDiff(s.bitSet);
-            return diff;
+            return newSet(bitSet.orDiff(s.bitSet));
         } else {
             return super.addAllDiff(c);
         }
@@ -237,6 +240,18 @@ public abstract class GenericBitSet<E> extends AbstractSetEx<E>
     @Override
     protected abstract GenericBitSet<E> newSet();
 
+    /**
+     * Creates a set of the same type as this set, backed by given bit set.
+     * This is used by {@link #copy()} and {@link #addAllDiff(Collection)},
+     * and subclasses should override it to avoid creating a bit set
+     * that is discarded at once.
+     */
+    protected GenericBitSet<E> newSet(IBitSet bitSet) {
+        GenericBitSet<E> set = newSet();
+        set.bitSet = bitSet;
+        return set;
+    }
+
     @Override
     public boolean hasOverlapWith(Set<E> other) {
         if (other instanceof GenericBitSet s) {
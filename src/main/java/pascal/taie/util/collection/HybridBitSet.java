@@ -25,6 +25,7 @@ package pascal.taie.util.collection;
 import pascal.taie.util.Indexer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Set;
@@ -54,14 +55,36 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E>
 
     private final boolean isSparse;
 
+    /**
+     * If not {@code null}, large sets are stored in this arena.
+     */
+    @Nullable
+    private final transient OffHeapArena arena;
+
     public HybridBitSet(Indexer<E> indexer, boolean isSparse) {
+        this(indexer, isSparse, null);
+    }
+
+    /**
+     * Creates a hybrid set whose large set is an {@link OffHeapBitSet}
+     * stored in given arena.
+     */
+    public HybridBitSet(Indexer<E> indexer, OffHeapArena arena) {
+        this(indexer, false, arena);
+    }
+
+    private HybridBitSet(Indexer<E> indexer, boolean isSparse,
+                         @Nullable OffHeapArena arena) {
         this.indexer = indexer;
         this.isSparse = isSparse;
+        this.arena = arena;
     }
 
     @Override
     protected Set<E> newLargeSet(int unused) {
-        return new IndexerBitSet<>(indexer, isSparse);
+        return arena != null
+                ? new IndexerBitSet<>(indexer, new OffHeapBitSet(arena))
+                : new IndexerBitSet<>(indexer, isSparse);
     }
 
     @Override
@@ -110,7 +133,7 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E>
 
     @Override
     public HybridBitSet<E> addAllDiff(Collection<? extends E> c) {
-        HybridBitSet<E> diff = new HybridBitSet<>(indexer, isSparse);
+        HybridBitSet<E> diff = new HybridBitSet<>(indexer, isSparse, arena);
         if (c instanceof HybridBitSet other && other.isLargeSet) {
             //noinspection unchecked
             SetEx<E> otherSet = (SetEx<E>) other.set;
@@ -146,9 +169,22 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E>
         return diff;
     }
 
+    /**
+     * Returns the words of the large set to the arena at once, which is
+     * cheaper than leaving them to the cleaner (see {@link OffHeapArena}).
+     * Does nothing if the large set is not stored in an arena.
+     * This set must not be used afterwards.
+     */
+    public void release() {
+        if (isLargeSet && set instanceof GenericBitSet<E> bitSet
+                && bitSet.bitSet instanceof OffHeapBitSet offHeap) {
+            offHeap.release();
+        }
+    }
+
     @Override
     public HybridBitSet<E> copy() {
-        HybridBitSet<E> copy = new HybridBitSet<>(indexer, isSparse);
+        HybridBitSet<E> copy = new HybridBitSet<>(indexer, isSparse, arena);
         copy.singleton = singleton;
         copy.isLargeSet = isLargeSet;
         if (set != null) {
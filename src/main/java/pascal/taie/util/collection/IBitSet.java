@@ -196,6 +196,16 @@ public interface IBitSet extends Copyable<IBitSet>, Serializable {
      */
     boolean contains(IBitSet set);
 
+    /**
+     * Returns the number of bits set to {@code true} in both this
+     * {@code BitSet} and the specified {@code BitSet}, without
+     * materializing the intersection.
+     *
+     * @param set {@code BitSet} to intersect with
+     * @return the cardinality of the intersection of the two bit sets
+     */
+    int andCardinality(IBitSet set);
+
     /**
      * Performs a logical <b>AND</b> of this target bit set with the
      * argument bit set. This bit set is modified so that each bit in it
@@ -43,6 +43,14 @@ public class IndexerBitSet<E> extends GenericBitSet<E>
         this.indexer = indexer;
     }
 
+    /**
+     * Creates a set backed by given bit set, e.g., an {@link OffHeapBitSet}.
+     */
+    public IndexerBitSet(Indexer<E> indexer, IBitSet bitSet) {
+        super(bitSet);
+        this.indexer = indexer;
+    }
+
     @Override
     protected Object getContext() {
         return indexer;
@@ -60,6 +68,13 @@ public class IndexerBitSet<E> extends GenericBitSet<E>
 
     @Override
     protected GenericBitSet<E> newSet() {
-        return new IndexerBitSet<>(indexer, IBitSet.isSparse(bitSet));
+        return bitSet instanceof OffHeapBitSet offHeap
+                ? new IndexerBitSet<>(indexer, offHeap.newEmpty())
+                : new IndexerBitSet<>(indexer, IBitSet.isSparse(bitSet));
+    }
+
+    @Override
+    protected GenericBitSet<E> newSet(IBitSet bitSet) {
+        return new IndexerBitSet<>(indexer, bitSet);
     }
 }
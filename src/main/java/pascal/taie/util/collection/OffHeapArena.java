@@ -0,0 +1,378 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Off-heap storage for the words of {@link OffHeapBitSet}s.
+ * <p>
+ * The arena reserves memory in large chunks, either as direct buffers
+ * or as regions of a memory-mapped scratch file, and hands out blocks
+ * of power-of-two words to the bit sets. Released blocks are kept in
+ * per-size free lists (linked through their first word) for reuse.
+ * Blocks of a bit set are released when the bit set grows, when it is
+ * released explicitly (see {@link OffHeapBitSet#release()}), or when it
+ * becomes unreachable.
+ * <p>
+ * Notes: to release the blocks of unreachable bit sets, each block is
+ * registered to a {@link Cleaner}, which costs 80 bytes of Java heap per
+ * off-heap bit set (the {@link Block} and its {@link Cleaner.Cleanable},
+ * measured on a 64-bit JVM with compressed oops), in addition to the bit
+ * set itself. Short-lived bit sets should therefore be released explicitly,
+ * which also deregisters their blocks from the cleaner.
+ * <p>
+ * The owner of an arena is responsible for closing it once the bit sets
+ * allocated from it are not used anymore.
+ * <p>
+ * The arena is safe to share between threads, but a single bit set is not.
+ */
+public final class OffHeapArena implements Closeable {
+
+    /**
+     * Cleaner that releases the blocks of unreachable bit sets.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Number of words in a regular chunk (16 MB).
+     */
+    private static final int CHUNK_WORDS = 1 << 21;
+
+    /**
+     * Maximum number of words of a block, which can hold any
+     * non-negative bit index.
+     */
+    private static final int MAX_BLOCK_WORDS = 1 << 25;
+
+    private static final int SIZE_CLASSES =
+            Integer.numberOfTrailingZeros(MAX_BLOCK_WORDS) + 1;
+
+    private static final long NULL = -1;
+
+    /**
+     * Scratch file channel, or {@code null} if chunks are direct buffers.
+     */
+    @Nullable
+    private final FileChannel channel;
+
+    @Nullable
+    private final Path scratchFile;
+
+    private LongBuffer[] chunks = new LongBuffer[8];
+
+    private int chunkCount = 0;
+
+    /**
+     * Word offset of the unused part of the last chunk.
+     */
+    private int top = 0;
+
+    /**
+     * Heads of the free lists, indexed by log2 of block size.
+     */
+    private final long[] freeLists = new long[SIZE_CLASSES];
+
+    private long mappedBytes = 0;
+
+    private long reservedWords = 0;
+
+    private long usedWords = 0;
+
+    private boolean closed = false;
+
+    private OffHeapArena(@Nullable FileChannel channel, @Nullable Path scratchFile) {
+        this.channel = channel;
+        this.scratchFile = scratchFile;
+        Arrays.fill(freeLists, NULL);
+    }
+
+    /**
+     * Creates an arena backed by direct buffers.
+     */
+    public static OffHeapArena newDirectArena() {
+        return new OffHeapArena(null, null);
+    }
+
+    /**
+     * Creates an arena backed by a scratch file in given directory,
+     * so that the operating system can page the words out to disk
+     * when physical memory is short. The scratch file is removed
+     * when the arena is closed or the JVM exits.
+     */
+    public static OffHeapArena newMappedArena(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            Path file = Files.createTempFile(dir, "pts-", ".scratch");
+            file.toFile().deleteOnExit();
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new OffHeapArena(channel, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Failed to create scratch file in " + dir, e);
+        }
+    }
+
+    /**
+     * A block of words allocated from an arena. As the owner bit set
+     * may move its words to other blocks, the block is mutable, and
+     * it releases its current words when the owner becomes unreachable.
+     */
+    static final class Block implements Runnable {
+
+        private final OffHeapArena arena;
+
+        /**
+         * Chunk index in the high 32 bits and word offset in the low 32 bits,
+         * or {@link #NULL} if the block holds no words.
+         */
+        private long address = NULL;
+
+        private int capacity = 0;
+
+        /**
+         * Registration of this block in {@link #CLEANER}.
+         */
+        private Cleaner.Cleanable cleanable;
+
+        private Block(OffHeapArena arena) {
+            this.arena = arena;
+        }
+
+        LongBuffer words() {
+            return arena.chunks[(int) (address >>> 32)];
+        }
+
+        int offset() {
+            return (int) address;
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Replaces the words of this block by a zeroed block of at least
+         * {@code minWords} words, and releases the previous words.
+         * The previous words, if any, are copied to the new block,
+         * starting at {@code shift}.
+         */
+        void reallocate(int minWords, int shift, int copyWords) {
+            int newCapacity = arena.sizeOf(minWords);
+            long newAddress = arena.allocate(newCapacity);
+            if (address != NULL) {
+                if (copyWords > 0) {
+                    LongBuffer src = words();
+                    LongBuffer dst = arena.chunks[(int) (newAddress >>> 32)];
+                    int srcOff = offset();
+                    int dstOff = (int) newAddress + shift;
+                    for (int i = 0; i < copyWords; ++i) {
+                        dst.put(dstOff + i, src.get(srcOff + i));
+                    }
+                }
+                arena.free(address, capacity);
+            }
+            address = newAddress;
+            capacity = newCapacity;
+        }
+
+        /**
+         * Releases the words of this block at once, and deregisters
+         * the block from the cleaner.
+         */
+        void release() {
+            cleanable.clean();
+        }
+
+        /**
+         * Releases the words of this block.
+         */
+        @Override
+        public void run() {
+            if (address != NULL) {
+                arena.free(address, capacity);
+                address = NULL;
+                capacity = 0;
+            }
+        }
+    }
+
+    /**
+     * Creates a block which is released when {@code owner} becomes unreachable.
+     */
+    Block newBlock(Object owner) {
+        Block block = new Block(this);
+        block.cleanable = CLEANER.register(owner, block);
+        return block;
+    }
+
+    private int sizeOf(int minWords) {
+        if (minWords > MAX_BLOCK_WORDS) {
+            throw new IllegalArgumentException(
+                    "Block of " + minWords + " words is too large");
+        }
+        return minWords <= 1 ? 1 : Integer.highestOneBit(minWords - 1) << 1;
+    }
+
+    /**
+     * Allocates a zeroed block of {@code words} words,
+     * which must be a power of two.
+     */
+    private synchronized long allocate(int words) {
+        checkOpen();
+        int sizeClass = Integer.numberOfTrailingZeros(words);
+        long address = freeLists[sizeClass];
+        usedWords += words;
+        if (address != NULL) {
+            // reuse released block, whose first word links the next free block
+            LongBuffer chunk = chunks[(int) (address >>> 32)];
+            int offset = (int) address;
+            freeLists[sizeClass] = chunk.get(offset);
+            for (int i = 0; i < words; ++i) {
+                chunk.put(offset + i, 0L);
+            }
+            return address;
+        }
+        if (chunkCount == 0 || chunks[chunkCount - 1].capacity() - top < words) {
+            if (chunkCount > 0) {
+                // keep the rest of current chunk for smaller blocks
+                int rest = chunks[chunkCount - 1].capacity() - top;
+                while (rest > 0) {
+                    int size = Integer.highestOneBit(rest);
+                    release(((long) (chunkCount - 1) << 32) | top, size);
+                    top += size;
+                    rest -= size;
+                }
+            }
+            newChunk(Math.max(words, CHUNK_WORDS));
+        }
+        // memory of fresh chunks is zeroed
+        address = ((long) (chunkCount - 1) << 32) | top;
+        top += words;
+        return address;
+    }
+
+    private synchronized void free(long address, int words) {
+        if (!closed) {
+            usedWords -= words;
+            release(address, words);
+        }
+    }
+
+    private void release(long address, int words) {
+        int sizeClass = Integer.numberOfTrailingZeros(words);
+        chunks[(int) (address >>> 32)].put((int) address, freeLists[sizeClass]);
+        freeLists[sizeClass] = address;
+    }
+
+    private void newChunk(int words) {
+        long bytes = (long) words * Long.BYTES;
+        ByteBuffer buffer;
+        if (channel != null) {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                        mappedBytes, bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(
+                        "Failed to map scratch file " + scratchFile, e);
+            }
+            mappedBytes += bytes;
+        } else {
+            buffer = ByteBuffer.allocateDirect((int) bytes);
+        }
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount++] = buffer.order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+        top = 0;
+        reservedWords += words;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Arena has been closed");
+        }
+    }
+
+    /**
+     * @return number of bytes reserved by this arena.
+     */
+    public synchronized long getReservedBytes() {
+        return reservedWords * Long.BYTES;
+    }
+
+    /**
+     * @return number of bytes held by live blocks.
+     */
+    public synchronized long getUsedBytes() {
+        return usedWords * Long.BYTES;
+    }
+
+    /**
+     * Drops all chunks and removes the scratch file (if any).
+     * The bit sets allocated from this arena must not be used afterwards.
+     * Note that the bit sets still refer to their chunks, thus the memory
+     * of a chunk is returned to the system once its bit sets are unreachable.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunks = new LongBuffer[0];
+        chunkCount = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(scratchFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(
+                        "Failed to remove scratch file " + scratchFile, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("OffHeapArena{%s, reserved: %.1fMB, used: %.1fMB}",
+                channel != null ? "mapped to " + scratchFile : "direct",
+                reservedWords * Long.BYTES / 1048576.0,
+                usedWords * Long.BYTES / 1048576.0);
+    }
+}
@@ -0,0 +1,753 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import javax.annotation.Nullable;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.LongBuffer;
+
+/**
+ * Bit set whose words are stored off the Java heap, in an {@link OffHeapArena}.
+ * <p>
+ * The words are kept in a single block of the arena, which only covers
+ * the range of words between the lowest and highest set bits (plus some
+ * room for growth), so that the bit set is also compact for clustered
+ * bits with large indexes. When the range outgrows the block, the words
+ * are moved to a larger block and the old block is returned to the arena.
+ * The block is allocated on the first write, thus empty bit sets (e.g.,
+ * the sets to be overwritten by {@link #setTo(IBitSet)}) occupy no
+ * off-heap memory.
+ * <p>
+ * A serialized bit set carries its words, but not its arena (which lives
+ * only in the current process), thus it is deserialized into an arena
+ * of direct buffers shared by all deserialized bit sets.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class OffHeapBitSet extends AbstractBitSet {
+
+    /* Used to shift left or right for a partial word mask */
+    private static final long WORD_MASK = 0xffffffffffffffffL;
+
+    private final OffHeapArena arena;
+
+    /**
+     * The block holding the words, or {@code null} if no block
+     * has been allocated.
+     */
+    @Nullable
+    private OffHeapArena.Block block;
+
+    /**
+     * Cached buffer and offset of {@link #block}.
+     */
+    private LongBuffer words;
+
+    private int offset;
+
+    /**
+     * The index of the word stored at the start of the block.
+     */
+    private int base = 0;
+
+    /**
+     * The number of words in the logical size of this bit set,
+     * counting from {@link #base}.
+     */
+    private int wordsInUse = 0;
+
+    public OffHeapBitSet(OffHeapArena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * @return a new empty bit set stored in the same arena as this one.
+     */
+    @Override
+    public OffHeapBitSet newEmpty() {
+        return new OffHeapBitSet(arena);
+    }
+
+    private long word(int i) {
+        return words.get(offset + i);
+    }
+
+    private void setWord(int i, long word) {
+        words.put(offset + i, word);
+    }
+
+    /**
+     * @return the word at given absolute word index.
+     */
+    private long wordAt(int wordIndex) {
+        int i = wordIndex - base;
+        return i < 0 || i >= wordsInUse ? 0 : word(i);
+    }
+
+    private int capacity() {
+        return block == null ? 0 : block.capacity();
+    }
+
+    /**
+     * Sets the field wordsInUse to the logical size in words of the bit set.
+     */
+    private void recalculateWordsInUse() {
+        int i;
+        for (i = wordsInUse - 1; i >= 0; i--) {
+            if (word(i) != 0) {
+                break;
+            }
+        }
+        wordsInUse = i + 1;
+    }
+
+    /**
+     * Ensures that the block covers the words in range [from, to),
+     * moving the words if necessary. Afterwards, the words in the range
+     * are addressed by {@code wordIndex - base}.
+     */
+    private void ensureRange(int from, int to) {
+        int capacity = capacity();
+        if (wordsInUse == 0) {
+            if (capacity < to - from) {
+                reallocate(to - from, 0, 0);
+            }
+            // block is empty, just rebase it
+            base = from;
+            return;
+        }
+        if (from >= base && to - base <= capacity) {
+            return;
+        }
+        int newBase = Math.min(from, base);
+        int need = Math.max(to, base + wordsInUse) - newBase;
+        int newCapacity = need <= capacity ? capacity : sizeOf(need);
+        if (from < base) {
+            // leave half of spare room below the words, as bits
+            // are likely to keep growing downwards
+            newBase = Math.max(0, newBase - (newCapacity - need) / 2);
+        }
+        int shift = base - newBase;
+        if (newCapacity == capacity) {
+            for (int i = wordsInUse - 1; i >= 0; --i) {
+                setWord(i + shift, word(i));
+            }
+            for (int i = Math.min(shift, wordsInUse) - 1; i >= 0; --i) {
+                setWord(i, 0);
+            }
+        } else {
+            reallocate(newCapacity, shift, wordsInUse);
+        }
+        base = newBase;
+        wordsInUse += shift;
+    }
+
+    private static int sizeOf(int words) {
+        return words <= 1 ? 1 : Integer.highestOneBit(words - 1) << 1;
+    }
+
+    private void reallocate(int minWords, int shift, int copyWords) {
+        if (block == null) {
+            block = arena.newBlock(this);
+        }
+        block.reallocate(minWords, shift, copyWords);
+        words = block.words();
+        offset = block.offset();
+    }
+
+    @Override
+    public boolean set(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+
+        int wordIndex = wordIndex(bitIndex);
+        ensureRange(wordIndex, wordIndex + 1);
+        int i = wordIndex - base;
+        long oldWord = word(i);
+        long newWord = oldWord | (1L << bitIndex);
+        if (oldWord == newWord) {
+            return false;
+        }
+        setWord(i, newWord);
+        if (i >= wordsInUse) {
+            wordsInUse = i + 1;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean clear(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+
+        int i = wordIndex(bitIndex) - base;
+        if (i < 0 || i >= wordsInUse) {
+            return false;
+        }
+        long oldWord = word(i);
+        long newWord = oldWord & ~(1L << bitIndex);
+        if (oldWord == newWord) {
+            return false;
+        }
+        setWord(i, newWord);
+        if (newWord == 0 && i == wordsInUse - 1) {
+            recalculateWordsInUse();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+
+        return (wordAt(wordIndex(bitIndex)) & (1L << bitIndex)) != 0;
+    }
+
+    @Override
+    public void flip(int bitIndex) {
+        if (!clear(bitIndex)) {
+            set(bitIndex);
+        }
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        }
+
+        int i = wordIndex(fromIndex) - base;
+        if (i >= wordsInUse || wordsInUse == 0) {
+            return -1;
+        }
+        long word;
+        if (i < 0) {
+            i = 0;
+            word = word(0);
+        } else {
+            word = word(i) & (WORD_MASK << fromIndex);
+        }
+
+        while (true) {
+            if (word != 0) {
+                return (base + i) * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++i == wordsInUse) {
+                return -1;
+            }
+            word = word(i);
+        }
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        }
+
+        int i = wordIndex(fromIndex) - base;
+        if (i < 0 || i >= wordsInUse) {
+            return fromIndex;
+        }
+
+        long word = ~word(i) & (WORD_MASK << fromIndex);
+
+        while (true) {
+            if (word != 0) {
+                return (base + i) * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++i == wordsInUse) {
+                return (base + wordsInUse) * BITS_PER_WORD;
+            }
+            word = ~word(i);
+        }
+    }
+
+    @Override
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException(
+                    "fromIndex < -1: " + fromIndex);
+        }
+
+        int i = wordIndex(fromIndex) - base;
+        if (i < 0) {
+            return -1;
+        }
+        if (i >= wordsInUse) {
+            return length() - 1;
+        }
+
+        long word = word(i) & (WORD_MASK >>> -(fromIndex + 1));
+
+        while (true) {
+            if (word != 0) {
+                return (base + i + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if (i-- == 0) {
+                return -1;
+            }
+            word = word(i);
+        }
+    }
+
+    @Override
+    public int previousClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException(
+                    "fromIndex < -1: " + fromIndex);
+        }
+
+        int i = wordIndex(fromIndex) - base;
+        if (i < 0 || i >= wordsInUse) {
+            return fromIndex;
+        }
+
+        long word = ~word(i) & (WORD_MASK >>> -(fromIndex + 1));
+
+        while (true) {
+            if (word != 0) {
+                return (base + i + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if (i-- == 0) {
+                // bits below the block are clear
+                return base * BITS_PER_WORD - 1;
+            }
+            word = ~word(i);
+        }
+    }
+
+    @Override
+    public boolean intersects(IBitSet set) {
+        if (this == set) {
+            return !isEmpty();
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.intersects(set);
+        }
+        int from = Math.max(base, other.base);
+        int to = Math.min(base + wordsInUse, other.base + other.wordsInUse);
+        for (int w = from; w < to; ++w) {
+            if ((word(w - base) & other.word(w - other.base)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(IBitSet set) {
+        if (this == set) {
+            return true;
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.contains(set);
+        }
+        for (int i = 0; i < other.wordsInUse; ++i) {
+            long otherWord = other.word(i);
+            if ((otherWord & ~wordAt(other.base + i)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int andCardinality(IBitSet set) {
+        if (this == set) {
+            return cardinality();
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.andCardinality(set);
+        }
+        int count = 0;
+        int from = Math.max(base, other.base);
+        int to = Math.min(base + wordsInUse, other.base + other.wordsInUse);
+        for (int w = from; w < to; ++w) {
+            count += Long.bitCount(word(w - base) & other.word(w - other.base));
+        }
+        return count;
+    }
+
+    @Override
+    public boolean and(IBitSet set) {
+        if (this == set) {
+            return false;
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.and(set);
+        }
+        boolean changed = false;
+        for (int i = 0; i < wordsInUse; ++i) {
+            long oldWord = word(i);
+            long newWord = oldWord & other.wordAt(base + i);
+            if (oldWord != newWord) {
+                setWord(i, newWord);
+                changed = true;
+            }
+        }
+        recalculateWordsInUse();
+        return changed;
+    }
+
+    @Override
+    public boolean andNot(IBitSet set) {
+        boolean changed = false;
+        if (this == set) {
+            changed = !isEmpty();
+            clear();
+            return changed;
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.andNot(set);
+        }
+        int from = Math.max(base, other.base);
+        int to = Math.min(base + wordsInUse, other.base + other.wordsInUse);
+        for (int w = from; w < to; ++w) {
+            long oldWord = word(w - base);
+            long newWord = oldWord & ~other.word(w - other.base);
+            if (oldWord != newWord) {
+                setWord(w - base, newWord);
+                changed = true;
+            }
+        }
+        recalculateWordsInUse();
+        return changed;
+    }
+
+    @Override
+    public boolean or(IBitSet set) {
+        if (this == set) {
+            return false;
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.or(set);
+        }
+        if (other.wordsInUse == 0) {
+            return false;
+        }
+        int otherEnd = other.base + other.wordsInUse;
+        ensureRange(other.base, otherEnd);
+        boolean changed = false;
+        int shift = other.base - base;
+        for (int i = 0; i < other.wordsInUse; ++i) {
+            long oldWord = word(i + shift);
+            long newWord = oldWord | other.word(i);
+            if (oldWord != newWord) {
+                setWord(i + shift, newWord);
+                changed = true;
+            }
+        }
+        wordsInUse = Math.max(wordsInUse, otherEnd - base);
+        return changed;
+    }
+
+    @Override
+    public IBitSet orDiff(IBitSet set) {
+        OffHeapBitSet diff = newEmpty();
+        if (this == set) {
+            return diff;
+        }
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.orDiff(set);
+        }
+        // find the first word that brings new bits, so that nothing
+        // is allocated if set is already contained by this bit set
+        int first = 0;
+        while (first < other.wordsInUse &&
+                (other.word(first) & ~wordAt(other.base + first)) == 0) {
+            ++first;
+        }
+        if (first == other.wordsInUse) {
+            return diff;
+        }
+        int otherEnd = other.base + other.wordsInUse;
+        ensureRange(other.base + first, otherEnd);
+        diff.ensureRange(other.base + first, otherEnd);
+        int shift = other.base - base;
+        int diffShift = other.base - diff.base;
+        for (int i = first; i < other.wordsInUse; ++i) {
+            long oldWord = word(i + shift);
+            long otherWord = other.word(i);
+            long diffWord = otherWord & ~oldWord;
+            if (diffWord != 0) {
+                setWord(i + shift, oldWord | otherWord);
+                diff.setWord(i + diffShift, diffWord);
+            }
+        }
+        wordsInUse = Math.max(wordsInUse, otherEnd - base);
+        diff.wordsInUse = otherEnd - diff.base;
+        diff.recalculateWordsInUse();
+        return diff;
+    }
+
+    @Override
+    public boolean xor(IBitSet set) {
+        if (!(set instanceof OffHeapBitSet other)) {
+            return super.xor(set);
+        }
+        if (this == set) {
+            boolean changed = !isEmpty();
+            clear();
+            return changed;
+        }
+        if (other.wordsInUse == 0) {
+            return false;
+        }
+        int otherEnd = other.base + other.wordsInUse;
+        ensureRange(other.base, otherEnd);
+        int shift = other.base - base;
+        for (int i = 0; i < other.wordsInUse; ++i) {
+            setWord(i + shift, word(i + shift) ^ other.word(i));
+        }
+        wordsInUse = Math.max(wordsInUse, otherEnd - base);
+        recalculateWordsInUse();
+        return true;
+    }
+
+    @Override
+    public void setTo(IBitSet set) {
+        if (this == set) {
+            return;
+        }
+        clear();
+        if (!(set instanceof OffHeapBitSet other)) {
+            or(set);
+            return;
+        }
+        if (other.wordsInUse > 0) {
+            int otherEnd = other.base + other.wordsInUse;
+            ensureRange(other.base, otherEnd);
+            int shift = other.base - base;
+            for (int i = 0; i < other.wordsInUse; ++i) {
+                setWord(i + shift, other.word(i));
+            }
+            wordsInUse = otherEnd - base;
+        }
+    }
+
+    @Override
+    protected long getWord(int wordIndex) {
+        return wordAt(wordIndex);
+    }
+
+    @Override
+    protected int nextWordIndex(int fromWordIndex) {
+        for (int i = Math.max(fromWordIndex - base, 0); i < wordsInUse; ++i) {
+            if (word(i) != 0) {
+                return base + i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected long orWord(int wordIndex, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        ensureRange(wordIndex, wordIndex + 1);
+        int i = wordIndex - base;
+        long oldWord = word(i);
+        long newBits = word & ~oldWord;
+        if (newBits != 0) {
+            setWord(i, oldWord | word);
+            if (i >= wordsInUse) {
+                wordsInUse = i + 1;
+            }
+        }
+        return newBits;
+    }
+
+    @Override
+    protected long andNotWord(int wordIndex, long word) {
+        int i = wordIndex - base;
+        if (i < 0 || i >= wordsInUse) {
+            return 0;
+        }
+        long oldWord = word(i);
+        long clearedBits = oldWord & word;
+        if (clearedBits != 0) {
+            long newWord = oldWord & ~word;
+            setWord(i, newWord);
+            if (newWord == 0 && i == wordsInUse - 1) {
+                recalculateWordsInUse();
+            }
+        }
+        return clearedBits;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < wordsInUse; ++i) {
+            setWord(i, 0);
+        }
+        wordsInUse = 0;
+    }
+
+    /**
+     * Clears this bit set and returns its block to the arena at once,
+     * instead of when this bit set becomes unreachable. This is intended
+     * for short-lived bit sets, e.g., temporary sets that are discarded
+     * right after use. The bit set remains usable afterwards.
+     */
+    public void release() {
+        if (block != null) {
+            block.release();
+            block = null;
+            words = null;
+            offset = 0;
+        }
+        base = 0;
+        wordsInUse = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return wordsInUse == 0;
+    }
+
+    @Override
+    public int length() {
+        if (wordsInUse == 0) {
+            return 0;
+        }
+
+        return BITS_PER_WORD * (base + wordsInUse - 1) +
+                (BITS_PER_WORD - Long.numberOfLeadingZeros(word(wordsInUse - 1)));
+    }
+
+    @Override
+    public int size() {
+        return capacity() * BITS_PER_WORD;
+    }
+
+    @Override
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < wordsInUse; i++) {
+            sum += Long.bitCount(word(i));
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the hash code value for this bit set, which is consistent
+     * with {@link RegularBitSet#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        long h = 1234;
+        for (int i = wordsInUse; --i >= 0; ) {
+            h ^= word(i) * (base + i + 1);
+        }
+
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OffHeapBitSet set)) {
+            return false;
+        }
+        if (length() != set.length()) {
+            return false;
+        }
+        int from = Math.min(base, set.base);
+        int to = base + wordsInUse;
+        for (int w = from; w < to; ++w) {
+            if (wordAt(w) != set.wordAt(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public OffHeapBitSet copy() {
+        OffHeapBitSet copy = newEmpty();
+        // skip leading zero words
+        int first = 0;
+        while (first < wordsInUse && word(first) == 0) {
+            ++first;
+        }
+        if (first < wordsInUse) {
+            copy.ensureRange(base + first, base + wordsInUse);
+            int shift = base - copy.base;
+            for (int i = first; i < wordsInUse; ++i) {
+                copy.setWord(i + shift, word(i));
+            }
+            copy.wordsInUse = base + wordsInUse - copy.base;
+        }
+        return copy;
+    }
+
+    @Serial
+    private Object writeReplace() {
+        long[] ws = new long[wordsInUse];
+        for (int i = 0; i < wordsInUse; ++i) {
+            ws[i] = word(i);
+        }
+        return new SerializedForm(base, ws);
+    }
+
+    /**
+     * Serialized form of {@link OffHeapBitSet}, i.e., the words
+     * and the index of the first word.
+     */
+    private record SerializedForm(int base, long[] words) implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            OffHeapBitSet set = new OffHeapBitSet(SharedArena.ARENA);
+            for (int i = 0; i < words.length; ++i) {
+                set.orWord(base + i, words[i]);
+            }
+            return set;
+        }
+    }
+
+    /**
+     * Holder of the arena of deserialized bit sets,
+     * which is created on the first deserialization.
+     */
+    private static final class SharedArena {
+
+        private static final OffHeapArena ARENA = OffHeapArena.newDirectArena();
+    }
+}
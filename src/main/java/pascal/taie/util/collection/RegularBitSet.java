@@ -71,6 +71,15 @@ public class RegularBitSet extends AbstractBitSet
         initWords(nbits);
     }
 
+    /**
+     * Creates a bit set which uses given words as its internal storage.
+     */
+    private RegularBitSet(long[] words, int wordsInUse) {
+        this.words = words;
+        this.wordsInUse = wordsInUse;
+        checkInvariants();
+    }
+
     private void initWords(int nbits) {
         words = new long[wordIndex(nbits - 1) + 1];
     }
@@ -352,15 +361,28 @@ public class RegularBitSet extends AbstractBitSet
         return true;
     }
 
+    @Override
+    public int andCardinality(IBitSet set) {
+        if (this == set) {
+            return cardinality();
+        }
+        if (!(set instanceof RegularBitSet other)) {
+            return super.andCardinality(set);
+        }
+        int sum = 0;
+        for (int i = Math.min(wordsInUse, other.wordsInUse) - 1; i >= 0; i--) {
+            sum += Long.bitCount(words[i] & other.words[i]);
+        }
+        return sum;
+    }
+
     @Override
     public boolean and(IBitSet set) {
         if (this == set) {
             return false;
         }
         if (!(set instanceof RegularBitSet other)) {
-            throw new UnsupportedOperationException(
-                    String.format("%s does not support AND with %s",
-                            this.getClass(), set.getClass()));
+            return super.and(set);
         }
 
         boolean changed = false;
@@ -402,24 +424,20 @@ public class RegularBitSet extends AbstractBitSet
             return super.andNot(set);
         }
 
-        // Perform logical (a & !b) on words in common
+        // Perform logical (a & !b) on words in common.
+        // The loop is kept free of branches, so that it can be vectorized.
         int wordsInCommon = Math.min(wordsInUse, other.wordsInUse);
-        for (int i = wordsInCommon - 1; i >= 0; i--) {
-            if (changed) {
-                words[i] &= ~other.words[i];
-            } else {
-                long oldWord = words[i];
-                long newWord = oldWord & ~other.words[i];
-                if (oldWord != newWord) {
-                    words[i] = newWord;
-                    changed = true;
-                }
-            }
+        long clearedBits = 0;
+        for (int i = 0; i < wordsInCommon; i++) {
+            long oldWord = words[i];
+            long otherWord = other.words[i];
+            words[i] = oldWord & ~otherWord;
+            clearedBits |= oldWord & otherWord;
         }
 
         recalculateWordsInUse();
         checkInvariants();
-        return changed;
+        return clearedBits != 0;
     }
 
     @Override
@@ -440,20 +458,16 @@ public class RegularBitSet extends AbstractBitSet
             changed = true;
         }
 
-        // Perform logical OR on words in common
+        // Perform logical OR on words in common.
+        // The loop is kept free of branches, so that it can be vectorized.
+        long newBits = 0;
         for (int i = 0; i < wordsInCommon; i++) {
-            if (changed) {
-                // already know set changed, just perform logical OR
-                words[i] |= other.words[i];
-            } else {
-                long oldWord = words[i];
-                long newWord = oldWord | other.words[i];
-                if (oldWord != newWord) {
-                    words[i] = newWord;
-                    changed = true;
-                }
-            }
+            long oldWord = words[i];
+            long otherWord = other.words[i];
+            words[i] = oldWord | otherWord;
+            newBits |= otherWord & ~oldWord;
         }
+        changed |= newBits != 0;
 
         // Copy any remaining words
         if (wordsInCommon < other.wordsInUse) {
@@ -469,34 +483,32 @@ public class RegularBitSet extends AbstractBitSet
 
     @Override
     public IBitSet orDiff(IBitSet set) {
-        RegularBitSet diff = new RegularBitSet();
         if (this == set) {
-            return diff;
+            return new RegularBitSet();
         }
         if (!(set instanceof RegularBitSet other)) {
             return super.orDiff(set);
         }
-        if (wordsInUse < other.wordsInUse) {
-            ensureCapacity(other.wordsInUse);
-            wordsInUse = other.wordsInUse;
+        // find the highest word that brings new bits; the words above
+        // it are already contained by this set and need not be touched
+        int top = other.wordsInUse - 1;
+        while (top >= 0 && (other.words[top] & ~getWord(top)) == 0) {
+            --top;
         }
-        boolean foundNonZero = false;
-        for (int i = other.wordsInUse - 1; i >= 0; --i) {
+        if (top < 0) {
+            return new RegularBitSet();
+        }
+        expandTo(top);
+        // fused union and difference, free of branches
+        long[] diffWords = new long[top + 1];
+        for (int i = 0; i <= top; i++) {
             long oldWord = words[i];
             long otherWord = other.words[i];
             words[i] = oldWord | otherWord;
-            // compute diff
-            long diffWord = otherWord & ~oldWord;
-            if (diffWord != 0) {
-                if (!foundNonZero) {
-                    diff.ensureCapacity(i + 1);
-                    diff.wordsInUse = i + 1;
-                    foundNonZero = true;
-                }
-                diff.words[i] = diffWord;
-            }
+            diffWords[i] = otherWord & ~oldWord;
         }
-        return diff;
+        checkInvariants();
+        return new RegularBitSet(diffWords, top + 1);
     }
 
     @Override
@@ -546,6 +558,51 @@ public class RegularBitSet extends AbstractBitSet
         return changed;
     }
 
+    @Override
+    protected long getWord(int wordIndex) {
+        return wordIndex < wordsInUse ? words[wordIndex] : 0;
+    }
+
+    @Override
+    protected int nextWordIndex(int fromWordIndex) {
+        for (int u = fromWordIndex; u < wordsInUse; u++) {
+            if (words[u] != 0) {
+                return u;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected long orWord(int wordIndex, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        expandTo(wordIndex);
+        long oldWord = words[wordIndex];
+        words[wordIndex] = oldWord | word;
+        return word & ~oldWord;
+    }
+
+    @Override
+    protected long andNotWord(int wordIndex, long word) {
+        if (wordIndex >= wordsInUse) {
+            return 0;
+        }
+        long oldWord = words[wordIndex];
+        long newWord = oldWord & ~word;
+        words[wordIndex] = newWord;
+        if (newWord == 0 && wordIndex == wordsInUse - 1) {
+            recalculateWordsInUse();
+        }
+        return oldWord & word;
+    }
+
+    @Override
+    protected RegularBitSet newEmpty() {
+        return new RegularBitSet();
+    }
+
     @Override
     public void setTo(IBitSet set) {
         if (this == set) {
@@ -581,6 +581,47 @@ public class SparseBitSet extends AbstractBitSet
         }
     }
 
+    @Override
+    public int andCardinality(IBitSet set) {
+        if (this == set) {
+            return cardinality();
+        }
+        if (!(set instanceof SparseBitSet other)) {
+            return super.andCardinality(set);
+        }
+        return iterateBlocks(this, other, new AndCardinalityAction(this));
+    }
+
+    private static class AndCardinalityAction extends BlockAction<Integer> {
+
+        private int count = 0;
+
+        private AndCardinalityAction(SparseBitSet self) {
+            super(self);
+        }
+
+        @Override
+        boolean accept(int w1, int w2, long[] selfBlock, long[] iteratedBlock) {
+            if (selfBlock == null) {
+                return true;
+            }
+            int count = 0;
+            long selfBits = 0;
+            for (int w3 = 0; w3 < LENGTH3; ++w3) {
+                long selfWord = selfBlock[w3];
+                count += Long.bitCount(selfWord & iteratedBlock[w3]);
+                selfBits |= selfWord;
+            }
+            this.count += count;
+            return selfBits == 0;
+        }
+
+        @Override
+        Integer getResult() {
+            return count;
+        }
+    }
+
     /**
      * Performs a logical <b>AND</b> of this target bit set with the
      * argument bit set. This operation cannot skip zero blocks in the
@@ -595,9 +636,7 @@ public class SparseBitSet extends AbstractBitSet
             return false;
         }
         if (!(set instanceof SparseBitSet other)) {
-            throw new UnsupportedOperationException(
-                    String.format("%s does not support AND with %s",
-                            this.getClass(), set.getClass()));
+            return super.and(set);
         }
         // Unlike other set operations, AND requires iteration on
         // non-null blocks of both this and other sets.
@@ -719,25 +758,21 @@ public class SparseBitSet extends AbstractBitSet
 
         @Override
         boolean accept(int w1, int w2, long[] selfBlock, long[] iteratedBlock) {
-            boolean isZero = true;
-            boolean changed = false;
-            if (selfBlock != null) {
-                for (int w3 = 0; w3 < LENGTH3; ++w3) {
-                    long selfWord = selfBlock[w3];
-                    if (selfWord != 0) {
-                        long newWord = selfWord & ~iteratedBlock[w3];
-                        if (newWord != selfWord) {
-                            selfBlock[w3] = newWord;
-                            changed = true;
-                        }
-                        if (newWord != 0) {
-                            isZero = false;
-                        }
-                    }
-                }
+            if (selfBlock == null) {
+                return true;
             }
-            this.changed |= changed;
-            return isZero;
+            // the loop is kept free of branches, so that it can be vectorized
+            long clearedBits = 0;
+            long remainingBits = 0;
+            for (int w3 = 0; w3 < LENGTH3; ++w3) {
+                long selfWord = selfBlock[w3];
+                long newWord = selfWord & ~iteratedBlock[w3];
+                selfBlock[w3] = newWord;
+                clearedBits |= selfWord ^ newWord;
+                remainingBits |= newWord;
+            }
+            this.changed |= clearedBits != 0;
+            return remainingBits == 0;
         }
     }
 
@@ -760,27 +795,27 @@ public class SparseBitSet extends AbstractBitSet
 
         @Override
         boolean accept(int w1, int w2, long[] selfBlock, long[] iteratedBlock) {
-            boolean isZero = true;
-            boolean changed = false;
-            for (int w3 = 0; w3 < LENGTH3; ++w3) {
-                long iteratedWord = iteratedBlock[w3];
-                if (iteratedWord != 0) {
-                    isZero = false;
-                    if (selfBlock == null) {
-                        selfBlock = self.getOrCreateBlock(w1, w2);
-                    }
-                    long selfWord = selfBlock[w3];
-                    long newWord = selfWord | iteratedWord;
-                    if (selfWord != newWord) {
-                        selfBlock[w3] = newWord;
-                        changed = true;
-                    }
-                } else if (selfBlock != null && selfBlock[w3] != 0) {
-                    isZero = false;
+            if (selfBlock == null) {
+                if (!isNonZeroBlock(iteratedBlock)) {
+                    return true;
                 }
+                selfBlock = self.getOrCreateBlock(w1, w2);
+                System.arraycopy(iteratedBlock, 0, selfBlock, 0, LENGTH3);
+                changed = true;
+                return false;
             }
-            this.changed |= changed;
-            return isZero;
+            // the loop is kept free of branches, so that it can be vectorized
+            long newBits = 0;
+            long mergedBits = 0;
+            for (int w3 = 0; w3 < LENGTH3; ++w3) {
+                long selfWord = selfBlock[w3];
+                long newWord = selfWord | iteratedBlock[w3];
+                selfBlock[w3] = newWord;
+                newBits |= selfWord ^ newWord;
+                mergedBits |= newWord;
+            }
+            this.changed |= newBits != 0;
+            return mergedBits == 0;
         }
     }
 
@@ -813,29 +848,40 @@ public class SparseBitSet extends AbstractBitSet
 
         @Override
         boolean accept(int w1, int w2, long[] selfBlock, long[] iteratedBlock) {
-            boolean isZero = true;
-            boolean changed = false;
+            if (selfBlock == null) {
+                if (!isNonZeroBlock(iteratedBlock)) {
+                    return true;
+                }
+                // all bits of iterated block are new
+                selfBlock = self.getOrCreateBlock(w1, w2);
+                System.arraycopy(iteratedBlock, 0, selfBlock, 0, LENGTH3);
+                long[] diffBlock = diff.getOrCreateBlock(w1, w2);
+                System.arraycopy(iteratedBlock, 0, diffBlock, 0, LENGTH3);
+                changed = true;
+                return false;
+            }
+            // first check if iterated block brings any new bits, so that
+            // diff block is created only when necessary
+            long newBits = 0;
+            long selfBits = 0;
             for (int w3 = 0; w3 < LENGTH3; ++w3) {
+                long selfWord = selfBlock[w3];
+                newBits |= iteratedBlock[w3] & ~selfWord;
+                selfBits |= selfWord;
+            }
+            if (newBits == 0) {
+                return selfBits == 0;
+            }
+            // fused union and difference, free of branches
+            long[] diffBlock = diff.getOrCreateBlock(w1, w2);
+            for (int w3 = 0; w3 < LENGTH3; ++w3) {
+                long selfWord = selfBlock[w3];
                 long iteratedWord = iteratedBlock[w3];
-                if (iteratedWord != 0) {
-                    isZero = false;
-                    if (selfBlock == null) {
-                        selfBlock = self.getOrCreateBlock(w1, w2);
-                    }
-                    long selfWord = selfBlock[w3];
-                    long newWord = selfWord | iteratedWord;
-                    if (selfWord != newWord) {
-                        selfBlock[w3] = newWord;
-                        changed = true;
-                        long[] diffBlock = diff.getOrCreateBlock(w1, w2);
-                        diffBlock[w3] = iteratedWord & ~selfWord;
-                    }
-                } else if (selfBlock != null && selfBlock[w3] != 0) {
-                    isZero = false;
-                }
+                selfBlock[w3] = selfWord | iteratedWord;
+                diffBlock[w3] = iteratedWord & ~selfWord;
             }
-            this.changed |= changed;
-            return isZero;
+            changed = true;
+            return false;
         }
 
         @Override
@@ -897,6 +943,78 @@ public class SparseBitSet extends AbstractBitSet
         }
     }
 
+    @Override
+    protected long getWord(int wordIndex) {
+        long[] block = getBlock(table,
+                level1Index(wordIndex), level2Index(wordIndex));
+        return block == null ? 0 : block[level3Index(wordIndex)];
+    }
+
+    @Override
+    protected int nextWordIndex(int fromWordIndex) {
+        int w1 = level1Index(fromWordIndex);
+        int w2 = level2Index(fromWordIndex);
+        int w3 = level3Index(fromWordIndex);
+        for (; w1 < table.length; ++w1, w2 = 0, w3 = 0) {
+            long[][] area = table[w1];
+            if (area == null) {
+                continue;
+            }
+            for (; w2 < LENGTH2; ++w2, w3 = 0) {
+                long[] block = area[w2];
+                if (block == null) {
+                    continue;
+                }
+                for (; w3 < LENGTH3; ++w3) {
+                    if (block[w3] != 0) {
+                        return wordIndex(w1, w2, w3);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected long orWord(int wordIndex, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        long[] block = getOrCreateBlock(
+                level1Index(wordIndex), level2Index(wordIndex));
+        int w3 = level3Index(wordIndex);
+        long oldWord = block[w3];
+        long newBits = word & ~oldWord;
+        if (newBits != 0) {
+            block[w3] = oldWord | word;
+            invalidateState();
+        }
+        return newBits;
+    }
+
+    @Override
+    protected long andNotWord(int wordIndex, long word) {
+        long[] block = getBlock(table,
+                level1Index(wordIndex), level2Index(wordIndex));
+        if (block == null) {
+            return 0;
+        }
+        int w3 = level3Index(wordIndex);
+        long oldWord = block[w3];
+        long clearedBits = oldWord & word;
+        if (clearedBits != 0) {
+            // zero blocks are released by next updateState()
+            block[w3] = oldWord & ~word;
+            invalidateState();
+        }
+        return clearedBits;
+    }
+
+    @Override
+    protected SparseBitSet newEmpty() {
+        return new SparseBitSet();
+    }
+
     @Override
     public void clear() {
         clearTable(0);
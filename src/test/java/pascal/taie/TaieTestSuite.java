@@ -28,16 +28,23 @@ import pascal.taie.analysis.bugfinder.BugFinderTestSuite;
 import pascal.taie.analysis.dataflow.DataflowTestSuite;
 import pascal.taie.analysis.deadcode.DeadCodeTestFull;
 import pascal.taie.analysis.defuse.DefUseTest;
+import pascal.taie.analysis.graph.callgraph.CompactCallGraphTest;
+import pascal.taie.analysis.graph.callgraph.RTATest;
 import pascal.taie.analysis.graph.callgraph.cha.CHATestFull;
 import pascal.taie.analysis.pta.PTATestSuite;
 import pascal.taie.analysis.sideeffect.SideEffectTest;
 import pascal.taie.config.OptionsTest;
+import pascal.taie.frontend.asm.AsmFrontendTest;
 import pascal.taie.frontend.cache.SerializationTest;
 import pascal.taie.frontend.soot.SootFrontendTest;
+import pascal.taie.ir.CompactIRTest;
+import pascal.taie.ir.IRArchiveTest;
+import pascal.taie.ir.IRStoreTest;
 import pascal.taie.language.DefaultMethodTest;
 import pascal.taie.language.FieldTest;
 import pascal.taie.language.HierarchyTest;
 import pascal.taie.language.TypeTest;
+import pascal.taie.language.classes.GlobalIndexerTest;
 import pascal.taie.language.classes.StringRepsTest;
 import pascal.taie.language.generics.GSignaturesTest;
 import pascal.taie.util.UtilTestSuite;
@@ -46,18 +53,25 @@ import pascal.taie.util.UtilTestSuite;
 @SelectClasses({
         // world
         SootFrontendTest.class,
+        AsmFrontendTest.class,
         TypeTest.class,
         GSignaturesTest.class,
         HierarchyTest.class,
         DefaultMethodTest.class,
         FieldTest.class,
         SerializationTest.class,
+        CompactIRTest.class,
+        IRArchiveTest.class,
+        IRStoreTest.class,
+        GlobalIndexerTest.class,
         // analysis
         BugFinderTestSuite.class,
         DataflowTestSuite.class,
         DeadCodeTestFull.class,
         DefUseTest.class,
         CHATestFull.class,
+        RTATest.class,
+        CompactCallGraphTest.class,
         PTATestSuite.class,
         SideEffectTest.class,
         // util
@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link CompactCallGraph} against {@link DefaultCallGraph}
+ * on a program whose call sites mostly have no edges.
+ */
+public class CompactCallGraphTest {
+
+    private static JMethod main;
+
+    private static JMethod foo;
+
+    private static JMethod unreachable;
+
+    @BeforeAll
+    static void buildWorld() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/cha/",
+                "-m", "ZeroEdges");
+        JClass mainClass = World.get().getMainMethod().getDeclaringClass();
+        main = mainClass.getDeclaredMethod("main");
+        foo = mainClass.getDeclaredMethod("foo");
+        unreachable = mainClass.getDeclaredMethod("unreachable");
+    }
+
+    /**
+     * @return a call graph where main and foo are reachable and only
+     * the static call sites have edges.
+     */
+    private static DefaultCallGraph buildDefaultCallGraph() {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(main);
+        callGraph.addReachableMethod(main);
+        callGraph.addReachableMethod(foo);
+        addStaticEdges(callGraph, main);
+        return callGraph;
+    }
+
+    private static void addStaticEdges(DefaultCallGraph callGraph, JMethod method) {
+        method.getIR().invokes(false)
+                .filter(Invoke::isStatic)
+                .forEach(invoke -> callGraph.addEdge(new Edge<>(CallKind.STATIC,
+                        invoke, invoke.getMethodRef().resolve())));
+    }
+
+    @Test
+    void testSameAsDefault() {
+        DefaultCallGraph expected = buildDefaultCallGraph();
+        // more call sites than edges
+        assertTrue(expected.callSitesIn(main).count()
+                > expected.getNumberOfEdges());
+        CompactCallGraph<Invoke, JMethod> actual = new CompactCallGraph<>(expected);
+        assertEquals(expected.entryMethods().toList(),
+                actual.entryMethods().toList());
+        assertEquals(toSet(expected.reachableMethods()),
+                toSet(actual.reachableMethods()));
+        assertEquals(expected.getNumberOfMethods(), actual.getNumberOfMethods());
+        assertEquals(expected.getNumberOfEdges(), actual.getNumberOfEdges());
+        assertEquals(toSet(expected.edges()),
+                toSet(actual.edges()));
+        for (JMethod method : List.of(main, foo)) {
+            assertTrue(actual.contains(method));
+            assertEquals(expected.getCallSitesIn(method),
+                    actual.getCallSitesIn(method));
+            assertEquals(expected.getCallersOf(method),
+                    actual.getCallersOf(method));
+            assertEquals(expected.getCalleesOfM(method),
+                    actual.getCalleesOfM(method));
+            assertEquals(expected.getPredsOf(method), actual.getPredsOf(method));
+            assertEquals(expected.getSuccsOf(method), actual.getSuccsOf(method));
+            assertEquals(expected.getInEdgesOf(method),
+                    actual.getInEdgesOf(method));
+            assertEquals(expected.getOutEdgesOf(method),
+                    actual.getOutEdgesOf(method));
+            assertEquals(toSet(expected.edgesInTo(method)),
+                    toSet(actual.edgesInTo(method)));
+            for (Invoke callSite : expected.getCallSitesIn(method)) {
+                assertEquals(expected.getContainerOf(callSite),
+                        actual.getContainerOf(callSite));
+                assertEquals(expected.getCalleesOf(callSite),
+                        actual.getCalleesOf(callSite));
+                assertEquals(toSet(expected.edgesOutOf(callSite)),
+                        toSet(actual.edgesOutOf(callSite)));
+            }
+        }
+        assertEquals(Set.of(), actual.getCallSitesIn(unreachable));
+    }
+
+    @Test
+    void testUnreachableContainer() {
+        DefaultCallGraph callGraph = buildDefaultCallGraph();
+        // the container of this edge is not a reachable method
+        addStaticEdges(callGraph, unreachable);
+        CompactCallGraph<Invoke, JMethod> compact = new CompactCallGraph<>(callGraph);
+        Invoke callSite = unreachable.getIR().invokes(false)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(compact.getCallersOf(foo).contains(callSite));
+        assertNull(compact.getContainerOf(callSite));
+        assertEquals(Set.of(main), compact.getPredsOf(foo));
+        assertEquals(1, compact.getInEdgesOf(foo).size());
+    }
+
+    @Test
+    void testCHA() {
+        CallGraph<Invoke, JMethod> callGraph = new CHABuilder().build();
+        assertEquals(Set.of(foo), callGraph.getCalleesOfM(main));
+        assertTrue(callGraph.callSitesIn(main)
+                .filter(Invoke::isInterface)
+                .allMatch(cs -> callGraph.getCalleesOf(cs).isEmpty()));
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link RTABuilder} on the test cases of CHA. As RTA only dispatches
+ * virtual calls on instantiated types, its call graph should be a subgraph
+ * of the one built by CHA.
+ */
+public class RTATest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static void buildWorld(String mainClass) {
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", mainClass);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "StaticCall",
+            "VirtualCall",
+            "Interface",
+            "AbstractMethod",
+            "SpecialCall",
+            "Interface2",
+            "Interface3",
+            "Recursion",
+            "Recursion2",
+            "MaxPQ",
+            "LongCallChain",
+    })
+    void testSubgraphOfCHA(String mainClass) {
+        buildWorld(mainClass);
+        CallGraph<Invoke, JMethod> cha = new CHABuilder().build();
+        CallGraph<Invoke, JMethod> rta = new RTABuilder().build();
+        assertEquals(cha.entryMethods().collect(Collectors.toSet()),
+                rta.entryMethods().collect(Collectors.toSet()));
+        Set<JMethod> chaMethods = cha.reachableMethods()
+                .collect(Collectors.toSet());
+        rta.reachableMethods().forEach(m -> assertTrue(chaMethods.contains(m),
+                () -> m + " is reachable in RTA but not in CHA"));
+        rta.edges().forEach(e -> assertTrue(
+                cha.getCalleesOf(e.getCallSite()).contains(e.getCallee()),
+                () -> e + " is in RTA but not in CHA"));
+    }
+
+    @Test
+    void testVirtualCall() {
+        buildWorld("VirtualCall");
+        // only B is instantiated, thus b.foo() is dispatched to A.foo()
+        // instead of the overriding methods in the subclasses of B
+        assertEquals(Set.of("<A: void foo()>"), getCallees("main"));
+    }
+
+    @Test
+    void testInterface() {
+        buildWorld("Interface");
+        // only One is instantiated among the implementers of Number
+        assertEquals(Set.of("<One: int get()>"), getCallees("main"));
+    }
+
+    /**
+     * @return signatures of the methods called by the virtual call sites
+     * in the given method of main class.
+     */
+    private static Set<String> getCallees(String methodName) {
+        CallGraph<Invoke, JMethod> rta = new RTABuilder().build();
+        JMethod method = World.get().getMainMethod()
+                .getDeclaringClass().getDeclaredMethod(methodName);
+        return rta.callSitesIn(method)
+                .filter(invoke -> invoke.isVirtual() || invoke.isInterface())
+                .flatMap(invoke -> rta.getCalleesOf(invoke).stream())
+                .map(JMethod::getSignature)
+                .collect(Collectors.toSet());
+    }
+}
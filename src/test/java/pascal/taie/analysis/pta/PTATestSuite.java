@@ -25,10 +25,18 @@ package pascal.taie.analysis.pta;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 import pascal.taie.analysis.pta.core.cs.context.ContextTest;
+import pascal.taie.analysis.pta.core.cs.selector.BudgetedSelectorTest;
+import pascal.taie.analysis.pta.plugin.JsonlResultDumperTest;
+import pascal.taie.analysis.pta.toolkit.PreAnalysisCacheTest;
+import pascal.taie.analysis.pta.toolkit.mahjong.DFAPartitionerTest;
+import pascal.taie.analysis.pta.toolkit.scaler.ScalerTest;
 
 @Suite
 @SelectClasses({
         ContextTest.class,
+        BudgetedSelectorTest.class,
+        DFAPartitionerTest.class,
+        ScalerTest.class,
         BasicTestFull.class,
         ContextSensitivityTestFull.class,
         ExceptionTest.class,
@@ -37,6 +45,9 @@ import pascal.taie.analysis.pta.core.cs.context.ContextTest;
         ReflectionTest.class,
         TaintTest.class,
         WorldCacheTest.class,
+        PreAnalysisCacheTest.class,
+        PointerAnalysisResultTest.class,
+        JsonlResultDumperTest.class,
 })
 public class PTATestSuite {
 }
@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.StmtResult;
+import pascal.taie.analysis.pta.client.MayFailCast;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PointerAnalysisResultTest {
+
+    @Test
+    void testComputeAllPointsToSets() {
+        Main.main(new String[]{
+                "-pp",
+                "-cp", "src/test/resources/pta/contextsensitivity",
+                "-m", "LinkedQueue",
+                "-a", "pta=cs:2-obj;implicit-entries:false;only-app:true",
+        });
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        result.computeAllPointsToSets();
+        // compare the computed sets with the ones collected
+        // from context-sensitive pointers
+        for (Var var : result.getVars()) {
+            Set<CSObj> csObjs = result.getCSVars()
+                    .stream()
+                    .filter(csVar -> csVar.getVar() == var)
+                    .flatMap(Pointer::objects)
+                    .collect(Collectors.toSet());
+            assertEquals(removeContexts(csObjs.stream()),
+                    result.getPointsToSet(var), var.toString());
+            Set<JField> fields = Sets.newSet();
+            var.getLoadFields().forEach(load ->
+                    fields.add(load.getFieldRef().resolveNullable()));
+            var.getStoreFields().forEach(store ->
+                    fields.add(store.getFieldRef().resolveNullable()));
+            fields.remove(null);
+            for (JField field : fields) {
+                assertEquals(removeContexts(result.getInstanceFields()
+                                .stream()
+                                .filter(f -> csObjs.contains(f.getBase())
+                                        && f.getField().equals(field))
+                                .flatMap(Pointer::objects)),
+                        result.getPointsToSet(var, field), var + "." + field);
+            }
+            if (!var.getLoadArrays().isEmpty() || !var.getStoreArrays().isEmpty()) {
+                Var index = !var.getLoadArrays().isEmpty()
+                        ? var.getLoadArrays().get(0).getArrayAccess().getIndex()
+                        : var.getStoreArrays().get(0).getArrayAccess().getIndex();
+                assertEquals(removeContexts(result.getArrayIndexes()
+                                .stream()
+                                .filter(a -> csObjs.contains(a.getArray()))
+                                .flatMap(Pointer::objects)),
+                        result.getPointsToSet(var, index), var + "[*]");
+            }
+        }
+        result.getStaticFields().forEach(sf -> assertEquals(
+                removeContexts(sf.objects()),
+                result.getPointsToSet(sf.getField()), sf.toString()));
+    }
+
+    private static Set<Obj> removeContexts(Stream<CSObj> objects) {
+        return objects.map(CSObj::getObject).collect(Collectors.toSet());
+    }
+
+    @Test
+    void testMayFailCast() {
+        Main.main(new String[]{
+                "-pp",
+                "-cp", "src/test/resources/pta/misc",
+                "-m", "Casts",
+                "-a", "pta=implicit-entries:false;only-app:true",
+                "-a", MayFailCast.ID,
+        });
+        StmtResult<Boolean> result = World.get().getResult(MayFailCast.ID);
+        Map<String, Boolean> mayFail = Maps.newMap();
+        for (Stmt stmt : World.get().getMainMethod().getIR()) {
+            if (stmt instanceof Cast cast) {
+                mayFail.put(cast.getRValue().toString(), result.getResult(stmt));
+            }
+        }
+        assertEquals(Map.of(
+                "(A) a", false,
+                "(A) ab", false,
+                "(B) ab", true,
+                "(B) ab2", true,
+                "(C) a", true), mayFail);
+    }
+}
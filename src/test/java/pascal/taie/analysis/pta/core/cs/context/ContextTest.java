@@ -25,6 +25,9 @@ package pascal.taie.analysis.pta.core.cs.context;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ContextTest {
 
@@ -45,6 +48,38 @@ public class ContextTest {
         assertEquals(cde.getParent(), cd);
     }
 
+    @Test
+    void testIntContext() {
+        testContext(new IntContext.Factory<>());
+    }
+
+    @Test
+    void testIntContext2() {
+        IntContext.Factory<String> factory = new IntContext.Factory<>();
+        Context abc = factory.make("A", "B", "C");
+        assertSame(abc, factory.append(factory.make("A", "B"), "C", 3));
+        Context bcd = factory.append(abc, "D", 3);
+        assertEquals("[B, C, D]", bcd.toString());
+        assertSame(factory.make("C", "D"), IntContext.makeLastK((IntContext) bcd, 2));
+        assertSame(factory.make("D"), factory.append(factory.make("C"), "D", 1));
+        assertNotEquals(factory.make("A", "B"), factory.make("B", "A"));
+        assertNotEquals(factory.make("A"), factory.make("A", "A"));
+    }
+
+    @Test
+    void testIntContextOfOtherFactory() {
+        IntContext.Factory<String> factory1 = new IntContext.Factory<>();
+        IntContext.Factory<String> factory2 = new IntContext.Factory<>();
+        Context ab = factory1.make("A", "B");
+        assertThrows(IllegalArgumentException.class,
+                () -> factory2.append(ab, "C", 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> factory2.makeLastK(ab, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> factory2.append(new TrieContext.Factory<String>()
+                        .make("A"), "B", 2));
+    }
+
     private static void testContext(ContextFactory<String> factory) {
         Context a = factory.make("A");
         Context empty1 = factory.getEmptyContext();
@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BudgetedSelectorTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/contextsensitivity";
+
+    private static final String MAIN = "LinkedQueue";
+
+    private final TrieContext.Factory<String> factory = new TrieContext.Factory<>();
+
+    @Test
+    void testTruncation() {
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", MAIN);
+        JMethod m = World.get().getMainMethod();
+        JMethod n = m.getDeclaringClass().getDeclaredMethods()
+                .stream()
+                .filter(method -> method != m)
+                .findFirst()
+                .orElseThrow();
+        FixedSelector delegate = new FixedSelector();
+        BudgetedSelector selector = new BudgetedSelector(delegate, 2, 0);
+        assertEquals(factory.make("A", "B"), select(selector, delegate, m, "A", "B"));
+        assertEquals(factory.make("C", "D"), select(selector, delegate, m, "C", "D"));
+        // the third context exceeds the budget, and contexts of m
+        // are truncated to one element fewer from now on
+        assertEquals(factory.make("F"), select(selector, delegate, m, "E", "F"));
+        assertEquals(factory.make("B"), select(selector, delegate, m, "A", "B"));
+        // other methods are not affected
+        assertEquals(factory.make("A", "B"), select(selector, delegate, n, "A", "B"));
+        // m exceeds the budget again, and is analyzed context-insensitively
+        assertEquals(factory.make("H"), select(selector, delegate, m, "G", "H"));
+        assertSame(factory.getEmptyContext(), select(selector, delegate, m, "I", "J"));
+        assertSame(factory.getEmptyContext(), select(selector, delegate, m, "A", "B"));
+    }
+
+    @Test
+    void testNoBudget() {
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", MAIN);
+        JMethod m = World.get().getMainMethod();
+        FixedSelector delegate = new FixedSelector();
+        BudgetedSelector selector = new BudgetedSelector(delegate, 0, 0);
+        for (int i = 0; i < 10; ++i) {
+            Context context = factory.make("A" + i, "B" + i);
+            delegate.next = context;
+            assertSame(context, selector.selectContext(null, m));
+        }
+    }
+
+    private Context select(BudgetedSelector selector, FixedSelector delegate,
+                           JMethod callee, String... elems) {
+        delegate.next = factory.make(elems);
+        return selector.selectContext(null, callee);
+    }
+
+    @Test
+    void testSameAsPlainSelector() {
+        // budget which is never exceeded
+        assertEquals(runPTA(""), runPTA("cs-method-budget:1000000;"));
+    }
+
+    @Test
+    void testSoundWhenBudgetExceeded() {
+        Map<String, Set<String>> plain = runPTA("");
+        Map<String, Set<String>> budgeted = runPTA("cs-method-budget:1;");
+        assertEquals(plain.keySet(), budgeted.keySet());
+        plain.forEach((var, pts) -> assertTrue(budgeted.get(var).containsAll(pts),
+                () -> var + ": " + budgeted.get(var) + " should include " + pts));
+    }
+
+    /**
+     * Runs 2-object-sensitive pointer analysis with given extra options,
+     * and returns the context-insensitive points-to sets of the variables.
+     */
+    private static Map<String, Set<String>> runPTA(String options) {
+        Main.main(new String[]{
+                "-pp",
+                "-cp", CLASS_PATH,
+                "-m", MAIN,
+                "-a", "pta=cs:2-obj;" + options + "implicit-entries:false;only-app:true",
+        });
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Map<String, Set<String>> pointsTo = Maps.newMap();
+        result.getVars().forEach(var -> pointsTo.put(
+                var.getMethod() + "/" + var.getName(),
+                result.getPointsToSet(var)
+                        .stream()
+                        .map(Obj::toString)
+                        .collect(Collectors.toSet())));
+        return pointsTo;
+    }
+
+    /**
+     * Selector which selects the given context for any callee.
+     */
+    private class FixedSelector implements ContextSelector {
+
+        private Context next;
+
+        @Override
+        public Context getEmptyContext() {
+            return factory.getEmptyContext();
+        }
+
+        @Override
+        public Context selectContext(CSCallSite callSite, JMethod callee) {
+            return next;
+        }
+
+        @Override
+        public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+            return next;
+        }
+
+        @Override
+        public Context selectHeapContext(CSMethod method, Obj obj) {
+            return getEmptyContext();
+        }
+    }
+}
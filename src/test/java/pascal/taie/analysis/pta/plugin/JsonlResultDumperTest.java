@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonlResultDumperTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Dumps the result of 2-object-sensitive pointer analysis,
+     * and parses the dumped JSON Lines back.
+     */
+    @Test
+    void testDump() throws IOException {
+        Tests.testPTA(false, "contextsensitivity", "LinkedQueue",
+                "cs:2-obj", "dump-jsonl:true");
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        File dir = new File(World.get().getOptions().getOutputDir(),
+                JsonlResultDumper.RESULTS_DIR);
+
+        // contexts: ids are 0, 1, 2, ... in order
+        List<String> contexts = new ArrayList<>();
+        for (JsonNode node : read(new File(dir, "contexts.jsonl"))) {
+            assertEquals(contexts.size(), node.get("id").asInt());
+            contexts.add(node.get("ctx").asText());
+        }
+
+        // objects: ids are the indexes of CSObjs
+        Map<Integer, CSObj> csObjs = Maps.newMap();
+        result.getCSObjects().forEach(o -> csObjs.put(o.getIndex(), o));
+        List<JsonNode> objects = read(new File(dir, "objects.jsonl"));
+        assertEquals(csObjs.size(), objects.size());
+        for (JsonNode node : objects) {
+            CSObj csObj = csObjs.get(node.get("id").asInt());
+            assertNotNull(csObj);
+            assertEquals(csObj.getObject().toString(), node.get("obj").asText());
+            assertEquals(csObj.getContext().toString(),
+                    contexts.get(node.get("ctx").asInt()));
+        }
+
+        // pointers: each class is in exactly one shard, which is
+        // determined by the hash code of the class name
+        Map<String, Set<Integer>> varPts = Maps.newMap();
+        Map<String, Integer> classShards = Maps.newMap();
+        int nPointers = 0;
+        File[] shards = dir.listFiles((d, name) -> name.startsWith("shard-"));
+        assertNotNull(shards);
+        assertTrue(shards.length > 1);
+        for (File shard : shards) {
+            int shardId = Integer.parseInt(shard.getName()
+                    .substring("shard-".length(), "shard-".length() + 2));
+            for (JsonNode node : read(shard)) {
+                ++nPointers;
+                if (node.get("kind").asText().equals("var")) {
+                    String method = node.get("method").asText();
+                    String className = method.substring(1, method.indexOf(':'));
+                    assertEquals(Math.floorMod(className.hashCode(), 16), shardId);
+                    Integer prev = classShards.put(className, shardId);
+                    assertTrue(prev == null || prev == shardId);
+                    Set<Integer> pts = Sets.newSet();
+                    node.get("pts").forEach(id -> pts.add(id.asInt()));
+                    varPts.put(method + "/" + node.get("var").asText() + "/"
+                            + contexts.get(node.get("ctx").asInt()), pts);
+                }
+            }
+        }
+        assertEquals(result.getCSVars().size() + result.getStaticFields().size()
+                + result.getInstanceFields().size()
+                + result.getArrayIndexes().size(), nPointers);
+        assertEquals(result.getCSVars().size(), varPts.size());
+        for (CSVar csVar : result.getCSVars()) {
+            String key = csVar.getVar().getMethod().getSignature() + "/"
+                    + csVar.getVar().getName() + "/" + csVar.getContext();
+            Set<Integer> expected = csVar.objects()
+                    .map(CSObj::getIndex)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, varPts.get(key), key);
+        }
+    }
+
+    /**
+     * @return the records in a JSON Lines file, one record per line.
+     */
+    private static List<JsonNode> read(File file) throws IOException {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath())) {
+            nodes.add(mapper.readTree(line));
+        }
+        return nodes;
+    }
+}
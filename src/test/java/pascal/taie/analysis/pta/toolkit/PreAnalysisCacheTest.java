@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.toolkit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PreAnalysisCacheTest {
+
+    @TempDir
+    Path classDir;
+
+    /**
+     * Number of the runs of the (fake) advanced analysis.
+     */
+    private int runs;
+
+    private final List<File> cacheFiles = new ArrayList<>();
+
+    @BeforeEach
+    void buildWorld() {
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(
+                null, null, null, "-nowarn", "--release", "8",
+                "-d", classDir.toString(),
+                "src/test/resources/pta/PTAAssert.java",
+                "src/test/resources/pta/basic/MergeParam.java"));
+        Main.buildWorld("-pp", "-cp", classDir.toString(), "-m", "MergeParam");
+    }
+
+    @AfterEach
+    void deleteCacheFiles() {
+        cacheFiles.forEach(File::delete);
+    }
+
+    @Test
+    void testSaveAndLoad() {
+        Set<JMethod> methods = getMethods(Map.of("only-app", true));
+        assertEquals(1, runs);
+        assertEquals(methods, getMethods(Map.of("only-app", true)));
+        assertEquals(1, runs);
+        // irrelevant options do not change the key
+        assertEquals(methods, getMethods(Map.of("only-app", true, "cs", "2-obj")));
+        assertEquals(1, runs);
+    }
+
+    @Test
+    void testOptionsMismatch() {
+        getMethods(Map.of("only-app", true));
+        getMethods(Map.of("only-app", false));
+        assertEquals(2, runs);
+        assertNotEquals(cacheFiles.get(0), cacheFiles.get(1));
+    }
+
+    @Test
+    void testProgramMismatch() throws IOException {
+        getMethods(Map.of("only-app", true));
+        File oldFile = cacheFiles.get(0);
+        // modify the program
+        File classFile = classDir.resolve("MergeParam.class").toFile();
+        assertTrue(classFile.setLastModified(classFile.lastModified() + 10_000));
+        PreAnalysisCache cache = newCache(Map.of("only-app", true));
+        assertNotEquals(oldFile, cache.getCacheFile());
+        // even if the cache file names collide, the result of
+        // the old program is not loaded
+        Files.copy(oldFile.toPath(), cache.getCacheFile().toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        getMethods(cache);
+        assertEquals(2, runs);
+        // the result of the new program replaces the old one
+        getMethods(Map.of("only-app", true));
+        assertEquals(2, runs);
+    }
+
+    private PreAnalysisCache newCache(Map<String, Object> options) {
+        Map<String, Object> allOptions = Maps.newMap();
+        allOptions.putAll(options);
+        allOptions.put("cache-pre-analysis", true);
+        PreAnalysisCache cache = new PreAnalysisCache(
+                new AnalysisOptions(allOptions), () -> null);
+        cacheFiles.add(cache.getCacheFile());
+        return cache;
+    }
+
+    private Set<JMethod> getMethods(Map<String, Object> options) {
+        return getMethods(newCache(options));
+    }
+
+    private Set<JMethod> getMethods(PreAnalysisCache cache) {
+        return cache.getMethods(pta -> {
+            ++runs;
+            return Set.of(World.get().getMainMethod());
+        });
+    }
+}
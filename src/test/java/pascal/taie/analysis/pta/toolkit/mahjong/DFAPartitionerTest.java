@@ -0,0 +1,199 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.analysis.pta.core.heap.Descriptor;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.UnionFindSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class DFAPartitionerTest {
+
+    private static final Descriptor TEST_DESC = () -> "DFAPartitionerTestObj";
+
+    private static final List<Type> TYPES = List.of(
+            PrimitiveType.INT, PrimitiveType.LONG, PrimitiveType.FLOAT);
+
+    private final Field.Factory fieldFactory = new Field.Factory();
+
+    private int objCounter = 0;
+
+    @Test
+    void testSameStructure() {
+        // s1 -f-> t1, s2 -f-> t2, where t1 and t2 have the same output
+        DFAState t1 = newState(Set.of(PrimitiveType.INT));
+        DFAState t2 = newState(Set.of(PrimitiveType.INT));
+        DFAState s1 = newState(Set.of(PrimitiveType.LONG));
+        DFAState s2 = newState(Set.of(PrimitiveType.LONG));
+        Field f = newField("f");
+        s1.addTransition(f, t1);
+        s2.addTransition(f, t2);
+        DFAPartitioner partitioner = new DFAPartitioner(List.of(s1, s2));
+        assertEquals(partitioner.classOf(s1), partitioner.classOf(s2));
+        assertEquals(partitioner.classOf(t1), partitioner.classOf(t2));
+        assertNotEquals(partitioner.classOf(s1), partitioner.classOf(t1));
+    }
+
+    @Test
+    void testDifferentTargets() {
+        // s1 -f-> t1, s2 -f-> t2, where t1 and t2 have different outputs
+        DFAState t1 = newState(Set.of(PrimitiveType.INT));
+        DFAState t2 = newState(Set.of(PrimitiveType.FLOAT));
+        DFAState s1 = newState(Set.of(PrimitiveType.LONG));
+        DFAState s2 = newState(Set.of(PrimitiveType.LONG));
+        Field f = newField("f");
+        s1.addTransition(f, t1);
+        s2.addTransition(f, t2);
+        DFAPartitioner partitioner = new DFAPartitioner(List.of(s1, s2));
+        assertNotEquals(partitioner.classOf(s1), partitioner.classOf(s2));
+    }
+
+    @Test
+    void testTransitionToDeadState() {
+        // a transition to a state equivalent to the dead state
+        // (no output and no transitions) equals a missing transition
+        DFAState dead = newState(Set.of());
+        DFAState s1 = newState(Set.of(PrimitiveType.INT));
+        DFAState s2 = newState(Set.of(PrimitiveType.INT));
+        s1.addTransition(newField("f"), dead);
+        DFAPartitioner partitioner = new DFAPartitioner(List.of(s1, s2));
+        assertEquals(partitioner.classOf(s1), partitioner.classOf(s2));
+    }
+
+    @Test
+    void testCycles() {
+        // s1 -f-> s1 and s2 -f-> t2 -f-> s2 accept the same language
+        Field f = newField("f");
+        DFAState s1 = newState(Set.of(PrimitiveType.INT));
+        DFAState s2 = newState(Set.of(PrimitiveType.INT));
+        DFAState t2 = newState(Set.of(PrimitiveType.INT));
+        s1.addTransition(f, s1);
+        s2.addTransition(f, t2);
+        t2.addTransition(f, s2);
+        DFAPartitioner partitioner = new DFAPartitioner(List.of(s1, s2));
+        assertEquals(partitioner.classOf(s1), partitioner.classOf(s2));
+        assertEquals(partitioner.classOf(s1), partitioner.classOf(t2));
+    }
+
+    /**
+     * Checks the partition against pairwise Hopcroft-Karp equivalence
+     * checks (which Mahjong used before) on random DFAs.
+     */
+    @Test
+    void testRandomDFAs() {
+        Random random = new Random(0);
+        List<Field> fields = List.of(
+                newField("f"), newField("g"), fieldFactory.getArrayIndex());
+        for (int round = 0; round < 200; ++round) {
+            int n = 2 + random.nextInt(8);
+            List<DFAState> states = new ArrayList<>();
+            for (int i = 0; i < n; ++i) {
+                // few distinct outputs, so that many states are equivalent
+                Set<Type> output = random.nextInt(4) == 0 ? Set.of()
+                        : Set.of(TYPES.get(random.nextInt(2)));
+                states.add(newState(output));
+            }
+            for (DFAState s : states) {
+                for (Field f : fields) {
+                    if (random.nextBoolean()) {
+                        s.addTransition(f, states.get(random.nextInt(n)));
+                    }
+                }
+            }
+            DFAPartitioner partitioner = new DFAPartitioner(states);
+            for (DFAState s1 : states) {
+                for (DFAState s2 : states) {
+                    assertEquals(isEquivalent(new DFA(s1), new DFA(s2)),
+                            partitioner.classOf(s1) == partitioner.classOf(s2),
+                            "Partition mismatches for " + s1 + " and " + s2
+                                    + " in round " + round);
+                }
+            }
+        }
+    }
+
+    private DFAState newState(Set<Type> output) {
+        Obj obj = new MockObj(TEST_DESC, objCounter++,
+                PrimitiveType.INT, null, false);
+        return new DFAState(Set.of(obj), output);
+    }
+
+    private Field newField(String name) {
+        return fieldFactory.get(new JField(null, name, Set.of(),
+                PrimitiveType.INT, null, AnnotationHolder.emptyHolder()));
+    }
+
+    /**
+     * Checks the equivalence of given DFAs by Hopcroft-Karp algorithm.
+     */
+    private static boolean isEquivalent(DFA dfa1, DFA dfa2) {
+        Set<DFAState> states = Sets.newSet(dfa1.getAllStates());
+        states.addAll(dfa2.getAllStates());
+        UnionFindSet<DFAState> uf = new UnionFindSet<>(states);
+        Deque<Pair<DFAState, DFAState>> stack = new ArrayDeque<>();
+        DFAState s1 = dfa1.getStartState();
+        DFAState s2 = dfa2.getStartState();
+        uf.union(s1, s2);
+        stack.push(new Pair<>(s1, s2));
+        while (!stack.isEmpty()) {
+            Pair<DFAState, DFAState> pair = stack.pop();
+            DFAState q1 = pair.first();
+            DFAState q2 = pair.second();
+            Stream.concat(dfa1.outEdgesOf(q1).stream(),
+                            dfa1.outEdgesOf(q2).stream())
+                    .forEach(field -> {
+                        DFAState r1 = uf.findRoot(dfa1.nextState(q1, field));
+                        DFAState r2 = uf.findRoot(dfa1.nextState(q2, field));
+                        if (r1 != r2) {
+                            uf.union(r1, r2);
+                            stack.push(new Pair<>(r1, r2));
+                        }
+                    });
+        }
+        // the DFAs are equivalent iff every merged state set
+        // contains no different outputs
+        return uf.getDisjointSets().stream().allMatch(set -> set.stream()
+                .map(DFAState::getOutput)
+                .distinct()
+                .count() == 1);
+    }
+}
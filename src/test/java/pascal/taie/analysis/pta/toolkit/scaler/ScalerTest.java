@@ -0,0 +1,185 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.toolkit.scaler;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the selection of {@link Scaler} against a naive implementation,
+ * which computes the total weight of all methods for each candidate st.
+ */
+public class ScalerTest {
+
+    @Test
+    void testSelectContext() {
+        Tests.testPTA(false, "contextsensitivity", "LinkedQueue", "cs:ci");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        NaiveScaler naive = new NaiveScaler(pta);
+        long maxTotal = naive.getTotal(Long.MAX_VALUE);
+        assertTrue(maxTotal > 0);
+        // the candidate st are the weights of all methods and their neighbors
+        Set<Long> candidates = Sets.newOrderedSet();
+        for (long[] weights : naive.weights) {
+            for (long weight : weights) {
+                candidates.add(weight);
+                candidates.add(weight + 1);
+                candidates.add(Math.max(0, weight - 1));
+            }
+        }
+        Scaler scaler = new Scaler(pta, maxTotal);
+        scaler.selectContext();
+        candidates.forEach(st -> assertEquals(naive.getTotal(st),
+                scaler.getTotalAccumulativePTS(st), "total weight for st=" + st));
+        for (long tst : List.of(1L, maxTotal / 4, maxTotal / 2, maxTotal, maxTotal * 2)) {
+            long st = naive.binarySearch(tst);
+            assertEquals(naive.selectContext(st), new Scaler(pta, tst).selectContext(),
+                    "variants for tst=" + tst);
+        }
+    }
+
+    /**
+     * Naive implementation of the selection of {@link Scaler}.
+     */
+    private static class NaiveScaler {
+
+        private final List<JMethod> methods;
+
+        private final List<ContextComputer> ctxComputers;
+
+        /**
+         * Weights of each method, where the last one is of the bottom line.
+         */
+        private final long[][] weights;
+
+        private NaiveScaler(PointerAnalysisResult ptaBase) {
+            PointerAnalysisResultEx pta = new PointerAnalysisResultExImpl(ptaBase, true);
+            Graph<Obj> oag = OAGs.build(pta);
+            ctxComputers = List.of(
+                    new _2ObjContextComputer(pta, oag),
+                    new _2TypeContextComputer(pta, oag),
+                    new _1TypeContextComputer(pta),
+                    new _InsensitiveContextComputer(pta));
+            methods = ptaBase.getCallGraph()
+                    .reachableMethods()
+                    .filter(m -> !m.isStatic())
+                    .toList();
+            weights = new long[methods.size()][];
+            for (int i = 0; i < methods.size(); ++i) {
+                JMethod method = methods.get(i);
+                long ptsSize = method.getIR()
+                        .getVars()
+                        .stream()
+                        .filter(v -> v.getType() instanceof ReferenceType
+                                && !(v.getType() instanceof NullType))
+                        .mapToInt(v -> ptaBase.getPointsToSet(v).size())
+                        .sum();
+                weights[i] = ctxComputers.stream()
+                        .mapToLong(c -> c.contextNumberOf(method) * ptsSize)
+                        .toArray();
+            }
+        }
+
+        private static boolean isSpecial(JMethod method) {
+            return method.getDeclaringClass().getName().startsWith("java.util.");
+        }
+
+        /**
+         * @return index of the context computer selected for i-th method.
+         */
+        private int select(int i, long st) {
+            if (isSpecial(methods.get(i))) {
+                return 0;
+            }
+            int bottom = ctxComputers.size() - 1;
+            for (int c = 0; c < bottom; ++c) {
+                if (weights[i][c] <= st) {
+                    return c;
+                }
+            }
+            return bottom;
+        }
+
+        private long getTotal(long st) {
+            long total = 0;
+            for (int i = 0; i < methods.size(); ++i) {
+                if (!isSpecial(methods.get(i))) {
+                    total += weights[i][select(i, st)];
+                }
+            }
+            return total;
+        }
+
+        private long binarySearch(long tst) {
+            long end = 0;
+            for (long[] w : weights) {
+                end = Math.max(end, w[0]);
+            }
+            long start = 0, ret = 0;
+            while (start <= end) {
+                long mid = (start + end) / 2;
+                long total = getTotal(mid);
+                if (total < tst) {
+                    ret = mid;
+                    start = mid + 1;
+                } else if (total > tst) {
+                    end = mid - 1;
+                } else {
+                    ret = mid;
+                    break;
+                }
+            }
+            return ret;
+        }
+
+        private Map<JMethod, String> selectContext(long st) {
+            Map<JMethod, String> csMap = Maps.newMap();
+            for (int i = 0; i < methods.size(); ++i) {
+                csMap.put(methods.get(i),
+                        ctxComputers.get(select(i, st)).getVariantName());
+            }
+            return csMap;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class OptionsTest {
@@ -84,6 +85,13 @@ public class OptionsTest {
         assertFalse((Boolean) pta.getOptions().get("merge-string-objects"));
     }
 
+    @Test
+    void testLazyClassLoadingWithWorldCache() {
+        assertTrue(Options.parse("--lazy-class-loading").isLazyClassLoading());
+        assertThrows(ConfigException.class, () -> Options.parse(
+                "--lazy-class-loading", "--world-cache-mode"));
+    }
+
     @Test
     void testKeepResult() {
         Options options = Options.parse();
@@ -0,0 +1,350 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.assertion.AssertionChecker;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the worlds (and pointer analysis results) built by
+ * {@link AsmWorldBuilder} with the ones built by the default Soot frontend.
+ * As ASM frontend reads class files only, the test cases are compiled
+ * to class files first, and both frontends read the same class files.
+ * The names of temporary variables differ between the frontends, thus
+ * the IR is compared by the statements that do not depend on them.
+ */
+public class AsmFrontendTest {
+
+    private static final String WORLD_DIR = "src/test/resources/world/";
+
+    private static final String PTA_DIR = "src/test/resources/pta/";
+
+    @TempDir
+    Path classDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "AllInOne",
+            "Annotated",
+            "ConstVar",
+            "DefUse",
+            "DefaultMethod",
+            "Hierarchy",
+            "Switch",
+            "Types",
+    })
+    void testIR(String inputClass) {
+        compile(WORLD_DIR + inputClass + ".java");
+        String[] args = {"-pp", "-cp", classDir.toString(),
+                "--input-classes", inputClass};
+        Main.buildWorld(args);
+        String soot = dumpClasses();
+        Main.buildWorld(withAsm(args));
+        String asm = dumpClasses();
+        assertEquals(soot, asm);
+    }
+
+    /**
+     * Runs some pointer analysis tests on the world built by ASM frontend
+     * (the assertions in the tests are checked by {@link AssertionChecker}),
+     * and compares the results with the ones on the world built by Soot.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Cycle",
+            "MergeParam",
+            "LinkedQueue",
+            "RedBlackBST",
+    })
+    void testPTA(String mainClass) {
+        compile(PTA_DIR + "PTAAssert.java",
+                PTA_DIR + "basic/" + mainClass + ".java");
+        String[] args = {"-pp", "-cp", classDir.toString(), "-m", mainClass,
+                "-a", PointerAnalysis.ID + "=implicit-entries:false;" +
+                "only-app:true;distinguish-string-constants:all;" +
+                "plugins:[" + AssertionChecker.class.getName() + "]"};
+        Main.main(args);
+        String soot = dumpPTAResult();
+        Main.main(withAsm(args));
+        String asm = dumpPTAResult();
+        assertEquals(soot, asm);
+    }
+
+    /**
+     * Compares the world in lazy class loading mode with the eager one:
+     * the classes referenced only by unreachable methods are not loaded
+     * lazily, and the results of pointer analysis are the same.
+     */
+    @Test
+    void testLazyClassLoading() {
+        compile(WORLD_DIR + "LazyLoading.java");
+        String[] args = withAsm(new String[]{"-pp", "-cp", classDir.toString(),
+                "-m", "LazyLoading", "-a", PointerAnalysis.ID +
+                "=implicit-entries:false;only-app:true"});
+        Main.main(args);
+        Set<String> eagerClasses = getLoadedClasses();
+        String eager = dumpPTAResult();
+        Main.main(Stream.concat(Stream.of(args), Stream.of("--lazy-class-loading"))
+                .toArray(String[]::new));
+        Set<String> lazyClasses = getLoadedClasses();
+        String lazy = dumpPTAResult();
+        assertEquals(eager, lazy);
+        for (String name : List.of("Unreached",
+                "java.util.concurrent.ConcurrentSkipListMap")) {
+            assertTrue(eagerClasses.contains(name), name);
+            assertFalse(lazyClasses.contains(name), name);
+        }
+        assertTrue(lazyClasses.size() < eagerClasses.size());
+    }
+
+    private static Set<String> getLoadedClasses() {
+        return World.get().getClassHierarchy()
+                .allClasses()
+                .map(JClass::getName)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Tests the results of invocations that are discarded by POP/POP2.
+     * The class is generated by ASM, as javac does not pop a category-1
+     * value together with another value by POP2.
+     */
+    @Test
+    void testDiscardedResults() throws IOException {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES
+                | ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Pop", null,
+                "java/lang/Object", null);
+        addMethod(cw, "i", "()I", mv -> {
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitInsn(Opcodes.IRETURN);
+        });
+        addMethod(cw, "l", "()J", mv -> {
+            mv.visitInsn(Opcodes.LCONST_0);
+            mv.visitInsn(Opcodes.LRETURN);
+        });
+        // POP2 discards the result of i() and the argument below it
+        addMethod(cw, "popInt", "(I)I", mv -> {
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "Pop", "i", "()I", false);
+            mv.visitInsn(Opcodes.POP2);
+            mv.visitInsn(Opcodes.IRETURN);
+        });
+        // POP2 discards the result of l() only
+        addMethod(cw, "popLong", "(I)I", mv -> {
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "Pop", "l", "()J", false);
+            mv.visitInsn(Opcodes.POP2);
+            mv.visitInsn(Opcodes.IRETURN);
+        });
+        cw.visitEnd();
+        Files.write(classDir.resolve("Pop.class"), cw.toByteArray());
+        Main.buildWorld(withAsm(new String[]{"-pp", "-cp", classDir.toString(),
+                "--input-classes", "Pop"}));
+        JClass pop = World.get().getClassHierarchy().getClass("Pop");
+        for (String name : List.of("popInt", "popLong")) {
+            IR ir = pop.getDeclaredMethod(name).getIR();
+            Var ret = ir.getReturnVars().iterator().next();
+            assertTrue(ret.isConst(), () -> name + " should return 1");
+            assertEquals(IntLiteral.get(1), ret.getConstValue());
+        }
+    }
+
+    private static void addMethod(ClassWriter cw, String name,
+                                  String descriptor, Consumer<MethodVisitor> body) {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                name, descriptor, null, null);
+        mv.visitCode();
+        body.accept(mv);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void compile(String... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(List.of(
+                "-g", "-nowarn", "--release", "8",
+                "-d", classDir.toString()));
+        args.addAll(List.of(sources));
+        assertEquals(0, compiler.run(null, null, null,
+                args.toArray(new String[0])));
+    }
+
+    private static String[] withAsm(String[] args) {
+        return Stream.concat(Stream.of(args), Stream.of(
+                        "--world-builder", AsmWorldBuilder.class.getName()))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Dumps application classes in the current world.
+     */
+    private static String dumpClasses() {
+        StringBuilder builder = new StringBuilder();
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .sorted(Comparator.comparing(JClass::getName))
+                .forEach(c -> {
+                    builder.append(c.getName())
+                            .append(" extends ").append(c.getSuperClass())
+                            .append(" implements ").append(c.getInterfaces()
+                                    .stream()
+                                    .map(JClass::getName)
+                                    .sorted()
+                                    .toList())
+                            .append('\n');
+                    c.getDeclaredFields()
+                            .stream()
+                            .map(JField::getSignature)
+                            .sorted()
+                            .forEach(f -> builder.append("  ").append(f).append('\n'));
+                    c.getDeclaredMethods()
+                            .stream()
+                            .sorted(Comparator.comparing(JMethod::getSignature))
+                            .forEach(m -> dumpMethod(m, builder));
+                });
+        return builder.toString();
+    }
+
+    private static void dumpMethod(JMethod method, StringBuilder builder) {
+        builder.append("  ").append(method.getSignature()).append('\n');
+        if (method.isAbstract() || method.isNative()) {
+            return;
+        }
+        IR ir = method.getIR();
+        builder.append("    params: ").append(ir.getParams()
+                        .stream()
+                        .map(p -> p.getType().toString())
+                        .toList())
+                .append('\n');
+        ir.stmts()
+                .map(AsmFrontendTest::toString)
+                .filter(s -> s != null)
+                .sorted()
+                .forEach(s -> builder.append("    ").append(s).append('\n'));
+    }
+
+    /**
+     * @return string of the parts of {@code stmt} that are independent of
+     * the frontend, or {@code null} if all parts of {@code stmt} depend
+     * on the frontend, e.g., assignment of temporary variables.
+     */
+    private static String toString(Stmt stmt) {
+        String line = "@L" + stmt.getLineNumber() + " ";
+        if (stmt instanceof Invoke invoke) {
+            return line + invoke.getInvokeExp().getInvokeString() + " " +
+                    (invoke.isDynamic()
+                            ? invoke.getInvokeExp().getMethodRef().getName()
+                            : invoke.getMethodRef());
+        } else if (stmt instanceof New newStmt) {
+            return line + "new " + newStmt.getRValue().getType();
+        } else if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+            return line + stmt.getClass().getSimpleName() + " " +
+                    fieldStmt.getFieldRef();
+        } else if (stmt instanceof Cast cast) {
+            return line + "cast " + cast.getRValue().getCastType();
+        } else if (stmt instanceof InstanceOf instanceOf) {
+            return line + "instanceof " + instanceOf.getRValue().getCheckedType();
+        } else if (stmt instanceof Throw) {
+            return line + "throw";
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Dumps the call graph and the objects passed at each call site
+     * in the result of pointer analysis.
+     */
+    private static String dumpPTAResult() {
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        StringBuilder builder = new StringBuilder();
+        pta.getCallGraph()
+                .reachableMethods()
+                .map(JMethod::getSignature)
+                .sorted()
+                .forEach(m -> builder.append(m).append('\n'));
+        pta.getCallGraph()
+                .edges()
+                .map(e -> {
+                    Invoke invoke = e.getCallSite();
+                    return invoke.getContainer() + "@L" + invoke.getLineNumber() +
+                            " -> " + e.getCallee() + " " +
+                            invoke.getInvokeExp().getArgs()
+                                    .stream()
+                                    .map(arg -> pta.getPointsToSet(arg)
+                                            .stream()
+                                            .map(Obj::getType)
+                                            .map(Object::toString)
+                                            .sorted()
+                                            .toList())
+                                    .toList();
+                })
+                .sorted()
+                .forEach(e -> builder.append(e).append('\n'));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.JumpStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompactIRTest {
+
+    @Test
+    void testEncodeAndDecode() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne");
+        World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .forEach(c -> {
+                    for (JMethod m : c.getDeclaredMethods()) {
+                        if (!m.isAbstract()) {
+                            IR ir = m.getIR();
+                            IR decoded = CompactIR.encode(ir).decode();
+                            assertEquals(ir.getVars().toString(),
+                                    decoded.getVars().toString());
+                            assertEquals(ir.getParams().toString(),
+                                    decoded.getParams().toString());
+                            assertEquals(ir.getStmts().size(),
+                                    decoded.getStmts().size());
+                            for (Stmt s : decoded) {
+                                Stmt orig = ir.getStmt(s.getIndex());
+                                assertEquals(IRPrinter.toString(orig),
+                                        IRPrinter.toString(s));
+                                if (s instanceof JumpStmt jump) {
+                                    // targets should be the decoded Stmts
+                                    jump.getTargets().forEach(t -> assertSame(
+                                            t, decoded.getStmt(t.getIndex())));
+                                }
+                            }
+                            assertEquals(ir.getExceptionEntries().toString(),
+                                    decoded.getExceptionEntries().toString());
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.ir;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class IRArchiveTest {
+
+    @Test
+    void testWriteAndRead(@TempDir File dir) throws IOException {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne");
+        List<JClass> classes = World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .toList();
+        try (IRArchiveWriter writer = new IRArchiveWriter(dir, 2)) {
+            for (JClass c : classes) {
+                writer.write(c);
+            }
+        }
+        try (IRArchiveReader reader = new IRArchiveReader(dir)) {
+            for (JClass c : classes) {
+                for (JMethod m : c.getDeclaredMethods()) {
+                    if (!m.isAbstract() && !m.isNative()) {
+                        IR ir = m.getIR();
+                        IR read = reader.buildIR(m);
+                        assertNotNull(read, m.toString());
+                        assertEquals(ir.getVars().toString(),
+                                read.getVars().toString());
+                        assertEquals(ir.getParams().toString(),
+                                read.getParams().toString());
+                        assertEquals(ir.getStmts().size(),
+                                read.getStmts().size());
+                        for (Stmt s : read) {
+                            assertEquals(IRPrinter.toString(ir.getStmt(s.getIndex())),
+                                    IRPrinter.toString(s));
+                        }
+                        assertEquals(ir.getExceptionEntries().toString(),
+                                read.getExceptionEntries().toString());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.ir;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IRStoreTest {
+
+    private static final int THREADS = 8;
+
+    private static List<JMethod> getAppMethods() {
+        return World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract())
+                .toList();
+    }
+
+    /**
+     * Tests that concurrent requests build the IR of each method exactly
+     * once, and all requesting threads observe the same IR instance.
+     */
+    @Test
+    void testConcurrentGetIR() throws Exception {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne");
+        List<JMethod> methods = getAppMethods();
+        IRBuildStats.reset();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<IR>>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; ++i) {
+            tasks.add(() -> {
+                start.await();
+                return methods.stream().map(JMethod::getIR).toList();
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<IR>>> futures = new ArrayList<>();
+            tasks.forEach(task -> futures.add(executor.submit(task)));
+            start.countDown();
+            List<IR> expected = futures.get(0).get();
+            for (Future<List<IR>> future : futures) {
+                List<IR> irs = future.get();
+                for (int i = 0; i < methods.size(); ++i) {
+                    assertSame(expected.get(i), irs.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(methods.size(), IRBuildStats.getBuilds());
+        assertEquals(0, IRBuildStats.getRebuilds());
+    }
+
+    /**
+     * Tests that the IRs evicted from the store and garbage-collected
+     * are decoded to IRs identical to the original ones.
+     */
+    @Test
+    void testEvictAndDecode() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne", "--ir-budget", "1");
+        List<JMethod> methods = getAppMethods();
+        IRBuildStats.reset();
+        // only the text of the IRs is kept, so that the evicted IRs
+        // can be garbage-collected
+        Map<JMethod, String> texts = Maps.newLinkedHashMap();
+        methods.forEach(m -> texts.put(m, toString(m.getIR())));
+        assertTrue(IRBuildStats.getEvictions() > 0);
+        System.gc();
+        methods.forEach(m -> assertEquals(texts.get(m), toString(m.getIR()),
+                "IR of " + m + " changed after eviction"));
+        assertTrue(IRBuildStats.getDecodes() > 0);
+        assertEquals(0, IRBuildStats.getRebuilds());
+    }
+
+    /**
+     * Tests that the IRs of owned methods are never evicted.
+     */
+    @Test
+    void testOwnership() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne", "--ir-budget", "1");
+        IRStore store = World.get().getIRStore();
+        assertNotNull(store);
+        List<JMethod> methods = getAppMethods();
+        IRBuildStats.reset();
+        JMethod owned = methods.get(0);
+        store.own(owned);
+        IR ir = owned.getIR();
+        methods.forEach(JMethod::getIR);
+        methods.forEach(JMethod::getIR);
+        assertTrue(IRBuildStats.getEvictions() > 0);
+        assertSame(ir, owned.getIR());
+    }
+
+    private static String toString(IR ir) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(ir.getThis()).append(ir.getParams())
+                .append(ir.getVars()).append(ir.getReturnVars()).append('\n');
+        ir.forEach(s -> builder.append(IRPrinter.toString(s)).append('\n'));
+        builder.append(ir.getExceptionEntries());
+        return builder.toString();
+    }
+}
@@ -29,17 +29,27 @@ import pascal.taie.World;
 import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.proginfo.FieldResolutionFailedException;
 import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JClassLoader;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.ClassGSignature;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.SerializationUtils;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static pascal.taie.language.type.PrimitiveType.BOOLEAN;
@@ -51,7 +61,7 @@ public class HierarchyTest {
 
     @BeforeAll
     public static void buildWorld() {
-        Main.buildWorld("-cp", "src/test/resources/world", "--input-classes", "Hierarchy");
+        Main.buildWorld("-cp", "src/test/resources/world", "--input-classes", "Hierarchy,DefaultMethod");
     }
 
     // ---------- Test subclass checking Subclass() ----------
@@ -104,6 +114,49 @@ public class HierarchyTest {
         expectedNotSubclass(d, c);
     }
 
+    /**
+     * Test interfaces with default methods and their implementers.
+     */
+    @Test
+    void testSubclass5() {
+        String i = "DefaultMethod$I", ii = "DefaultMethod$II",
+                a = "DefaultMethod$A", b = "DefaultMethod$B",
+                c = "DefaultMethod$C";
+        expectedSubclass(i, ii);
+        expectedSubclass(i, c);
+        expectedSubclass(ii, c);
+        expectedSubclass(a, c);
+        expectedSubclass(b, c);
+        expectedNotSubclass(ii, i);
+        expectedNotSubclass(i, b);
+        expectedNotSubclass(c, b);
+        expectedNotSubclass(i, "C");
+        expectedNotSubclass("C", c);
+    }
+
+    /**
+     * Test classes that are not added to the class hierarchy
+     * (thus have no index), e.g., phantom classes.
+     */
+    @Test
+    void testSubclassUnindexed() {
+        JClass x = newUnindexedClass("X", getClass("D"),
+                getClass("DefaultMethod$I"));
+        JClass y = newUnindexedClass("Y", x);
+        assertEquals(-1, x.getIndex());
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        for (int i = 0; i < 2; ++i) { // the second round hits the cache
+            assertTrue(hierarchy.isSubclass(getClass("C"), x));
+            assertTrue(hierarchy.isSubclass(getClass("D"), y));
+            assertTrue(hierarchy.isSubclass(getClass("DefaultMethod$I"), y));
+            assertTrue(hierarchy.isSubclass(x, y));
+            assertFalse(hierarchy.isSubclass(y, x));
+            assertFalse(hierarchy.isSubclass(getClass("E"), x));
+            assertFalse(hierarchy.isSubclass(getClass("DefaultMethod$II"), x));
+            assertFalse(hierarchy.isSubclass(x, getClass("D")));
+        }
+    }
+
     private static void expectedSubclass(String sup, String sub) {
         JClass superclass = getClass(sup);
         JClass subclass = getClass(sub);
@@ -269,6 +322,195 @@ public class HierarchyTest {
                 declaringClass, parameterTypes);
     }
 
+    // ---------- Test method dispatch dispatch()  ----------
+
+    /**
+     * Dispatch to methods declared in classes.
+     */
+    @Test
+    void testDispatch1() {
+        testDispatch("D", "C", "bar", "C");
+        testDispatch("G", "C", "baz", "C", BOOLEAN);
+        testDispatch("D", "java.lang.Object", "hashCode", INT,
+                "java.lang.Object");
+    }
+
+    /**
+     * Dispatch to default methods.
+     */
+    @Test
+    void testDispatch2() {
+        // default method overridden by subinterface
+        testDispatch("DefaultMethod$C", "DefaultMethod$I", "bar",
+                "DefaultMethod$II");
+        testDispatch("DefaultMethod$C", "DefaultMethod$II", "bar",
+                "DefaultMethod$II");
+        // method inherited from superclass overrides default method
+        testDispatch("DefaultMethod$C", "DefaultMethod$II", "foo",
+                "DefaultMethod$A");
+        testDispatch("DefaultMethod$C", "DefaultMethod$A", "foo",
+                "DefaultMethod$A");
+    }
+
+    /**
+     * Dispatch on receiver classes that are not subclasses
+     * of the declaring class of the method reference.
+     */
+    @Test
+    void testDispatch3() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        assertNull(hierarchy.dispatch(getClass("DefaultMethod$B"),
+                getMethodRef("DefaultMethod$I", "bar", VOID)));
+        assertNull(hierarchy.dispatch(getClass("DefaultMethod$C"),
+                getMethodRef("C", "bar", VOID)));
+    }
+
+    /**
+     * Dispatch on classes that are not added to the class hierarchy.
+     */
+    @Test
+    void testDispatchUnindexed() {
+        JClass x = newUnindexedClass("X", getClass("DefaultMethod$B"),
+                getClass("DefaultMethod$II"));
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        for (int i = 0; i < 2; ++i) { // the second round hits the cache
+            assertEquals(getClass("DefaultMethod$A"), hierarchy.dispatch(x,
+                    getMethodRef("DefaultMethod$II", "foo", VOID))
+                    .getDeclaringClass());
+            assertEquals(getClass("DefaultMethod$II"), hierarchy.dispatch(x,
+                    getMethodRef("DefaultMethod$I", "bar", VOID))
+                    .getDeclaringClass());
+            assertNull(hierarchy.dispatch(x,
+                    getMethodRef("C", "bar", VOID)));
+        }
+    }
+
+    /**
+     * Dispatch on the world restored from the world cache, where the
+     * subsignatures are assigned new indexes.
+     */
+    @Test
+    void testDispatchAfterDeserialization() {
+        // build the dispatch tables before serialization
+        testDispatch1();
+        testDispatch2();
+        World world = World.get();
+        byte[] bytes = SerializationUtils.serialize(world);
+        // clear canonical subsignatures, as in a new run
+        World.reset();
+        World restored = SerializationUtils.deserialize(bytes);
+        World.set(restored);
+        restored.setOptions(world.getOptions());
+        testDispatch1();
+        testDispatch2();
+        testDispatch3();
+    }
+
+    /**
+     * Test dispatch() with specified receiver class and method reference.
+     * The declaring class of the dispatched method should be the same
+     * as the given expected class.
+     */
+    private static void testDispatch(
+            String receiverClass, String refClass, String refName,
+            Type returnType, String declaringClass, Type... parameterTypes) {
+        JMethod method = World.get().getClassHierarchy().dispatch(
+                getClass(receiverClass),
+                getMethodRef(refClass, refName, returnType, parameterTypes));
+        assertEquals(getClass(declaringClass), method.getDeclaringClass());
+    }
+
+    private static void testDispatch(
+            String receiverClass, String refClass, String refName,
+            String declaringClass, Type... parameterTypes) {
+        testDispatch(receiverClass, refClass, refName, VOID,
+                declaringClass, parameterTypes);
+    }
+
+    private static MethodRef getMethodRef(
+            String refClass, String refName, Type returnType,
+            Type... parameterTypes) {
+        return MethodRef.get(getClass(refClass), refName,
+                Arrays.asList(parameterTypes), returnType, false);
+    }
+
+    /**
+     * Creates a phantom class which is not added to the class hierarchy,
+     * thus it has no index.
+     */
+    private static JClass newUnindexedClass(
+            String name, JClass superClass, JClass... interfaces) {
+        JClassLoader loader = superClass.getClassLoader();
+        JClass jclass = new JClass(loader, name);
+        jclass.build(new JClassBuilder() {
+
+            @Override
+            public void build(JClass jclass) {
+            }
+
+            @Override
+            public Set<Modifier> getModifiers() {
+                return Set.of(Modifier.PUBLIC);
+            }
+
+            @Override
+            public String getSimpleName() {
+                return name;
+            }
+
+            @Override
+            public ClassType getClassType() {
+                return new ClassType(loader, name);
+            }
+
+            @Override
+            public JClass getSuperClass() {
+                return superClass;
+            }
+
+            @Override
+            public Collection<JClass> getInterfaces() {
+                return List.of(interfaces);
+            }
+
+            @Override
+            public JClass getOuterClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JField> getDeclaredFields() {
+                return List.of();
+            }
+
+            @Override
+            public Collection<JMethod> getDeclaredMethods() {
+                return List.of();
+            }
+
+            @Override
+            public AnnotationHolder getAnnotationHolder() {
+                return AnnotationHolder.emptyHolder();
+            }
+
+            @Override
+            public boolean isApplication() {
+                return false;
+            }
+
+            @Override
+            public boolean isPhantom() {
+                return true;
+            }
+
+            @Override
+            public ClassGSignature getGSignature() {
+                return null;
+            }
+        });
+        return jclass;
+    }
+
     // ---------- Test subclasses getAllSubclasses()  ----------
 
     /**
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.CompactIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.util.Indexer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GlobalIndexerTest {
+
+    private static final String CLASS = "GlobalIndexes";
+
+    @BeforeEach
+    void buildWorld() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", CLASS);
+    }
+
+    private static GlobalIndexer getIndexer() {
+        return World.get().getGlobalIndexer();
+    }
+
+    private static JMethod getMethod(String name) {
+        return World.get().getClassHierarchy()
+                .getClass(CLASS).getDeclaredMethod(name);
+    }
+
+    /**
+     * Tests reverse lookup of the elements of IRs when some IRs have
+     * empty Var ranges, which start at the same index as the next range.
+     */
+    @Test
+    void testEmptyRanges() {
+        Indexer<Var> varIndexer = getIndexer().getVarIndexer();
+        Indexer<Stmt> stmtIndexer = getIndexer().getStmtIndexer();
+        List<JMethod> methods = List.of(getMethod("empty1"), getMethod("empty2"),
+                getMethod("id"), getMethod("empty3"), getMethod("foo"));
+        // reserve the ranges in the order of the methods
+        methods.forEach(m -> stmtIndexer.getIndex(m.getIR().getStmt(0)));
+        assertEquals(0, getMethod("empty1").getIR().getVars().size());
+        for (JMethod m : methods) {
+            IR ir = m.getIR();
+            for (Var v : ir.getVars()) {
+                assertSame(v, varIndexer.getObject(varIndexer.getIndex(v)));
+            }
+            for (Stmt s : ir) {
+                assertSame(s, stmtIndexer.getObject(stmtIndexer.getIndex(s)));
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> varIndexer.getObject(getIndexer().getVarCount()));
+        assertThrows(IllegalArgumentException.class,
+                () -> stmtIndexer.getObject(-1));
+    }
+
+    /**
+     * Tests the Vars and Stmts that are not in any IR.
+     */
+    @Test
+    void testDetachedElements() {
+        Indexer<Var> varIndexer = getIndexer().getVarIndexer();
+        Indexer<Stmt> stmtIndexer = getIndexer().getStmtIndexer();
+        JMethod id = getMethod("id");
+        JMethod foo = getMethod("foo");
+        Var x = id.getIR().getParam(0);
+        int xIndex = varIndexer.getIndex(x);
+        // Vars and Stmts with index -1
+        Var temp = new Var(id, "%temp", PrimitiveType.INT, -1);
+        Stmt nop = new Nop();
+        int tempIndex = varIndexer.getIndex(temp);
+        int nopIndex = stmtIndexer.getIndex(nop);
+        assertNotEquals(xIndex, tempIndex);
+        assertEquals(tempIndex, varIndexer.getIndex(temp));
+        assertEquals(nopIndex, stmtIndexer.getIndex(nop));
+        // reserve a range after the detached indexes
+        Var o = foo.getIR().getParam(0);
+        int oIndex = varIndexer.getIndex(o);
+        Stmt first = foo.getIR().getStmt(0);
+        int firstIndex = stmtIndexer.getIndex(first);
+        assertSame(x, varIndexer.getObject(xIndex));
+        assertSame(temp, varIndexer.getObject(tempIndex));
+        assertSame(o, varIndexer.getObject(oIndex));
+        assertSame(nop, stmtIndexer.getObject(nopIndex));
+        assertSame(first, stmtIndexer.getObject(firstIndex));
+    }
+
+    /**
+     * Tests that the indexes of Vars and Stmts are stable after the IR
+     * is evicted and decoded.
+     */
+    @Test
+    void testEvictAndDecode() {
+        Indexer<Var> varIndexer = getIndexer().getVarIndexer();
+        Indexer<Stmt> stmtIndexer = getIndexer().getStmtIndexer();
+        JMethod foo = getMethod("foo");
+        IR ir = foo.getIR();
+        int[] varIndexes = ir.getVars().stream()
+                .mapToInt(varIndexer::getIndex).toArray();
+        int[] stmtIndexes = ir.stmts()
+                .mapToInt(stmtIndexer::getIndex).toArray();
+        IR decoded = CompactIR.encode(ir).decode();
+        decoded.getVars().forEach(v -> assertEquals(
+                varIndexes[v.getIndex()], varIndexer.getIndex(v)));
+        decoded.forEach(s -> assertEquals(
+                stmtIndexes[s.getIndex()], stmtIndexer.getIndex(s)));
+        foo.evictIR();
+        for (Var v : ir.getVars()) {
+            assertEquals(v.toString(), varIndexer.getObject(
+                    varIndexes[v.getIndex()]).toString());
+        }
+        for (Stmt s : ir) {
+            assertEquals(s.toString(), stmtIndexer.getObject(
+                    stmtIndexes[s.getIndex()]).toString());
+        }
+    }
+}
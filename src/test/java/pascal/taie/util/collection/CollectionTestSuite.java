@@ -34,6 +34,7 @@ import org.junit.platform.suite.api.Suite;
         HybridHashSetTest.class,
         IndexMapTest.class,
         MultiMapTest.class,
+        OffHeapBitSetTest.class,
         RegularBitSetTest.class,
         SetQueueTest.class,
         SparseBitSetTest.class,
@@ -25,14 +25,19 @@ package pascal.taie.util.collection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import pascal.taie.util.SerializationUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -46,6 +51,47 @@ public abstract class IBitSetTest {
 
     protected abstract IBitSet of(int... indexes);
 
+    /**
+     * Implementations of the second operand of binary operations,
+     * so that each implementation is tested with all the others.
+     */
+    enum Operand {
+        REGULAR {
+            @Override
+            IBitSet newSet() {
+                return new RegularBitSet();
+            }
+        },
+        SPARSE {
+            @Override
+            IBitSet newSet() {
+                return new SparseBitSet();
+            }
+        },
+        OFF_HEAP {
+            @Override
+            IBitSet newSet() {
+                return new OffHeapBitSet(arena);
+            }
+        };
+
+        private static final OffHeapArena arena = OffHeapArena.newDirectArena();
+
+        abstract IBitSet newSet();
+
+        IBitSet of(int... indexes) {
+            IBitSet result = newSet();
+            for (int i : indexes) {
+                result.set(i);
+            }
+            return result;
+        }
+    }
+
+    static Stream<Operand> operands() {
+        return Arrays.stream(Operand.values());
+    }
+
     // ------------------------------------------------------------------------
     // test set operations
     // ------------------------------------------------------------------------
@@ -70,12 +116,13 @@ public abstract class IBitSetTest {
         assertEquals(0, s.cardinality());
     }
 
-    @Test
-    void testIntersects() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testIntersects(Operand other) {
         IBitSet s1 = of();
-        IBitSet s2 = of();
+        IBitSet s2 = other.of();
         assertFalse(s1.intersects(s2));
-        s2 = of(1, 233, 666);
+        s2 = other.of(1, 233, 666);
         assertFalse(s1.intersects(s2));
         assertFalse(s2.intersects(s1));
         s1 = of(666, 777, 888);
@@ -85,21 +132,36 @@ public abstract class IBitSetTest {
         assertFalse(s1.intersects(s2));
     }
 
-    @Test
-    void testContains() {
-        assertTrue(of().contains(of()));
-        assertTrue(of(1, 2, 3).contains(of()));
-        assertTrue(of(1, 2, 3).contains(of(1)));
-        assertTrue(of(1, 2, 3).contains(of(1, 2, 3)));
-        assertFalse(of(1).contains(of(1, 2, 3)));
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testAndCardinality(Operand other) {
+        assertEquals(0, of().andCardinality(other.of()));
+        assertEquals(0, of(1, 2, 3).andCardinality(other.of()));
+        assertEquals(0, of().andCardinality(other.of(1, 2, 3)));
+        assertEquals(2, of(1, 2, 3).andCardinality(other.of(2, 3, 4)));
+        assertEquals(3, of(1, 64, 11111, 333333)
+                .andCardinality(other.of(64, 65, 11111, 333333)));
+        IBitSet s = of(1, 555, 66666);
+        assertEquals(0, s.andCardinality(other.of(2, 556, 66667, 200000)));
+        assertEquals(3, s.cardinality());
+    }
+
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testContains(Operand other) {
+        assertTrue(of().contains(other.of()));
+        assertTrue(of(1, 2, 3).contains(other.of()));
+        assertTrue(of(1, 2, 3).contains(other.of(1)));
+        assertTrue(of(1, 2, 3).contains(other.of(1, 2, 3)));
+        assertFalse(of(1).contains(other.of(1, 2, 3)));
 
         IBitSet s = of(1, 2, 3);
         int cardinality = s.cardinality();
-        assertFalse(s.contains(of(11111)));
+        assertFalse(s.contains(other.of(11111)));
         assertEquals(cardinality, s.cardinality());
         s = of(1, 2, 3, 11111);
         cardinality = s.cardinality();
-        assertTrue(s.contains(of(11111)));
+        assertTrue(s.contains(other.of(11111)));
         assertEquals(cardinality, s.cardinality());
     }
 
@@ -119,48 +181,51 @@ public abstract class IBitSetTest {
         assertTrue(s1.contains(s2));
     }
 
-    @Test
-    void testAnd() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testAnd(Operand other) {
         IBitSet s = of(1, 2, 3);
-        assertFalse(s.and(of(1, 2, 3)));
-        assertTrue(s.and(of(1)));
+        assertFalse(s.and(other.of(1, 2, 3)));
+        assertTrue(s.and(other.of(1)));
         assertEquals(1, s.cardinality());
-        assertFalse(s.and(of(1, 11111, 22222, 333333)));
-        assertTrue(s.and(of(11111, 22222)));
+        assertFalse(s.and(other.of(1, 11111, 22222, 333333)));
+        assertTrue(s.and(other.of(11111, 22222)));
         assertTrue(s.isEmpty());
         System.out.println(s);
     }
 
-    @Test
-    void testAndNot() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testAndNot(Operand other) {
         IBitSet s = of(1, 2, 3, 6666);
-        assertFalse(s.andNot(of()));
-        assertTrue(s.andNot(of(1, 2, 3, 6666)));
+        assertFalse(s.andNot(other.of()));
+        assertTrue(s.andNot(other.of(1, 2, 3, 6666)));
         assertTrue(s.isEmpty());
         s = of(1, 2, 3, 6666);
-        assertTrue(s.andNot(of(6666)));
+        assertTrue(s.andNot(other.of(6666)));
         assertFalse(s.isEmpty());
 
         s = of();
-        assertTrue(s.or(of(1, 1, 1)));
-        assertFalse(s.andNot(of(2)));
+        assertTrue(s.or(other.of(1, 1, 1)));
+        assertFalse(s.andNot(other.of(2)));
         assertEquals(1, s.cardinality());
-        assertTrue(s.or(of(1, 333, 5555, 777, 99999)));
-        assertFalse(s.andNot(of(222, 444, 666, 888, 10000)));
+        assertTrue(s.or(other.of(1, 333, 5555, 777, 99999)));
+        assertFalse(s.andNot(other.of(222, 444, 666, 888, 10000)));
         assertEquals(5, s.cardinality());
-        assertTrue(s.andNot(of(333, 777, 99999)));
+        assertTrue(s.andNot(other.of(333, 777, 99999)));
         assertEquals(2, s.cardinality());
         System.out.println(s);
     }
 
-    @Test
-    void testOr() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testOr(Operand other) {
         IBitSet s = of(1, 2, 3);
-        assertFalse(s.or(of(1, 2, 3)));
-        assertFalse(s.or(of(1)));
+        assertFalse(s.or(other.of(1, 2, 3)));
+        assertFalse(s.or(other.of(1)));
         assertEquals(3, s.cardinality());
-        assertTrue(s.or(of(1, 11111, 22222, 333333)));
-        assertFalse(s.or(of(11111, 22222, 333333)));
+        assertTrue(s.or(other.of(1, 11111, 22222, 333333)));
+        assertFalse(s.or(other.of(11111, 22222, 333333)));
         assertEquals(6, s.cardinality());
         System.out.println(s);
     }
@@ -188,10 +253,11 @@ public abstract class IBitSetTest {
                 of().getClass(), bits / 8 / 1024, values);
     }
 
-    @Test
-    void testClearOr() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testClearOr(Operand other) {
         IBitSet s = of(1, 555, 66666);
-        IBitSet s2 = of(1, 555, 66666);
+        IBitSet s2 = other.of(1, 555, 66666);
         s2.clear(66666);
         assertFalse(s.or(s2));
         assertEquals(3, s.cardinality());
@@ -203,48 +269,103 @@ public abstract class IBitSetTest {
         assertTrue(s.isEmpty());
     }
 
-    @Test
-    void testOrDiff() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testOrDiff(Operand other) {
         IBitSet s = of();
-        IBitSet diff = s.orDiff(of(1, 333, 66666));
+        IBitSet diff = s.orDiff(other.of(1, 333, 66666));
         assertEquals(of(1, 333, 66666), diff);
-        diff = s.orDiff(of(5555, 333, 777));
+        diff = s.orDiff(other.of(5555, 333, 777));
         assertEquals(of(5555, 777), diff);
         diff = s.orDiff(s);
         assertTrue(diff.isEmpty());
-        diff = s.orDiff(of());
+        diff = s.orDiff(other.of());
         assertTrue(diff.isEmpty());
-        diff = s.orDiff(of(200000, 300000, 300001));
+        diff = s.orDiff(other.of(200000, 300000, 300001));
         assertEquals(of(200000, 300000, 300001), diff);
     }
 
-    @Test
-    void testXor() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testXor(Operand other) {
         IBitSet s = of(1, 2, 300);
         assertTrue(s.xor(s));
         assertTrue(s.isEmpty());
         s = of(1, 444, 7777);
-        assertTrue(s.xor(of(1, 444, 7777)));
+        assertTrue(s.xor(other.of(1, 444, 7777)));
         assertTrue(s.isEmpty());
         s = of(22, 333, 4444, 55555);
-        assertTrue(s.xor(of(333, 2222, 55555, 66666)));
+        assertTrue(s.xor(other.of(333, 2222, 55555, 66666)));
         assertEquals(4, s.cardinality());
         System.out.println(s);
     }
 
-    @Test
-    void testSetTo() {
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testSetTo(Operand other) {
         IBitSet s = of(1, 2, 300);
-        s.setTo(of());
+        s.setTo(other.of());
         assertTrue(s.isEmpty());
-        s.setTo(of(111, 222, 333));
+        s.setTo(other.of(111, 222, 333));
         assertEquals(s, of(111, 222, 333));
-        s.setTo(of(1));
+        s.setTo(other.of(1));
         assertEquals(s, of(1));
-        s.setTo(of(11111));
+        s.setTo(other.of(11111));
         assertEquals(s, of(11111));
     }
 
+    @ParameterizedTest
+    @MethodSource("operands")
+    void testRandomOperations(Operand other) {
+        Random random = new Random(0);
+        for (int i = 0; i < 200; ++i) {
+            // vary the bounds so that either operand may be the longer one
+            BitSet bits1 = randomBits(random, 1 + random.nextInt(100000));
+            BitSet bits2 = randomBits(random, 1 + random.nextInt(100000));
+            int[] indexes1 = bits1.stream().toArray();
+            int[] indexes2 = bits2.stream().toArray();
+            BitSet expected = (BitSet) bits1.clone();
+            expected.and(bits2);
+            assertEquals(expected.cardinality(),
+                    of(indexes1).andCardinality(other.of(indexes2)));
+            IBitSet s = of(indexes1);
+            assertEquals(!expected.equals(bits1), s.and(other.of(indexes2)));
+            assertEquals(expected, toBitSet(s));
+
+            expected = (BitSet) bits1.clone();
+            expected.andNot(bits2);
+            s = of(indexes1);
+            assertEquals(!expected.equals(bits1), s.andNot(other.of(indexes2)));
+            assertEquals(expected, toBitSet(s));
+
+            BitSet expectedDiff = (BitSet) bits2.clone();
+            expectedDiff.andNot(bits1);
+            expected = (BitSet) bits1.clone();
+            expected.or(bits2);
+            s = of(indexes1);
+            IBitSet diff = s.orDiff(other.of(indexes2));
+            assertEquals(expectedDiff, toBitSet(diff));
+            assertEquals(expected, toBitSet(s));
+        }
+    }
+
+    private static BitSet randomBits(Random random, int bound) {
+        BitSet bits = new BitSet();
+        int count = random.nextInt(200);
+        for (int i = 0; i < count; ++i) {
+            bits.set(random.nextInt(bound));
+        }
+        return bits;
+    }
+
+    private static BitSet toBitSet(IBitSet set) {
+        BitSet bits = new BitSet();
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
     @Test
     void testCopy() {
         IBitSet s = of(1, 3333, 66666);
@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapBitSetTest extends IBitSetTest {
+
+    private static final OffHeapArena arena = OffHeapArena.newDirectArena();
+
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected IBitSet of(int... indexes) {
+        IBitSet result = new OffHeapBitSet(arena);
+        for (int i : indexes) {
+            result.set(i);
+        }
+        return result;
+    }
+
+    @Test
+    void testRelease() {
+        OffHeapArena arena = OffHeapArena.newDirectArena();
+        OffHeapBitSet s = new OffHeapBitSet(arena);
+        s.set(100);
+        s.set(1000);
+        assertTrue(arena.getUsedBytes() > 0);
+        s.release();
+        assertEquals(0, arena.getUsedBytes());
+        assertTrue(s.isEmpty());
+        // released set is still usable
+        s.set(5);
+        assertTrue(s.get(5));
+        assertEquals(1, s.cardinality());
+        assertTrue(arena.getUsedBytes() > 0);
+        arena.close();
+    }
+
+    @Test
+    void testClose() throws IOException {
+        OffHeapArena arena = OffHeapArena.newMappedArena(tempDir);
+        OffHeapBitSet s = new OffHeapBitSet(arena);
+        s.set(1);
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+        arena.close();
+        try (var files = Files.list(tempDir)) {
+            assertFalse(files.findAny().isPresent());
+        }
+        // the arena cannot allocate after being closed
+        assertThrows(IllegalStateException.class,
+                () -> new OffHeapBitSet(arena).set(1));
+        // releasing blocks to a closed arena is harmless
+        s.release();
+    }
+}
@@ -0,0 +1,29 @@
+public class ZeroEdges {
+
+    static NoImpl i;
+
+    public static void main(String[] args) {
+        // NoImpl has no implementations, so these call sites have no edges
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        i.m();
+        foo();
+    }
+
+    static void foo() {
+    }
+
+    static void unreachable() {
+        foo();
+    }
+}
+
+interface NoImpl {
+    void m();
+}
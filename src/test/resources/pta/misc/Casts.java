@@ -0,0 +1,26 @@
+class Casts {
+
+    public static void main(String[] args) {
+        Object a = new A();
+        Object ab = args.length > 0 ? new A() : new B();
+        Object ab2 = id(ab);
+        A safe = (A) a;
+        A safe2 = (A) ab;
+        B fail = (B) ab;
+        B fail2 = (B) ab2;
+        C fail3 = (C) a;
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+}
+
+class A {
+}
+
+class B extends A {
+}
+
+class C {
+}
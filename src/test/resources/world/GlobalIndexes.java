@@ -0,0 +1,20 @@
+public class GlobalIndexes {
+
+    static void empty1() {
+    }
+
+    static void empty2() {
+    }
+
+    int id(int x) {
+        return x;
+    }
+
+    static void empty3() {
+    }
+
+    Object foo(Object o) {
+        Object p = o;
+        return p;
+    }
+}
@@ -0,0 +1,24 @@
+public class LazyLoading {
+
+    public static void main(String[] args) {
+        Reached r = new Reached();
+        r.foo(new Object());
+    }
+
+    static void unreachable() {
+        new Unreached().bar(new java.util.concurrent.ConcurrentSkipListMap<>());
+    }
+}
+
+class Reached {
+
+    Object foo(Object o) {
+        return o;
+    }
+}
+
+class Unreached {
+
+    void bar(Object o) {
+    }
+}